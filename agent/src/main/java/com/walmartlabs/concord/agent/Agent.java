@@ -98,6 +98,7 @@ public class Agent {
     public void stop() {
         queueClient.stop();
         executor.shutdownNow();
+        workerFactory.stop();
     }
 
     private void run() throws Exception {
@@ -22,23 +22,17 @@ package com.walmartlabs.concord.agent;
 
 import com.walmartlabs.concord.client.ClientUtils;
 import com.walmartlabs.concord.client.ProcessApi;
-import com.walmartlabs.concord.common.IOUtils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.File;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 
 @Named
 @Singleton
 public class DefaultStateFetcher implements StateFetcher {
 
-    private static final Logger log = LoggerFactory.getLogger(DefaultStateFetcher.class);
-
     private final ProcessApi processApi;
 
     @Inject
@@ -47,27 +41,8 @@ public class DefaultStateFetcher implements StateFetcher {
     }
 
     @Override
-    public void downloadState(JobRequest job) throws Exception {
-        File payload = null;
-        try {
-            payload = ClientUtils.withRetry(AgentConstants.API_CALL_MAX_RETRIES, AgentConstants.API_CALL_RETRY_DELAY, () -> processApi.downloadState(job.getInstanceId()));
-            IOUtils.unzip(payload.toPath(), job.getPayloadDir(), StandardCopyOption.REPLACE_EXISTING);
-        } finally {
-            if (payload != null) {
-                delete(payload.toPath());
-            }
-        }
-    }
-
-    private static void delete(Path dir) {
-        if (dir == null) {
-            return;
-        }
-
-        try {
-            IOUtils.deleteRecursively(dir);
-        } catch (Exception e) {
-            log.warn("delete ['{}'] -> error", dir, e);
-        }
+    public Path downloadState(JobRequest job) throws Exception {
+        File payload = ClientUtils.withRetry(AgentConstants.API_CALL_MAX_RETRIES, AgentConstants.API_CALL_RETRY_DELAY, () -> processApi.downloadState(job.getInstanceId()));
+        return payload.toPath();
     }
 }
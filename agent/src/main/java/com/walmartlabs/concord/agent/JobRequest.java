@@ -27,7 +27,10 @@ import com.walmartlabs.concord.imports.Imports;
 import com.walmartlabs.concord.server.queueclient.message.ProcessResponse;
 
 import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class JobRequest {
 
@@ -55,6 +58,7 @@ public class JobRequest {
     private final String secretName;
     private final Imports imports;
     private final ProcessLog log;
+    private final Map<String, Long> phases;
 
     protected JobRequest(JobRequest src) {
         this(src.type,
@@ -66,7 +70,8 @@ public class JobRequest {
                 src.commitId,
                 src.secretName,
                 src.imports,
-                src.log);
+                src.log,
+                src.phases);
     }
 
     protected JobRequest(Type type,
@@ -80,6 +85,21 @@ public class JobRequest {
                          Imports imports,
                          ProcessLog log) {
 
+        this(type, instanceId, payloadDir, orgName, repoUrl, repoPath, commitId, secretName, imports, log, new ConcurrentHashMap<>());
+    }
+
+    private JobRequest(Type type,
+                       UUID instanceId,
+                       Path payloadDir,
+                       String orgName,
+                       String repoUrl,
+                       String repoPath,
+                       String commitId,
+                       String secretName,
+                       Imports imports,
+                       ProcessLog log,
+                       Map<String, Long> phases) {
+
         this.type = type;
         this.instanceId = instanceId;
         this.payloadDir = payloadDir;
@@ -91,6 +111,7 @@ public class JobRequest {
         this.imports = imports != null ? imports : Imports.builder().build();
 
         this.log = log;
+        this.phases = phases;
     }
 
     public Type getType() {
@@ -133,6 +154,19 @@ public class JobRequest {
         return log;
     }
 
+    /**
+     * Records the duration of a process preparation phase, e.g. the repository
+     * export or the dependency resolution. Shared between all copies of
+     * the request.
+     */
+    public void recordPhase(String name, long durationMs) {
+        phases.put(name, durationMs);
+    }
+
+    public Map<String, Long> getPhases() {
+        return Collections.unmodifiableMap(phases);
+    }
+
     @Override
     public String toString() {
         return "JobRequest{" +
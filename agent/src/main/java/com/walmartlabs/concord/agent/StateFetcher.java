@@ -20,7 +20,17 @@ package com.walmartlabs.concord.agent;
  * =====
  */
 
+import java.nio.file.Path;
+
 public interface StateFetcher {
 
-    void downloadState(JobRequest jobRequest) throws Exception;
+    /**
+     * Downloads the process state archive. The archive is unpacked by
+     * the caller, which allows the download to run concurrently with
+     * other preparation steps.
+     *
+     * @return path to the downloaded archive, the caller is responsible
+     * for removing the file
+     */
+    Path downloadState(JobRequest jobRequest) throws Exception;
 }
@@ -22,15 +22,29 @@ package com.walmartlabs.concord.agent;
 
 import com.walmartlabs.concord.agent.executors.JobExecutor;
 import com.walmartlabs.concord.client.ProcessEntry.StatusEnum;
+import com.walmartlabs.concord.client.ProcessEventRequest;
+import com.walmartlabs.concord.client.ProcessEventsApi;
 import com.walmartlabs.concord.common.IOUtils;
 import com.walmartlabs.concord.imports.Import.SecretDefinition;
 import com.walmartlabs.concord.imports.ImportManager;
+import com.walmartlabs.concord.sdk.EventType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
 public class Worker implements Runnable {
 
@@ -41,6 +55,8 @@ public class Worker implements Runnable {
     private final JobExecutor executor;
     private final CompletionCallback completionCallback;
     private final StateFetcher stateFetcher;
+    private final ProcessEventsApi processEventsApi;
+    private final ExecutorService prepareExecutor;
     private final JobRequest jobRequest;
 
     private JobInstance jobInstance;
@@ -50,6 +66,8 @@ public class Worker implements Runnable {
                   JobExecutor executor,
                   CompletionCallback completionCallback,
                   StateFetcher stateFetcher,
+                  ProcessEventsApi processEventsApi,
+                  ExecutorService prepareExecutor,
                   JobRequest jobRequest) {
 
         this.repositoryManager = repositoryManager;
@@ -58,6 +76,8 @@ public class Worker implements Runnable {
         this.jobRequest = jobRequest;
         this.completionCallback = completionCallback;
         this.stateFetcher = stateFetcher;
+        this.processEventsApi = processEventsApi;
+        this.prepareExecutor = prepareExecutor;
     }
 
     @Override
@@ -66,18 +86,19 @@ public class Worker implements Runnable {
         UUID instanceId = jobRequest.getInstanceId();
 
         try {
-            // fetch the git repo's data...
-            fetchRepo(jobRequest);
-            // ...and process imports
-            processImports(jobRequest);
-            // ...and download the saved process state from the server
-            downloadState(jobRequest);
+            long t1 = System.currentTimeMillis();
+
+            // fetch the repository data, imports and the process state
+            prepare(jobRequest);
 
             // load the process' configuration
             ConfiguredJobRequest configuredJobRequest = ConfiguredJobRequest.from(jobRequest);
 
             // execute the job
             jobInstance = executor.exec(configuredJobRequest);
+
+            jobRequest.recordPhase("total", System.currentTimeMillis() - t1);
+            reportPhases(jobRequest);
             jobInstance.waitForCompletion();
 
             // successful completion
@@ -122,6 +143,34 @@ public class Worker implements Runnable {
         log.info("handleError ['{}'] -> done", instanceId);
     }
 
+    /**
+     * Prepares the process' payload directory. The repository export (followed
+     * by the imports) and the state download are performed concurrently.
+     * The state archive is unpacked last, so its files take precedence over
+     * the repository's files.
+     */
+    private void prepare(JobRequest r) throws Exception {
+        CompletableFuture<Void> repo = async(() -> {
+            // fetch the git repo's data...
+            fetchRepo(r);
+            // ...and process imports
+            processImports(r);
+            return null;
+        });
+
+        // ...and download the saved process state from the server
+        CompletableFuture<Path> state = async(() -> downloadState(r));
+
+        try {
+            // wait for all steps, even if some of them fail, so nothing
+            // is written into the payload directory after this point
+            await(CompletableFuture.allOf(repo, state));
+            unpackState(r, state.join());
+        } finally {
+            state.thenAccept(Worker::delete);
+        }
+    }
+
     private void fetchRepo(JobRequest r) throws Exception {
         if (r.getRepoUrl() == null || r.getCommitId() == null) {
             return;
@@ -142,6 +191,7 @@ public class Worker implements Runnable {
             throw e;
         }
 
+        r.recordPhase("repositoryExport", dt);
         r.getLog().info("Repository data export took {}ms", dt);
     }
 
@@ -156,18 +206,53 @@ public class Worker implements Runnable {
                 .build();
     }
 
-    private void downloadState(JobRequest r) throws Exception {
+    private Path downloadState(JobRequest r) throws Exception {
         r.getLog().info("Downloading the process state...");
 
-        long dt;
+        long t1 = System.currentTimeMillis();
+        Path result;
         try {
-            dt = withTimer(() -> stateFetcher.downloadState(r));
+            result = stateFetcher.downloadState(r);
         } catch (Exception e) {
             r.getLog().error("State download error: {}", e.getMessage());
             throw e;
         }
 
+        long dt = System.currentTimeMillis() - t1;
+        r.recordPhase("stateDownload", dt);
         r.getLog().info("Process state download took {}ms", dt);
+        return result;
+    }
+
+    private void unpackState(JobRequest r, Path archive) throws Exception {
+        long dt = withTimer(() -> IOUtils.unzip(archive, r.getPayloadDir(), StandardCopyOption.REPLACE_EXISTING));
+        r.recordPhase("stateUnpack", dt);
+    }
+
+    /**
+     * Reports the durations of the preparation phases as a process event.
+     * Best effort, the event is sent in background.
+     */
+    private void reportPhases(JobRequest r) {
+        Map<String, Object> data = new HashMap<>(r.getPhases());
+        log.info("reportPhases ['{}'] -> {}", r.getInstanceId(), data);
+
+        ProcessEventRequest req = new ProcessEventRequest();
+        req.setEventType(EventType.PROCESS_PREPARE.name());
+        req.setData(Collections.singletonMap("phases", data));
+        req.setEventDate(Instant.now().atOffset(ZoneOffset.UTC));
+
+        try {
+            prepareExecutor.execute(() -> {
+                try {
+                    processEventsApi.event(r.getInstanceId(), req);
+                } catch (Exception e) {
+                    log.warn("reportPhases ['{}'] -> error: {}", r.getInstanceId(), e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("reportPhases ['{}'] -> rejected: {}", r.getInstanceId(), e.getMessage());
+        }
     }
 
     private void processImports(JobRequest r) throws ExecutionException {
@@ -183,6 +268,7 @@ public class Worker implements Runnable {
             throw new ExecutionException("Error while reading the process' imports", e);
         }
 
+        r.recordPhase("imports", dt);
         r.getLog().info("Import of external resources took {}ms", dt);
     }
 
@@ -198,6 +284,40 @@ public class Worker implements Runnable {
         return t;
     }
 
+    private <T> CompletableFuture<T> async(Callable<T> c) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return c.call();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, prepareExecutor);
+    }
+
+    private static void await(CompletableFuture<?> f) throws Exception {
+        try {
+            f.join();
+        } catch (CompletionException e) {
+            Throwable t = e.getCause();
+            if (t instanceof Exception) {
+                throw (Exception) t;
+            }
+            throw e;
+        }
+    }
+
+    private static void delete(Path p) {
+        if (p == null) {
+            return;
+        }
+
+        try {
+            IOUtils.deleteRecursively(p);
+        } catch (IOException e) {
+            log.warn("delete ['{}'] -> error: {}", p, e.getMessage());
+        }
+    }
+
     private static long withTimer(Fn f) throws Exception {
         long t1 = System.currentTimeMillis();
         f.apply();
@@ -20,34 +20,55 @@ package com.walmartlabs.concord.agent;
  * =====
  */
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.walmartlabs.concord.agent.cfg.AgentConfiguration;
 import com.walmartlabs.concord.agent.executors.JobExecutor;
+import com.walmartlabs.concord.client.ProcessEventsApi;
 import com.walmartlabs.concord.imports.ImportManager;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import javax.inject.Singleton;
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Named
+@Singleton
 public class WorkerFactory {
 
     private final RepositoryManager repositoryManager;
     private final ImportManager importManager;
     private final Map<JobRequest.Type, JobExecutor> executors;
     private final StateFetcher stateFetcher;
+    private final ProcessEventsApi processEventsApi;
+
+    /**
+     * Runs the I/O-bound preparation steps of all workers, e.g. repository
+     * exports and state downloads.
+     */
+    private final ExecutorService prepareExecutor;
 
     @Inject
-    public WorkerFactory(RepositoryManager repositoryManager,
+    public WorkerFactory(AgentConfiguration agentCfg,
+                         RepositoryManager repositoryManager,
                          ImportManager importManager,
                          Collection<JobExecutor> executors,
-                         StateFetcher stateFetcher) {
+                         StateFetcher stateFetcher,
+                         ProcessEventsApi processEventsApi) {
 
         this.repositoryManager = repositoryManager;
         this.importManager = importManager;
         this.executors = executors.stream().collect(Collectors.toMap(JobExecutor::acceptsType, Function.identity()));
         this.stateFetcher = stateFetcher;
+        this.processEventsApi = processEventsApi;
+        this.prepareExecutor = Executors.newFixedThreadPool(agentCfg.getPrepareThreads(), new ThreadFactoryBuilder()
+                .setNameFormat("worker-prepare-%d")
+                .setDaemon(true)
+                .build());
     }
 
     public Worker create(JobRequest jobRequest, Worker.CompletionCallback completionCallback) throws ExecutionException {
@@ -56,6 +77,10 @@ public class WorkerFactory {
             throw new ExecutionException("Unsupported job type: " + jobRequest.getType());
         }
 
-        return new Worker(repositoryManager, importManager, executor, completionCallback, stateFetcher, jobRequest);
+        return new Worker(repositoryManager, importManager, executor, completionCallback, stateFetcher, processEventsApi, prepareExecutor, jobRequest);
+    }
+
+    public void stop() {
+        prepareExecutor.shutdownNow();
     }
 }
@@ -52,6 +52,7 @@ public class AgentConfiguration {
     private final long logMaxDelay;
 
     private final int workersCount;
+    private final int prepareThreads;
     private final long pollInterval;
     private final int maintenanceModeListenerPort;
 
@@ -71,6 +72,7 @@ public class AgentConfiguration {
         this.logMaxDelay = cfg.getDuration("logMaxDelay", TimeUnit.MILLISECONDS);
 
         this.workersCount = cfg.getInt("workersCount");
+        this.prepareThreads = cfg.getInt("prepareThreads");
         this.maintenanceModeListenerPort = cfg.getInt("maintenanceModeListenerPort");
 
         this.pollInterval = cfg.getDuration("pollInterval", TimeUnit.MILLISECONDS);
@@ -108,6 +110,10 @@ public class AgentConfiguration {
         return workersCount;
     }
 
+    public int getPrepareThreads() {
+        return prepareThreads;
+    }
+
     public long getPollInterval() {
         return pollInterval;
     }
@@ -109,18 +109,23 @@ public class RunnerJobExecutor implements JobExecutor {
     @Override
     public JobInstance exec(ConfiguredJobRequest jobRequest) throws Exception {
         RunnerJob job = RunnerJob.from(cfg, jobRequest, logFactory);
-        return exec(job);
+        return exec(jobRequest, job);
     }
 
-    private JobInstance exec(RunnerJob job) throws Exception {
+    private JobInstance exec(JobRequest jobRequest, RunnerJob job) throws Exception {
         // prepare and start a new JVM of use a pre-forked one
         ProcessEntry pe;
         try {
             // resolve and download the dependencies
+            long t1 = System.currentTimeMillis();
             Collection<String> resolvedDeps = resolveDeps(job);
             job = job.withDependencies(resolvedDeps);
 
+            long t2 = System.currentTimeMillis();
+            jobRequest.recordPhase("dependencies", t2 - t1);
+
             pe = buildProcessEntry(job);
+            jobRequest.recordPhase("fork", System.currentTimeMillis() - t2);
         } catch (Exception e) {
             log.warn("exec ['{}'] -> process error: {}", job.getInstanceId(), e.getMessage());
 
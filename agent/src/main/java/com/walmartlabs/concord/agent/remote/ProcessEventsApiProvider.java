@@ -0,0 +1,46 @@
+package com.walmartlabs.concord.agent.remote;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.ApiClient;
+import com.walmartlabs.concord.client.ProcessEventsApi;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+@Named
+@Singleton
+public class ProcessEventsApiProvider implements Provider<ProcessEventsApi> {
+
+    private final ApiClient apiClient;
+
+    @Inject
+    public ProcessEventsApiProvider(ApiClient apiClient) {
+        this.apiClient = apiClient;
+    }
+
+    @Override
+    public ProcessEventsApi get() {
+        return new ProcessEventsApi(apiClient);
+    }
+}
@@ -53,10 +53,14 @@ import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Command(name = "run", description = "Run the current directory as a Concord process")
 public class Run implements Callable<Integer> {
 
+    private static final String TARGET_DIR_PATTERN = "^target$";
+    private static final long WATCH_INTERVAL = 1000;
+
     @Spec
     private CommandSpec spec;
 
@@ -90,27 +94,55 @@ public class Run implements Callable<Integer> {
     @Option(names = {"-p", "--profile"}, description = "active profile")
     List<String> profiles = new ArrayList<>();
 
-    @Option(names = {"-c", "--clean"}, description = "remove the target directory before starting the process")
+    @Option(names = {"-c", "--clean"}, description = "remove the target directory (including the cached dependencies and imports) before starting the process")
     boolean cleanup = false;
 
+    @Option(names = {"-w", "--watch"}, description = "re-run the process when the source files change, reusing the initialized runtime")
+    boolean watch = false;
+
     @Option(names = {"-v", "--verbose"}, description = "verbose output")
     boolean verbose = false;
 
     @Parameters(arity = "0..1", description = "Directory with Concord files or a path to a single Concord YAML file.")
     Path sourceDir = Paths.get(System.getProperty("user.dir"));
 
+    /**
+     * The current process configuration. Allows the injector to be reused
+     * in the "watch" mode.
+     */
+    private final AtomicReference<ProcessConfiguration> currentCfg = new AtomicReference<>();
+
+    private Injector injector;
+    private Collection<String> injectorDependencies;
+
     @Override
     public Integer call() throws Exception {
         sourceDir = sourceDir.normalize();
+
+        long fingerprint = FileSync.fingerprint(sourceDir, TARGET_DIR_PATTERN);
+        Path targetDir = prepareTargetDir();
+
+        if (!watch) {
+            return run(targetDir);
+        }
+
+        while (true) {
+            run(targetDir);
+
+            System.out.println("Waiting for changes in " + sourceDir + " (press Ctrl+C to exit)...");
+            fingerprint = waitForChanges(fingerprint);
+
+            copySources(targetDir);
+        }
+    }
+
+    private Path prepareTargetDir() throws IOException {
         Path targetDir;
 
         if (Files.isRegularFile(sourceDir)) {
-            Path src = sourceDir.toAbsolutePath();
-            System.out.println("Running a single Concord file: " + src);
+            System.out.println("Running a single Concord file: " + sourceDir.toAbsolutePath());
 
             targetDir = Files.createTempDirectory("payload");
-
-            Files.copy(src, targetDir.resolve("concord.yml"), StandardCopyOption.REPLACE_EXISTING);
         } else if (Files.isDirectory(sourceDir)) {
             targetDir = sourceDir.resolve("target");
             if (cleanup && Files.exists(targetDir)) {
@@ -119,16 +151,46 @@ public class Run implements Callable<Integer> {
                 }
                 IOUtils.deleteRecursively(targetDir);
             }
-
-            // copy everything into target except target
-            IOUtils.copy(sourceDir, targetDir, "^target$", StandardCopyOption.REPLACE_EXISTING);
         } else {
             throw new IllegalArgumentException("Not a directory or single Concord YAML file: " + sourceDir);
         }
 
+        copySources(targetDir);
+        return targetDir;
+    }
+
+    private void copySources(Path targetDir) throws IOException {
+        if (Files.isRegularFile(sourceDir)) {
+            Files.copy(sourceDir.toAbsolutePath(), targetDir.resolve("concord.yml"), StandardCopyOption.REPLACE_EXISTING);
+            return;
+        }
+
+        // copy everything new or changed into target except target
+        int copied = FileSync.sync(sourceDir, targetDir, TARGET_DIR_PATTERN);
+        if (verbose) {
+            System.out.println("Copied " + copied + " new or changed file(s) into " + targetDir);
+        }
+    }
+
+    private long waitForChanges(long fingerprint) throws Exception {
+        while (true) {
+            Thread.sleep(WATCH_INTERVAL);
+
+            long current = FileSync.fingerprint(sourceDir, TARGET_DIR_PATTERN);
+            if (current != fingerprint) {
+                return current;
+            }
+        }
+    }
+
+    private int run(Path targetDir) throws Exception {
+        Path cacheDir = targetDir.resolve(Constants.Files.CONCORD_SYSTEM_DIR_NAME).resolve("cli");
+
         DependencyManager dependencyManager = initDependencyManager();
-        ImportManager importManager = new ImportManagerFactory(dependencyManager, new CliRepositoryExporter(repoCacheDir), verbose ? new CliImportsListener() : null)
-                .create();
+        ImportManager importManager = new CachingImportManager(
+                new ImportManagerFactory(dependencyManager, new CliRepositoryExporter(repoCacheDir), verbose ? new CliImportsListener() : null).create(),
+                cacheDir.resolve("imports"),
+                verbose);
 
         ProjectLoaderV2.Result loadResult;
         try {
@@ -154,7 +216,7 @@ public class Run implements Callable<Integer> {
         }
 
         RunnerConfiguration runnerCfg = RunnerConfiguration.builder()
-                .dependencies(new DependencyResolver(dependencyManager, verbose).resolveDeps(processDefinition))
+                .dependencies(new DependencyResolver(dependencyManager, cacheDir.resolve("dependencies"), verbose).resolveDeps(processDefinition))
                 .build();
 
         ProcessConfiguration cfg = ProcessConfiguration.builder().from(processDefinition.configuration())
@@ -162,12 +224,21 @@ public class Run implements Callable<Integer> {
                 .instanceId(instanceId)
                 .build();
 
-        Injector injector = new InjectorFactory(new WorkingDirectory(targetDir),
-                runnerCfg,
-                () -> cfg,
-                new ProcessDependenciesModule(targetDir, runnerCfg.dependencies()),
-                new CliServicesModule(secretStoreDir, targetDir, new VaultProvider(vaultDir, vaultId)))
-                .create();
+        currentCfg.set(cfg);
+
+        // the injector (and the process' classloader) can be reused as long as the dependencies are the same
+        if (injector == null || !runnerCfg.dependencies().equals(injectorDependencies)) {
+            injector = new InjectorFactory(new WorkingDirectory(targetDir),
+                    runnerCfg,
+                    currentCfg::get,
+                    new ProcessDependenciesModule(targetDir, runnerCfg.dependencies()),
+                    new CliServicesModule(secretStoreDir, targetDir, new VaultProvider(vaultDir, vaultId)))
+                    .create();
+
+            injectorDependencies = runnerCfg.dependencies();
+        } else if (verbose) {
+            System.out.println("Reusing the initialized runtime");
+        }
 
         Runner runner = injector.getInstance(Runner.class);
 
@@ -0,0 +1,93 @@
+package com.walmartlabs.concord.cli.runner;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.regex.Pattern;
+
+public final class CacheUtils {
+
+    private static final String MVN_SCHEME = "mvn://";
+
+    private static final Pattern COMMIT_ID = Pattern.compile("[0-9a-fA-F]{40}");
+
+    /**
+     * Returns a hex-encoded SHA-256 hash of the specified string.
+     * Used as a key for the cached results of local runs.
+     */
+    public static String hash(String s) {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+
+        byte[] ab = md.digest(s.getBytes(StandardCharsets.UTF_8));
+
+        StringBuilder sb = new StringBuilder(ab.length * 2);
+        for (byte b : ab) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns {@code true} if the specified dependency can resolve into
+     * different artifacts over time and must be checked on every run:
+     * SNAPSHOT, LATEST and RELEASE versions and version ranges.
+     */
+    public static boolean isMutableDependency(String dependency) {
+        if (dependency.contains("SNAPSHOT")) {
+            return true;
+        }
+
+        if (!dependency.startsWith(MVN_SCHEME)) {
+            return false;
+        }
+
+        String coords = dependency.substring(MVN_SCHEME.length());
+        int i = coords.indexOf('?');
+        if (i >= 0) {
+            coords = coords.substring(0, i);
+        }
+
+        String version = coords.substring(coords.lastIndexOf(':') + 1);
+        return version.equals("LATEST")
+                || version.equals("RELEASE")
+                || version.startsWith("[")
+                || version.startsWith("(");
+    }
+
+    /**
+     * Returns {@code true} if the specified GIT version can point to
+     * different commits over time. Only full commit IDs are considered
+     * immutable: branches and tags can't be told apart by the name.
+     */
+    public static boolean isMutableRef(String version) {
+        return version == null || !COMMIT_ID.matcher(version).matches();
+    }
+
+    private CacheUtils() {
+    }
+}
@@ -0,0 +1,121 @@
+package com.walmartlabs.concord.cli.runner;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.common.IOUtils;
+import com.walmartlabs.concord.imports.Import;
+import com.walmartlabs.concord.imports.ImportManager;
+import com.walmartlabs.concord.imports.Imports;
+import com.walmartlabs.concord.repository.Snapshot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Processes the imports once per unique set of import definitions and
+ * keeps the result in the cache directory. Subsequent runs with the same
+ * imports copy the new or changed files from the cache instead of fetching
+ * the imports again.
+ * <p/>
+ * Repository snapshots are not available for cached imports.
+ * <p/>
+ * Only the imports of fixed versions are cached: GIT imports must specify
+ * a commit ID, MVN imports must not use SNAPSHOT, LATEST, RELEASE or
+ * version ranges. Other imports are processed on every run.
+ */
+public class CachingImportManager implements ImportManager {
+
+    private final ImportManager delegate;
+    private final Path cacheDir;
+    private final boolean verbose;
+
+    public CachingImportManager(ImportManager delegate, Path cacheDir, boolean verbose) {
+        this.delegate = delegate;
+        this.cacheDir = cacheDir;
+        this.verbose = verbose;
+    }
+
+    @Override
+    public List<Snapshot> process(Imports imports, Path dest) throws Exception {
+        if (imports == null || imports.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        if (imports.items().stream().anyMatch(CachingImportManager::isMutable)) {
+            if (verbose) {
+                System.out.println("Imports without a fixed version found, skipping the cache");
+            }
+            return delegate.process(imports, dest);
+        }
+
+        String key = CacheUtils.hash(imports.toString());
+        Path dir = cacheDir.resolve(key);
+
+        List<Snapshot> result = Collections.emptyList();
+        if (Files.exists(dir)) {
+            if (verbose) {
+                System.out.println("Using cached imports: " + dir);
+            }
+        } else {
+            removeStaleEntries();
+
+            Files.createDirectories(cacheDir);
+            Path tmpDir = IOUtils.createTempDir(cacheDir, "tmp");
+            try {
+                result = delegate.process(imports, tmpDir);
+                Files.move(tmpDir, dir, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                IOUtils.deleteRecursively(tmpDir);
+            }
+        }
+
+        FileSync.sync(dir, dest, null);
+        return result;
+    }
+
+    private static boolean isMutable(Import i) {
+        if (i instanceof Import.GitDefinition) {
+            return CacheUtils.isMutableRef(((Import.GitDefinition) i).version());
+        } else if (i instanceof Import.MvnDefinition) {
+            return CacheUtils.isMutableDependency(((Import.MvnDefinition) i).url());
+        }
+
+        // unknown import type, can't tell
+        return true;
+    }
+
+    private void removeStaleEntries() throws IOException {
+        if (!Files.exists(cacheDir)) {
+            return;
+        }
+
+        try (Stream<Path> s = Files.list(cacheDir)) {
+            for (Path p : (Iterable<Path>) s::iterator) {
+                IOUtils.deleteRecursively(p);
+            }
+        }
+    }
+}
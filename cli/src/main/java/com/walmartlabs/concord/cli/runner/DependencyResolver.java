@@ -26,10 +26,11 @@ import com.walmartlabs.concord.runtime.v2.model.ProcessDefinition;
 
 import java.io.IOException;
 import java.net.*;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.List;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -39,14 +40,35 @@ public class DependencyResolver {
 
     private final DependencyManager dependencyManager;
     private final List<URI> defaultDependencies = Collections.emptyList();
+    private final Path cacheDir;
     private final boolean verbose;
 
     public DependencyResolver(DependencyManager dependencyManager, boolean verbose) {
+        this(dependencyManager, null, verbose);
+    }
+
+    /**
+     * @param cacheDir directory to store the resolved dependencies, keyed by
+     *                 the hash of the process' dependency list. Can be {@code null}
+     */
+    public DependencyResolver(DependencyManager dependencyManager, Path cacheDir, boolean verbose) {
         this.dependencyManager = dependencyManager;
+        this.cacheDir = cacheDir;
         this.verbose = verbose;
     }
 
     public Collection<String> resolveDeps(ProcessDefinition processDefinition) throws Exception {
+        Path cacheFile = getCacheFile(processDefinition.configuration().dependencies());
+
+        Collection<String> cached = readCache(cacheFile);
+        if (cached != null) {
+            if (verbose) {
+                System.out.println("Using cached process dependencies: " + cacheFile);
+                logDependencies(cached);
+            }
+            return cached;
+        }
+
         if (verbose) {
             System.out.println("Resolving process dependencies...");
         }
@@ -77,9 +99,49 @@ public class DependencyResolver {
             logDependencies(paths);
         }
 
+        writeCache(cacheFile, paths);
+
         return paths;
     }
 
+    private Path getCacheFile(Collection<String> dependencies) {
+        if (cacheDir == null) {
+            return null;
+        }
+
+        List<String> l = new ArrayList<>(dependencies != null ? dependencies : Collections.emptyList());
+        // SNAPSHOT, LATEST, RELEASE and version ranges must be checked for updates on every run
+        if (l.stream().anyMatch(CacheUtils::isMutableDependency)) {
+            return null;
+        }
+
+        Collections.sort(l);
+        return cacheDir.resolve(CacheUtils.hash(String.join("\n", l)));
+    }
+
+    private static Collection<String> readCache(Path cacheFile) throws IOException {
+        if (cacheFile == null || !Files.exists(cacheFile)) {
+            return null;
+        }
+
+        List<String> paths = Files.readAllLines(cacheFile, StandardCharsets.UTF_8);
+        // the local artifact cache could've been cleaned up since
+        if (!paths.stream().allMatch(p -> Files.exists(Paths.get(p)))) {
+            return null;
+        }
+
+        return paths;
+    }
+
+    private static void writeCache(Path cacheFile, Collection<String> paths) throws IOException {
+        if (cacheFile == null) {
+            return;
+        }
+
+        Files.createDirectories(cacheFile.getParent());
+        Files.write(cacheFile, paths, StandardCharsets.UTF_8);
+    }
+
     private void logDependencies(Collection<?> deps) {
         if (verbose && deps.isEmpty()) {
             System.out.println("No external dependencies.");
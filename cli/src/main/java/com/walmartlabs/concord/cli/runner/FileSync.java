@@ -0,0 +1,168 @@
+package com.walmartlabs.concord.cli.runner;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Copies only new or changed files (by size and modification time).
+ * Unlike a full copy, repeated runs of a large project touch only
+ * the files that were actually modified.
+ */
+public final class FileSync {
+
+    /**
+     * Copies the new or changed files from {@code src} into {@code dst}.
+     * The files removed from {@code src} are kept in {@code dst}.
+     *
+     * @param ignorePattern regex of the paths (relative to {@code src}) to skip, can be {@code null}
+     * @return number of copied files
+     */
+    public static int sync(Path src, Path dst, String ignorePattern) throws IOException {
+        Pattern ignore = ignorePattern != null ? Pattern.compile(ignorePattern) : null;
+        int[] copied = {0};
+
+        Files.walkFileTree(src, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (!dir.equals(src) && isIgnored(ignore, src.relativize(dir))) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (isIgnored(ignore, src.relativize(file))) {
+                    return FileVisitResult.CONTINUE;
+                }
+
+                Path target = dst.resolve(src.relativize(file).toString());
+                if (Files.isSymbolicLink(file)) {
+                    if (syncLink(src, file, target)) {
+                        copied[0]++;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                if (isUpToDate(attrs, target)) {
+                    return FileVisitResult.CONTINUE;
+                }
+
+                Path parent = target.getParent();
+                if (parent != null && !Files.exists(parent)) {
+                    Files.createDirectories(parent);
+                }
+
+                Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+                copied[0]++;
+
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        return copied[0];
+    }
+
+    /**
+     * Returns a value that changes when any file in {@code src} is added,
+     * removed or modified.
+     *
+     * @param ignorePattern regex of the paths (relative to {@code src}) to skip, can be {@code null}
+     */
+    public static long fingerprint(Path src, String ignorePattern) throws IOException {
+        Pattern ignore = ignorePattern != null ? Pattern.compile(ignorePattern) : null;
+        long[] result = {0};
+
+        Files.walkFileTree(src, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (!dir.equals(src) && isIgnored(ignore, src.relativize(dir))) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (!isIgnored(ignore, src.relativize(file))) {
+                    // order-independent, the walking order is not guaranteed
+                    result[0] += Objects.hash(src.relativize(file).toString(), attrs.size(), attrs.lastModifiedTime().toMillis());
+                }
+
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        return result[0];
+    }
+
+    private static boolean isIgnored(Pattern ignore, Path relative) {
+        return ignore != null && ignore.matcher(relative.toString()).matches();
+    }
+
+    private static boolean isUpToDate(BasicFileAttributes srcAttrs, Path target) throws IOException {
+        if (!Files.exists(target, LinkOption.NOFOLLOW_LINKS) || Files.isSymbolicLink(target)) {
+            return false;
+        }
+
+        BasicFileAttributes dstAttrs = Files.readAttributes(target, BasicFileAttributes.class);
+        return dstAttrs.isRegularFile()
+                && dstAttrs.size() == srcAttrs.size()
+                && dstAttrs.lastModifiedTime().toMillis() == srcAttrs.lastModifiedTime().toMillis();
+    }
+
+    private static boolean syncLink(Path root, Path file, Path target) throws IOException {
+        Path link = Files.readSymbolicLink(file);
+        Path linkTarget = file.getParent().resolve(link).normalize();
+
+        if (!linkTarget.startsWith(root)) {
+            throw new IOException("Symlinks outside the base directory are not supported: " + file + " -> " + linkTarget);
+        }
+
+        if (Files.notExists(linkTarget)) {
+            // missing target
+            return false;
+        }
+
+        if (Files.isSymbolicLink(target) && Files.readSymbolicLink(target).equals(link)) {
+            return false;
+        }
+
+        Path parent = target.getParent();
+        if (parent != null && !Files.exists(parent)) {
+            Files.createDirectories(parent);
+        }
+
+        Files.deleteIfExists(target);
+        Files.createSymbolicLink(target, link);
+        return true;
+    }
+
+    private FileSync() {
+    }
+}
@@ -0,0 +1,53 @@
+package com.walmartlabs.concord.cli.runner;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CacheUtilsTest {
+
+    @Test
+    public void testMutableDependency() {
+        assertFalse(CacheUtils.isMutableDependency("mvn://com.walmartlabs.concord.plugins:git:1.0.0"));
+        assertFalse(CacheUtils.isMutableDependency("mvn://com.example:lib:jar:1.0.0?transitive=false"));
+        assertFalse(CacheUtils.isMutableDependency("https://repo.example.com/lib-1.0.0.jar"));
+
+        assertTrue(CacheUtils.isMutableDependency("mvn://com.example:lib:1.0.0-SNAPSHOT"));
+        assertTrue(CacheUtils.isMutableDependency("https://repo.example.com/lib-1.0.0-SNAPSHOT.jar"));
+        assertTrue(CacheUtils.isMutableDependency("mvn://com.example:lib:LATEST"));
+        assertTrue(CacheUtils.isMutableDependency("mvn://com.example:lib:RELEASE?transitive=false"));
+        assertTrue(CacheUtils.isMutableDependency("mvn://com.example:lib:[1.0,2.0)"));
+        assertTrue(CacheUtils.isMutableDependency("mvn://com.example:lib:jar:(,1.5]"));
+    }
+
+    @Test
+    public void testMutableRef() {
+        assertFalse(CacheUtils.isMutableRef("0123456789abcdef0123456789abcdef01234567"));
+
+        assertTrue(CacheUtils.isMutableRef(null));
+        assertTrue(CacheUtils.isMutableRef("master"));
+        assertTrue(CacheUtils.isMutableRef("v1.0.0"));
+        assertTrue(CacheUtils.isMutableRef("0123456"));
+    }
+}
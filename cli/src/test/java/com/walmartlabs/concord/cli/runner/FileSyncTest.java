@@ -0,0 +1,63 @@
+package com.walmartlabs.concord.cli.runner;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.common.IOUtils;
+import com.walmartlabs.concord.common.TemporaryPath;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class FileSyncTest {
+
+    @Test
+    public void testSync() throws Exception {
+        try (TemporaryPath src = IOUtils.tempDir("sync-src");
+             TemporaryPath dst = IOUtils.tempDir("sync-dst")) {
+
+            Files.write(src.path().resolve("a.txt"), "a".getBytes());
+            Files.createDirectories(src.path().resolve("files"));
+            Files.write(src.path().resolve("files").resolve("b.txt"), "b".getBytes());
+            Files.createDirectories(src.path().resolve("target"));
+            Files.write(src.path().resolve("target").resolve("c.txt"), "c".getBytes());
+
+            assertEquals(2, FileSync.sync(src.path(), dst.path(), "^target$"));
+            assertFalse(Files.exists(dst.path().resolve("target")));
+
+            // nothing changed
+            long fingerprint = FileSync.fingerprint(src.path(), "^target$");
+            assertEquals(0, FileSync.sync(src.path(), dst.path(), "^target$"));
+
+            Path a = src.path().resolve("a.txt");
+            Files.write(a, "aa".getBytes());
+            Files.setLastModifiedTime(a, FileTime.fromMillis(System.currentTimeMillis() + 10000));
+
+            assertEquals(1, FileSync.sync(src.path(), dst.path(), "^target$"));
+            assertEquals("aa", new String(Files.readAllBytes(dst.path().resolve("a.txt"))));
+            assertFalse(fingerprint == FileSync.fingerprint(src.path(), "^target$"));
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.walmartlabs.concord.client;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory cache of secret data, used to avoid fetching the same secret
+ * from the server repeatedly. The data is kept encrypted with a random key
+ * generated for each instance of the cache.
+ * <p/>
+ * The entries are keyed by the secret's organization, name and a hash of
+ * the password.
+ */
+public class SecretCache {
+
+    private static final String CIPHER = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH = 128;
+
+    private final long ttl;
+    private final int maxEntries;
+    private final SecretKey key;
+    private final SecureRandom random = new SecureRandom();
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * @param ttl        how long to keep the entries (ms)
+     * @param maxEntries maximum number of entries, new entries are not
+     *                   cached when the limit is reached
+     */
+    public SecretCache(long ttl, int maxEntries) {
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+
+        try {
+            KeyGenerator kg = KeyGenerator.getInstance("AES");
+            kg.init(256, random);
+            this.key = kg.generateKey();
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Can't create a secret cache key", e);
+        }
+    }
+
+    /**
+     * @return the cached secret type and data or {@code null} if the secret
+     * is not cached or the entry is expired
+     */
+    public CachedSecret get(String orgName, String secretName, String password) {
+        Key k = new Key(orgName, secretName, password);
+
+        Entry e = entries.get(k);
+        if (e == null) {
+            return null;
+        }
+
+        if (e.expiresAt < System.currentTimeMillis()) {
+            entries.remove(k, e);
+            return null;
+        }
+
+        try {
+            Cipher c = Cipher.getInstance(CIPHER);
+            c.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH, e.iv));
+            return new CachedSecret(e.type, c.doFinal(e.data));
+        } catch (GeneralSecurityException ex) {
+            entries.remove(k, e);
+            return null;
+        }
+    }
+
+    public void put(String orgName, String secretName, String password, SecretEntry.TypeEnum type, byte[] data) {
+        long now = System.currentTimeMillis();
+
+        if (entries.size() >= maxEntries) {
+            entries.values().removeIf(e -> e.expiresAt < now);
+            if (entries.size() >= maxEntries) {
+                return;
+            }
+        }
+
+        byte[] iv = new byte[IV_LENGTH];
+        random.nextBytes(iv);
+
+        byte[] encrypted;
+        try {
+            Cipher c = Cipher.getInstance(CIPHER);
+            c.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH, iv));
+            encrypted = c.doFinal(data);
+        } catch (GeneralSecurityException e) {
+            // just don't cache it
+            return;
+        }
+
+        entries.put(new Key(orgName, secretName, password), new Entry(type, iv, encrypted, now + ttl));
+    }
+
+    public static final class CachedSecret {
+
+        private final SecretEntry.TypeEnum type;
+        private final byte[] data;
+
+        private CachedSecret(SecretEntry.TypeEnum type, byte[] data) {
+            this.type = type;
+            this.data = data;
+        }
+
+        public SecretEntry.TypeEnum getType() {
+            return type;
+        }
+
+        public byte[] getData() {
+            return data;
+        }
+    }
+
+    private static final class Entry {
+
+        private final SecretEntry.TypeEnum type;
+        private final byte[] iv;
+        private final byte[] data;
+        private final long expiresAt;
+
+        private Entry(SecretEntry.TypeEnum type, byte[] iv, byte[] data, long expiresAt) {
+            this.type = type;
+            this.iv = iv;
+            this.data = data;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class Key {
+
+        private final String orgName;
+        private final String secretName;
+        private final HashCode passwordHash;
+
+        private Key(String orgName, String secretName, String password) {
+            this.orgName = orgName;
+            this.secretName = secretName;
+            this.passwordHash = password != null ? Hashing.sha256().hashString(password, StandardCharsets.UTF_8) : null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key k = (Key) o;
+            return Objects.equals(orgName, k.orgName) &&
+                    Objects.equals(secretName, k.secretName) &&
+                    Objects.equals(passwordHash, k.passwordHash);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(orgName, secretName, passwordHash);
+        }
+    }
+}
@@ -46,18 +46,44 @@ public class SecretClient {
     private final ApiClient apiClient;
     private final int retryCount;
     private final long retryInterval;
+    private final SecretCache cache;
 
     public SecretClient(ApiClient apiClient) {
         this(apiClient, DEFAULT_RETRY_COUNT, DEFAULT_RETRY_INTERVAL);
     }
 
     public SecretClient(ApiClient apiClient, int retryCount, long retryInterval) {
+        this(apiClient, retryCount, retryInterval, null);
+    }
+
+    /**
+     * @param cache optional cache of the secret data
+     */
+    public SecretClient(ApiClient apiClient, int retryCount, long retryInterval, SecretCache cache) {
         this.apiClient = apiClient;
         this.retryCount = retryCount;
         this.retryInterval = retryInterval;
+        this.cache = cache;
     }
 
     public <T extends Secret> T getData(String orgName, String secretName, String password, SecretEntry.TypeEnum type) throws Exception {
+        return getData(orgName, secretName, password, type, true);
+    }
+
+    /**
+     * @param useCache if {@code false} the secret is always fetched from
+     *                 the server and is not stored in the cache. Useful for
+     *                 secrets that are used only once.
+     */
+    public <T extends Secret> T getData(String orgName, String secretName, String password, SecretEntry.TypeEnum type, boolean useCache) throws Exception {
+        boolean cached = useCache && cache != null;
+
+        SecretCache.CachedSecret s = cached ? cache.get(orgName, secretName, password) : null;
+        if (s != null) {
+            assertType(orgName, secretName, type, s.getType());
+            return readSecret(s.getType(), s.getData());
+        }
+
         String path = "/api/v1/org/" + orgName + "/secret/" + secretName + "/data";
 
         ApiResponse<File> r = null;
@@ -78,15 +104,14 @@ public class SecretClient {
             }
 
             SecretEntry.TypeEnum actualSecretType = SecretEntry.TypeEnum.valueOf(ClientUtils.getHeader(Constants.Headers.SECRET_TYPE, r));
+            byte[] data = Files.readAllBytes(r.getData().toPath());
 
-            if (type != null && type != actualSecretType) {
-                String msg = "Unexpected type of %s/%s. Expected %s, got %s. " +
-                        "Check the secret's type and its usage - some secrets can only be used for specific purposes " +
-                        "(e.g. %s is typically used for key-based authentication).";
-                throw new IllegalArgumentException(String.format(msg, orgName, secretName, type, actualSecretType, SecretEntry.TypeEnum.KEY_PAIR));
+            if (cached) {
+                cache.put(orgName, secretName, password, actualSecretType, data);
             }
 
-            return readSecret(actualSecretType, Files.readAllBytes(r.getData().toPath()));
+            assertType(orgName, secretName, type, actualSecretType);
+            return readSecret(actualSecretType, data);
         } catch (ApiException e) {
             if (e.getCode() == 404) {
                 throw new IllegalArgumentException("Secret not found: " + orgName + "/" + secretName);
@@ -131,6 +156,15 @@ public class SecretClient {
         throw new ApiException("Error encrypting string. Status code:" + r.getStatusCode() + " Data: " + r.getData());
     }
 
+    private static void assertType(String orgName, String secretName, SecretEntry.TypeEnum expected, SecretEntry.TypeEnum actual) {
+        if (expected != null && expected != actual) {
+            String msg = "Unexpected type of %s/%s. Expected %s, got %s. " +
+                    "Check the secret's type and its usage - some secrets can only be used for specific purposes " +
+                    "(e.g. %s is typically used for key-based authentication).";
+            throw new IllegalArgumentException(String.format(msg, orgName, secretName, expected, actual, SecretEntry.TypeEnum.KEY_PAIR));
+        }
+    }
+
     @SuppressWarnings("unchecked")
     private static <T> T readSecret(SecretEntry.TypeEnum type, byte[] bytes) {
         switch (type) {
@@ -24,10 +24,12 @@ import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
 import com.walmartlabs.concord.ApiClient;
 import com.walmartlabs.concord.sdk.Constants;
+import com.walmartlabs.concord.common.secret.BinaryDataSecret;
 import org.junit.Rule;
 import org.junit.Test;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class SecretClientTest {
@@ -57,4 +59,34 @@ public class SecretClientTest {
             assertTrue(e.getMessage().contains("Unexpected type of " + orgName + "/" + secretName));
         }
     }
+
+    @Test
+    public void testCache() throws Exception {
+        String orgName = "org_" + System.currentTimeMillis();
+        String secretName = "secret_" + System.currentTimeMillis();
+        String path = "/api/v1/org/" + orgName + "/secret/" + secretName + "/data";
+
+        wireMock.stubFor(post(urlEqualTo(path))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader(Constants.Headers.SECRET_TYPE, SecretEntry.TypeEnum.DATA.name())
+                        .withBody("Hello!")));
+
+        ApiClient apiClient = new ConcordApiClient("http://localhost:" + wireMock.port());
+        SecretClient secretClient = new SecretClient(apiClient, 1, 0, new SecretCache(60000, 10));
+
+        for (int i = 0; i < 3; i++) {
+            BinaryDataSecret s = secretClient.getData(orgName, secretName, "pwd", SecretEntry.TypeEnum.DATA);
+            assertEquals("Hello!", new String(s.getData()));
+        }
+        wireMock.verify(1, postRequestedFor(urlEqualTo(path)));
+
+        // a different password is a different entry
+        secretClient.getData(orgName, secretName, "another-pwd", SecretEntry.TypeEnum.DATA);
+        wireMock.verify(2, postRequestedFor(urlEqualTo(path)));
+
+        // bypass the cache
+        secretClient.getData(orgName, secretName, "pwd", SecretEntry.TypeEnum.DATA, false);
+        wireMock.verify(3, postRequestedFor(urlEqualTo(path)));
+    }
 }
@@ -20,8 +20,12 @@ package com.walmartlabs.concord.common;
  * =====
  */
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 public final class MapMatcher {
 
@@ -33,6 +37,98 @@ public final class MapMatcher {
         return compareNodes(data, conditions);
     }
 
+    /**
+     * Returns a matcher equivalent to {@link #matches(Map, Map)} with
+     * the regular expressions in the {@code conditions} pre-compiled.
+     * Useful when the same conditions are matched against many events.
+     */
+    public static Compiled compile(Map<String, Object> conditions) {
+        if (conditions == null || conditions.isEmpty()) {
+            return data -> true;
+        }
+
+        Node root = compileNode(conditions);
+        return root::matches;
+    }
+
+    public interface Compiled {
+
+        boolean matches(Map<String, Object> data);
+    }
+
+    private interface Node {
+
+        boolean matches(Object data);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Node compileNode(Object conditions) {
+        if (conditions == null) {
+            return data -> data == null;
+        }
+
+        if (conditions instanceof String) {
+            Pattern p = Pattern.compile((String) conditions);
+            return data -> {
+                if (data == null) {
+                    return p.matcher("").matches();
+                } else if (data instanceof String) {
+                    return p.matcher((String) data).matches();
+                }
+                return compareValues(data, conditions);
+            };
+        }
+
+        if (conditions instanceof Map) {
+            Map<String, Node> fields = new LinkedHashMap<>();
+            ((Map<String, Object>) conditions).forEach((k, v) -> fields.put(k, compileNode(v)));
+
+            return data -> {
+                if (data instanceof Map) {
+                    Map<String, Object> m = (Map<String, Object>) data;
+                    for (Map.Entry<String, Node> e : fields.entrySet()) {
+                        if (!e.getValue().matches(m.get(e.getKey()))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+                return data != null && compareValues(data, conditions);
+            };
+        }
+
+        if (conditions instanceof Collection) {
+            Collection<Object> c = (Collection<Object>) conditions;
+            List<Node> elements = new ArrayList<>(c.size());
+            c.forEach(i -> elements.add(compileNode(i)));
+
+            return data -> {
+                if (data == null) {
+                    return false;
+                }
+
+                if (data instanceof Collection) {
+                    Collection<Object> dataElements = (Collection<Object>) data;
+                    if (elements.size() > dataElements.size()) {
+                        return false;
+                    }
+
+                    for (Node n : elements) {
+                        if (dataElements.stream().noneMatch(n::matches)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+
+                // same as in compareNodes, rarely used
+                return matchAny(data, c);
+            };
+        }
+
+        return data -> data != null && compareValues(data, conditions);
+    }
+
     @SuppressWarnings({"unchecked", "rawtypes"})
     private static boolean compareNodes(Object data, Object conditions) {
         if (data == null && conditions == null) {
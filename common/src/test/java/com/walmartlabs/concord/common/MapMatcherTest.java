@@ -0,0 +1,70 @@
+package com.walmartlabs.concord.common;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MapMatcherTest {
+
+    @Test
+    public void testCompiled() {
+        Map<String, Object> conditions = new HashMap<>();
+        conditions.put("githubOrg", "octo.*");
+        conditions.put("githubRepo", "repo");
+        conditions.put("version", 2);
+        conditions.put("files", Collections.singletonMap("added", Collections.singletonList(".*\\.yml")));
+        conditions.put("missing", ".*");
+
+        List<Map<String, Object>> events = new ArrayList<>();
+        events.add(event("octocat", "repo", 2, "concord.yml"));
+        events.add(event("octocat", "repo", 1, "concord.yml"));
+        events.add(event("octocat", "repo2", 2, "concord.yml"));
+        events.add(event("cat", "repo", 2, "concord.yml"));
+        events.add(event("octocat", "repo", 2, "README.md"));
+        events.add(event(null, "repo", 2, "concord.yml"));
+
+        MapMatcher.Compiled compiled = MapMatcher.compile(conditions);
+        for (Map<String, Object> e : events) {
+            assertEquals(e.toString(), MapMatcher.matches(e, conditions), compiled.matches(e));
+        }
+
+        assertTrue(compiled.matches(events.get(0)));
+        assertFalse(compiled.matches(events.get(1)));
+
+        assertTrue(MapMatcher.compile(null).matches(events.get(0)));
+        assertTrue(MapMatcher.compile(Collections.emptyMap()).matches(events.get(0)));
+    }
+
+    private static Map<String, Object> event(String org, String repo, int version, String file) {
+        Map<String, Object> m = new HashMap<>();
+        m.put("githubOrg", org);
+        m.put("githubRepo", repo);
+        m.put("version", version);
+        m.put("files", Collections.singletonMap("added", Arrays.asList(file, "other")));
+        return m;
+    }
+}
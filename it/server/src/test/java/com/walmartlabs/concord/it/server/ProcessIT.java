@@ -30,10 +30,7 @@ import org.junit.Test;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 import static com.walmartlabs.concord.it.common.ITUtils.archive;
 import static com.walmartlabs.concord.it.common.ServerClient.*;
@@ -288,4 +285,37 @@ public class ProcessIT extends AbstractServerIT {
             assertLog(".*initiator: .*" + userAName.toLowerCase() + ".*", ab);
         }
     }
+
+    @Test(timeout = DEFAULT_TEST_TIMEOUT)
+    public void testForkBatch() throws Exception {
+        byte[] payload = archive(ProcessIT.class.getResource("forkBatch").toURI());
+
+        ProcessApi processApi = new ProcessApi(getApiClient());
+        StartProcessResponse parentSpr = start(payload);
+
+        ProcessEntry parent = waitForCompletion(processApi, parentSpr.getInstanceId());
+        assertEquals(StatusEnum.FINISHED, parent.getStatus());
+
+        // ---
+
+        List<Map<String, Object>> reqs = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Map<String, Object> req = new HashMap<>();
+            req.put("entryPoint", "sayHello");
+            req.put("arguments", Collections.singletonMap("name", "fork_" + i));
+            reqs.add(req);
+        }
+
+        List<StartProcessResponse> forks = processApi.forkBatch(parent.getInstanceId(), reqs, null);
+        assertEquals(3, forks.size());
+
+        for (int i = 0; i < forks.size(); i++) {
+            ProcessEntry child = waitForCompletion(processApi, forks.get(i).getInstanceId());
+            assertEquals(StatusEnum.FINISHED, child.getStatus());
+            assertEquals(parent.getInstanceId(), child.getParentInstanceId());
+
+            byte[] ab = getLog(child.getLogFileName());
+            assertLog(".*FORK: Hello, fork_" + i + ".*", ab);
+        }
+    }
 }
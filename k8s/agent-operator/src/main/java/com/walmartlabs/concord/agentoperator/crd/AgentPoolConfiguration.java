@@ -46,6 +46,8 @@ public class AgentPoolConfiguration implements Serializable {
     private static final double DEFAULT_DECREMENT_PERCENTAGE = 10;
 
     private static final int DEFAULT_QUEUE_QUERY_LIMIT = 300;
+    private static final long DEFAULT_POD_STARTUP_TIME_MS = 60000;
+    private static final int DEFAULT_WORKERS_PER_POD = 1;
 
     private boolean autoScale = true;
     private int maxSize = DEFAULT_MAX_SIZE;
@@ -85,6 +87,23 @@ public class AgentPoolConfiguration implements Serializable {
      */
     private double decrementThresholdFactor = getDoubleFromEnv(ENV_DECREMENT_THRESHOLD_FACTOR, DEFAULT_DECREMENT_THRESHOLD_FACTOR);
 
+    /**
+     * Use the rate-based scaling model (see {@link com.walmartlabs.concord.agentoperator.scheduler.AutoScaler}).
+     * Requires a server with the queue demand endpoint.
+     */
+    private boolean predictiveScaling = false;
+
+    /**
+     * Expected time it takes a new pod to start accepting processes.
+     * The pool is pre-scaled for the demand projected over this period.
+     */
+    private long podStartupTimeMs = DEFAULT_POD_STARTUP_TIME_MS;
+
+    /**
+     * Number of processes a single pod can run concurrently.
+     */
+    private int workersPerPod = DEFAULT_WORKERS_PER_POD;
+
     private Map<String, Object> queueSelector;
     private Map<String, Object> configMap;
     private Map<String, Object> pod;
@@ -185,6 +204,30 @@ public class AgentPoolConfiguration implements Serializable {
         this.queueQueryLimit = queueQueryLimit;
     }
 
+    public boolean isPredictiveScaling() {
+        return predictiveScaling;
+    }
+
+    public void setPredictiveScaling(boolean predictiveScaling) {
+        this.predictiveScaling = predictiveScaling;
+    }
+
+    public long getPodStartupTimeMs() {
+        return podStartupTimeMs;
+    }
+
+    public void setPodStartupTimeMs(long podStartupTimeMs) {
+        this.podStartupTimeMs = podStartupTimeMs;
+    }
+
+    public int getWorkersPerPod() {
+        return workersPerPod;
+    }
+
+    public void setWorkersPerPod(int workersPerPod) {
+        this.workersPerPod = workersPerPod;
+    }
+
     public Map<String, Object> getConfigMap() {
         return configMap;
     }
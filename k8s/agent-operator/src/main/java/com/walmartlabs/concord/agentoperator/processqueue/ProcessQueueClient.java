@@ -72,6 +72,36 @@ public class ProcessQueueClient {
         }
     }
 
+    /**
+     * Returns the aggregated queue demand or {@code null} if the server
+     * doesn't support the demand endpoint.
+     */
+    public ProcessQueueDemand queryDemand(int windowSec) throws IOException {
+        Request req = new Request.Builder()
+                .url(baseUrl + "/api/v2/process/requirements/demand?window=" + windowSec)
+                .header("Authorization", apiToken)
+                .addHeader("User-Agent", "k8s-agent-operator")
+                .build();
+
+        Call call = client.newCall(req);
+        try (Response resp = call.execute()) {
+            if (resp.code() == 404) {
+                return null;
+            }
+
+            if (!resp.isSuccessful()) {
+                throw new IOException("Error while fetching the process queue demand: " + resp.code());
+            }
+
+            ResponseBody body = resp.body();
+            if (body == null) {
+                throw new IOException("Error while fetching the process queue demand: empty response");
+            }
+
+            return objectMapper.readValue(body.byteStream(), ProcessQueueDemand.class);
+        }
+    }
+
     private static OkHttpClient initClient() {
         try {
             TrustManager[] trustAllCerts = new TrustManager[]{
@@ -0,0 +1,66 @@
+package com.walmartlabs.concord.agentoperator.processqueue;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Aggregated demand for agents, grouped by process requirements.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ProcessQueueDemand implements Serializable {
+
+    private final int windowSec;
+    private final List<ProcessQueueDemandEntry> entries;
+
+    @JsonCreator
+    public ProcessQueueDemand(@JsonProperty("windowSec") int windowSec,
+                              @JsonProperty("entries") List<ProcessQueueDemandEntry> entries) {
+
+        this.windowSec = windowSec;
+        this.entries = entries != null ? entries : Collections.emptyList();
+    }
+
+    /**
+     * The period used to calculate {@link ProcessQueueDemandEntry#getArrived()} (sec).
+     */
+    public int getWindowSec() {
+        return windowSec;
+    }
+
+    public List<ProcessQueueDemandEntry> getEntries() {
+        return entries;
+    }
+
+    @Override
+    public String toString() {
+        return "ProcessQueueDemand{" +
+                "windowSec=" + windowSec +
+                ", entries=" + entries +
+                '}';
+    }
+}
@@ -0,0 +1,92 @@
+package com.walmartlabs.concord.agentoperator.processqueue;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.io.Serializable;
+import java.util.Map;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ProcessQueueDemandEntry implements Serializable {
+
+    private final Map<String, Object> requirements;
+    private final int enqueued;
+    private final int running;
+    private final int arrived;
+    private final long oldestWaitMs;
+
+    @JsonCreator
+    public ProcessQueueDemandEntry(@JsonProperty("requirements") Map<String, Object> requirements,
+                                   @JsonProperty("enqueued") int enqueued,
+                                   @JsonProperty("running") int running,
+                                   @JsonProperty("arrived") int arrived,
+                                   @JsonProperty("oldestWaitMs") long oldestWaitMs) {
+
+        this.requirements = requirements;
+        this.enqueued = enqueued;
+        this.running = running;
+        this.arrived = arrived;
+        this.oldestWaitMs = oldestWaitMs;
+    }
+
+    public Map<String, Object> getRequirements() {
+        return requirements;
+    }
+
+    /**
+     * Number of processes waiting for an agent.
+     */
+    public int getEnqueued() {
+        return enqueued;
+    }
+
+    /**
+     * Number of processes currently occupying an agent.
+     */
+    public int getRunning() {
+        return running;
+    }
+
+    /**
+     * Number of processes created within {@link ProcessQueueDemand#getWindowSec()}.
+     */
+    public int getArrived() {
+        return arrived;
+    }
+
+    public long getOldestWaitMs() {
+        return oldestWaitMs;
+    }
+
+    @Override
+    public String toString() {
+        return "ProcessQueueDemandEntry{" +
+                "requirements=" + requirements +
+                ", enqueued=" + enqueued +
+                ", running=" + running +
+                ", arrived=" + arrived +
+                ", oldestWaitMs=" + oldestWaitMs +
+                '}';
+    }
+}
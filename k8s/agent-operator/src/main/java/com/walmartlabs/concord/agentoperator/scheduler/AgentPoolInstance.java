@@ -25,11 +25,15 @@ import com.walmartlabs.concord.agentoperator.crd.AgentPool;
 public class AgentPoolInstance {
 
     public static AgentPoolInstance updateStatus(AgentPoolInstance i, Status status) {
-        return new AgentPoolInstance(i.name, i.resource, status, i.targetSize, System.currentTimeMillis(), i.getLastScaleUpTimestamp(), i.getLastScaleDownTimeStamp());
+        return new AgentPoolInstance(i.name, i.resource, status, i.targetSize, System.currentTimeMillis(), i.getLastScaleUpTimestamp(), i.getLastScaleDownTimeStamp(), i.demand);
     }
 
     public static AgentPoolInstance updateTargetSize(AgentPoolInstance i, int targetSize, long scaleUptimeStamp, long scaleDownTimeStamp) {
-        return new AgentPoolInstance(i.name, i.resource, i.status, targetSize, System.currentTimeMillis(), scaleUptimeStamp, scaleDownTimeStamp);
+        return new AgentPoolInstance(i.name, i.resource, i.status, targetSize, System.currentTimeMillis(), scaleUptimeStamp, scaleDownTimeStamp, i.demand);
+    }
+
+    public static AgentPoolInstance updateDemand(AgentPoolInstance i, PoolDemand demand) {
+        return new AgentPoolInstance(i.name, i.resource, i.status, i.targetSize, i.lastUpdateTimestamp, i.lastScaleUpTimestamp, i.lastScaleDownTimeStamp, demand);
     }
 
     private final String name;
@@ -39,9 +43,16 @@ public class AgentPoolInstance {
     private final long lastUpdateTimestamp;
     private final long lastScaleUpTimestamp;
     private final long lastScaleDownTimeStamp;
+    private final PoolDemand demand;
 
     public AgentPoolInstance(String name, AgentPool resource, Status status, int targetSize, long lastUpdateTimestamp,
                              long lastScaleUpTimestamp, long lastScaleDownTimeStamp) {
+
+        this(name, resource, status, targetSize, lastUpdateTimestamp, lastScaleUpTimestamp, lastScaleDownTimeStamp, null);
+    }
+
+    public AgentPoolInstance(String name, AgentPool resource, Status status, int targetSize, long lastUpdateTimestamp,
+                             long lastScaleUpTimestamp, long lastScaleDownTimeStamp, PoolDemand demand) {
         this.name = name;
         this.resource = resource;
         this.status = status;
@@ -49,6 +60,7 @@ public class AgentPoolInstance {
         this.lastUpdateTimestamp = lastUpdateTimestamp;
         this.lastScaleUpTimestamp = lastScaleUpTimestamp;
         this.lastScaleDownTimeStamp = lastScaleDownTimeStamp;
+        this.demand = demand;
     }
 
     public String getName() {
@@ -79,6 +91,13 @@ public class AgentPoolInstance {
         return lastScaleDownTimeStamp;
     }
 
+    /**
+     * The most recent demand calculated for the pool, {@code null} if unknown.
+     */
+    public PoolDemand getDemand() {
+        return demand;
+    }
+
     public enum Status {
         ACTIVE,
         DELETED
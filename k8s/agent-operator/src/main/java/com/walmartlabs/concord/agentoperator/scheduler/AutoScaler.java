@@ -21,6 +21,7 @@ package com.walmartlabs.concord.agentoperator.scheduler;
  */
 
 import com.walmartlabs.concord.agentoperator.crd.AgentPoolConfiguration;
+import com.walmartlabs.concord.agentoperator.processqueue.ProcessQueueDemand;
 import com.walmartlabs.concord.agentoperator.processqueue.ProcessQueueEntry;
 import com.walmartlabs.concord.common.MapMatcher;
 import org.slf4j.Logger;
@@ -29,6 +30,7 @@ import org.slf4j.LoggerFactory;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class AutoScaler {
 
@@ -77,6 +79,96 @@ public class AutoScaler {
      * @param queueEntries List of process entries in ENQUEUED state
      */
     public AgentPoolInstance apply(AgentPoolInstance i, List<ProcessQueueEntry> queueEntries) {
+        AgentPoolConfiguration cfg = i.getResource().getSpec();
+        return applyThresholds(i, () -> getProcessCount(cfg, queueEntries));
+    }
+
+    /**
+     * Scale up or down using the aggregated queue demand.
+     *
+     * If {@link AgentPoolConfiguration#isPredictiveScaling()} is enabled, the pool size is calculated
+     * from the number of running and enqueued processes plus the backlog projected over
+     * {@link AgentPoolConfiguration#getPodStartupTimeMs()}: {@code (arrival rate - completion rate) * startup time}.
+     * This allows the pool to grow before the backlog builds up. Scaling up happens in one step,
+     * scaling down is gradual (by the decrement percentage defined) and only after the demand stays
+     * lower than the current size for the scale down delay defined.
+     *
+     * Otherwise the threshold-based algorithm (see {@link #apply(AgentPoolInstance, List)}) is used
+     * with the number of enqueued processes taken from the demand.
+     *
+     * @param i Agent pool on which the scaling activity is to be performed
+     * @param demand aggregated process queue demand
+     */
+    public AgentPoolInstance apply(AgentPoolInstance i, ProcessQueueDemand demand) {
+        AgentPoolConfiguration cfg = i.getResource().getSpec();
+
+        PoolDemand d = PoolDemand.calculate(cfg.getQueueSelector(), demand, i.getDemand(), System.currentTimeMillis());
+        log.info("['{}']: Current demand: {}", i.getName(), d);
+
+        AgentPoolInstance result;
+        if (cfg.isPredictiveScaling()) {
+            result = applyPredictive(i, d);
+        } else {
+            result = applyThresholds(i, d::getEnqueued);
+        }
+
+        return AgentPoolInstance.updateDemand(result, d);
+    }
+
+    private AgentPoolInstance applyPredictive(AgentPoolInstance i, PoolDemand d) {
+        scaleUpTimeStamp = i.getLastScaleUpTimestamp();
+        scaleDownTimeStamp = i.getLastScaleDownTimeStamp();
+
+        AgentPoolConfiguration cfg = i.getResource().getSpec();
+
+        boolean scaleUpAllowed = canBeScaledUp.apply(i);
+        boolean scaleDownAllowed = canBeScaledDown.apply(i);
+        if (!scaleUpAllowed && !scaleDownAllowed) {
+            // was updated recently, skipping
+            return i;
+        }
+
+        int podsCount = podCounter.apply(i.getName());
+        log.info("['{}']: Current pool size: {}", i.getName(), podsCount);
+
+        if (podsCount < cfg.getMinSize()) {
+            return AgentPoolInstance.updateTargetSize(i, cfg.getMinSize(), System.currentTimeMillis(), System.currentTimeMillis());
+        }
+
+        int requiredSize = getRequiredSize(cfg, d);
+        log.info("['{}']: Required pool size: {}", i.getName(), requiredSize);
+
+        int targetSize = i.getTargetSize();
+
+        if (requiredSize >= targetSize) {
+            // Scale down should happen only if the demand is lower than
+            // the current size consistently for scaledown delay defined
+            scaleDownTimeStamp = System.currentTimeMillis();
+        }
+
+        if (requiredSize > targetSize && scaleUpAllowed) {
+            log.info("['{}']: Scaling up to {} (arrival rate: {}/s, completion rate: {}/s)...",
+                    i.getName(), requiredSize, d.getArrivalRate(), d.getCompletionRate());
+
+            targetSize = requiredSize;
+            scaleUpTimeStamp = System.currentTimeMillis();
+        } else if (requiredSize < targetSize && scaleDownAllowed) {
+            int step = Math.max(1, (int) Math.floor(targetSize * cfg.getPercentDecrement() / 100));
+            targetSize = Math.max(requiredSize, targetSize - step);
+
+            log.info("['{}']: Scaling down to {}...", i.getName(), targetSize);
+            scaleDownTimeStamp = System.currentTimeMillis();
+        }
+
+        if (targetSize == i.getTargetSize()) {
+            log.info("['{}']: Not changing the pool size.", i.getName());
+        } else {
+            log.info("apply ['{}'] -> updated to {}", i.getName(), targetSize);
+        }
+        return AgentPoolInstance.updateTargetSize(i, targetSize, scaleUpTimeStamp, scaleDownTimeStamp);
+    }
+
+    private AgentPoolInstance applyThresholds(AgentPoolInstance i, Supplier<Integer> enqueuedCounter) {
 
         scaleUpTimeStamp = i.getLastScaleUpTimestamp();
         scaleDownTimeStamp = i.getLastScaleDownTimeStamp();
@@ -93,7 +185,7 @@ public class AutoScaler {
         log.info("['{}']: Current pool size: {}", i.getName(), podsCount);
 
         // the number of processes waiting for an agent in the current pool
-        int enqueuedCount = getProcessCount(cfg, queueEntries);
+        int enqueuedCount = enqueuedCounter.get();
         log.info("['{}']: Enqueued process count: {}", i.getName(), enqueuedCount);
 
         if (podsCount < cfg.getMinSize()) {
@@ -209,6 +301,17 @@ public class AutoScaler {
         return poolSize;
     }
 
+    static int getRequiredSize(AgentPoolConfiguration cfg, PoolDemand d) {
+        double startupTimeSec = cfg.getPodStartupTimeMs() / 1000.0;
+        double backlogGrowth = Math.max(0, d.getArrivalRate() - d.getCompletionRate()) * startupTimeSec;
+        double projected = d.getRunning() + d.getEnqueued() + backlogGrowth;
+
+        int workersPerPod = Math.max(1, cfg.getWorkersPerPod());
+        int size = (int) Math.ceil(projected / workersPerPod);
+
+        return Math.max(cfg.getMinSize(), Math.min(cfg.getMaxSize(), size));
+    }
+
     private int getProcessCount(AgentPoolConfiguration cfg, List<ProcessQueueEntry> processQueueEntries) {
         return (int) processQueueEntries.stream()
                 .map(ProcessQueueEntry::getRequirements)
@@ -0,0 +1,133 @@
+package com.walmartlabs.concord.agentoperator.scheduler;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.agentoperator.processqueue.ProcessQueueDemand;
+import com.walmartlabs.concord.agentoperator.processqueue.ProcessQueueDemandEntry;
+import com.walmartlabs.concord.common.MapMatcher;
+
+import java.util.Map;
+
+/**
+ * Demand for agents of a specific pool. Keeps the estimated arrival and
+ * completion rates between the scheduler's iterations.
+ */
+public class PoolDemand {
+
+    /**
+     * Smoothing factor of the completion rate (EWMA).
+     */
+    private static final double COMPLETION_RATE_ALPHA = 0.3;
+
+    public static PoolDemand calculate(Map<String, Object> queueSelector, ProcessQueueDemand demand, PoolDemand prev, long timestamp) {
+        int enqueued = 0;
+        int running = 0;
+        int arrived = 0;
+        long oldestWaitMs = 0;
+
+        for (ProcessQueueDemandEntry e : demand.getEntries()) {
+            Map<String, Object> requirements = e.getRequirements();
+            if (requirements == null || !MapMatcher.matches(requirements, queueSelector)) {
+                continue;
+            }
+
+            enqueued += e.getEnqueued();
+            running += e.getRunning();
+            arrived += e.getArrived();
+            oldestWaitMs = Math.max(oldestWaitMs, e.getOldestWaitMs());
+        }
+
+        double arrivalRate = demand.getWindowSec() > 0 ? (double) arrived / demand.getWindowSec() : 0;
+
+        // the server doesn't report completions directly. The number of processes that left
+        // the pool is estimated as "arrived during the interval - change in enqueued and running"
+        double completionRate = arrivalRate;
+        if (prev != null) {
+            double dt = (timestamp - prev.timestamp) / 1000.0;
+            if (dt > 0) {
+                int delta = (enqueued + running) - (prev.enqueued + prev.running);
+                double completed = Math.max(0, arrivalRate * dt - delta);
+                completionRate = COMPLETION_RATE_ALPHA * (completed / dt) + (1 - COMPLETION_RATE_ALPHA) * prev.completionRate;
+            } else {
+                completionRate = prev.completionRate;
+            }
+        }
+
+        return new PoolDemand(enqueued, running, oldestWaitMs, arrivalRate, completionRate, timestamp);
+    }
+
+    private final int enqueued;
+    private final int running;
+    private final long oldestWaitMs;
+    private final double arrivalRate;
+    private final double completionRate;
+    private final long timestamp;
+
+    public PoolDemand(int enqueued, int running, long oldestWaitMs, double arrivalRate, double completionRate, long timestamp) {
+        this.enqueued = enqueued;
+        this.running = running;
+        this.oldestWaitMs = oldestWaitMs;
+        this.arrivalRate = arrivalRate;
+        this.completionRate = completionRate;
+        this.timestamp = timestamp;
+    }
+
+    public int getEnqueued() {
+        return enqueued;
+    }
+
+    public int getRunning() {
+        return running;
+    }
+
+    public long getOldestWaitMs() {
+        return oldestWaitMs;
+    }
+
+    /**
+     * Processes per second.
+     */
+    public double getArrivalRate() {
+        return arrivalRate;
+    }
+
+    /**
+     * Processes per second.
+     */
+    public double getCompletionRate() {
+        return completionRate;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolDemand{" +
+                "enqueued=" + enqueued +
+                ", running=" + running +
+                ", oldestWaitMs=" + oldestWaitMs +
+                ", arrivalRate=" + arrivalRate +
+                ", completionRate=" + completionRate +
+                '}';
+    }
+}
@@ -25,6 +25,7 @@ import com.walmartlabs.concord.agentoperator.crd.AgentPoolConfiguration;
 import com.walmartlabs.concord.agentoperator.planner.Change;
 import com.walmartlabs.concord.agentoperator.planner.Planner;
 import com.walmartlabs.concord.agentoperator.processqueue.ProcessQueueClient;
+import com.walmartlabs.concord.agentoperator.processqueue.ProcessQueueDemand;
 import com.walmartlabs.concord.agentoperator.processqueue.ProcessQueueEntry;
 import com.walmartlabs.concord.agentoperator.resources.AgentPod;
 import io.fabric8.kubernetes.api.model.Pod;
@@ -41,6 +42,7 @@ public class Scheduler {
 
     private static final long POLL_DELAY = 5000;
     private static final long ERROR_DELAY = 10000;
+    private static final int DEMAND_WINDOW_SEC = 60;
 
     private final KubernetesClient k8sClient;
     private final ProcessQueueClient processQueueClient;
@@ -48,6 +50,8 @@ public class Scheduler {
     private final Map<String, AgentPoolInstance> pools;
     private final List<Event> events;
 
+    private volatile boolean demandSupported = true;
+
     public Scheduler(KubernetesClient k8sClient, Configuration cfg) {
         this.k8sClient = k8sClient;
         this.processQueueClient = new ProcessQueueClient(cfg.concordBaseUrl, cfg.concordApiToken);
@@ -105,13 +109,14 @@ public class Scheduler {
             return;
         }
 
-        // fetch the process queue status
+        // fetch the process queue status once for all pools
+        QueueState queueState = fetchQueueState(todo);
 
         todo.parallelStream().forEach(i -> {
             try {
                 switch (i.getStatus()) {
                     case ACTIVE: {
-                        updateTargetSize(i);
+                        updateTargetSize(i, queueState);
                         processActive(i);
                         break;
                     }
@@ -148,22 +153,58 @@ public class Scheduler {
         }
     }
 
-    private void updateTargetSize(AgentPoolInstance i) throws IOException {
-        if (!i.getResource().getSpec().isAutoScale()) {
-            return;
+    /**
+     * Fetches the aggregated queue demand. Falls back to the list of enqueued processes
+     * if the server doesn't support the demand endpoint.
+     */
+    private QueueState fetchQueueState(List<AgentPoolInstance> pools) throws IOException {
+        List<AgentPoolConfiguration> specs = new ArrayList<>();
+        for (AgentPoolInstance i : pools) {
+            AgentPoolConfiguration spec = i.getResource().getSpec();
+            if (i.getStatus() == AgentPoolInstance.Status.ACTIVE && spec.isAutoScale()) {
+                specs.add(spec);
+            }
+        }
+
+        if (specs.isEmpty()) {
+            return null;
+        }
+
+        if (demandSupported) {
+            ProcessQueueDemand demand = processQueueClient.queryDemand(DEMAND_WINDOW_SEC);
+            if (demand != null) {
+                return new QueueState(demand, null);
+            }
+
+            log.warn("fetchQueueState -> the server doesn't support the queue demand endpoint, falling back to the process list");
+            demandSupported = false;
         }
 
-        int queueQueryLimit = i.getResource().getSpec().getQueueQueryLimit();
-        List<ProcessQueueEntry> queueEntries = processQueueClient.query("ENQUEUED", queueQueryLimit);
+        int queueQueryLimit = specs.stream()
+                .mapToInt(AgentPoolConfiguration::getQueueQueryLimit)
+                .max()
+                .orElse(0);
 
+        return new QueueState(null, processQueueClient.query("ENQUEUED", queueQueryLimit));
+    }
+
+    private void updateTargetSize(AgentPoolInstance i, QueueState queueState) {
         AgentPoolConfiguration spec = i.getResource().getSpec();
-        if (!spec.isAutoScale()) {
+        if (!spec.isAutoScale() || queueState == null) {
             return;
         }
 
         AutoScaler autoScaler = new AutoScaler(n -> AgentPod.list(k8sClient, n).size());
+
+        AgentPoolInstance result;
+        if (queueState.demand != null) {
+            result = autoScaler.apply(i, queueState.demand);
+        } else {
+            result = autoScaler.apply(i, queueState.entries);
+        }
+
         synchronized (pools) {
-            pools.put(i.getName(), autoScaler.apply(i, queueEntries));
+            pools.put(i.getName(), result);
         }
     }
 
@@ -219,6 +260,17 @@ public class Scheduler {
         }
     }
 
+    private static class QueueState {
+
+        private final ProcessQueueDemand demand;
+        private final List<ProcessQueueEntry> entries;
+
+        private QueueState(ProcessQueueDemand demand, List<ProcessQueueEntry> entries) {
+            this.demand = demand;
+            this.entries = entries;
+        }
+    }
+
     public static class Configuration {
 
         private final String concordBaseUrl;
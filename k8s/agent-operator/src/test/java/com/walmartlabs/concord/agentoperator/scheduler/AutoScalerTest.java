@@ -22,6 +22,8 @@ package com.walmartlabs.concord.agentoperator.scheduler;
 
 import com.walmartlabs.concord.agentoperator.crd.AgentPool;
 import com.walmartlabs.concord.agentoperator.crd.AgentPoolConfiguration;
+import com.walmartlabs.concord.agentoperator.processqueue.ProcessQueueDemand;
+import com.walmartlabs.concord.agentoperator.processqueue.ProcessQueueDemandEntry;
 import com.walmartlabs.concord.agentoperator.processqueue.ProcessQueueEntry;
 import org.junit.Test;
 
@@ -151,4 +153,79 @@ public class AutoScalerTest {
         pool = as.apply(pool, queue);
         assertEquals(6, pool.getTargetSize());
     }
+
+    @Test
+    public void testPredictive() {
+        AtomicInteger podCount = new AtomicInteger(1);
+
+        AutoScaler as = new AutoScaler(n -> podCount.get(), i -> true, i -> true);
+
+        AgentPoolConfiguration spec = new AgentPoolConfiguration();
+        spec.setPredictiveScaling(true);
+        spec.setPercentDecrement(10);
+        spec.setPodStartupTimeMs(60000);
+        spec.setQueueSelector(Collections.singletonMap("test", 123));
+
+        AgentPool resource = new AgentPool();
+        resource.setSpec(spec);
+
+        AgentPoolInstance pool = new AgentPoolInstance("test", resource, AgentPoolInstance.Status.ACTIVE, 1, 0, 0, 0);
+
+        // ---
+
+        // no demand
+        pool = as.apply(pool, demand(0, 0, 0));
+        assertEquals(1, pool.getTargetSize());
+
+        // one running, two waiting and no completions yet
+        // 3 processes + 0.05/s * 60s of projected backlog
+        pool = as.apply(pool, demand(2, 1, 3));
+        assertEquals(6, pool.getTargetSize());
+
+        podCount.set(6);
+
+        // all processes are running, but the arrivals exceed the completions
+        // the pool should grow before the new processes are enqueued
+        pool = as.apply(withTimestamp(pool, -10000), demand(0, 3, 60));
+        assertEquals(10, pool.getTargetSize());
+
+        podCount.set(10);
+
+        // no demand, scale down gradually
+        pool = as.apply(withTimestamp(pool, -10000), demand(0, 0, 0));
+        assertEquals(9, pool.getTargetSize());
+    }
+
+    @Test
+    public void testRequiredSize() {
+        AgentPoolConfiguration spec = new AgentPoolConfiguration();
+        spec.setMinSize(1);
+        spec.setMaxSize(100);
+        spec.setPodStartupTimeMs(60000);
+        spec.setWorkersPerPod(2);
+
+        // 10 running + 10 enqueued + (1/s - 0.5/s) * 60s = 50 processes, 2 per pod
+        assertEquals(25, AutoScaler.getRequiredSize(spec, new PoolDemand(10, 10, 0, 1.0, 0.5, 0)));
+
+        // completions exceed arrivals, no projected backlog
+        assertEquals(10, AutoScaler.getRequiredSize(spec, new PoolDemand(10, 10, 0, 0.5, 1.0, 0)));
+
+        // limited by the max size
+        spec.setMaxSize(5);
+        assertEquals(5, AutoScaler.getRequiredSize(spec, new PoolDemand(10, 10, 0, 0.5, 1.0, 0)));
+    }
+
+    private static ProcessQueueDemand demand(int enqueued, int running, int arrived) {
+        return new ProcessQueueDemand(60, Collections.singletonList(
+                new ProcessQueueDemandEntry(Collections.singletonMap("test", 123), enqueued, running, arrived, 0)));
+    }
+
+    /**
+     * Shifts the timestamp of the pool's last demand to simulate the time between iterations.
+     */
+    private static AgentPoolInstance withTimestamp(AgentPoolInstance i, long offset) {
+        PoolDemand d = i.getDemand();
+        return AgentPoolInstance.updateDemand(i, new PoolDemand(d.getEnqueued(), d.getRunning(), d.getOldestWaitMs(),
+                d.getArrivalRate(), d.getCompletionRate(), d.getTimestamp() + offset));
+    }
 }
@@ -0,0 +1,113 @@
+package com.walmartlabs.concord.plugins.ansible;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads complete lines from a file which is still being written.
+ * Incomplete lines are kept until the rest of the line becomes available.
+ */
+public class EventFileReader implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final ByteArrayOutputStream partialLine = new ByteArrayOutputStream();
+
+    public EventFileReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    }
+
+    /**
+     * Reads the next chunk of data and passes each complete line
+     * (without the line terminator) to the specified handler.
+     *
+     * @return the number of bytes read or 0 if there is no new data.
+     */
+    public int read(LineHandler handler) throws IOException {
+        buffer.clear();
+
+        int n = channel.read(buffer);
+        if (n <= 0) {
+            return 0;
+        }
+
+        byte[] ab = buffer.array();
+        int start = 0;
+        for (int i = 0; i < n; i++) {
+            if (ab[i] != '\n') {
+                continue;
+            }
+
+            String line;
+            if (partialLine.size() == 0) {
+                line = new String(ab, start, i - start, StandardCharsets.UTF_8);
+            } else {
+                partialLine.write(ab, start, i - start);
+                line = new String(partialLine.toByteArray(), StandardCharsets.UTF_8);
+                partialLine.reset();
+            }
+
+            handler.handle(line);
+
+            start = i + 1;
+        }
+
+        if (start < n) {
+            partialLine.write(ab, start, n - start);
+        }
+
+        return n;
+    }
+
+    /**
+     * @return {@code true} if all data currently available in the file was read.
+     */
+    public boolean isEof() throws IOException {
+        return channel.position() >= channel.size();
+    }
+
+    /**
+     * @return the number of bytes read, but not yet returned as a complete line.
+     */
+    public int getPendingBytes() {
+        return partialLine.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    @FunctionalInterface
+    public interface LineHandler {
+
+        void handle(String line) throws IOException;
+    }
+}
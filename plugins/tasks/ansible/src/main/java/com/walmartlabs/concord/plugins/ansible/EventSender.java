@@ -22,25 +22,38 @@ package com.walmartlabs.concord.plugins.ansible;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.RequestBody;
+import com.walmartlabs.concord.ApiClient;
 import com.walmartlabs.concord.ApiException;
 import com.walmartlabs.concord.client.ProcessEventRequest;
 import com.walmartlabs.concord.client.ProcessEventsApi;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.io.RandomAccessFile;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.UUID;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Reads data recorded by concord_events.py and sends it to the Server.
+ * <p>
+ * Events are sent in batches limited by the number of events and by size.
+ * Batches are sent by a single sender thread, one at a time, to preserve
+ * the order of events. Up to {@link #MAX_QUEUED_BATCHES} batches can wait
+ * for the sender. If the queue is full, the reader waits (backpressure).
+ * Failed requests are retried up to {@link #MAX_SEND_ATTEMPTS} times on
+ * I/O errors, 5xx and 429 responses, other errors are not retried.
+ * <p>
+ * After {@link #stop()} the remaining events are sent for up to
+ * {@link #STOP_GRACE_PERIOD}ms, then the sender is interrupted and
+ * the remaining batches are dropped.
  */
 public class EventSender {
 
@@ -48,10 +61,16 @@ public class EventSender {
 
     private static final String EOL_MARKER = "<~EOL~>";
 
-    private static final long NO_DATA_DELAY = 1000;
-    private static final long API_ERROR_DELAY = 10000;
-    private static final long MAX_BATCH_SIZE = 10;
-    private static final long MAX_BATCH_AGE = 5000;
+    private static final long MIN_NO_DATA_DELAY = 10;
+    private static final long MAX_NO_DATA_DELAY = 1000;
+    private static final long MIN_API_ERROR_DELAY = 1000;
+    private static final long MAX_API_ERROR_DELAY = 10000;
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final long MAX_BATCH_BYTES = 1024 * 1024;
+    private static final long MAX_BATCH_AGE = 1000;
+    private static final int MAX_QUEUED_BATCHES = 4;
+    private static final int MAX_SEND_ATTEMPTS = 10;
+    private static final long STOP_GRACE_PERIOD = 30000;
 
     private final boolean debug;
     private final UUID instanceId;
@@ -67,8 +86,13 @@ public class EventSender {
     }
 
     private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final ExecutorService sender = Executors.newSingleThreadExecutor();
+    private final Semaphore queued = new Semaphore(MAX_QUEUED_BATCHES);
+    private final Stats stats = new Stats();
 
     private volatile boolean stop = false;
+    private volatile long stopDeadline = Long.MAX_VALUE;
+    private volatile boolean gzip = true;
 
     public EventSender(boolean debug, UUID instanceId, Path eventsFile, ProcessEventsApi eventsApi) {
         this.debug = debug;
@@ -78,10 +102,13 @@ public class EventSender {
     }
 
     public Future<?> start() {
-        return executor.submit(this::doRun);
+        Future<?> f = executor.submit(this::doRun);
+        executor.shutdown();
+        return f;
     }
 
     public void stop() {
+        this.stopDeadline = System.currentTimeMillis() + STOP_GRACE_PERIOD;
         this.stop = true;
     }
 
@@ -90,62 +117,221 @@ public class EventSender {
             log.info("run -> started...");
         }
 
-        try (RandomAccessFile f = new RandomAccessFile(eventsFile.toFile(), "r")) {
-            Batch batch = new Batch(instanceId, eventsApi);
-            long t1 = System.currentTimeMillis();
+        try (EventFileReader reader = new EventFileReader(eventsFile)) {
+            Batch batch = new Batch();
+            long noDataDelay = MIN_NO_DATA_DELAY;
 
             while (true) {
-                String line = f.readLine();
-
-                if (line == null || line.isEmpty()) {
-                    if (stop) {
-                        // looks like the end of the play
+                int n = reader.read(line -> {
+                    if (line.isEmpty()) {
+                        return;
+                    }
 
-                        // don't stop until we reach the end of the file
-                        if (Files.size(eventsFile) <= f.getFilePointer()) {
-                            break;
-                        }
+                    if (!line.endsWith(EOL_MARKER)) {
+                        log.warn("run -> invalid event data, skipping: {}", line);
+                        return;
                     }
 
-                    // wait for more data
-                    sleep(NO_DATA_DELAY);
-                } else {
-                    if (line.endsWith(EOL_MARKER)) {
-                        String data = line.substring(0, line.length() - EOL_MARKER.length());
-                        ProcessEventRequest req = objectMapper.readValue(data, ProcessEventRequest.class);
-                        batch.add(req);
-                    } else {
-                        // partial line, re-read next time
-                        f.seek(f.getFilePointer() - line.length());
+                    String data = line.substring(0, line.length() - EOL_MARKER.length());
+                    ProcessEventRequest req = objectMapper.readValue(data, ProcessEventRequest.class);
+                    batch.add(req, line.length());
+
+                    if (batch.isFull()) {
+                        submit(batch.drain());
                     }
+                });
+
+                if (batch.size() > 0 && batch.age() >= MAX_BATCH_AGE) {
+                    submit(batch.drain());
                 }
 
-                long t2 = System.currentTimeMillis();
-                if (batch.size() >= MAX_BATCH_SIZE || t2 - t1 >= MAX_BATCH_AGE) {
-                    flush(batch);
-                    t1 = t2;
+                if (n > 0) {
+                    noDataDelay = MIN_NO_DATA_DELAY;
+                    continue;
+                }
+
+                if (stop && reader.isEof()) {
+                    // looks like the end of the play
+                    if (reader.getPendingBytes() > 0) {
+                        log.warn("run -> incomplete event data at the end of the file ({} bytes), skipping", reader.getPendingBytes());
+                    }
+                    break;
                 }
+
+                // wait for more data
+                sleep(noDataDelay);
+                noDataDelay = Math.min(noDataDelay * 2, MAX_NO_DATA_DELAY);
             }
 
-            flush(batch);
+            if (batch.size() > 0) {
+                submit(batch.drain());
+            }
         } catch (IOException e) {
             log.error("Error while reading the event file: {}", e.getMessage(), e);
+        } finally {
+            // wait for all queued batches, interrupt the sender if it takes too long
+            if (awaitQueued()) {
+                queued.release(MAX_QUEUED_BATCHES);
+                sender.shutdown();
+            } else {
+                int n = sender.shutdownNow().size();
+                log.warn("run -> timeout while sending the remaining events, giving up ({} queued batch(es) dropped)", n);
+            }
         }
 
+        stats.report();
+
         if (debug) {
             log.info("run -> stopped...");
         }
     }
 
-    private static void flush(Batch b) {
+    private boolean awaitQueued() {
         try {
-            b.flush();
-        } catch (ApiException e) {
-            log.warn("Error while sending the event to the server", e);
-            sleep(API_ERROR_DELAY);
+            long timeout = Math.max(0, stopDeadline - System.currentTimeMillis());
+            return queued.tryAcquire(MAX_QUEUED_BATCHES, timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
         }
     }
 
+    private boolean isStopDeadlinePassed() {
+        return System.currentTimeMillis() >= stopDeadline;
+    }
+
+    private void submit(Batch.Items items) {
+        long t1 = System.currentTimeMillis();
+        try {
+            // re-check the deadline periodically, stop() can be called while we wait
+            while (!queued.tryAcquire(MAX_NO_DATA_DELAY, TimeUnit.MILLISECONDS)) {
+                if (isStopDeadlinePassed()) {
+                    dropped(items);
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            dropped(items);
+            return;
+        }
+        stats.backpressureWait(System.currentTimeMillis() - t1);
+
+        try {
+            sender.execute(() -> {
+                try {
+                    send(items);
+                } finally {
+                    queued.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queued.release();
+            throw e;
+        }
+    }
+
+    private void send(Batch.Items items) {
+        long delay = MIN_API_ERROR_DELAY;
+        for (int attempt = 1; ; attempt++) {
+            if (isStopDeadlinePassed() || Thread.currentThread().isInterrupted()) {
+                dropped(items);
+                return;
+            }
+
+            try {
+                long t1 = System.currentTimeMillis();
+                long sentBytes = doSend(items.events);
+                long t2 = System.currentTimeMillis();
+
+                stats.batchSent(items.events.size(), items.bytes, sentBytes, t2 - t1);
+
+                if (debug) {
+                    log.info("send -> {} event(s), {} byte(s), {} byte(s) sent, took {}ms", items.events.size(), items.bytes, sentBytes, t2 - t1);
+                }
+
+                return;
+            } catch (ApiException e) {
+                stats.sendFailed();
+
+                if (!isRetryable(e) || attempt >= MAX_SEND_ATTEMPTS) {
+                    log.warn("Error while sending the events to the server (attempt #{}), giving up", attempt, e);
+                    dropped(items);
+                    return;
+                }
+
+                log.warn("Error while sending the events to the server (attempt #{}), retrying in {}ms...", attempt, delay, e);
+                sleep(delay);
+
+                delay = Math.min(delay * 2, MAX_API_ERROR_DELAY);
+            }
+        }
+    }
+
+    private void dropped(Batch.Items items) {
+        log.warn("Unable to send {} event(s) to the server, dropping", items.events.size());
+        stats.batchDropped(items.events.size());
+    }
+
+    /**
+     * Only I/O errors (no response), 5xx and 429 responses are retried.
+     * Other errors (e.g. an invalid session key or a finished process)
+     * won't go away on their own.
+     */
+    private static boolean isRetryable(ApiException e) {
+        int code = e.getCode();
+        return code == 0 || code == 429 || code >= 500;
+    }
+
+    private long doSend(List<ProcessEventRequest> events) throws ApiException {
+        if (gzip) {
+            try {
+                return sendCompressed(events);
+            } catch (ApiException e) {
+                if (e.getCode() != 415) {
+                    throw e;
+                }
+
+                // older servers don't support compressed requests (415 Unsupported Media Type)
+                log.warn("The server doesn't accept compressed events, switching to uncompressed requests...");
+                gzip = false;
+            }
+        }
+
+        eventsApi.batchEvent(instanceId, events);
+        return -1;
+    }
+
+    private long sendCompressed(List<ProcessEventRequest> events) throws ApiException {
+        ApiClient client = eventsApi.getApiClient();
+
+        String path = "/api/v1/process/" + client.escapeString(instanceId.toString()) + "/eventBatch";
+
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Content-Type", "application/json");
+
+        Request req = client.buildRequest(path, "POST", new ArrayList<>(), new ArrayList<>(), events, headers,
+                new HashMap<>(), new String[]{"session_key", "api_key"}, null);
+
+        Buffer compressed = new Buffer();
+        try (BufferedSink sink = Okio.buffer(new GzipSink(compressed))) {
+            req.body().writeTo(sink);
+        } catch (IOException e) {
+            throw new ApiException(e);
+        }
+
+        long size = compressed.size();
+
+        Request gzipReq = req.newBuilder()
+                .header("Content-Encoding", "gzip")
+                .post(RequestBody.create(req.body().contentType(), compressed.readByteString()))
+                .build();
+
+        client.execute(client.getHttpClient().newCall(gzipReq));
+
+        return size;
+    }
+
     private static void sleep(long ms) {
         try {
             Thread.sleep(ms);
@@ -156,27 +342,100 @@ public class EventSender {
 
     private static class Batch {
 
-        private final UUID instanceId;
-        private final ProcessEventsApi eventsApi;
+        private List<ProcessEventRequest> events = new ArrayList<>();
+        private long bytes = 0;
+        private long createdAt = System.currentTimeMillis();
 
-        private final List<ProcessEventRequest> items = new ArrayList<>();
+        public void add(ProcessEventRequest req, long size) {
+            if (events.isEmpty()) {
+                createdAt = System.currentTimeMillis();
+            }
 
-        private Batch(UUID instanceId, ProcessEventsApi eventsApi) {
-            this.instanceId = instanceId;
-            this.eventsApi = eventsApi;
+            events.add(req);
+            bytes += size;
         }
 
-        public void add(ProcessEventRequest req) {
-            items.add(req);
+        public boolean isFull() {
+            return events.size() >= MAX_BATCH_SIZE || bytes >= MAX_BATCH_BYTES;
         }
 
-        public void flush() throws ApiException {
-            eventsApi.batchEvent(instanceId, items);
-            items.clear();
+        public long age() {
+            return System.currentTimeMillis() - createdAt;
         }
 
         public int size() {
-            return items.size();
+            return events.size();
+        }
+
+        public Items drain() {
+            Items result = new Items(events, bytes);
+            events = new ArrayList<>();
+            bytes = 0;
+            return result;
+        }
+
+        private static class Items {
+
+            private final List<ProcessEventRequest> events;
+            private final long bytes;
+
+            private Items(List<ProcessEventRequest> events, long bytes) {
+                this.events = events;
+                this.bytes = bytes;
+            }
+        }
+    }
+
+    private static class Stats {
+
+        private final AtomicLong events = new AtomicLong();
+        private final AtomicLong batches = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicLong sentBytes = new AtomicLong();
+        private final AtomicLong sendTime = new AtomicLong();
+        private final AtomicLong maxSendTime = new AtomicLong();
+        private final AtomicLong backpressureWait = new AtomicLong();
+        private final AtomicLong backpressureCount = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong droppedEvents = new AtomicLong();
+
+        public void batchSent(int eventCount, long size, long sentSize, long duration) {
+            events.addAndGet(eventCount);
+            batches.incrementAndGet();
+            bytes.addAndGet(size);
+            sentBytes.addAndGet(sentSize >= 0 ? sentSize : size);
+            sendTime.addAndGet(duration);
+            maxSendTime.accumulateAndGet(duration, Math::max);
+        }
+
+        public void backpressureWait(long duration) {
+            if (duration <= 0) {
+                return;
+            }
+
+            backpressureWait.addAndGet(duration);
+            backpressureCount.incrementAndGet();
+        }
+
+        public void sendFailed() {
+            failures.incrementAndGet();
+        }
+
+        public void batchDropped(int eventCount) {
+            droppedEvents.addAndGet(eventCount);
+        }
+
+        public void report() {
+            long b = batches.get();
+            if (b == 0 && failures.get() == 0 && droppedEvents.get() == 0) {
+                return;
+            }
+
+            log.info("Ansible events: {} sent in {} batch(es), {} KB ({} KB on the wire), avg request time {}ms, max {}ms, " +
+                            "reader waited {} time(s) for {}ms in total, {} failed request(s), {} event(s) dropped",
+                    events.get(), b, bytes.get() / 1024, sentBytes.get() / 1024,
+                    b > 0 ? sendTime.get() / b : 0, maxSendTime.get(),
+                    backpressureCount.get(), backpressureWait.get(), failures.get(), droppedEvents.get());
         }
     }
 }
@@ -0,0 +1,86 @@
+package com.walmartlabs.concord.plugins.ansible;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EventFileReaderTest extends AbstractTest {
+
+    @Test
+    public void testPartialLines() throws Exception {
+        Path f = tempDir("events").resolve("events.log");
+        append(f, "first<~EOL~>\nsec");
+
+        List<String> lines = new ArrayList<>();
+        try (EventFileReader reader = new EventFileReader(f)) {
+            reader.read(lines::add);
+            assertEquals(Arrays.asList("first<~EOL~>"), lines);
+            assertEquals(3, reader.getPendingBytes());
+
+            // no new data
+            assertEquals(0, reader.read(lines::add));
+            assertTrue(reader.isEof());
+
+            append(f, "ond<~EOL~>\nthird<~EOL~>\n");
+            reader.read(lines::add);
+
+            assertEquals(Arrays.asList("first<~EOL~>", "second<~EOL~>", "third<~EOL~>"), lines);
+            assertEquals(0, reader.getPendingBytes());
+        }
+    }
+
+    @Test
+    public void testLongLines() throws Exception {
+        Path f = tempDir("events").resolve("events.log");
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 200_000; i++) {
+            sb.append('x');
+        }
+        String longLine = sb.toString();
+
+        append(f, longLine + "\n" + longLine + "\n");
+
+        List<String> lines = new ArrayList<>();
+        try (EventFileReader reader = new EventFileReader(f)) {
+            while (!reader.isEof()) {
+                reader.read(lines::add);
+            }
+        }
+
+        assertEquals(Arrays.asList(longLine, longLine), lines);
+    }
+
+    private static void append(Path f, String s) throws Exception {
+        Files.write(f, s.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
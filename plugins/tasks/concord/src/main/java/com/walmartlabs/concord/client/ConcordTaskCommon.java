@@ -55,6 +55,7 @@ public class ConcordTaskCommon {
     private static final long DEFAULT_POLL_DELAY = 5000;
 
     private static final int MAX_EXECUTOR_THREADS = 20;
+    private static final int FORK_BATCH_SIZE = 100;
 
     private static final Set<String> FAILED_STATUSES;
 
@@ -75,6 +76,11 @@ public class ConcordTaskCommon {
     private final Path workDir;
     private final ConcordTaskSuspender suspender;
 
+    /**
+     * {@code false} if the server doesn't have the batch fork endpoint (older versions)
+     */
+    private volatile boolean forkBatchSupported = true;
+
     public ConcordTaskCommon(String sessionToken, ApiClientFactory apiClientFactory, String processLinkTemplate, UUID currentProcessId, ProjectInfo currentProcessProjectInfo, Path workDir, ConcordTaskSuspender suspender) {
         this.sessionToken = sessionToken;
         this.apiClientFactory = apiClientFactory;
@@ -431,19 +437,39 @@ public class ConcordTaskCommon {
     }
 
     private List<UUID> fork(ForkParams in) throws Exception {
-        List<Future<UUID>> futures = new ArrayList<>();
+        // forks with the same API key are started using the batch endpoint
+        List<ForkStartParams> forks = new ArrayList<>();
+        Map<String, List<Integer>> forksByApiKey = new LinkedHashMap<>();
         for (ForkStartParams fork : in.forks()) {
             int n = fork.getInstances();
             for (int i = 0; i < n; i++) {
-                futures.add(forkOne(fork));
+                forksByApiKey.computeIfAbsent(fork.apiKey(), k -> new ArrayList<>()).add(forks.size());
+                forks.add(fork);
+            }
+        }
+
+        List<Future<List<UUID>>> futures = new ArrayList<>();
+        List<List<Integer>> batches = new ArrayList<>();
+        for (Map.Entry<String, List<Integer>> e : forksByApiKey.entrySet()) {
+            List<Integer> indices = e.getValue();
+            for (int i = 0; i < indices.size(); i += FORK_BATCH_SIZE) {
+                List<Integer> batch = indices.subList(i, Math.min(i + FORK_BATCH_SIZE, indices.size()));
+                futures.add(forkBatch(e.getKey(), batch.stream().map(forks::get).collect(Collectors.toList())));
+                batches.add(batch);
             }
         }
 
         // collect all futures, effectively blocking until all forks are started
-        List<UUID> ids = new ArrayList<>();
-        for (Future<UUID> f : futures) {
-            ids.add(f.get());
+        // the IDs are returned in the same order as the fork definitions
+        UUID[] result = new UUID[forks.size()];
+        for (int i = 0; i < futures.size(); i++) {
+            List<UUID> batchIds = futures.get(i).get();
+            List<Integer> batch = batches.get(i);
+            for (int j = 0; j < batchIds.size(); j++) {
+                result[batch.get(j)] = batchIds.get(j);
+            }
         }
+        List<UUID> ids = new ArrayList<>(Arrays.asList(result));
 
         boolean sync = in.sync();
         if (sync) {
@@ -464,25 +490,57 @@ public class ConcordTaskCommon {
         return ids;
     }
 
-    private Future<UUID> forkOne(ForkStartParams in) {
-        if (in.payload() != null) {
-            log.warn("'" + StartParams.PAYLOAD_KEY + "' parameter is not supported for fork action and will be ignored");
-        }
+    private Future<List<UUID>> forkBatch(String apiKey, List<ForkStartParams> forks) {
+        List<Map<String, Object>> reqs = new ArrayList<>(forks.size());
+        for (ForkStartParams f : forks) {
+            if (f.payload() != null) {
+                log.warn("'" + StartParams.PAYLOAD_KEY + "' parameter is not supported for fork action and will be ignored");
+            }
 
-        Map<String, Object> req = createRequest(in);
+            Map<String, Object> req = createRequest(f);
 
-        if (in.debug()) {
-            log.info("Forking the current instance (sync={}, req={})...", in.sync(), req);
+            if (f.debug()) {
+                log.info("Forking the current instance (sync={}, req={})...", f.sync(), req);
+            }
+
+            reqs.add(req);
         }
 
-        return executor.submit(() -> withClient(in.apiKey(), client -> {
+        return executor.submit(() -> withClient(apiKey, client -> {
             ProcessApi api = new ProcessApi(client);
-            StartProcessResponse resp = api.fork(currentProcessId, req, false, null);
-            log.info("Forked a child process: {} url: {}", resp.getInstanceId(), getProcessUrl(in, resp.getInstanceId()));
-            return resp.getInstanceId();
+            List<StartProcessResponse> resp = forkBatch(api, reqs);
+
+            List<UUID> ids = new ArrayList<>(resp.size());
+            for (int i = 0; i < resp.size(); i++) {
+                UUID id = resp.get(i).getInstanceId();
+                log.info("Forked a child process: {} url: {}", id, getProcessUrl(forks.get(i), id));
+                ids.add(id);
+            }
+            return ids;
         }));
     }
 
+    private List<StartProcessResponse> forkBatch(ProcessApi api, List<Map<String, Object>> reqs) throws ApiException {
+        if (forkBatchSupported) {
+            try {
+                return api.forkBatch(currentProcessId, reqs, null);
+            } catch (ApiException e) {
+                if (e.getCode() != 404 && e.getCode() != 405) {
+                    throw e;
+                }
+
+                log.info("The server doesn't support batch forks, forking one by one...");
+                forkBatchSupported = false;
+            }
+        }
+
+        List<StartProcessResponse> result = new ArrayList<>(reqs.size());
+        for (Map<String, Object> req : reqs) {
+            result.add(api.fork(currentProcessId, req, false, null));
+        }
+        return result;
+    }
+
     private String getProcessUrl(ConcordTaskParams in, UUID processId) {
         Action action = in.action();
         if (action == Action.STARTEXTERNAL || processLinkTemplate == null) {
@@ -96,9 +96,10 @@ public class JsonStoreTaskCommon {
 
         log.info("Executing query '{}' (org='{}', store='{}') with parameters '{}'", queryName, orgName, storeName, params);
 
+        // no limit or cursor, the query's results are returned at once
         return ClientUtils.withRetry(RETRY_COUNT, RETRY_INTERVAL, () -> {
             JsonStoreQueryApi api = new JsonStoreQueryApi(apiClient);
-            return api.exec(orgName, storeName, queryName, params);
+            return api.exec(orgName, storeName, queryName, null, null, params);
         });
     }
 
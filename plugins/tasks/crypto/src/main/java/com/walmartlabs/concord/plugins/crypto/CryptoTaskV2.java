@@ -50,11 +50,23 @@ public class CryptoTaskV2 implements Task {
     }
 
     public String exportAsString(String orgName, String name, String password) throws Exception {
-        return secretService.exportAsString(orgName, name, password);
+        return exportAsString(orgName, name, password, true);
+    }
+
+    /**
+     * @param useCache if {@code false} the secret is always fetched from
+     *                 the server and is not kept in the process' secret cache
+     */
+    public String exportAsString(String orgName, String name, String password, boolean useCache) throws Exception {
+        return secretService(useCache).exportAsString(orgName, name, password);
     }
 
     public Map<String, String> exportKeyAsFile(String orgName, String name, String password) throws Exception {
-        KeyPair keyPair = secretService.exportKeyAsFile(orgName, name, password);
+        return exportKeyAsFile(orgName, name, password, true);
+    }
+
+    public Map<String, String> exportKeyAsFile(String orgName, String name, String password, boolean useCache) throws Exception {
+        KeyPair keyPair = secretService(useCache).exportKeyAsFile(orgName, name, password);
 
         Path baseDir = workDir;
 
@@ -65,7 +77,11 @@ public class CryptoTaskV2 implements Task {
     }
 
     public Map<String, String> exportCredentials(String orgName, String name, String password) throws Exception {
-        UsernamePassword credentials = secretService.exportCredentials(orgName, name, password);
+        return exportCredentials(orgName, name, password, true);
+    }
+
+    public Map<String, String> exportCredentials(String orgName, String name, String password, boolean useCache) throws Exception {
+        UsernamePassword credentials = secretService(useCache).exportCredentials(orgName, name, password);
 
         Map<String, String> m = new HashMap<>();
         m.put("username", credentials.username());
@@ -74,7 +90,11 @@ public class CryptoTaskV2 implements Task {
     }
 
     public String exportAsFile(String orgName, String name, String password) throws Exception {
-        Path path = secretService.exportAsFile(orgName, name, password);
+        return exportAsFile(orgName, name, password, true);
+    }
+
+    public String exportAsFile(String orgName, String name, String password, boolean useCache) throws Exception {
+        Path path = secretService(useCache).exportAsFile(orgName, name, password);
         return workDir.relativize(path).toString();
     }
 
@@ -99,4 +119,8 @@ public class CryptoTaskV2 implements Task {
         throw new IllegalStateException("The task doesn't support full task syntax yet. " +
                 "Please call the task using expressions.");
     }
+
+    private SecretService secretService(boolean useCache) {
+        return useCache ? secretService : secretService.noCache();
+    }
 }
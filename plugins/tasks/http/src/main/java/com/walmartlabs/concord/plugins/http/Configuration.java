@@ -57,6 +57,8 @@ public class Configuration {
     private final String proxy;
     private final boolean debug;
     private boolean followRedirects;
+    private final int retryCount;
+    private final long retryInterval;
 
     private Configuration(RequestMethodType methodType,
                           String url,
@@ -72,7 +74,9 @@ public class Configuration {
                           boolean ignoreErrors,
                           String proxy,
                           boolean debug,
-                          boolean followRedirects) {
+                          boolean followRedirects,
+                          int retryCount,
+                          long retryInterval) {
 
         this.methodType = methodType;
         this.url = url;
@@ -89,6 +93,8 @@ public class Configuration {
         this.proxy = proxy;
         this.debug = debug;
         this.followRedirects = followRedirects;
+        this.retryCount = retryCount;
+        this.retryInterval = retryInterval;
     }
 
     /**
@@ -196,6 +202,14 @@ public class Configuration {
         return followRedirects;
     }
 
+    public int getRetryCount() {
+        return retryCount;
+    }
+
+    public long getRetryInterval() {
+        return retryInterval;
+    }
+
     public static class Builder {
 
         private String url;
@@ -213,6 +227,8 @@ public class Configuration {
         private String proxy;
         private boolean debug;
         private boolean followRedirects = true;
+        private int retryCount = 0;
+        private long retryInterval = 1000;
 
         /**
          * Used to specify the url which will later use to create {@link org.apache.http.client.methods.HttpUriRequest}
@@ -362,6 +378,37 @@ public class Configuration {
             return this;
         }
 
+        /**
+         * Used to specify the number of retries for idempotent requests
+         * (GET, PUT, DELETE) that failed with an I/O error or with
+         * one of the "try again later" status codes (429, 502, 503, 504).
+         * <p>
+         * Default value is {@code 0}
+         * </p>
+         *
+         * @param retryCount
+         * @return instance of this {@link Builder}
+         */
+        public Builder withRetryCount(int retryCount) {
+            this.retryCount = retryCount;
+            return this;
+        }
+
+        /**
+         * Used to specify the initial delay between retries (in ms).
+         * The delay is doubled after each attempt.
+         * <p>
+         * Default value is {@code 1000}
+         * </p>
+         *
+         * @param retryInterval
+         * @return instance of this {@link Builder}
+         */
+        public Builder withRetryInterval(long retryInterval) {
+            this.retryInterval = retryInterval;
+            return this;
+        }
+
         /**
          * Invoking this method will result in a new configuration
          *
@@ -376,10 +423,15 @@ public class Configuration {
                 throw new IllegalArgumentException("Body is missing for Post method");
             } else if (this.methodType == RequestMethodType.PUT && (this.body == null)) {
                 throw new IllegalArgumentException("Body is missing for Put method");
+            } else if (this.retryCount < 0) {
+                throw new IllegalArgumentException("Retry count must be a non-negative number: " + retryCount);
+            } else if (this.retryInterval < 0) {
+                throw new IllegalArgumentException("Retry interval must be a non-negative number: " + retryInterval);
             }
 
             return new Configuration(methodType, url, encodedAuthToken, requestType, responseType, workDir,
-                    requestHeaders, body, connectTimeout, socketTimeout, requestTimeout, ignoreErrors, proxy, debug, followRedirects);
+                    requestHeaders, body, connectTimeout, socketTimeout, requestTimeout, ignoreErrors, proxy, debug, followRedirects,
+                    retryCount, retryInterval);
         }
 
         /**
@@ -482,8 +534,19 @@ public class Configuration {
 
             this.followRedirects = MapUtils.getBoolean(input, FOLLOW_REDIRECTS_KEY, true);
 
+            this.retryCount = MapUtils.getInt(input, RETRY_COUNT_KEY, 0);
+            if (retryCount < 0) {
+                throw new IllegalArgumentException("'" + RETRY_COUNT_KEY + ": " + retryCount + "' must be a non-negative number");
+            }
+
+            this.retryInterval = MapUtils.getNumber(input, RETRY_INTERVAL_KEY, 1000).longValue();
+            if (retryInterval < 0) {
+                throw new IllegalArgumentException("'" + RETRY_INTERVAL_KEY + ": " + retryInterval + "' must be a non-negative number");
+            }
+
             return new Configuration(methodType, url, encodedAuthToken, requestType, responseType, workDir,
-                    requestHeaders, body, connectTimeout, socketTimeout, requestTimeout, ignoreErrors, proxy, debug, followRedirects);
+                    requestHeaders, body, connectTimeout, socketTimeout, requestTimeout, ignoreErrors, proxy, debug, followRedirects,
+                    retryCount, retryInterval);
         }
 
         private static void validateMandatory(Map<String, Object> m) {
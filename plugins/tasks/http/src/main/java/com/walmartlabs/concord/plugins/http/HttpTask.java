@@ -169,6 +169,8 @@ public class HttpTask implements Task {
         static final String REQUEST_KEY = "request";
         static final String REQUEST_TIMEOUT_KEY = "requestTimeout";
         static final String RESPONSE_KEY = "response";
+        static final String RETRY_COUNT_KEY = "retryCount";
+        static final String RETRY_INTERVAL_KEY = "retryInterval";
         static final String SOCKET_TIMEOUT_KEY = "socketTimeout";
         static final String TOKEN_KEY = "token";
         static final String URL_KEY = "url";
@@ -192,6 +194,8 @@ public class HttpTask implements Task {
                 REQUEST_KEY,
                 REQUEST_TIMEOUT_KEY,
                 RESPONSE_KEY,
+                RETRY_COUNT_KEY,
+                RETRY_INTERVAL_KEY,
                 SOCKET_TIMEOUT_KEY,
                 TOKEN_KEY,
                 URL_KEY,
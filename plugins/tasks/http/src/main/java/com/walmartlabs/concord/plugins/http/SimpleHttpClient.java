@@ -28,7 +28,9 @@ import com.walmartlabs.concord.plugins.http.request.HttpTaskRequest;
 import org.apache.http.*;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.config.Registry;
 import org.apache.http.config.RegistryBuilder;
 import org.apache.http.conn.HttpClientConnectionManager;
@@ -37,6 +39,7 @@ import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.conn.ssl.TrustAllStrategy;
+import org.apache.http.impl.client.BasicCookieStore;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
@@ -46,8 +49,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.ws.rs.core.Response.Status.Family;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -55,9 +58,7 @@ import java.nio.file.attribute.FileAttribute;
 import java.security.KeyManagementException;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.*;
 
 import static com.walmartlabs.concord.plugins.http.HttpTask.ResponseType;
@@ -67,16 +68,40 @@ public class SimpleHttpClient {
 
     private static final Logger log = LoggerFactory.getLogger(SimpleHttpClient.class);
 
+    private static final int MAX_CONNECTIONS = 100;
+    private static final int MAX_CONNECTIONS_PER_ROUTE = 20;
+    private static final long MAX_IDLE_TIME = 30000;
+
+    private static final Set<String> IDEMPOTENT_METHODS = new HashSet<>(Arrays.asList("GET", "PUT", "DELETE"));
+    private static final Set<Integer> RETRY_STATUS_CODES = new HashSet<>(Arrays.asList(429, 502, 503, 504));
+
+    /**
+     * The client and its connection pool are shared by all task calls in
+     * the current process. All connections use the same TLS settings, the
+     * proxy is a part of the connection's route, so the pooled connections
+     * are reused only for the same target and proxy.
+     */
+    private static volatile CloseableHttpClient sharedClient;
+
+    private static final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "http-task-request");
+        t.setDaemon(true);
+        return t;
+    });
+
     private final Configuration config;
     private final CloseableHttpClient client;
     private final HttpUriRequest request;
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private final ExecutorService executorService = Executors.newSingleThreadExecutor();
 
     private SimpleHttpClient(Configuration config) throws Exception {
         this.config = config;
-        this.client = createClient(config);
+        this.client = getSharedClient();
         this.request = buildHttpUriRequest(config);
+
+        if (request instanceof HttpRequestBase) {
+            ((HttpRequestBase) request).setConfig(buildRequestConfig(config));
+        }
     }
 
     /**
@@ -103,7 +128,7 @@ public class SimpleHttpClient {
                 logRequest(request);
             }
 
-            httpResponse = callWithTimeout(() -> this.client.execute(request), config.getRequestTimeout());
+            httpResponse = callWithTimeout(this::executeWithRetry, config.getRequestTimeout());
 
             int code = httpResponse.getStatusLine().getStatusCode();
             if (isUnauthorized(code) && !config.isIgnoreErrors()) {
@@ -153,13 +178,72 @@ public class SimpleHttpClient {
 
                 httpResponse.close();
             }
+        }
+    }
+
+    /**
+     * Executes the request, retries idempotent requests on I/O errors and
+     * on "try again later" status codes with an exponential backoff.
+     */
+    private CloseableHttpResponse executeWithRetry() throws IOException, InterruptedException {
+        int maxRetries = isRetryable(request) ? config.getRetryCount() : 0;
+        long delay = config.getRetryInterval();
+
+        // the client is shared by all calls of the process, keep the cookies
+        // only for the duration of the call (e.g. between redirects)
+        HttpClientContext context = HttpClientContext.create();
+        context.setCookieStore(new BasicCookieStore());
+
+        for (int attempt = 0; ; attempt++) {
+            boolean lastAttempt = attempt >= maxRetries;
+
+            CloseableHttpResponse response;
+            try {
+                response = client.execute(request, context);
+            } catch (IOException e) {
+                if (lastAttempt || request.isAborted()) {
+                    throw e;
+                }
+
+                log.warn("Request error: {}, retrying in {}ms ({}/{})...", e.getMessage(), delay, attempt + 1, maxRetries);
+                delay = backoff(delay);
+                continue;
+            }
 
-            this.client.close();
+            int code = response.getStatusLine().getStatusCode();
+            if (lastAttempt || !RETRY_STATUS_CODES.contains(code)) {
+                return response;
+            }
+
+            // release the connection back to the pool
+            EntityUtils.consumeQuietly(response.getEntity());
+            response.close();
+
+            log.warn("Response status code: {}, retrying in {}ms ({}/{})...", code, delay, attempt + 1, maxRetries);
+            delay = backoff(delay);
         }
     }
 
+    private static long backoff(long delay) throws InterruptedException {
+        Thread.sleep(delay);
+        return delay * 2;
+    }
+
+    private static boolean isRetryable(HttpUriRequest request) {
+        if (!IDEMPOTENT_METHODS.contains(request.getMethod())) {
+            return false;
+        }
+
+        if (request instanceof HttpEntityEnclosingRequest) {
+            HttpEntity e = ((HttpEntityEnclosingRequest) request).getEntity();
+            return e == null || e.isRepeatable();
+        }
+
+        return true;
+    }
+
     private <T> T callWithTimeout(Callable<T> callable, long timeoutDurationMs) throws Exception {
-        Future<T> future = executorService.submit(callable);
+        Future<T> future = executor.submit(callable);
         try {
             if (timeoutDurationMs > 0) {
                 return future.get(timeoutDurationMs, TimeUnit.MILLISECONDS);
@@ -238,7 +322,9 @@ public class SimpleHttpClient {
         Path tmpDir = assertTempDir(baseDir);
         Path tempFile = uriToPath(this.request.getURI(), tmpDir);
 
-        entity.writeTo(new FileOutputStream(tempFile.toFile()));
+        try (OutputStream out = Files.newOutputStream(tempFile)) {
+            entity.writeTo(out);
+        }
         // Return the relative path instead of absolute path
         return baseDir.relativize(tempFile.toAbsolutePath()).toString();
     }
@@ -312,12 +398,12 @@ public class SimpleHttpClient {
     }
 
     /**
-     * Method to create {@link CloseableHttpClient client} with custom connection manager
+     * Method to build the per-request configuration: timeouts, redirects and proxy
      *
-     * @return CloseableHttpClient client
-     * @throws Exception exception
+     * @param cfg {@link Configuration}
+     * @return RequestConfig
      */
-    private static CloseableHttpClient createClient(Configuration cfg) throws Exception {
+    private static RequestConfig buildRequestConfig(Configuration cfg) {
         RequestConfig.Builder c = RequestConfig.custom()
                 .setConnectTimeout(cfg.getConnectTimeout())
                 .setSocketTimeout(cfg.getSocketTimeout())
@@ -329,10 +415,31 @@ public class SimpleHttpClient {
             c.setProxy(HttpHost.create(proxy));
         }
 
-        return HttpClientBuilder.create()
-                .setConnectionManager(buildConnectionManager())
-                .setDefaultRequestConfig(c.build())
-                .build();
+        return c.build();
+    }
+
+    /**
+     * Method to get the shared {@link CloseableHttpClient client}, creates the client on the first call
+     *
+     * @return CloseableHttpClient client
+     * @throws Exception exception
+     */
+    private static CloseableHttpClient getSharedClient() throws Exception {
+        CloseableHttpClient c = sharedClient;
+        if (c != null) {
+            return c;
+        }
+
+        synchronized (SimpleHttpClient.class) {
+            if (sharedClient == null) {
+                sharedClient = HttpClientBuilder.create()
+                        .setConnectionManager(buildConnectionManager())
+                        .evictExpiredConnections()
+                        .evictIdleConnections(MAX_IDLE_TIME, TimeUnit.MILLISECONDS)
+                        .build();
+            }
+            return sharedClient;
+        }
     }
 
     /**
@@ -353,7 +460,10 @@ public class SimpleHttpClient {
                 .register("https", socketFactory)
                 .build();
 
-        return new PoolingHttpClientConnectionManager(registry);
+        PoolingHttpClientConnectionManager m = new PoolingHttpClientConnectionManager(registry);
+        m.setMaxTotal(MAX_CONNECTIONS);
+        m.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+        return m;
     }
 
     private HttpUriRequest buildHttpUriRequest(Configuration cfg) throws Exception {
@@ -20,6 +20,7 @@ package com.walmartlabs.concord.plugins.http;
  * =====
  */
 
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
 import com.walmartlabs.concord.plugins.http.exception.RequestTimeoutException;
 import com.walmartlabs.concord.sdk.Context;
 import org.junit.Test;
@@ -314,6 +315,46 @@ public class HttpTaskTest extends AbstractHttpTaskTest {
         task.execute(mockContext);
     }
 
+    @Test
+    public void testRetry() throws Exception {
+        rule.stubFor(get(urlEqualTo("/retry"))
+                .inScenario("retry")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(503))
+                .willSetStateTo("ok"));
+
+        rule.stubFor(get(urlEqualTo("/retry"))
+                .inScenario("retry")
+                .whenScenarioStateIs("ok")
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "text/plain")
+                        .withBody("ok")));
+
+        initCxtForRequest(mockContext, "GET", "string", "string",
+                "http://localhost:" + rule.port() + "/retry", false, 0);
+        when(mockContext.getVariable("retryCount")).thenReturn(2);
+        when(mockContext.getVariable("retryInterval")).thenReturn(10);
+        task.execute(mockContext);
+
+        verify(2, getRequestedFor(urlEqualTo("/retry")));
+        assertEquals(200, response.get("statusCode"));
+        assertEquals("ok", response.get("content"));
+    }
+
+    @Test
+    public void testNoRetryByDefault() throws Exception {
+        rule.stubFor(get(urlEqualTo("/unavailable"))
+                .willReturn(aResponse().withStatus(503)));
+
+        initCxtForRequest(mockContext, "GET", "string", "string",
+                "http://localhost:" + rule.port() + "/unavailable", false, 0);
+        task.execute(mockContext);
+
+        verify(1, getRequestedFor(urlEqualTo("/unavailable")));
+        assertEquals(503, response.get("statusCode"));
+    }
+
     @Test(expected = RuntimeException.class)
     public void testInvalidJsonResponse() throws Exception {
         initCxtForRequest(mockContext, "GET", "json", "json",
@@ -342,4 +383,13 @@ public class HttpTaskTest extends AbstractHttpTaskTest {
         task.execute(mockContext);
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRetryInterval() throws Exception {
+        initCxtForRequest(mockContext, "GET", "json", "json",
+                "http://localhost:" + rule.port() + "/json", false, 0);
+        when(mockContext.getVariable("retryCount")).thenReturn(1);
+        when(mockContext.getVariable("retryInterval")).thenReturn(-1);
+        task.execute(mockContext);
+    }
+
 }
@@ -37,6 +37,7 @@ public class PolicyEngine {
     private final ConcurrentProcessPolicy concurrentProcessPolicy;
     private final ForkDepthPolicy forkDepthPolicy;
     private final ProcessTimeoutPolicy processTimeoutPolicy;
+    private final StartRatePolicy startRatePolicy;
     private final ProtectedTasksPolicy protectedTasksPolicy;
     private final EntityPolicy entityPolicy;
     private final ProcessCfgPolicy processCfgPolicy;
@@ -67,6 +68,7 @@ public class PolicyEngine {
         this.concurrentProcessPolicy = new ConcurrentProcessPolicy(qr.getConcurrent());
         this.forkDepthPolicy = new ForkDepthPolicy(qr.getForkDepthRule());
         this.processTimeoutPolicy = new ProcessTimeoutPolicy(qr.getProcessTimeoutRule());
+        this.startRatePolicy = new StartRatePolicy(qr.getStartRate());
 
         this.protectedTasksPolicy = new ProtectedTasksPolicy(rules.getProtectedTasksRules());
         this.entityPolicy = new EntityPolicy(rules.getEntityRules());
@@ -121,6 +123,10 @@ public class PolicyEngine {
         return processTimeoutPolicy;
     }
 
+    public StartRatePolicy getStartRatePolicy() {
+        return startRatePolicy;
+    }
+
     public ProtectedTasksPolicy getProtectedTasksPolicy() {
         return protectedTasksPolicy;
     }
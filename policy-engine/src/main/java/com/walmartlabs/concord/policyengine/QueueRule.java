@@ -29,21 +29,24 @@ import java.util.Objects;
 public class QueueRule implements Serializable {
 
     public static QueueRule empty() {
-        return new QueueRule(null, null, null);
+        return new QueueRule(null, null, null, null);
     }
 
     private final ConcurrentProcessRule concurrent;
     private final ForkDepthRule forkDepthRule;
     private final ProcessTimeoutRule processTimeoutRule;
+    private final StartRateRule startRate;
 
     @JsonCreator
     public QueueRule(@JsonProperty("concurrent") ConcurrentProcessRule concurrent,
                      @JsonProperty("forkDepth") ForkDepthRule forkDepthRule,
-                     @JsonProperty("processTimeout")  ProcessTimeoutRule processTimeoutRule) {
+                     @JsonProperty("processTimeout")  ProcessTimeoutRule processTimeoutRule,
+                     @JsonProperty("startRate") StartRateRule startRate) {
 
         this.concurrent = concurrent;
         this.forkDepthRule = forkDepthRule;
         this.processTimeoutRule = processTimeoutRule;
+        this.startRate = startRate;
     }
 
     public ConcurrentProcessRule getConcurrent() {
@@ -58,6 +61,10 @@ public class QueueRule implements Serializable {
         return processTimeoutRule;
     }
 
+    public StartRateRule getStartRate() {
+        return startRate;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -65,12 +72,13 @@ public class QueueRule implements Serializable {
         QueueRule queueRule = (QueueRule) o;
         return Objects.equals(concurrent, queueRule.concurrent) &&
                 Objects.equals(forkDepthRule, queueRule.forkDepthRule) &&
-                Objects.equals(processTimeoutRule, queueRule.processTimeoutRule);
+                Objects.equals(processTimeoutRule, queueRule.processTimeoutRule) &&
+                Objects.equals(startRate, queueRule.startRate);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(concurrent, forkDepthRule, processTimeoutRule);
+        return Objects.hash(concurrent, forkDepthRule, processTimeoutRule, startRate);
     }
 
     @Override
@@ -79,6 +87,7 @@ public class QueueRule implements Serializable {
                 "concurrent=" + concurrent +
                 ", forkDepthRule=" + forkDepthRule +
                 ", processTimeoutRule=" + processTimeoutRule +
+                ", startRate=" + startRate +
                 '}';
     }
 }
@@ -0,0 +1,48 @@
+package com.walmartlabs.concord.policyengine;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import java.util.function.ToLongFunction;
+
+public class StartRatePolicy {
+
+    private final StartRateRule rule;
+
+    public StartRatePolicy(StartRateRule rule) {
+        this.rule = rule;
+    }
+
+    /**
+     * @param acquire takes a start "token" according to the rule. The rule
+     *                can be {@code null} if there are no policy limits, the
+     *                server-wide limits still apply in that case. Returns
+     *                the number of milliseconds until the next start is
+     *                allowed or {@code 0} if the token was acquired.
+     * @return the denied rule and the number of milliseconds to wait
+     */
+    public CheckResult<StartRateRule, Long> check(ToLongFunction<StartRateRule> acquire) {
+        long retryAfter = acquire.applyAsLong(rule);
+        if (retryAfter > 0) {
+            return CheckResult.error(new CheckResult.Item<>(rule, retryAfter));
+        }
+        return CheckResult.success();
+    }
+}
@@ -0,0 +1,106 @@
+package com.walmartlabs.concord.policyengine;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Limits the rate of new processes. The limits are expressed as
+ * the number of process starts per minute. {@code burst} is the number
+ * of starts allowed in a quick succession (defaults to one second worth
+ * of starts, i.e. {@code limit / 60}, but at least 1).
+ * {@code weight} is the org's share of the server's start capacity when
+ * the capacity is contended (defaults to 1).
+ */
+public class StartRateRule implements Serializable {
+
+    private final String msg;
+    private final Integer maxPerOrg;
+    private final Integer maxPerProject;
+    private final Integer burst;
+    private final Integer weight;
+
+    @JsonCreator
+    public StartRateRule(@JsonProperty("msg") String msg,
+                         @JsonProperty("maxPerOrg") Integer maxPerOrg,
+                         @JsonProperty("maxPerProject") Integer maxPerProject,
+                         @JsonProperty("burst") Integer burst,
+                         @JsonProperty("weight") Integer weight) {
+
+        this.msg = msg;
+        this.maxPerOrg = maxPerOrg;
+        this.maxPerProject = maxPerProject;
+        this.burst = burst;
+        this.weight = weight;
+    }
+
+    public String getMsg() {
+        return msg;
+    }
+
+    public Integer getMaxPerOrg() {
+        return maxPerOrg;
+    }
+
+    public Integer getMaxPerProject() {
+        return maxPerProject;
+    }
+
+    public Integer getBurst() {
+        return burst;
+    }
+
+    public Integer getWeight() {
+        return weight;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        StartRateRule that = (StartRateRule) o;
+        return Objects.equals(msg, that.msg) &&
+                Objects.equals(maxPerOrg, that.maxPerOrg) &&
+                Objects.equals(maxPerProject, that.maxPerProject) &&
+                Objects.equals(burst, that.burst) &&
+                Objects.equals(weight, that.weight);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(msg, maxPerOrg, maxPerProject, burst, weight);
+    }
+
+    @Override
+    public String toString() {
+        return "StartRateRule{" +
+                "msg='" + msg + '\'' +
+                ", maxPerOrg=" + maxPerOrg +
+                ", maxPerProject=" + maxPerProject +
+                ", burst=" + burst +
+                ", weight=" + weight +
+                '}';
+    }
+}
@@ -55,7 +55,8 @@ public class PolicyEngineRulesTest {
         ConcurrentProcessRule concurrent = new ConcurrentProcessRule("msg1", 23, 433);
         ForkDepthRule forkDepthRule = new ForkDepthRule("msg1", 12);
         ProcessTimeoutRule processTimeoutRule = new ProcessTimeoutRule("msg1", "13");
-        QueueRule queueRules = new QueueRule(concurrent, forkDepthRule, processTimeoutRule);
+        StartRateRule startRate = new StartRateRule("msg1", 60, 10, 5, 2);
+        QueueRule queueRules = new QueueRule(concurrent, forkDepthRule, processTimeoutRule, startRate);
 
         ProtectedTasksRule protectedTasksRules = new ProtectedTasksRule(Collections.singleton("task1"));
 
@@ -29,6 +29,8 @@ import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class QueueRuleTest {
 
@@ -60,8 +62,15 @@ public class QueueRuleTest {
         concurrent.put("maxPerOrg", 4);
         concurrent.put("maxPerProject", 5);
 
+        Map<String, Object> startRate = new HashMap<>();
+        startRate.put("msg", "Start rate message");
+        startRate.put("maxPerOrg", 120);
+        startRate.put("burst", 10);
+        startRate.put("weight", 3);
+
         Map<String, Object> rules = new HashMap<>();
         rules.put("concurrent", concurrent);
+        rules.put("startRate", startRate);
         rules.put("process", process);
         rules.put("processPerOrg", processPerOrg);
         rules.put("processPerProject", processPerProject);
@@ -72,5 +81,28 @@ public class QueueRuleTest {
         assertEquals(4, (int)r.getConcurrent().getMaxPerOrg());
         assertEquals(5, (int)r.getConcurrent().getMaxPerProject());
         assertEquals("Concurrent message", r.getConcurrent().getMsg());
+
+        assertNotNull(r.getStartRate());
+        assertEquals(120, (int)r.getStartRate().getMaxPerOrg());
+        assertNull(r.getStartRate().getMaxPerProject());
+        assertEquals(10, (int)r.getStartRate().getBurst());
+        assertEquals(3, (int)r.getStartRate().getWeight());
+    }
+
+    @Test
+    public void testStartRate() {
+        StartRateRule rule = new StartRateRule(null, 60, null, null, null);
+        StartRatePolicy policy = new StartRatePolicy(rule);
+
+        assertTrue(policy.check(r -> 0).getDeny().isEmpty());
+
+        CheckResult<StartRateRule, Long> result = policy.check(r -> 1500);
+        assertEquals(1, result.getDeny().size());
+        assertEquals(1500L, (long) result.getDeny().get(0).getEntity());
+
+        // no policy limits, the server-wide limits still apply
+        result = new StartRatePolicy(null).check(r -> r == null ? 1000 : 0);
+        assertEquals(1, result.getDeny().size());
+        assertNull(result.getDeny().get(0).getRule());
     }
 }
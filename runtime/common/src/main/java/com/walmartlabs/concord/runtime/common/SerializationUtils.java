@@ -24,11 +24,26 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 public final class SerializationUtils {
 
     private static final Logger log = LoggerFactory.getLogger(SerializationUtils.class);
 
+    /**
+     * Header of the "compact" format: {@code CNCS}. The standard Java
+     * serialization streams start with {@code 0xACED}, so both formats
+     * can be distinguished.
+     */
+    private static final byte[] COMPACT_MAGIC = {'C', 'N', 'C', 'S'};
+    private static final int COMPACT_FORMAT_VERSION = 1;
+    private static final int FLAG_COMPRESSED = 0x01;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     public static void serialize(OutputStream out, Serializable o) throws IOException {
         try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
             oos.writeObject(o);
@@ -37,15 +52,77 @@ public final class SerializationUtils {
         }
     }
 
+    /**
+     * Serializes the object using the "compact" format: a versioned header
+     * followed by a buffered and, optionally, compressed Java serialization
+     * stream. Can be read with {@link #deserialize(InputStream, Class)}.
+     */
+    public static void serializeCompact(OutputStream out, Serializable o, boolean compress) throws IOException {
+        out.write(COMPACT_MAGIC);
+        out.write(COMPACT_FORMAT_VERSION);
+        out.write(compress ? FLAG_COMPRESSED : 0);
+
+        Deflater deflater = compress ? new Deflater(Deflater.BEST_SPEED) : null;
+        try {
+            OutputStream dst = compress ? new DeflaterOutputStream(out, deflater, BUFFER_SIZE) : out;
+            serialize(new BufferedOutputStream(dst, BUFFER_SIZE), o);
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+    }
+
+    /**
+     * Deserializes an object. Supports both the standard Java serialization
+     * and the "compact" format.
+     *
+     * @see #serializeCompact(OutputStream, Serializable, boolean)
+     */
     @SuppressWarnings("unchecked")
     public static <T> T deserialize(InputStream in, Class<T> expectedType) throws IOException {
-        try (ObjectInputStream ois = new ObjectInputStream(in)) {
-            return (T) ois.readObject();
-        } catch (ClassNotFoundException e) {
-            throw new IOException("Can't deserialize a value into " + expectedType + ": " + e.getMessage(), e);
+        InputStream src = new BufferedInputStream(in, BUFFER_SIZE);
+
+        Inflater inflater = null;
+        try {
+            if (isCompact(src)) {
+                int version = src.read();
+                if (version != COMPACT_FORMAT_VERSION) {
+                    throw new IOException("Unsupported serialization format version: " + version);
+                }
+
+                int flags = src.read();
+                if ((flags & FLAG_COMPRESSED) != 0) {
+                    inflater = new Inflater();
+                    src = new BufferedInputStream(new InflaterInputStream(src, inflater, BUFFER_SIZE), BUFFER_SIZE);
+                }
+            }
+
+            try (ObjectInputStream ois = new ObjectInputStream(src)) {
+                return (T) ois.readObject();
+            } catch (ClassNotFoundException e) {
+                throw new IOException("Can't deserialize a value into " + expectedType + ": " + e.getMessage(), e);
+            }
+        } finally {
+            if (inflater != null) {
+                inflater.end();
+            }
         }
     }
 
+    private static boolean isCompact(InputStream in) throws IOException {
+        in.mark(COMPACT_MAGIC.length);
+
+        for (byte b : COMPACT_MAGIC) {
+            if (in.read() != b) {
+                in.reset();
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     private SerializationUtils() {
     }
 }
@@ -113,9 +113,10 @@ public final class StateManager {
             throw new IllegalStateException("Can't read the state file. File not found: " + p);
         }
 
-        try (ObjectInputStream in = new ObjectInputStream(Files.newInputStream(p))) {
-            return type.cast(in.readObject());
-        } catch (ClassNotFoundException | IOException e) {
+        // supports both the compact and the "legacy" (plain Java serialization) formats
+        try (InputStream in = Files.newInputStream(p)) {
+            return type.cast(SerializationUtils.deserialize(in, type));
+        } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
@@ -178,7 +179,7 @@ public final class StateManager {
 
         Path tmp = IOUtils.createTempFile("instance", "state");
         try (OutputStream out = Files.newOutputStream(tmp)) {
-            SerializationUtils.serialize(out, state);
+            SerializationUtils.serializeCompact(out, state, true);
         }
         Files.move(tmp, dst, REPLACE_EXISTING);
     }
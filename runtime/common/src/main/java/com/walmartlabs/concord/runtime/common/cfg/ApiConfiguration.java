@@ -84,6 +84,15 @@ public interface ApiConfiguration {
         return 5000;
     }
 
+    /**
+     * How long (in ms) to keep the exported secrets in the process' memory.
+     * The cached data is encrypted. Set to zero to disable the cache.
+     */
+    @Value.Default
+    default long secretCacheTtl() {
+        return TimeUnit.MINUTES.toMillis(5);
+    }
+
     /**
      * Max interval (in ms) without heartbeat before the process fails.
      */
@@ -0,0 +1,85 @@
+package com.walmartlabs.concord.runtime.common;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class SerializationUtilsTest {
+
+    @Test
+    public void testCompact() throws Exception {
+        HashMap<String, Serializable> value = sample();
+
+        byte[] compressed = serializeCompact(value, true);
+        byte[] uncompressed = serializeCompact(value, false);
+        assertTrue(compressed.length < uncompressed.length);
+
+        assertEquals(value, deserialize(compressed));
+        assertEquals(value, deserialize(uncompressed));
+    }
+
+    @Test
+    public void testLegacy() throws Exception {
+        HashMap<String, Serializable> value = sample();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SerializationUtils.serialize(out, value);
+
+        assertEquals(value, deserialize(out.toByteArray()));
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnknownVersion() throws Exception {
+        byte[] ab = serializeCompact(sample(), false);
+        ab[4] = 99;
+        deserialize(ab);
+    }
+
+    private static HashMap<String, Serializable> sample() {
+        ArrayList<String> items = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            items.add("item #" + i);
+        }
+
+        HashMap<String, Serializable> m = new HashMap<>();
+        m.put("x", 123);
+        m.put("items", items);
+        return m;
+    }
+
+    private static byte[] serializeCompact(Serializable value, boolean compress) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SerializationUtils.serializeCompact(out, value, compress);
+        return out.toByteArray();
+    }
+
+    private static Object deserialize(byte[] ab) throws IOException {
+        return SerializationUtils.deserialize(new ByteArrayInputStream(ab), Object.class);
+    }
+}
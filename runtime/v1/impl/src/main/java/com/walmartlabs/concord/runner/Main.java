@@ -39,6 +39,7 @@ import com.walmartlabs.concord.policyengine.PolicyEngineRules;
 import com.walmartlabs.concord.project.NoopImportsNormalizer;
 import com.walmartlabs.concord.project.ProjectLoader;
 import com.walmartlabs.concord.project.model.ProjectDefinition;
+import com.walmartlabs.concord.runner.engine.ElementEventPublisher;
 import com.walmartlabs.concord.runner.engine.EngineFactory;
 import com.walmartlabs.concord.runner.engine.EventConfiguration;
 import com.walmartlabs.concord.runner.engine.ProcessErrorProcessor;
@@ -84,12 +85,14 @@ public class Main {
 
     private final EngineFactory engineFactory;
     private final ApiClientFactory apiClientFactory;
+    private final ElementEventPublisher eventPublisher;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Inject
-    public Main(EngineFactory engineFactory, ApiClientFactory apiClientFactory) {
+    public Main(EngineFactory engineFactory, ApiClientFactory apiClientFactory, ElementEventPublisher eventPublisher) {
         this.engineFactory = engineFactory;
         this.apiClientFactory = apiClientFactory;
+        this.eventPublisher = eventPublisher;
     }
 
     public void run(RunnerConfiguration runnerCfg, Path baseDir) throws Exception {
@@ -162,20 +165,25 @@ public class Main {
         while (true) {
             Collection<Event> resultEvents;
 
-            // check if we need to resume the process from a saved point
-            Set<String> eventNames = StateManager.readResumeEvents(baseDir);
-            if (eventNames == null || eventNames.isEmpty()) {
-                // running fresh
-                // let's check if there are some saved variables (e.g. from the parent process)
-                Variables vars = readSavedVariables(baseDir);
-                resultEvents = start(engine, vars, processCfg, instanceId, baseDir);
-            } else {
-                if (eventNames.size() > 1) {
-                    throw new IllegalStateException("Runtime v1 supports resuming for only one event at the time. Got: " + eventNames);
-                }
+            try {
+                // check if we need to resume the process from a saved point
+                Set<String> eventNames = StateManager.readResumeEvents(baseDir);
+                if (eventNames == null || eventNames.isEmpty()) {
+                    // running fresh
+                    // let's check if there are some saved variables (e.g. from the parent process)
+                    Variables vars = readSavedVariables(baseDir);
+                    resultEvents = start(engine, vars, processCfg, instanceId, baseDir);
+                } else {
+                    if (eventNames.size() > 1) {
+                        throw new IllegalStateException("Runtime v1 supports resuming for only one event at the time. Got: " + eventNames);
+                    }
 
-                String eventName = eventNames.iterator().next();
-                resultEvents = resume(engine, processCfg, instanceId, baseDir, eventName);
+                    String eventName = eventNames.iterator().next();
+                    resultEvents = resume(engine, processCfg, instanceId, baseDir, eventName);
+                }
+            } finally {
+                // the process is finished or suspended, send the remaining element events
+                eventPublisher.flush();
             }
 
             Event checkpointEvent = resultEvents.stream()
@@ -20,10 +20,7 @@ package com.walmartlabs.concord.runner.engine;
  * =====
  */
 
-import com.walmartlabs.concord.client.ApiClientConfiguration;
-import com.walmartlabs.concord.client.ApiClientFactory;
 import com.walmartlabs.concord.client.ProcessEventRequest;
-import com.walmartlabs.concord.client.ProcessEventsApi;
 import io.takari.bpm.ProcessDefinitionProvider;
 import io.takari.bpm.ProcessDefinitionUtils;
 import io.takari.bpm.api.ExecutionException;
@@ -45,11 +42,11 @@ public class ElementEventProcessor {
 
     private static final Logger log = LoggerFactory.getLogger(ElementEventProcessor.class);
 
-    private final ApiClientFactory apiClientFactory;
+    private final ElementEventPublisher publisher;
     private final ProcessDefinitionProvider processDefinitionProvider;
 
-    public ElementEventProcessor(ApiClientFactory apiClientFactory, ProcessDefinitionProvider processDefinitionProvider) {
-        this.apiClientFactory = apiClientFactory;
+    public ElementEventProcessor(ElementEventPublisher publisher, ProcessDefinitionProvider processDefinitionProvider) {
+        this.publisher = publisher;
         this.processDefinitionProvider = processDefinitionProvider;
     }
 
@@ -94,12 +91,10 @@ public class ElementEventProcessor {
             req.setData(e);
             req.setEventDate(Instant.now().atOffset(ZoneOffset.UTC));
 
-            ProcessEventsApi client = new ProcessEventsApi(apiClientFactory.create(
-                    ApiClientConfiguration.builder()
-                            .sessionToken(event.getSessionToken())
-                            .txId(UUID.fromString(event.getInstanceId()))
-                            .build()));
-            client.event(UUID.fromString(event.getInstanceId()), req);
+            publisher.publish(UUID.fromString(event.getInstanceId()), event.getSessionToken(), req);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("process ['{}'] -> interrupted", event.getInstanceId());
         } catch (Exception e) {
             log.warn("process ['{}'] -> transfer error: {}", event.getInstanceId(), e.getMessage());
         }
@@ -0,0 +1,196 @@
+package com.walmartlabs.concord.runner.engine;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.client.ApiClientConfiguration;
+import com.walmartlabs.concord.client.ApiClientFactory;
+import com.walmartlabs.concord.client.ProcessEventRequest;
+import com.walmartlabs.concord.client.ProcessEventsApi;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Sends process events to the server asynchronously, in batches, using
+ * a single long-lived API client per process.
+ * <p/>
+ * The events are sent by a single thread in the order they were published.
+ * The queue is bounded: if the server can't keep up, {@link #publish} blocks
+ * until there's room in the queue.
+ */
+@Named
+@Singleton
+public class ElementEventPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(ElementEventPublisher.class);
+
+    private static final int QUEUE_SIZE = 1000;
+    private static final int BATCH_SIZE = 100;
+    private static final long FLUSH_TIMEOUT = 60000;
+
+    private final ApiClientFactory apiClientFactory;
+    private final BlockingQueue<Item> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+
+    private final Object mutex = new Object();
+    private long published; // guarded by mutex
+    private long processed; // guarded by mutex
+    private Thread sender; // guarded by mutex
+
+    // accessed only by the sender thread
+    private ProcessEventsApi client;
+    private Item clientKey;
+
+    @Inject
+    public ElementEventPublisher(ApiClientFactory apiClientFactory) {
+        this.apiClientFactory = apiClientFactory;
+    }
+
+    public void publish(UUID instanceId, String sessionToken, ProcessEventRequest req) throws InterruptedException {
+        startSender();
+
+        queue.put(new Item(instanceId, sessionToken, req));
+
+        synchronized (mutex) {
+            published++;
+        }
+    }
+
+    /**
+     * Waits until all published events are sent (or failed to send).
+     * Should be called before the process is suspended or finished.
+     */
+    public void flush() {
+        long deadline = System.currentTimeMillis() + FLUSH_TIMEOUT;
+
+        synchronized (mutex) {
+            long target = published;
+            while (processed < target) {
+                long wait = deadline - System.currentTimeMillis();
+                if (wait <= 0) {
+                    log.warn("flush -> timeout, {} event(s) were not sent", target - processed);
+                    return;
+                }
+
+                try {
+                    mutex.wait(wait);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void startSender() {
+        synchronized (mutex) {
+            if (sender != null) {
+                return;
+            }
+
+            sender = new Thread(this::run, "element-event-publisher");
+            sender.setDaemon(true);
+            sender.start();
+        }
+    }
+
+    private void run() {
+        List<Item> batch = new ArrayList<>(BATCH_SIZE);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            queue.drainTo(batch, BATCH_SIZE - 1);
+
+            // send consecutive events of the same process together, preserving the order
+            int start = 0;
+            for (int i = 1; i <= batch.size(); i++) {
+                if (i == batch.size() || !batch.get(i).sameProcess(batch.get(start))) {
+                    send(batch.subList(start, i));
+                    start = i;
+                }
+            }
+
+            synchronized (mutex) {
+                processed += batch.size();
+                mutex.notifyAll();
+            }
+
+            batch.clear();
+        }
+    }
+
+    private void send(List<Item> items) {
+        Item first = items.get(0);
+
+        List<ProcessEventRequest> events = new ArrayList<>(items.size());
+        for (Item i : items) {
+            events.add(i.req);
+        }
+
+        try {
+            getClient(first).batchEvent(first.instanceId, events);
+        } catch (Exception e) {
+            log.warn("send ['{}'] -> transfer error ({} event(s)): {}", first.instanceId, events.size(), e.getMessage());
+        }
+    }
+
+    private ProcessEventsApi getClient(Item i) {
+        if (client == null || !i.sameProcess(clientKey)) {
+            client = new ProcessEventsApi(apiClientFactory.create(
+                    ApiClientConfiguration.builder()
+                            .sessionToken(i.sessionToken)
+                            .txId(i.instanceId)
+                            .build()));
+            clientKey = i;
+        }
+        return client;
+    }
+
+    private static final class Item {
+
+        private final UUID instanceId;
+        private final String sessionToken;
+        private final ProcessEventRequest req;
+
+        private Item(UUID instanceId, String sessionToken, ProcessEventRequest req) {
+            this.instanceId = instanceId;
+            this.sessionToken = sessionToken;
+            this.req = req;
+        }
+
+        private boolean sameProcess(Item o) {
+            return instanceId.equals(o.instanceId) && Objects.equals(sessionToken, o.sessionToken);
+        }
+    }
+}
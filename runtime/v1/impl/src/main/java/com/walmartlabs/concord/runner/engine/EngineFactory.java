@@ -72,13 +72,16 @@ public class EngineFactory {
 
     private final ApiClientFactory apiClientFactory;
     private final ServiceTaskRegistry taskRegistry;
+    private final ElementEventPublisher eventPublisher;
 
     @Inject
     public EngineFactory(ApiClientFactory apiClientFactory,
-                         ServiceTaskRegistry taskRegistry) {
+                         ServiceTaskRegistry taskRegistry,
+                         ElementEventPublisher eventPublisher) {
 
         this.apiClientFactory = apiClientFactory;
         this.taskRegistry = taskRegistry;
+        this.eventPublisher = eventPublisher;
     }
 
     @SuppressWarnings("deprecation")
@@ -140,7 +143,7 @@ public class EngineFactory {
         cfg.setWrapAllExceptionsAsBpmnErrors(true);
         cfg.setCopyAllCallActivityOutVariables(true);
 
-        ElementEventProcessor eventProcessor = new ElementEventProcessor(apiClientFactory, adapter.processes());
+        ElementEventProcessor eventProcessor = new ElementEventProcessor(eventPublisher, adapter.processes());
         ProcessOutVariables outVariables = new ProcessOutVariables(contextFactory);
 
         List<TaskInterceptor> taskInterceptors = new ArrayList<>();
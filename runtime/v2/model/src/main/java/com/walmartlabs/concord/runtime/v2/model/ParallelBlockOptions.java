@@ -23,6 +23,7 @@ package com.walmartlabs.concord.runtime.v2.model;
 import com.walmartlabs.concord.runtime.v2.parser.StepOptions;
 import org.immutables.value.Value;
 
+import javax.annotation.Nullable;
 import java.util.Collections;
 import java.util.List;
 
@@ -35,6 +36,14 @@ public interface ParallelBlockOptions extends StepOptions {
         return Collections.emptyList();
     }
 
+    /**
+     * Max number of the block's steps executed concurrently.
+     * If not specified, all steps are started at once (subject to
+     * the process-wide {@link ProcessConfiguration#parallelism()} limit).
+     */
+    @Nullable
+    Integer parallelism();
+
     static ImmutableParallelBlockOptions.Builder builder() {
         return ImmutableParallelBlockOptions.builder();
     }
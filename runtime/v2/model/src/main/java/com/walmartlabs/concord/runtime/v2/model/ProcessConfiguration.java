@@ -118,6 +118,13 @@ public interface ProcessConfiguration extends Serializable {
     @Nullable
     ExclusiveModeConfiguration exclusive();
 
+    /**
+     * Max number of VM threads (e.g. {@code parallel} block steps) executed
+     * concurrently. Additional threads wait in a queue.
+     */
+    @Nullable
+    Integer parallelism();
+
     @Value.Default
     default List<String> out() {
         return Collections.emptyList();
@@ -136,6 +143,7 @@ public interface ProcessConfiguration extends Serializable {
                 .arguments(ConfigurationUtils.deepMerge(a.arguments(), b.arguments()))
                 .initiator(b.initiator() != null ? b.initiator() : a.initiator())
                 .currentUser(b.currentUser() != null ? b.currentUser() : a.currentUser())
+                .parallelism(b.parallelism() != null ? b.parallelism() : a.parallelism())
                 .build();
     }
 }
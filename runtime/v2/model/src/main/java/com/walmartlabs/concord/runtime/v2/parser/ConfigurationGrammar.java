@@ -70,6 +70,7 @@ public final class ConfigurationGrammar {
                                     optional("requirements", mapVal.map(o::requirements)),
                                     optional("processTimeout", durationVal.map(o::processTimeout)),
                                     optional("exclusive", exclusiveVal.map(o::exclusive)),
+                                    optional("parallelism", intVal.map(o::parallelism)),
                                     optional("events", eventsVal.map(o::events)),
                                     optional("out", stringArrayVal.map(o::addAllOut)),
                                     optional("arguments", mapVal.map(o::arguments)),
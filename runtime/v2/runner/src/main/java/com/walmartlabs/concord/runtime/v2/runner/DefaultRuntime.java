@@ -21,32 +21,40 @@ package com.walmartlabs.concord.runtime.v2.runner;
  */
 
 import com.google.inject.Injector;
+import com.walmartlabs.concord.runtime.v2.runner.logging.SegmentedLogger;
 import com.walmartlabs.concord.svm.Runtime;
 import com.walmartlabs.concord.svm.State;
 import com.walmartlabs.concord.svm.ThreadId;
 import com.walmartlabs.concord.svm.VM;
-
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class DefaultRuntime implements Runtime {
 
+    private static final Logger log = LoggerFactory.getLogger(DefaultRuntime.class);
+
     private final VM vm;
     private final Injector injector;
-    private final ExecutorService executor;
+    private final ThreadScheduler scheduler;
 
-    public DefaultRuntime(VM vm, Injector injector) {
+    public DefaultRuntime(VM vm, Injector injector, ThreadScheduler scheduler) {
         this.vm = vm;
         this.injector = injector;
-
-        this.executor = Executors.newCachedThreadPool();
+        this.scheduler = scheduler;
     }
 
     @Override
     public void spawn(State state, ThreadId threadId) {
-        executor.submit(() -> {
-            vm.eval(this, state, threadId);
-            return null;
+        scheduler.submit(() -> {
+            // pooled threads might inherit the log segment of the thread that created them
+            SegmentedLogger.clearLogSegment();
+
+            try {
+                vm.eval(this, state, threadId);
+            } catch (Exception e) {
+                // the error is already saved in the state, it will be handled by the parent thread
+                log.debug("spawn ['{}'] -> failed: {}", threadId, e.getMessage());
+            }
         });
     }
 
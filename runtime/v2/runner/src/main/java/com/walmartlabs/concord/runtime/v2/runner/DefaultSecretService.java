@@ -21,6 +21,7 @@ package com.walmartlabs.concord.runtime.v2.runner;
  */
 
 import com.walmartlabs.concord.ApiClient;
+import com.walmartlabs.concord.client.SecretCache;
 import com.walmartlabs.concord.client.SecretClient;
 import com.walmartlabs.concord.client.SecretEntry;
 import com.walmartlabs.concord.common.secret.BinaryDataSecret;
@@ -31,21 +32,35 @@ import com.walmartlabs.concord.runtime.v2.sdk.SecretService;
 import com.walmartlabs.concord.sdk.Secret;
 
 import javax.inject.Inject;
+import javax.inject.Singleton;
 import javax.xml.bind.DatatypeConverter;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
+/**
+ * Keeps the exported secrets in an encrypted in-memory cache for the
+ * duration of the process. See {@link SecretService#noCache()} to opt-out.
+ */
+@Singleton
 public class DefaultSecretService implements SecretService {
 
+    private static final int SECRET_CACHE_MAX_ENTRIES = 1000;
+
     private final SecretClient secretClient;
     private final FileService fileService;
     private final InstanceId instanceId;
+    private final boolean useCache;
 
     @Inject
     public DefaultSecretService(RunnerConfiguration cfg, ApiClient apiClient, FileService fileService, InstanceId instanceId) {
-        this.secretClient = new SecretClient(apiClient, cfg.api().retryCount(), cfg.api().retryInterval());
+        this(new SecretClient(apiClient, cfg.api().retryCount(), cfg.api().retryInterval(), createCache(cfg)), fileService, instanceId, true);
+    }
+
+    private DefaultSecretService(SecretClient secretClient, FileService fileService, InstanceId instanceId, boolean useCache) {
+        this.secretClient = secretClient;
         this.fileService = fileService;
         this.instanceId = instanceId;
+        this.useCache = useCache;
     }
 
     @Override
@@ -106,7 +121,25 @@ public class DefaultSecretService implements SecretService {
         return secretClient.encryptString(instanceId.getValue(), orgName, projectName, value);
     }
 
+    @Override
+    public SecretService noCache() {
+        if (!useCache) {
+            return this;
+        }
+
+        return new DefaultSecretService(secretClient, fileService, instanceId, false);
+    }
+
     private <T extends Secret> T get(String orgName, String secretName, String password, SecretEntry.TypeEnum type) throws Exception {
-        return secretClient.getData(orgName, secretName, password, type);
+        return secretClient.getData(orgName, secretName, password, type, useCache);
+    }
+
+    private static SecretCache createCache(RunnerConfiguration cfg) {
+        long ttl = cfg.api().secretCacheTtl();
+        if (ttl <= 0) {
+            return null;
+        }
+
+        return new SecretCache(ttl, SECRET_CACHE_MAX_ENTRIES);
     }
 }
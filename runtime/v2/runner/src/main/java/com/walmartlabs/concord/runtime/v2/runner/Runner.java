@@ -24,6 +24,7 @@ import com.google.inject.AbstractModule;
 import com.google.inject.Inject;
 import com.google.inject.Injector;
 import com.walmartlabs.concord.runtime.common.injector.InstanceId;
+import com.walmartlabs.concord.runtime.v2.model.ProcessConfiguration;
 import com.walmartlabs.concord.runtime.v2.model.ProcessDefinition;
 import com.walmartlabs.concord.runtime.v2.runner.compiler.CompilerUtils;
 import com.walmartlabs.concord.runtime.v2.runner.vm.UpdateLocalsCommand;
@@ -47,6 +48,7 @@ public class Runner {
     private final SynchronizationService synchronizationService;
     private final Set<ExecutionListener> listeners;
     private final ProcessStatusCallback statusCallback;
+    private final ProcessConfiguration processConfiguration;
 
     @Inject
     public Runner(Injector injector,
@@ -54,7 +56,8 @@ public class Runner {
                   Compiler compiler,
                   SynchronizationService synchronizationService,
                   Set<ExecutionListener> listeners,
-                  ProcessStatusCallback statusCallback) {
+                  ProcessStatusCallback statusCallback,
+                  ProcessConfiguration processConfiguration) {
 
         this.injector = injector;
         this.instanceId = instanceId;
@@ -62,6 +65,7 @@ public class Runner {
         this.synchronizationService = synchronizationService;
         this.listeners = listeners;
         this.statusCallback = statusCallback;
+        this.processConfiguration = processConfiguration;
     }
 
     public ProcessSnapshot start(ProcessDefinition processDefinition, String entryPoint, Map<String, Object> input) throws Exception {
@@ -71,11 +75,16 @@ public class Runner {
         Command cmd = CompilerUtils.compile(compiler, processDefinition, entryPoint);
         State state = new InMemoryState(cmd);
 
-        VM vm = createVM(processDefinition);
-        // update the global variables using the input map by running a special command
-        vm.run(state, new UpdateLocalsCommand(input)); // TODO merge with the cfg's arguments
-        // start the normal execution
-        vm.start(state);
+        ThreadScheduler scheduler = createScheduler(processDefinition);
+        try {
+            VM vm = createVM(processDefinition, scheduler);
+            // update the global variables using the input map by running a special command
+            vm.run(state, new UpdateLocalsCommand(input)); // TODO merge with the cfg's arguments
+            // start the normal execution
+            vm.start(state);
+        } finally {
+            scheduler.shutdown();
+        }
 
         log.debug("start ['{}'] -> done", entryPoint);
 
@@ -91,11 +100,16 @@ public class Runner {
 
         State state = snapshot.vmState();
 
-        VM vm = createVM(snapshot.processDefinition());
-        // update the global variables using the input map by running a special command
-        vm.run(state, new UpdateLocalsCommand(input));
-        // resume normally
-        vm.resume(state, eventRef);
+        ThreadScheduler scheduler = createScheduler(snapshot.processDefinition());
+        try {
+            VM vm = createVM(snapshot.processDefinition(), scheduler);
+            // update the global variables using the input map by running a special command
+            vm.run(state, new UpdateLocalsCommand(input));
+            // resume normally
+            vm.resume(state, eventRef);
+        } finally {
+            scheduler.shutdown();
+        }
 
         log.debug("resume ['{}'] -> done", eventRef);
 
@@ -105,12 +119,21 @@ public class Runner {
                 .build();
     }
 
-    private VM createVM(ProcessDefinition processDefinition) {
+    private ThreadScheduler createScheduler(ProcessDefinition processDefinition) {
+        Integer parallelism = processConfiguration.parallelism();
+        if (parallelism == null) {
+            parallelism = processDefinition.configuration().parallelism();
+        }
+
+        return new ThreadScheduler(parallelism != null ? parallelism : ThreadScheduler.DEFAULT_PARALLELISM);
+    }
+
+    private VM createVM(ProcessDefinition processDefinition, ThreadScheduler scheduler) {
         Collection<ExecutionListener> listeners = new ArrayList<>();
         listeners.add(new SynchronizationServiceListener(synchronizationService));
         listeners.addAll(this.listeners);
 
-        RuntimeFactory runtimeFactory = vm -> new DefaultRuntime(vm, injectorWithProcessDefinition(injector, processDefinition));
+        RuntimeFactory runtimeFactory = vm -> new DefaultRuntime(vm, injectorWithProcessDefinition(injector, processDefinition), scheduler);
 
         return new VM(runtimeFactory, listeners);
     }
@@ -0,0 +1,188 @@
+package com.walmartlabs.concord.runtime.v2.runner;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Executes VM threads using a bounded number of "real" threads.
+ * Threads submitted over the limit are queued until a "real" thread
+ * becomes available.
+ * <p>
+ * Threads blocked in {@link ForkJoinPool#managedBlock(ForkJoinPool.ManagedBlocker)}
+ * (e.g. waiting for their children) don't count towards the limit.
+ */
+public class ThreadScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(ThreadScheduler.class);
+
+    /**
+     * Default max number of concurrently running VM threads.
+     */
+    public static final int DEFAULT_PARALLELISM = 64;
+
+    /**
+     * Queue wait time (ms) after which the stats are logged at the INFO level.
+     */
+    private static final long QUEUE_WAIT_WARN_THRESHOLD = 1000;
+
+    private final int parallelism;
+    private final ForkJoinPool pool;
+
+    private final LongAdder submitted = new LongAdder();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAccumulator maxQueued = new LongAccumulator(Math::max, 0);
+    private final LongAdder totalWaitMs = new LongAdder();
+    private final LongAccumulator maxWaitMs = new LongAccumulator(Math::max, 0);
+
+    public ThreadScheduler(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("'parallelism' must be a positive number, got: " + parallelism);
+        }
+
+        this.parallelism = parallelism;
+
+        ClassLoader cl = Thread.currentThread().getContextClassLoader();
+        AtomicLong threadSeq = new AtomicLong();
+
+        this.pool = new ForkJoinPool(parallelism, p -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            t.setName("vm-thread-" + threadSeq.incrementAndGet());
+            t.setContextClassLoader(cl);
+            return t;
+        }, (t, e) -> log.error("Unhandled exception in {}", t.getName(), e), true);
+    }
+
+    public void submit(Runnable r) {
+        long submittedAt = System.nanoTime();
+
+        submitted.increment();
+        maxQueued.accumulate(queued.incrementAndGet());
+
+        pool.execute(() -> {
+            queued.decrementAndGet();
+
+            long waitMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - submittedAt);
+            totalWaitMs.add(waitMs);
+            maxWaitMs.accumulate(waitMs);
+
+            r.run();
+        });
+    }
+
+    public Stats stats() {
+        return new Stats(parallelism, submitted.sum(), queued.get(), maxQueued.get(), totalWaitMs.sum(), maxWaitMs.get());
+    }
+
+    /**
+     * Stops accepting new threads and logs the queue stats.
+     * Doesn't wait for the running threads.
+     */
+    public void shutdown() {
+        pool.shutdown();
+
+        Stats stats = stats();
+        if (stats.submitted() == 0) {
+            return;
+        }
+
+        if (stats.maxWaitMs() >= QUEUE_WAIT_WARN_THRESHOLD) {
+            log.info("VM threads: {}", stats);
+        } else {
+            log.debug("VM threads: {}", stats);
+        }
+    }
+
+    public static final class Stats {
+
+        private final int parallelism;
+        private final long submitted;
+        private final int queued;
+        private final long maxQueued;
+        private final long totalWaitMs;
+        private final long maxWaitMs;
+
+        private Stats(int parallelism, long submitted, int queued, long maxQueued, long totalWaitMs, long maxWaitMs) {
+            this.parallelism = parallelism;
+            this.submitted = submitted;
+            this.queued = queued;
+            this.maxQueued = maxQueued;
+            this.totalWaitMs = totalWaitMs;
+            this.maxWaitMs = maxWaitMs;
+        }
+
+        /**
+         * Total number of submitted threads.
+         */
+        public long submitted() {
+            return submitted;
+        }
+
+        /**
+         * Number of threads currently waiting in the queue.
+         */
+        public int queued() {
+            return queued;
+        }
+
+        /**
+         * Max number of threads waiting in the queue at the same time.
+         */
+        public long maxQueued() {
+            return maxQueued;
+        }
+
+        /**
+         * Total time spent by all threads in the queue.
+         */
+        public long totalWaitMs() {
+            return totalWaitMs;
+        }
+
+        /**
+         * Max time spent by a thread in the queue.
+         */
+        public long maxWaitMs() {
+            return maxWaitMs;
+        }
+
+        @Override
+        public String toString() {
+            long started = submitted - queued;
+            long avgWaitMs = started > 0 ? totalWaitMs / started : 0;
+
+            return "parallelism=" + parallelism +
+                    ", submitted=" + submitted +
+                    ", maxQueued=" + maxQueued +
+                    ", avgWaitMs=" + avgWaitMs +
+                    ", maxWaitMs=" + maxWaitMs;
+        }
+    }
+}
@@ -20,6 +20,8 @@ package com.walmartlabs.concord.runtime.v2.runner.el;
  * =====
  */
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.walmartlabs.concord.runtime.v2.runner.el.functions.AllVariablesFunction;
 import com.walmartlabs.concord.runtime.v2.runner.el.functions.HasVariableFunction;
 import com.walmartlabs.concord.runtime.v2.runner.el.resolvers.BeanELResolver;
@@ -39,13 +41,23 @@ import static com.walmartlabs.concord.runtime.v2.runner.el.ThreadLocalEvalContex
  */
 public class LazyExpressionEvaluator implements ExpressionEvaluator {
 
+    /**
+     * Max number of parsed expressions to keep.
+     */
+    private static final int EXPRESSION_CACHE_SIZE = 1024;
+
     private final ExpressionFactory expressionFactory = ExpressionFactory.newInstance();
-    private final TaskProviders taskProviders;
     private final FunctionMapper functionMapper;
+    private final ELResolver resolver;
+    private final Cache<ExpressionKey, ValueExpression> expressionCache;
 
     public LazyExpressionEvaluator(TaskProviders taskProviders) {
-        this.taskProviders = taskProviders;
         this.functionMapper = createFunctionMapper();
+        this.resolver = createResolver(taskProviders, expressionFactory);
+        this.expressionCache = CacheBuilder.newBuilder()
+                .maximumSize(EXPRESSION_CACHE_SIZE)
+                .concurrencyLevel(Runtime.getRuntime().availableProcessors())
+                .build();
     }
 
     @Override
@@ -122,22 +134,11 @@ public class LazyExpressionEvaluator implements ExpressionEvaluator {
     }
 
     private <T> T evalExpr(LazyEvalContext ctx, String expr, Class<T> type) {
-        ELResolver resolver = createResolver(ctx, expressionFactory);
-
-        StandardELContext sc = new StandardELContext(expressionFactory) {
-            @Override
-            public ELResolver getELResolver() {
-                return resolver;
-            }
-
-            @Override
-            public FunctionMapper getFunctionMapper() {
-                return functionMapper;
-            }
-        };
+        EvalELContext sc = new EvalELContext(resolver, functionMapper);
         sc.putContext(ExpressionFactory.class, expressionFactory);
+        sc.putContext(LazyEvalContext.class, ctx);
 
-        ValueExpression x = expressionFactory.createValueExpression(sc, expr, type);
+        ValueExpression x = getExpression(sc, expr, type);
         try {
             Object v = withEvalContext(ctx, () -> x.getValue(sc));
             return type.cast(v);
@@ -150,30 +151,42 @@ public class LazyExpressionEvaluator implements ExpressionEvaluator {
         }
     }
 
+    /**
+     * Returns a parsed expression. The parsed expressions don't depend on
+     * the evaluation context (the function mapper is the same for all
+     * evaluations), so they can be reused.
+     */
+    private ValueExpression getExpression(ELContext ctx, String expr, Class<?> type) {
+        ExpressionKey key = new ExpressionKey(expr, type);
+
+        ValueExpression x = expressionCache.getIfPresent(key);
+        if (x == null) {
+            x = expressionFactory.createValueExpression(ctx, expr, type);
+            expressionCache.put(key, x);
+        }
+
+        return x;
+    }
+
     /**
      * Based on the original code from {@link StandardELContext#getELResolver()}.
      * Creates a {@link ELResolver} instance with "sub-resolvers" in the original order.
+     * The resolvers are shared between evaluations, the context-specific resolvers
+     * take the current {@link LazyEvalContext} from the {@link ELContext}.
      */
-    private ELResolver createResolver(LazyEvalContext evalContext,
-                                      ExpressionFactory expressionFactory) {
+    private static ELResolver createResolver(TaskProviders taskProviders,
+                                             ExpressionFactory expressionFactory) {
 
         CompositeELResolver r = new CompositeELResolver();
-        if (evalContext.scope() != null) {
-            r.add(new VariableResolver(evalContext.scope()));
-        }
-        r.add(new VariableResolver(evalContext.variables()));
-        if (evalContext.context() != null) {
-            r.add(new TaskResolver(evalContext.context(), taskProviders));
-        }
+        r.add(new VariableResolver());
+        r.add(new TaskResolver(taskProviders));
         r.add(expressionFactory.getStreamELResolver());
         r.add(new StaticFieldELResolver());
         r.add(new MapELResolver());
         r.add(new ResourceBundleELResolver());
         r.add(new ListELResolver());
         r.add(new ArrayELResolver());
-        if (evalContext.context() != null) {
-            r.add(new TaskMethodResolver(evalContext.context()));
-        }
+        r.add(new TaskMethodResolver());
         r.add(new BeanELResolver());
         return r;
     }
@@ -188,4 +201,87 @@ public class LazyExpressionEvaluator implements ExpressionEvaluator {
     private static boolean hasExpression(String s) {
         return s.contains("${");
     }
+
+    /**
+     * Lightweight alternative to {@link StandardELContext}, uses the shared
+     * resolver and function mapper.
+     */
+    private static class EvalELContext extends ELContext {
+
+        private final ELResolver resolver;
+        private final javax.el.FunctionMapper functionMapper;
+        private VariableMapper variableMapper;
+
+        private EvalELContext(ELResolver resolver, javax.el.FunctionMapper functionMapper) {
+            this.resolver = resolver;
+            this.functionMapper = functionMapper;
+        }
+
+        @Override
+        public ELResolver getELResolver() {
+            return resolver;
+        }
+
+        @Override
+        public javax.el.FunctionMapper getFunctionMapper() {
+            return functionMapper;
+        }
+
+        @Override
+        public VariableMapper getVariableMapper() {
+            if (variableMapper == null) {
+                variableMapper = new DefaultVariableMapper();
+            }
+            return variableMapper;
+        }
+    }
+
+    private static class DefaultVariableMapper extends VariableMapper {
+
+        private Map<String, ValueExpression> variables;
+
+        @Override
+        public ValueExpression resolveVariable(String variable) {
+            if (variables == null) {
+                return null;
+            }
+            return variables.get(variable);
+        }
+
+        @Override
+        public ValueExpression setVariable(String variable, ValueExpression expression) {
+            if (variables == null) {
+                variables = new HashMap<>();
+            }
+            return variables.put(variable, expression);
+        }
+    }
+
+    private static final class ExpressionKey {
+
+        private final String expr;
+        private final Class<?> type;
+
+        private ExpressionKey(String expr, Class<?> type) {
+            this.expr = expr;
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ExpressionKey that = (ExpressionKey) o;
+            return expr.equals(that.expr) && type.equals(that.type);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * expr.hashCode() + type.hashCode();
+        }
+    }
 }
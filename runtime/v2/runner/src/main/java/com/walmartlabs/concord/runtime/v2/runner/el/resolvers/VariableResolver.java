@@ -20,27 +20,23 @@ package com.walmartlabs.concord.runtime.v2.runner.el.resolvers;
  * =====
  */
 
-import com.walmartlabs.concord.runtime.v2.sdk.MapBackedVariables;
+import com.walmartlabs.concord.runtime.v2.runner.el.LazyEvalContext;
+import com.walmartlabs.concord.runtime.v2.runner.el.LazyEvalMap;
 import com.walmartlabs.concord.runtime.v2.sdk.Variables;
 
 import javax.el.ELContext;
 import javax.el.ELResolver;
 import java.beans.FeatureDescriptor;
 import java.util.Iterator;
-import java.util.Map;
 
+/**
+ * Resolves variables of the current {@link LazyEvalContext}: the current scope
+ * (if any) first, then the context's variables.
+ * The evaluation context is taken from the {@link ELContext}, so the same
+ * instance can be shared between evaluations.
+ */
 public class VariableResolver extends ELResolver {
 
-    private final Variables variables;
-
-    public VariableResolver(Variables variables) {
-        this.variables = variables;
-    }
-
-    public VariableResolver(Map<String, Object> variables) {
-        this.variables = new MapBackedVariables(variables);
-    }
-
     @Override
     public Class<?> getCommonPropertyType(ELContext context, Object base) {
         return Object.class;
@@ -58,13 +54,27 @@ public class VariableResolver extends ELResolver {
 
     @Override
     public Object getValue(ELContext context, Object base, Object property) {
-        if (base == null && property instanceof String) {
-            String k = (String) property;
+        if (base != null || !(property instanceof String)) {
+            return null;
+        }
+
+        LazyEvalContext evalContext = (LazyEvalContext) context.getContext(LazyEvalContext.class);
+        if (evalContext == null) {
+            return null;
+        }
+
+        String k = (String) property;
+
+        LazyEvalMap scope = evalContext.scope();
+        if (scope != null && scope.containsKey(k)) {
+            context.setPropertyResolved(true);
+            return scope.get(k);
+        }
 
-            if (variables.has(k)) {
-                context.setPropertyResolved(true);
-                return variables.get(k);
-            }
+        Variables variables = evalContext.variables();
+        if (variables.has(k)) {
+            context.setPropertyResolved(true);
+            return variables.get(k);
         }
 
         return null;
@@ -27,6 +27,7 @@ import ch.qos.logback.classic.util.ContextInitializer;
 import ch.qos.logback.core.FileAppender;
 import ch.qos.logback.core.joran.spi.JoranException;
 import ch.qos.logback.core.pattern.PatternLayoutEncoderBase;
+import ch.qos.logback.core.util.Duration;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -43,6 +44,9 @@ import java.nio.file.Paths;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import static com.walmartlabs.concord.runtime.v2.runner.logging.SegmentDiscriminator.UNSEGMENTED_LOG;
 
@@ -56,8 +60,31 @@ public class LoggingConfigurator {
     private static final String PROCESS_LOGGER_NAME = "processLog";
     private static final String DEFAULT_PROCESS_LOG_APPENDER_NAME = "PROCESS_STDOUT";
 
+    /**
+     * Max number of simultaneously open segment files. The least recently
+     * used files are closed first.
+     */
+    private static final int MAX_OPEN_SEGMENT_FILES = 256;
+
+    /**
+     * Segment files without any writes for this long are closed.
+     * The files are reopened (appended to) if needed.
+     */
+    private static final Duration SEGMENT_FILE_IDLE_TIMEOUT = Duration.buildByMinutes(1);
+
+    private static final long FLUSH_INTERVAL_MS = 1000;
+
     private static final Map<String, Stats> statsHolder = new ConcurrentHashMap<>();
 
+    /**
+     * Log file names of the segments. Allows reopening the same file if
+     * the segment's appender was closed.
+     */
+    private static final Map<String, String> segmentFileNames = new ConcurrentHashMap<>();
+
+    private static ScheduledExecutorService flusher;
+    private static boolean shutdownHookAdded;
+
     public static void configure(UUID instanceId, String baseDir) {
         log.debug("Redirecting logging output into the segment log: {}", baseDir);
 
@@ -83,6 +110,8 @@ public class LoggingConfigurator {
         sa.setContext(loggerContext);
         sa.setName("SEGMENTED_LOG");
         sa.setDiscriminator(discriminator);
+        sa.setMaxAppenderCount(MAX_OPEN_SEGMENT_FILES);
+        sa.setTimeout(SEGMENT_FILE_IDLE_TIMEOUT);
         sa.setAppenderFactory((context, discriminatingValue) -> {
             String logFileName;
             if (UNSEGMENTED_LOG.equalsIgnoreCase(discriminatingValue)) {
@@ -90,10 +119,11 @@ public class LoggingConfigurator {
                 logFileName = "runner_system";
             } else {
                 // segmented logs with created timestamp
-                logFileName = String.format("%s_%d", discriminatingValue, System.currentTimeMillis());
+                logFileName = segmentFileNames.computeIfAbsent(discriminatingValue,
+                        v -> String.format("%s_%d", v, System.currentTimeMillis()));
             }
 
-            FileAppender<ILoggingEvent> fa = new FileAppender<>();
+            FileAppender<ILoggingEvent> fa = new SegmentFileAppender();
             fa.setContext(context);
             fa.setAppend(true);
             fa.setFile(String.format("%s/%s.log", dst.toAbsolutePath(), logFileName));
@@ -131,9 +161,13 @@ public class LoggingConfigurator {
         Logger processLog = loggerContext.getLogger(PROCESS_LOGGER_NAME);
         processLog.detachAppender(DEFAULT_PROCESS_LOG_APPENDER_NAME);
         processLog.addAppender(sa);
+
+        startFlusher();
     }
 
     public static void reset() {
+        stopFlusher();
+
         LoggerContext loggerContext = assertLoggerContext();
         loggerContext.stop();
 
@@ -151,6 +185,39 @@ public class LoggingConfigurator {
         loggerContext.start();
     }
 
+    /**
+     * Segment files are buffered, flush them periodically and before
+     * the JVM exits.
+     */
+    private static synchronized void startFlusher() {
+        if (flusher != null) {
+            return;
+        }
+
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "log-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(SegmentFileAppender::flushAll, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+
+        if (!shutdownHookAdded) {
+            Runtime.getRuntime().addShutdownHook(new Thread(SegmentFileAppender::flushAll, "log-flusher-shutdown"));
+            shutdownHookAdded = true;
+        }
+    }
+
+    private static synchronized void stopFlusher() {
+        if (flusher == null) {
+            return;
+        }
+
+        flusher.shutdownNow();
+        flusher = null;
+
+        SegmentFileAppender.flushAll();
+    }
+
     private static LoggerContext assertLoggerContext() {
         ILoggerFactory loggerFactory = LoggerFactory.getILoggerFactory();
         if (loggerFactory == null) {
@@ -242,6 +309,7 @@ public class LoggingConfigurator {
 
             Marker marker = event.getMarker();
             if (marker != null && marker.contains(ClassicConstants.FINALIZE_SESSION_MARKER)) {
+                segmentFileNames.remove(discriminatingValue);
                 stats = statsHolder.remove(discriminatingValue);
                 if (stats == null) {
                     stats = new Stats();
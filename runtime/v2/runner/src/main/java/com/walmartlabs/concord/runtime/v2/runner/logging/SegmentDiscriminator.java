@@ -25,41 +25,21 @@ import ch.qos.logback.core.sift.AbstractDiscriminator;
 
 /**
  * Returns a Logback's discriminator value based on the current log "segment".
+ *
+ * @see SegmentedLogger#getCurrentSegment()
  */
 public class SegmentDiscriminator extends AbstractDiscriminator<ILoggingEvent> {
 
     public static final String UNSEGMENTED_LOG = "system";
 
-    /**
-     * The segment ID lookup's maximum depth (limits nesting of {@link ThreadGroup}s).
-     */
-    private static final int MAX_DEPTH = 100;
-
     @Override
     public String getDiscriminatingValue(ILoggingEvent iLoggingEvent) {
-        int depth = 0;
-
-        ThreadGroup g = Thread.currentThread().getThreadGroup();
-        while (true) {
-            if (g instanceof SegmentThreadGroup) {
-                SegmentThreadGroup ttg = (SegmentThreadGroup) g;
-                return ttg.getSegmentId() + "-" + ttg.getName();
-            }
-
-            if (g.getParent() == null) {
-                break;
-            }
-
-            g = g.getParent();
-            depth++;
-
-            if (depth >= MAX_DEPTH) {
-                throw new IllegalStateException("Maximum ThreadGroup nesting limit is reached. " +
-                        "This is most likely a bug in the runtime and/or a plugin.");
-            }
+        String segment = SegmentedLogger.getCurrentSegment();
+        if (segment == null) {
+            return UNSEGMENTED_LOG;
         }
 
-        return UNSEGMENTED_LOG;
+        return segment;
     }
 
     @Override
@@ -0,0 +1,75 @@
+package com.walmartlabs.concord.runtime.v2.runner.logging;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.FileAppender;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link FileAppender} with a buffered output. The buffers of all active
+ * appenders are flushed periodically with {@link #flushAll()}.
+ */
+public class SegmentFileAppender extends FileAppender<ILoggingEvent> {
+
+    private static final Set<SegmentFileAppender> active = ConcurrentHashMap.newKeySet();
+
+    public SegmentFileAppender() {
+        setImmediateFlush(false);
+    }
+
+    public static void flushAll() {
+        active.forEach(SegmentFileAppender::flush);
+    }
+
+    @Override
+    public void start() {
+        super.start();
+
+        if (isStarted()) {
+            active.add(this);
+        }
+    }
+
+    @Override
+    public void stop() {
+        active.remove(this);
+        super.stop();
+    }
+
+    private void flush() {
+        lock.lock();
+        try {
+            OutputStream out = getOutputStream();
+            if (isStarted() && out != null) {
+                out.flush();
+            }
+        } catch (IOException e) {
+            addError("Error while flushing " + getFile(), e);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
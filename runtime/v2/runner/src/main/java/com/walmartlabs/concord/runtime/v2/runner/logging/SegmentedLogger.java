@@ -29,7 +29,6 @@ import uk.org.lidalia.sysoutslf4j.context.SysOutOverSLF4J;
 
 import java.io.Serializable;
 import java.util.Map;
-import java.util.concurrent.*;
 
 import static ch.qos.logback.classic.ClassicConstants.FINALIZE_SESSION_MARKER;
 
@@ -37,6 +36,13 @@ public class SegmentedLogger {
 
     private static final Logger log = LoggerFactory.getLogger(SegmentedLogger.class);
 
+    /**
+     * The current log segment. Inherited by the threads created while
+     * the segment is active, so the output of any threads started by
+     * tasks ends up in the same segment.
+     */
+    private static final InheritableThreadLocal<String> currentSegment = new InheritableThreadLocal<>();
+
     private static volatile boolean ENABLED = false;
 
     public static void enable() {
@@ -45,19 +51,14 @@ public class SegmentedLogger {
 
     public static void withLogSegment(String name, String segmentId, boolean redirectSystemOutAndErr, Runnable runnable) {
         if (!ENABLED) {
-            try {
-                runnable.run();
-            } catch (RuntimeException e) {
-                throw e;
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
+            runnable.run();
             return;
         }
 
-        ThreadGroup threadGroup = new SegmentThreadGroup(name, segmentId);
-        executeInThreadGroup(threadGroup, "thread-" + name, () -> {
-            // make sure the redirection is enabled in the current thread
+        String prevSegment = currentSegment.get();
+        currentSegment.set(segmentId + "-" + name);
+        try {
+            // make sure the redirection is enabled
             if (redirectSystemOutAndErr && !SysOutOverSLF4J.systemOutputsAreSLF4JPrintStreams()) {
                 SysOutOverSLF4J.sendSystemOutAndErrToSLF4J(LogLevel.INFO, LogLevel.WARN);
             }
@@ -67,7 +68,29 @@ public class SegmentedLogger {
             } finally {
                 log.info(FINALIZE_SESSION_MARKER, "<<finalize>>");
             }
-        });
+        } finally {
+            if (prevSegment != null) {
+                currentSegment.set(prevSegment);
+            } else {
+                currentSegment.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns the current log segment (as "segmentId-name") or {@code null}
+     * if the current thread is not in a segment.
+     */
+    public static String getCurrentSegment() {
+        return currentSegment.get();
+    }
+
+    /**
+     * Removes the current log segment. Used for pooled threads which
+     * might have inherited the segment from the thread that created them.
+     */
+    public static void clearLogSegment() {
+        currentSegment.remove();
     }
 
     public static String getSegmentName(AbstractStep<?> step) {
@@ -84,45 +107,4 @@ public class SegmentedLogger {
         // TODO constants
         return (String) meta.get("segmentName");
     }
-
-    /**
-     * Executes the {@link Callable} in the specified {@link ThreadGroup}.
-     * A bit expensive as it is creates a new thread.
-     */
-    private static void executeInThreadGroup(ThreadGroup group, String threadName, Runnable runnable) {
-        ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadGroupAwareThreadFactory(group, threadName));
-        Future<?> result = executor.submit(runnable);
-        try {
-            result.get();
-        } catch (InterruptedException e) { // NOSONAR
-            throw new RuntimeException(e);
-        } catch (ExecutionException e) {
-            Throwable cause = e.getCause();
-            if (cause != null) {
-                if (cause instanceof RuntimeException) {
-                    throw (RuntimeException) cause;
-                } else {
-                    throw new RuntimeException(cause);
-                }
-            }
-
-            throw new RuntimeException(e);
-        }
-    }
-
-    private static final class ThreadGroupAwareThreadFactory implements ThreadFactory {
-
-        private final ThreadGroup group;
-        private final String threadName;
-
-        private ThreadGroupAwareThreadFactory(ThreadGroup group, String threadName) {
-            this.group = group;
-            this.threadName = threadName;
-        }
-
-        @Override
-        public Thread newThread(Runnable r) {
-            return new Thread(group, r, threadName);
-        }
-    }
 }
@@ -42,12 +42,22 @@ public class ForkCommand implements Command {
         Frame frame = state.peekFrame(threadId);
         frame.pop();
 
+        Map<String, Object> locals = VMUtils.getCombinedLocals(state, threadId);
+        fork(runtime, state, threadId, childThreadId, locals, cmds);
+    }
+
+    /**
+     * Creates a new thread with the specified "in" variables and schedules
+     * it for execution.
+     */
+    public static void fork(Runtime runtime, State state, ThreadId parentThreadId, ThreadId childThreadId,
+                            Map<String, Object> locals, Command... cmds) {
+
         // create a new root frame
-        state.fork(threadId, childThreadId, cmds);
+        state.fork(parentThreadId, childThreadId, cmds);
 
         // copy all "in" variables
         Frame targetFrame = state.peekFrame(childThreadId);
-        Map<String, Object> locals = VMUtils.getCombinedLocals(state, threadId);
         VMUtils.putLocals(targetFrame, locals);
 
         // run the new thread
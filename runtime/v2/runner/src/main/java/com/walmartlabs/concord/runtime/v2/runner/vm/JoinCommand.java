@@ -25,8 +25,9 @@ import com.walmartlabs.concord.svm.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Collection;
-import java.util.Map;
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 public class JoinCommand implements Command {
@@ -34,10 +35,35 @@ public class JoinCommand implements Command {
     private static final Logger log = LoggerFactory.getLogger(JoinCommand.class);
     private static final long serialVersionUID = 1L;
 
+    private static final long CHECK_INTERVAL = 1000; // a "good enough™" value
+
     private final Collection<ThreadId> ids;
 
+    /**
+     * Max number of concurrently running children. Used only if
+     * {@link #pending} is not empty.
+     */
+    private final int parallelism;
+
+    /**
+     * Children that are not started yet.
+     */
+    private final ArrayList<PendingFork> pending;
+
+    /**
+     * "In" variables of the {@link #pending} children.
+     */
+    private final LinkedHashMap<String, Object> locals;
+
     public JoinCommand(Collection<ThreadId> ids) {
+        this(ids, 0, Collections.emptyList(), null);
+    }
+
+    public JoinCommand(Collection<ThreadId> ids, int parallelism, List<PendingFork> pending, LinkedHashMap<String, Object> locals) {
         this.ids = ids;
+        this.parallelism = parallelism;
+        this.pending = new ArrayList<>(pending);
+        this.locals = locals;
     }
 
     @Override
@@ -53,7 +79,13 @@ public class JoinCommand implements Command {
         while (true) {
             Map<ThreadId, ThreadStatus> status = state.threadStatus();
 
-            boolean allDone = status.entrySet().stream()
+            boolean hasPending = pending != null && !pending.isEmpty();
+            if (hasPending && startPending(runtime, state, threadId, status)) {
+                // the command was replaced with a new one, it will be executed next
+                return;
+            }
+
+            boolean allDone = !hasPending && status.entrySet().stream()
                     .map(e -> ids.contains(e.getKey()) ? e.getValue() : ThreadStatus.DONE)
                     .allMatch(e -> e == ThreadStatus.DONE);
 
@@ -64,7 +96,7 @@ public class JoinCommand implements Command {
             }
 
             boolean anySuspended = anyMatch(status, ids, ThreadStatus.SUSPENDED);
-            boolean anyReady = anyMatch(status, ids, ThreadStatus.READY);
+            boolean anyReady = anyMatch(status, ids, ThreadStatus.READY, ThreadStatus.RUNNING);
 
             // all children are either DONE or SUSPENDED - suspend the parent execution
             if (!anyReady && anySuspended) {
@@ -87,17 +119,88 @@ public class JoinCommand implements Command {
             }
 
             // some children are still running, wait for a bit and then check again
+            // the current thread might be a pool thread, let the pool know that
+            // it is blocked, so the children can be scheduled
             try {
-                Thread.sleep(1000); // a "good enough™" value
+                ForkJoinPool.managedBlock(new Sleep(CHECK_INTERVAL));
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
             }
         }
     }
 
-    private static boolean anyMatch(Map<ThreadId, ThreadStatus> status, Collection<ThreadId> ids, ThreadStatus match) {
+    /**
+     * Starts pending children if there are free "slots". Replaces the current
+     * command with a new {@link JoinCommand} with the remaining children.
+     *
+     * @return {@code true} if any children were started.
+     */
+    private boolean startPending(Runtime runtime, State state, ThreadId threadId, Map<ThreadId, ThreadStatus> status) {
+        long running = status.entrySet().stream()
+                .filter(e -> ids.contains(e.getKey()))
+                .filter(e -> e.getValue() == ThreadStatus.READY || e.getValue() == ThreadStatus.RUNNING)
+                .count();
+
+        int n = (int) Math.min(parallelism - running, pending.size());
+        if (n <= 0) {
+            return false;
+        }
+
+        for (PendingFork f : pending.subList(0, n)) {
+            ForkCommand.fork(runtime, state, threadId, f.threadId, locals, f.cmds);
+        }
+
+        log.trace("eval [{}] -> started {} children, {} pending", threadId, n, pending.size() - n);
+
+        Frame frame = state.peekFrame(threadId);
+        frame.pop();
+        frame.push(new JoinCommand(ids, parallelism, pending.subList(n, pending.size()), locals));
+
+        return true;
+    }
+
+    private static boolean anyMatch(Map<ThreadId, ThreadStatus> status, Collection<ThreadId> ids, ThreadStatus... match) {
+        List<ThreadStatus> l = Arrays.asList(match);
         return status.entrySet().stream()
                 .filter(e -> ids.contains(e.getKey()))
-                .anyMatch(e -> e.getValue() == match);
+                .anyMatch(e -> l.contains(e.getValue()));
+    }
+
+    /**
+     * A child thread that is not started yet.
+     */
+    public static class PendingFork implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ThreadId threadId;
+        private final Command[] cmds;
+
+        public PendingFork(ThreadId threadId, Command... cmds) {
+            this.threadId = threadId;
+            this.cmds = cmds;
+        }
+    }
+
+    private static class Sleep implements ForkJoinPool.ManagedBlocker {
+
+        private final long millis;
+        private boolean done;
+
+        private Sleep(long millis) {
+            this.millis = millis;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            Thread.sleep(millis);
+            done = true;
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return done;
+        }
     }
 }
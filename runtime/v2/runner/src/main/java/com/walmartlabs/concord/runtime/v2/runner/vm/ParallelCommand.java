@@ -54,6 +54,25 @@ public class ParallelCommand extends StepCommand<ParallelBlock> {
         List<String> outVars = new ArrayList<>(getStep().getOptions().out());
 
         Collection<ThreadId> forkIds = forks.stream().map(Map.Entry::getKey).collect(Collectors.toSet());
+
+        Integer parallelism = getStep().getOptions().parallelism();
+        if (parallelism != null && parallelism <= 0) {
+            throw new IllegalArgumentException("'parallelism' must be a positive number, got: " + parallelism);
+        }
+
+        if (parallelism != null && parallelism < forks.size()) {
+            // start only the allowed number of forks, the rest will be started by the "join"
+            // as the running forks complete. All forks receive the same "in" variables
+            LinkedHashMap<String, Object> locals = new LinkedHashMap<>(VMUtils.getCombinedLocals(state, threadId));
+
+            List<JoinCommand.PendingFork> pending = forks.stream()
+                    .map(f -> new JoinCommand.PendingFork(f.getKey(), new ProcessOutVariablesCommand(frame, outVars), f.getValue()))
+                    .collect(Collectors.toList());
+
+            frame.push(new JoinCommand(forkIds, parallelism, pending, locals));
+            return;
+        }
+
         frame.push(new JoinCommand(forkIds));
 
         Collections.reverse(forks);
@@ -648,6 +648,18 @@ public class MainTest {
         assertLog(log, ".*y: 234.*");
     }
 
+    @Test
+    public void testParallelism() throws Exception {
+        deploy("parallelism");
+
+        save(ProcessConfiguration.builder()
+                .putArguments("x", 100)
+                .build());
+
+        byte[] log = run();
+        assertLog(log, ".*a: 101, b: 102, c: 103, d: 104, e: 105.*");
+    }
+
     @Test
     public void testReentrant() throws Exception {
         deploy("reentrantTask");
@@ -0,0 +1,117 @@
+package com.walmartlabs.concord.runtime.v2.runner.el;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.runtime.v2.runner.tasks.TaskProviders;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the evaluation of a typical "loop-like" workload: the same set of
+ * expressions evaluated many times with different variables.
+ * <p>
+ * Not a unit test, run {@link #main(String[])} using the module's test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ExpressionEvaluatorBenchmark {
+
+    private static final int ITEMS = 100;
+
+    private ExpressionEvaluator ee;
+    private List<EvalContext> contexts;
+    private Map<String, Object> input;
+
+    @Setup
+    public void setup() {
+        ee = new DefaultExpressionEvaluator(new TaskProviders());
+
+        contexts = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("name", "item-" + i);
+            item.put("value", i);
+
+            Map<String, Object> vars = new HashMap<>();
+            vars.put("item", item);
+            vars.put("prefix", "test");
+            vars.put("enabled", i % 2 == 0);
+
+            contexts.add(EvalContextFactory.global(new SingleFrameContext(vars)));
+        }
+
+        input = new LinkedHashMap<>();
+        input.put("name", "${prefix}-${item.name}");
+        input.put("value", "${item.value + 1}");
+        input.put("enabled", "${enabled && item.value > 10}");
+        input.put("nested", Collections.singletonMap("x", "${item.name.toUpperCase()}"));
+        input.put("list", Arrays.asList("${item.value * 2}", "${prefix}", "constant"));
+    }
+
+    @Benchmark
+    public void evalMap(Blackhole bh) {
+        for (EvalContext ctx : contexts) {
+            Map<String, Object> m = ee.evalAsMap(ctx, input);
+            // the result is lazy, force the evaluation of all (nested) values
+            consume(bh, m);
+        }
+    }
+
+    @Benchmark
+    public void evalString(Blackhole bh) {
+        for (EvalContext ctx : contexts) {
+            bh.consume(ee.eval(ctx, "${prefix}-${item.name}-${item.value}", String.class));
+        }
+    }
+
+    private static void consume(Blackhole bh, Object v) {
+        if (v instanceof Map) {
+            for (Object vv : ((Map<?, ?>) v).values()) {
+                consume(bh, vv);
+            }
+        } else if (v instanceof List) {
+            for (Object vv : (List<?>) v) {
+                consume(bh, vv);
+            }
+        } else {
+            bh.consume(v);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ExpressionEvaluatorBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -38,6 +38,15 @@ public interface SecretService {
 
     String encryptString(String orgName, String projectName, String value) throws Exception;
 
+    /**
+     * Returns a view of the service that doesn't use the secret cache:
+     * the secrets are always fetched from the server and are not kept
+     * in memory. Useful for secrets that are used only once.
+     */
+    default SecretService noCache() {
+        return this;
+    }
+
     @Value.Immutable
     @Value.Style(jdkOnly = true)
     interface KeyPair {
@@ -23,13 +23,25 @@ package com.walmartlabs.concord.svm;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Simple in-memory implementation of {@link State}
+ * Simple in-memory implementation of {@link State}.
+ * <p>
+ * Safe to use from multiple "real" threads. Operations on a single
+ * VM thread (frames, status) don't block other threads. A global lock
+ * is used only for cross-thread operations: {@link #fork(ThreadId, ThreadId, Command...)},
+ * {@link #dropAllFrames()} and {@link #gc()}.
+ * <p>
+ * The serialized form is the same as in the previous, fully synchronized
+ * implementation: {@code HashMap}s of {@code List}s. See {@link #serialPersistentFields}.
  */
 public class InMemoryState implements Serializable, State {
 
@@ -37,17 +49,28 @@ public class InMemoryState implements Serializable, State {
 
     private static final Logger log = LoggerFactory.getLogger(InMemoryState.class);
 
-    private final Map<ThreadId, List<Frame>> frames = new HashMap<>();
-    private final Map<ThreadId, ThreadStatus> threadStatus = new HashMap<>();
-    private final Map<ThreadId, Set<ThreadId>> children = new HashMap<>();
-    private final Map<ThreadId, String> eventRefs = new HashMap<>();
-    private final Map<ThreadId, Exception> threadErrors = new HashMap<>();
-
-    private final ThreadId rootThreadId;
-
-    private long threadIdSeq = 0;
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("frames", Map.class),
+            new ObjectStreamField("threadStatus", Map.class),
+            new ObjectStreamField("children", Map.class),
+            new ObjectStreamField("eventRefs", Map.class),
+            new ObjectStreamField("threadErrors", Map.class),
+            new ObjectStreamField("rootThreadId", ThreadId.class),
+            new ObjectStreamField("threadIdSeq", long.class)
+    };
+
+    private transient Map<ThreadId, FrameStack> frames;
+    private transient Map<ThreadId, ThreadStatus> threadStatus;
+    private transient Map<ThreadId, Set<ThreadId>> children;
+    private transient Map<ThreadId, String> eventRefs;
+    private transient Map<ThreadId, Exception> threadErrors;
+    private transient AtomicLong threadIdSeq;
+    private transient Object globalLock;
+
+    private transient ThreadId rootThreadId;
 
     public InMemoryState(Frame rootFrame) {
+        init(0);
         this.rootThreadId = nextThreadId();
         pushFrame(rootThreadId, rootFrame);
     }
@@ -59,73 +82,71 @@ public class InMemoryState implements Serializable, State {
                 .build());
     }
 
+    private void init(long threadIdSeq) {
+        this.frames = new ConcurrentHashMap<>();
+        this.threadStatus = new ConcurrentHashMap<>();
+        this.children = new ConcurrentHashMap<>();
+        this.eventRefs = new ConcurrentHashMap<>();
+        this.threadErrors = new ConcurrentHashMap<>();
+        this.threadIdSeq = new AtomicLong(threadIdSeq);
+        this.globalLock = new Object();
+    }
+
     @Override
     public void pushFrame(ThreadId threadId, Frame frame) {
         log.trace("pushFrame {}", threadId);
 
-        synchronized (this) {
-            List<Frame> l = frames.computeIfAbsent(threadId, key -> new LinkedList<>());
-            l.add(0, frame);
-        }
+        frames.computeIfAbsent(threadId, key -> new FrameStack())
+                .push(frame);
     }
 
     @Override
     public Frame peekFrame(ThreadId threadId) {
-        synchronized (this) {
-            List<Frame> l = frames.get(threadId);
-            if (l == null || l.isEmpty()) {
-                return null;
-            }
-
-            return l.get(0);
+        FrameStack s = frames.get(threadId);
+        if (s == null) {
+            return null;
         }
+
+        return s.peek();
     }
 
     @Override
     public void popFrame(ThreadId threadId) {
         log.trace("popFrame {}", threadId);
 
-        synchronized (this) {
-            List<Frame> l = frames.get(threadId);
-            if (l == null) {
-                throw new IllegalStateException("Call frame doesn't exist: " + threadId);
-            }
-
-            l.remove(0);
+        FrameStack s = frames.get(threadId);
+        if (s == null) {
+            throw new IllegalStateException("Call frame doesn't exist: " + threadId);
         }
+
+        s.pop();
     }
 
     @Override
     public List<Frame> getFrames(ThreadId threadId) {
-        synchronized (this) {
-            List<Frame> l = this.frames.get(threadId);
-            if (l == null) {
-                throw new IllegalStateException("Call frame doesn't exist: " + threadId);
-            }
-
-            return Collections.unmodifiableList(new ArrayList<>(l));
+        FrameStack s = frames.get(threadId);
+        if (s == null) {
+            throw new IllegalStateException("Call frame doesn't exist: " + threadId);
         }
+
+        return Collections.unmodifiableList(s.toList());
     }
 
     @Override
     public void dropAllFrames() {
-        synchronized (this) {
+        synchronized (globalLock) {
             frames.clear();
         }
     }
 
     @Override
     public void setStatus(ThreadId threadId, ThreadStatus status) {
-        synchronized (this) {
-            threadStatus.put(threadId, status);
-        }
+        threadStatus.put(threadId, status);
     }
 
     @Override
     public ThreadStatus getStatus(ThreadId threadId) {
-        synchronized (this) {
-            return threadStatus.get(threadId);
-        }
+        return threadStatus.get(threadId);
     }
 
     @Override
@@ -135,108 +156,176 @@ public class InMemoryState implements Serializable, State {
 
     @Override
     public void fork(ThreadId parentThreadId, ThreadId threadId, Command... cmds) {
-        synchronized (this) {
-            setStatus(threadId, ThreadStatus.READY);
+        synchronized (globalLock) {
+            // create the frame first, a thread with a status must have frames
             pushFrame(threadId, Frame.builder()
                     .root()
                     .commands(cmds)
                     .build());
+            setStatus(threadId, ThreadStatus.READY);
 
-            children.computeIfAbsent(parentThreadId, k -> new HashSet<>())
+            children.computeIfAbsent(parentThreadId, k -> ConcurrentHashMap.newKeySet())
                     .add(threadId);
         }
     }
 
     @Override
     public Map<ThreadId, ThreadStatus> threadStatus() {
-        synchronized (this) {
-            return new HashMap<>(threadStatus);
-        }
+        return new HashMap<>(threadStatus);
     }
 
     @Override
     public ThreadId nextThreadId() {
-        synchronized (this) {
-            long id = threadIdSeq++;
-            return new ThreadId(id);
-        }
+        return new ThreadId(threadIdSeq.getAndIncrement());
     }
 
     @Override
     public void setEventRef(ThreadId threadId, String eventRef) {
         // TODO check for uniqueness
 
-        synchronized (this) {
-            String old = eventRefs.put(threadId, eventRef);
-            if (old != null) {
-                throw new IllegalStateException("Thread " + threadId + " already had an unprocessed event ref registered: " + old);
-            }
+        String old = eventRefs.put(threadId, eventRef);
+        if (old != null) {
+            throw new IllegalStateException("Thread " + threadId + " already had an unprocessed event ref registered: " + old);
         }
     }
 
     @Override
     public ThreadId removeEventRef(String eventRef) {
-        ThreadId threadId = null;
-
-        synchronized (this) {
-            for (Map.Entry<ThreadId, String> e : eventRefs.entrySet()) {
-                String s = e.getValue();
-                if (eventRef.equals(s)) {
-                    threadId = e.getKey();
-                    break;
-                }
-            }
-
-            if (threadId != null) {
-                eventRefs.remove(threadId);
+        for (Map.Entry<ThreadId, String> e : eventRefs.entrySet()) {
+            if (eventRef.equals(e.getValue()) && eventRefs.remove(e.getKey(), e.getValue())) {
+                return e.getKey();
             }
         }
 
-        return threadId;
+        return null;
     }
 
     @Override
     public Map<ThreadId, String> getEventRefs() {
-        synchronized (this) {
-            return Collections.unmodifiableMap(eventRefs);
-        }
+        return Collections.unmodifiableMap(new HashMap<>(eventRefs));
     }
 
     @Override
     public void setThreadError(ThreadId threadId, Exception error) {
-        synchronized (this) {
-            threadErrors.put(threadId, error);
-        }
+        threadErrors.put(threadId, error);
     }
 
     @Override
     public Exception clearThreadError(ThreadId threadId) {
-        synchronized (this) {
-            return threadErrors.remove(threadId);
-        }
+        return threadErrors.remove(threadId);
     }
 
     @Override
     public void gc() {
-        synchronized (this) {
-            Stream<ThreadId> done = threadStatus.entrySet().stream()
-                    .filter(e -> e.getValue() == ThreadStatus.DONE)
-                    .map(Map.Entry::getKey);
-
-            Stream<ThreadId> handled = threadStatus.entrySet().stream()
-                    .filter(e -> e.getValue() == ThreadStatus.FAILED)
-                    .filter(e -> !threadErrors.containsKey(e.getKey()))
-                    .map(Map.Entry::getKey);
-
-            Stream.concat(done, handled)
-                    .collect(Collectors.toList()) // avoid races by eagerly calculating the list of IDs
-                    .forEach(k -> {
-                        threadErrors.remove(k);
-                        threadStatus.remove(k);
-                        frames.remove(k);
-                        eventRefs.remove(k);
-                        children.remove(k);
-                    });
+        synchronized (globalLock) {
+            List<ThreadId> ids = new ArrayList<>();
+            for (Map.Entry<ThreadId, ThreadStatus> e : threadStatus.entrySet()) {
+                ThreadStatus status = e.getValue();
+                if (status == ThreadStatus.DONE || (status == ThreadStatus.FAILED && !threadErrors.containsKey(e.getKey()))) {
+                    ids.add(e.getKey());
+                }
+            }
+
+            ids.forEach(k -> {
+                threadErrors.remove(k);
+                threadStatus.remove(k);
+                frames.remove(k);
+                eventRefs.remove(k);
+                children.remove(k);
+            });
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        synchronized (globalLock) {
+            Map<ThreadId, List<Frame>> frames = new HashMap<>();
+            this.frames.forEach((k, v) -> frames.put(k, new LinkedList<>(v.toList())));
+
+            Map<ThreadId, Set<ThreadId>> children = new HashMap<>();
+            this.children.forEach((k, v) -> children.put(k, new HashSet<>(v)));
+
+            ObjectOutputStream.PutField f = out.putFields();
+            f.put("frames", frames);
+            f.put("threadStatus", new HashMap<>(threadStatus));
+            f.put("children", children);
+            f.put("eventRefs", new HashMap<>(eventRefs));
+            f.put("threadErrors", new HashMap<>(threadErrors));
+            f.put("rootThreadId", rootThreadId);
+            f.put("threadIdSeq", threadIdSeq.get());
+            out.writeFields();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField f = in.readFields();
+
+        init(f.get("threadIdSeq", 0L));
+
+        Map<ThreadId, List<Frame>> frames = (Map<ThreadId, List<Frame>>) f.get("frames", null);
+        if (frames != null) {
+            frames.forEach((k, v) -> this.frames.put(k, new FrameStack(v)));
+        }
+
+        Map<ThreadId, Set<ThreadId>> children = (Map<ThreadId, Set<ThreadId>>) f.get("children", null);
+        if (children != null) {
+            children.forEach((k, v) -> {
+                Set<ThreadId> s = ConcurrentHashMap.newKeySet();
+                s.addAll(v);
+                this.children.put(k, s);
+            });
+        }
+
+        putAll(this.threadStatus, (Map<ThreadId, ThreadStatus>) f.get("threadStatus", null));
+        putAll(this.eventRefs, (Map<ThreadId, String>) f.get("eventRefs", null));
+        putAll(this.threadErrors, (Map<ThreadId, Exception>) f.get("threadErrors", null));
+
+        this.rootThreadId = (ThreadId) f.get("rootThreadId", null);
+    }
+
+    private static <K, V> void putAll(Map<K, V> dst, Map<K, V> src) {
+        if (src == null) {
+            return;
+        }
+
+        // ConcurrentHashMap doesn't allow null values
+        src.forEach((k, v) -> {
+            if (v != null) {
+                dst.put(k, v);
+            }
+        });
+    }
+
+    /**
+     * Frames of a single VM thread. The most recent frame is the first element.
+     * Normally accessed only by the thread itself, so the lock is uncontended.
+     */
+    private static final class FrameStack {
+
+        private final ArrayDeque<Frame> frames;
+
+        private FrameStack() {
+            this.frames = new ArrayDeque<>();
+        }
+
+        private FrameStack(List<Frame> frames) {
+            this.frames = new ArrayDeque<>(frames);
+        }
+
+        synchronized void push(Frame frame) {
+            frames.push(frame);
+        }
+
+        synchronized Frame peek() {
+            return frames.peek();
+        }
+
+        synchronized void pop() {
+            frames.pop();
+        }
+
+        synchronized List<Frame> toList() {
+            return new ArrayList<>(frames);
         }
     }
 }
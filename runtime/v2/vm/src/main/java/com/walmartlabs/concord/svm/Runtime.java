@@ -23,7 +23,10 @@ package com.walmartlabs.concord.svm;
 public interface Runtime {
 
     /**
-     * Spawns a new "real" thread and runs the specified "vm" thread in it.
+     * Schedules the specified "vm" thread for execution in a "real" thread.
+     * Implementations may limit the number of concurrently running threads,
+     * in which case the "vm" thread stays {@link ThreadStatus#READY} until
+     * a "real" thread becomes available.
      */
     void spawn(State state, ThreadId threadId);
 
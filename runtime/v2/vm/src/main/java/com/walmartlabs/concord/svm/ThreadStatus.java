@@ -23,10 +23,15 @@ package com.walmartlabs.concord.svm;
 public enum ThreadStatus {
 
     /**
-     * Ready for execution or is running.
+     * Ready for execution, waiting for a "real" thread.
      */
     READY,
 
+    /**
+     * Currently executed by a "real" thread.
+     */
+    RUNNING,
+
     /**
      * Suspended, waiting for {@link VM#resume(State, String)}.
      */
@@ -98,6 +98,10 @@ public class VM {
     public EvalResult eval(Runtime runtime, State state, ThreadId threadId) throws Exception {
         Frame lastFrame = null;
 
+        if (state.getStatus(threadId) == ThreadStatus.READY) {
+            state.setStatus(threadId, ThreadStatus.RUNNING);
+        }
+
         try {
             while (true) {
                 ThreadStatus status = state.getStatus(threadId);
@@ -146,6 +150,11 @@ public class VM {
                 }
             }
         } finally {
+            // the execution was interrupted (e.g. by a listener), the thread can be continued later
+            if (state.getStatus(threadId) == ThreadStatus.RUNNING) {
+                state.setStatus(threadId, ThreadStatus.READY);
+            }
+
             state.gc();
         }
 
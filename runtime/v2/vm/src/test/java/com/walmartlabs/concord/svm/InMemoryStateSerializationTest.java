@@ -0,0 +1,160 @@
+package com.walmartlabs.concord.svm;
+
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.junit.Test;
+
+import java.io.*;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the serialized form of {@link InMemoryState} is compatible
+ * with the previous implementation, see {@link com.walmartlabs.concord.svm.legacy.InMemoryState}.
+ */
+public class InMemoryStateSerializationTest {
+
+    @Test
+    public void testReadLegacyState() throws Exception {
+        ThreadId root = new ThreadId(0);
+        ThreadId child = new ThreadId(1);
+
+        com.walmartlabs.concord.svm.legacy.InMemoryState legacy = new com.walmartlabs.concord.svm.legacy.InMemoryState(root, frame(new TestCommand("root")), 2);
+        legacy.setStatus(root, ThreadStatus.SUSPENDED);
+        legacy.fork(root, child, new TestCommand("child"));
+        legacy.pushFrame(child, frame(new TestCommand("nested")));
+        legacy.setStatus(child, ThreadStatus.SUSPENDED);
+        legacy.setEventRef(child, "ev1");
+        legacy.setThreadError(root, new RuntimeException("boom"));
+
+        InMemoryState state = deserialize(serialize(legacy), InMemoryState.class);
+
+        assertEquals(root, state.getRootThreadId());
+        assertEquals(ThreadStatus.SUSPENDED, state.getStatus(root));
+        assertEquals(ThreadStatus.SUSPENDED, state.getStatus(child));
+        assertEquals(Collections.singletonMap(child, "ev1"), state.getEventRefs());
+
+        assertEquals(1, state.getFrames(root).size());
+        assertEquals(2, state.getFrames(child).size());
+        // the most recent frame is on top
+        assertEquals("nested", name(state.peekFrame(child)));
+        assertEquals("root", name(state.peekFrame(root)));
+
+        // the thread ID sequence continues from the saved value
+        assertEquals(new ThreadId(2), state.nextThreadId());
+
+        Exception e = state.clearThreadError(root);
+        assertNotNull(e);
+        assertEquals("boom", e.getMessage());
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        InMemoryState state = new InMemoryState(new TestCommand("root"));
+        ThreadId root = state.getRootThreadId();
+
+        ThreadId child = state.nextThreadId();
+        state.fork(root, child, new TestCommand("child"));
+        state.pushFrame(child, frame(new TestCommand("nested")));
+        state.setStatus(child, ThreadStatus.SUSPENDED);
+        state.setEventRef(child, "ev1");
+
+        byte[] bytes = serialize(state);
+
+        // new -> new
+        InMemoryState copy = deserialize(bytes, InMemoryState.class);
+        assertEquals(root, copy.getRootThreadId());
+        assertEquals(state.threadStatus(), copy.threadStatus());
+        assertEquals(state.getEventRefs(), copy.getEventRefs());
+        assertEquals(2, copy.getFrames(child).size());
+        assertEquals("nested", name(copy.peekFrame(child)));
+        assertEquals(state.nextThreadId(), copy.nextThreadId());
+
+        // new -> old, the previous version must be able to read the state too
+        com.walmartlabs.concord.svm.legacy.InMemoryState legacy = deserialize(bytes, com.walmartlabs.concord.svm.legacy.InMemoryState.class);
+        assertEquals(root, legacy.getRootThreadId());
+        assertEquals(ThreadStatus.SUSPENDED, legacy.getThreadStatus().get(child));
+        assertEquals(Collections.singleton(child), legacy.getChildren().get(root));
+        assertEquals(2, legacy.getFrames().get(child).size());
+        assertEquals("nested", name(legacy.getFrames().get(child).get(0)));
+        assertEquals(2, legacy.getThreadIdSeq());
+
+        // old -> new -> old
+        InMemoryState again = deserialize(serialize(legacy), InMemoryState.class);
+        assertEquals(copy.threadStatus(), again.threadStatus());
+        assertEquals(copy.getEventRefs(), again.getEventRefs());
+    }
+
+    private static Frame frame(Command cmd) {
+        return Frame.builder()
+                .nonRoot()
+                .commands(cmd)
+                .build();
+    }
+
+    private static String name(Frame f) {
+        return ((TestCommand) f.peek()).name;
+    }
+
+    private static byte[] serialize(Object o) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(baos)) {
+            out.writeObject(o);
+        }
+        return baos.toByteArray();
+    }
+
+    /**
+     * Reads the data as the specified class. Both versions of the class
+     * share the simple name, so the stream's class descriptor is accepted.
+     */
+    private static <T> T deserialize(byte[] bytes, Class<T> klass) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes)) {
+            @Override
+            protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+                if (desc.getName().endsWith("." + klass.getSimpleName())) {
+                    return klass;
+                }
+                return super.resolveClass(desc);
+            }
+        }) {
+            return klass.cast(in.readObject());
+        }
+    }
+
+    private static class TestCommand implements Command {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+
+        private TestCommand(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void eval(Runtime runtime, State state, ThreadId threadId) {
+            // do nothing
+        }
+    }
+}
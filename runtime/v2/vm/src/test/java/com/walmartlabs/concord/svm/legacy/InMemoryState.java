@@ -0,0 +1,111 @@
+package com.walmartlabs.concord.svm.legacy;
+
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.svm.Command;
+import com.walmartlabs.concord.svm.Frame;
+import com.walmartlabs.concord.svm.ThreadId;
+import com.walmartlabs.concord.svm.ThreadStatus;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * The fields of {@link com.walmartlabs.concord.svm.InMemoryState} as they were
+ * before the class became concurrent. Used to produce and to read
+ * the "old" serialized form in tests. The simple class name must match
+ * the original, Java serialization compares the names without the package.
+ */
+public class InMemoryState implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Map<ThreadId, List<Frame>> frames = new HashMap<>();
+    private final Map<ThreadId, ThreadStatus> threadStatus = new HashMap<>();
+    private final Map<ThreadId, Set<ThreadId>> children = new HashMap<>();
+    private final Map<ThreadId, String> eventRefs = new HashMap<>();
+    private final Map<ThreadId, Exception> threadErrors = new HashMap<>();
+
+    private final ThreadId rootThreadId;
+
+    private long threadIdSeq;
+
+    public InMemoryState(ThreadId rootThreadId, Frame rootFrame, long threadIdSeq) {
+        this.rootThreadId = rootThreadId;
+        this.threadIdSeq = threadIdSeq;
+        pushFrame(rootThreadId, rootFrame);
+    }
+
+    public void pushFrame(ThreadId threadId, Frame frame) {
+        frames.computeIfAbsent(threadId, key -> new LinkedList<>()).add(0, frame);
+    }
+
+    public void setStatus(ThreadId threadId, ThreadStatus status) {
+        threadStatus.put(threadId, status);
+    }
+
+    public void fork(ThreadId parentThreadId, ThreadId threadId, Command... cmds) {
+        setStatus(threadId, ThreadStatus.READY);
+        pushFrame(threadId, Frame.builder()
+                .root()
+                .commands(cmds)
+                .build());
+
+        children.computeIfAbsent(parentThreadId, k -> new HashSet<>()).add(threadId);
+    }
+
+    public void setEventRef(ThreadId threadId, String eventRef) {
+        eventRefs.put(threadId, eventRef);
+    }
+
+    public void setThreadError(ThreadId threadId, Exception error) {
+        threadErrors.put(threadId, error);
+    }
+
+    public Map<ThreadId, List<Frame>> getFrames() {
+        return frames;
+    }
+
+    public Map<ThreadId, ThreadStatus> getThreadStatus() {
+        return threadStatus;
+    }
+
+    public Map<ThreadId, Set<ThreadId>> getChildren() {
+        return children;
+    }
+
+    public Map<ThreadId, String> getEventRefs() {
+        return eventRefs;
+    }
+
+    public Map<ThreadId, Exception> getThreadErrors() {
+        return threadErrors;
+    }
+
+    public ThreadId getRootThreadId() {
+        return rootThreadId;
+    }
+
+    public long getThreadIdSeq() {
+        return threadIdSeq;
+    }
+}
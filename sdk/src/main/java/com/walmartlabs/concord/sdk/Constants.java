@@ -569,6 +569,11 @@ public class Constants {
         public static final String SESSION_TOKEN = "X-Concord-SessionToken";
 
         public static final String SECRET_TYPE = "X-Concord-SecretType";
+
+        /**
+         * Position of the next page of JSON store query results.
+         */
+        public static final String NEXT_CURSOR = "X-Concord-Next-Cursor";
     }
 
     /**
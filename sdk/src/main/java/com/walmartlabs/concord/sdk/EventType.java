@@ -40,5 +40,10 @@ public enum EventType {
     /**
      * Process wait conditions.
      */
-    PROCESS_WAIT
+    PROCESS_WAIT,
+
+    /**
+     * Durations of the process preparation phases on the agent.
+     */
+    PROCESS_PREPARE
 }
@@ -25,15 +25,25 @@ import org.jooq.DSLContext;
 import org.jooq.exception.DataAccessException;
 import org.jooq.impl.DSL;
 import org.jooq.tools.jdbc.JDBCUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.InputStream;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.*;
 import java.util.function.Function;
 
 public abstract class AbstractDao {
 
+    private static final Logger log = LoggerFactory.getLogger(AbstractDao.class);
+
+    /**
+     * After commit actions of the currently running transactions, by the transaction's configuration.
+     */
+    private static final Map<Configuration, List<Runnable>> afterCommitHooks = Collections.synchronizedMap(new IdentityHashMap<>());
+
     protected final Configuration cfg;
 
     protected AbstractDao(Configuration cfg) {
@@ -41,21 +51,69 @@ public abstract class AbstractDao {
     }
 
     protected void tx(Tx t) {
+        List<Runnable> hooks = new ArrayList<>();
+
         try (DSLContext ctx = DSL.using(cfg)) {
             ctx.transaction(cfg -> {
-                DSLContext tx = DSL.using(cfg);
-                t.run(tx);
+                afterCommitHooks.put(cfg, hooks);
+                try {
+                    DSLContext tx = DSL.using(cfg);
+                    t.run(tx);
+                } finally {
+                    afterCommitHooks.remove(cfg);
+                }
             });
         }
+
+        runHooks(hooks);
     }
 
     protected <T> T txResult(TxResult<T> t) {
+        List<Runnable> hooks = new ArrayList<>();
+
+        T result;
         try (DSLContext ctx = DSL.using(cfg)) {
-            return ctx.transactionResult(cfg -> {
-                DSLContext tx = DSL.using(cfg);
-                return t.run(tx);
+            result = ctx.transactionResult(cfg -> {
+                afterCommitHooks.put(cfg, hooks);
+                try {
+                    DSLContext tx = DSL.using(cfg);
+                    return t.run(tx);
+                } finally {
+                    afterCommitHooks.remove(cfg);
+                }
             });
         }
+
+        runHooks(hooks);
+        return result;
+    }
+
+    /**
+     * Runs the specified action after the transaction is committed.
+     * The action is discarded if the transaction is rolled back.
+     * If the transaction wasn't started with {@link #tx(Tx)} or
+     * {@link #txResult(TxResult)} the action is executed immediately.
+     */
+    public static void afterCommit(DSLContext tx, Runnable action) {
+        List<Runnable> hooks = afterCommitHooks.get(tx.configuration());
+        if (hooks == null) {
+            action.run();
+            return;
+        }
+
+        synchronized (hooks) {
+            hooks.add(action);
+        }
+    }
+
+    private static void runHooks(List<Runnable> hooks) {
+        for (Runnable h : hooks) {
+            try {
+                h.run();
+            } catch (Exception e) {
+                log.warn("runHooks -> error while running an after commit action: {}", e.getMessage(), e);
+            }
+        }
     }
 
     protected InputStream getData(Function<DSLContext, String> sqlFn, PreparedStatementHandler h, int columnIndex) {
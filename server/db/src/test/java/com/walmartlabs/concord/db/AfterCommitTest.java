@@ -0,0 +1,119 @@
+package com.walmartlabs.concord.db;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.jooq.Configuration;
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.jooq.impl.DefaultConfiguration;
+import org.jooq.tools.jdbc.MockConnection;
+import org.jooq.tools.jdbc.MockResult;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class AfterCommitTest {
+
+    @Test
+    public void testCommit() {
+        TestDao dao = new TestDao();
+        List<String> events = new ArrayList<>();
+
+        dao.tx(tx -> {
+            AbstractDao.afterCommit(tx, () -> events.add("hook"));
+            events.add("tx");
+        });
+
+        assertEquals(2, events.size());
+        assertEquals("tx", events.get(0));
+        assertEquals("hook", events.get(1));
+
+        String result = dao.txResult(tx -> {
+            AbstractDao.afterCommit(tx, () -> events.add("hook2"));
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals("hook2", events.get(2));
+    }
+
+    @Test
+    public void testRollback() {
+        TestDao dao = new TestDao();
+        List<String> events = new ArrayList<>();
+
+        try {
+            dao.tx(tx -> {
+                AbstractDao.afterCommit(tx, () -> events.add("hook"));
+                throw new IllegalStateException("boom");
+            });
+            fail("exception expected");
+        } catch (IllegalStateException e) {
+            assertEquals("boom", e.getMessage());
+        }
+
+        assertTrue(events.isEmpty());
+
+        // the hooks of the failed transaction are not carried over
+        dao.tx(tx -> events.add("tx"));
+        assertEquals(1, events.size());
+    }
+
+    @Test
+    public void testNoTransaction() {
+        TestDao dao = new TestDao();
+        List<String> events = new ArrayList<>();
+
+        AbstractDao.afterCommit(dao.dsl(), () -> events.add("hook"));
+        assertEquals(1, events.size());
+    }
+
+    private static class TestDao extends AbstractDao {
+
+        private TestDao() {
+            super(createConfiguration());
+        }
+
+        @Override
+        public void tx(Tx t) {
+            super.tx(t);
+        }
+
+        @Override
+        public <T> T txResult(TxResult<T> t) {
+            return super.txResult(t);
+        }
+
+        public DSLContext dsl() {
+            return DSL.using(cfg);
+        }
+
+        private static Configuration createConfiguration() {
+            return new DefaultConfiguration()
+                    .set(new MockConnection(ctx -> new MockResult[0]))
+                    .set(SQLDialect.POSTGRES);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.walmartlabs.concord.server.audit;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.cfg.AuditConfiguration;
+import com.walmartlabs.concord.server.sdk.BackgroundTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes audit log entries asynchronously, in batches. Used for high-volume
+ * entries like {@link AuditAction#ACCESS} which don't have to be recorded
+ * in the same transaction as the action itself.
+ */
+@Named
+@Singleton
+public class AsyncAuditLogWriter implements BackgroundTask {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncAuditLogWriter.class);
+
+    /**
+     * Windows with skipped entries are kept for up to this many
+     * {@code dedupWindow} periods to carry over the number of skipped entries.
+     */
+    private static final int MAX_WINDOW_AGE = 10;
+
+    private final AuditDao auditDao;
+    private final int batchSize;
+    private final long flushInterval;
+    private final long dedupWindow;
+
+    private final BlockingQueue<AuditDao.NewEntry> queue;
+    private final Map<Object, DedupWindow> dedupWindows = new ConcurrentHashMap<>();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private Thread worker;
+
+    @Inject
+    public AsyncAuditLogWriter(AuditConfiguration cfg, AuditDao auditDao) {
+        this.auditDao = auditDao;
+        this.batchSize = cfg.getAsyncBatchSize();
+        this.flushInterval = cfg.getAsyncFlushInterval();
+        this.dedupWindow = cfg.getAsyncDedupWindow();
+        this.queue = new ArrayBlockingQueue<>(cfg.getAsyncQueueSize());
+    }
+
+    @Override
+    public void start() {
+        this.worker = new Thread(this::run, "audit-log-writer");
+        this.worker.start();
+    }
+
+    @Override
+    public void stop() {
+        if (worker != null) {
+            worker.interrupt();
+            worker = null;
+        }
+
+        // write whatever is left
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("stop -> error while writing the remaining entries: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Checks whether an entry with the specified key should be recorded.
+     * Only the first entry with the same key is recorded within
+     * the configured {@code audit.async.dedupWindow}.
+     *
+     * @return the number of skipped entries since the previous recorded entry
+     * or {@code -1} if the entry should be skipped
+     */
+    public long acquire(Object dedupKey) {
+        if (dedupWindow <= 0) {
+            return 0;
+        }
+
+        long now = System.currentTimeMillis();
+
+        long[] result = {-1};
+        dedupWindows.compute(dedupKey, (k, w) -> {
+            if (w == null || now - w.startedAt >= dedupWindow) {
+                result[0] = w != null ? w.skipped : 0;
+                return new DedupWindow(now);
+            }
+
+            w.skipped++;
+            return w;
+        });
+
+        return result[0];
+    }
+
+    public void add(UUID userId, AuditObject object, AuditAction action, Object details) {
+        AuditDao.NewEntry e = new AuditDao.NewEntry(new Timestamp(System.currentTimeMillis()), userId, object, action, details);
+        if (!queue.offer(e)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                flush();
+                expireDedupWindows();
+                sleep(flushInterval);
+            } catch (Exception e) {
+                log.warn("run -> error while writing audit log entries: {}. Will retry in {}ms...", e.getMessage(), flushInterval, e);
+                sleep(flushInterval);
+            }
+        }
+    }
+
+    private void flush() {
+        long d = dropped.getAndSet(0);
+        if (d > 0) {
+            log.warn("flush -> the queue is full, {} audit log entries were dropped", d);
+        }
+
+        List<AuditDao.NewEntry> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            auditDao.insert(batch);
+            batch.clear();
+        }
+    }
+
+    private void expireDedupWindows() {
+        if (dedupWindows.isEmpty()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        dedupWindows.values().removeIf(w -> {
+            long age = now - w.startedAt;
+            return age >= dedupWindow && (w.skipped == 0 || age >= dedupWindow * MAX_WINDOW_AGE);
+        });
+    }
+
+    private static void sleep(long ms) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class DedupWindow {
+
+        private final long startedAt;
+        private long skipped;
+
+        private DedupWindow(long startedAt) {
+            this.startedAt = startedAt;
+        }
+    }
+}
@@ -28,6 +28,7 @@ import com.walmartlabs.concord.server.jooq.tables.AuditLog;
 import com.walmartlabs.concord.server.jooq.tables.Users;
 import com.walmartlabs.concord.server.org.EntityOwner;
 import com.walmartlabs.concord.server.user.UserType;
+import org.jooq.BatchBindStep;
 import org.jooq.Configuration;
 import org.jooq.JSONB;
 import org.jooq.Record9;
@@ -69,6 +70,31 @@ public class AuditDao extends AbstractDao {
                 .execute());
     }
 
+    public void insert(List<NewEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        tx(tx -> {
+            BatchBindStep q = tx.batch(tx.insertInto(AUDIT_LOG,
+                    AUDIT_LOG.ENTRY_DATE,
+                    AUDIT_LOG.USER_ID,
+                    AUDIT_LOG.ENTRY_OBJECT,
+                    AUDIT_LOG.ENTRY_ACTION,
+                    AUDIT_LOG.ENTRY_DETAILS).values((Timestamp) null, null, null, null, null));
+
+            for (NewEntry e : entries) {
+                q.bind(e.entryDate,
+                        e.userId,
+                        e.object.toString(),
+                        e.action.toString(),
+                        objectMapper.toJSONB(e.details));
+            }
+
+            q.execute();
+        });
+    }
+
     public List<AuditLogEntry> list(AuditLogFilter filter) {
         return txResult(tx -> {
             AuditLog l = AUDIT_LOG.as("l");
@@ -151,4 +177,21 @@ public class AuditDao extends AbstractDao {
 
         return b.build();
     }
+
+    public static class NewEntry {
+
+        private final Timestamp entryDate;
+        private final UUID userId;
+        private final AuditObject object;
+        private final AuditAction action;
+        private final Object details;
+
+        public NewEntry(Timestamp entryDate, UUID userId, AuditObject object, AuditAction action, Object details) {
+            this.entryDate = entryDate;
+            this.userId = userId;
+            this.object = object;
+            this.action = action;
+            this.details = details;
+        }
+    }
 }
@@ -33,6 +33,7 @@ import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -60,12 +61,14 @@ public class AuditLog {
 
     private final AuditConfiguration cfg;
     private final AuditDao auditDao;
+    private final AsyncAuditLogWriter asyncWriter;
     private final Listeners listeners;
 
     @Inject
-    public AuditLog(AuditConfiguration cfg, AuditDao auditDao, Listeners listeners) {
+    public AuditLog(AuditConfiguration cfg, AuditDao auditDao, AsyncAuditLogWriter asyncWriter, Listeners listeners) {
         this.cfg = cfg;
         this.auditDao = auditDao;
+        this.asyncWriter = asyncWriter;
         this.listeners = listeners;
     }
 
@@ -81,6 +84,7 @@ public class AuditLog {
         private Map<String, Object> changes;
 
         private UUID userId;
+        private Object dedupKey;
 
         private EntryBuilder(AuditObject object, AuditAction action) {
             this.object = object;
@@ -123,6 +127,17 @@ public class AuditLog {
             return this;
         }
 
+        /**
+         * Only the first entry with the same object, action and key is recorded
+         * within the configured {@code audit.async.dedupWindow}. The number
+         * of skipped entries is added to the next recorded entry.
+         * Applies only to {@link #logAsync()}.
+         */
+        public EntryBuilder dedupKey(Object dedupKey) {
+            this.dedupKey = dedupKey;
+            return this;
+        }
+
         public void log() {
             if (!cfg.isEnabled()) {
                 return;
@@ -136,7 +151,42 @@ public class AuditLog {
             }
         }
 
+        /**
+         * Same as {@link #log()}, but the entry is written asynchronously
+         * by {@link AsyncAuditLogWriter}.
+         */
+        public void logAsync() {
+            if (!cfg.isEnabled()) {
+                return;
+            }
+
+            if (dedupKey != null) {
+                long skipped = asyncWriter.acquire(Arrays.asList(object, action, dedupKey));
+                if (skipped < 0) {
+                    return;
+                }
+
+                if (skipped > 0) {
+                    details.put("skippedCount", skipped);
+                }
+            }
+
+            prepare();
+
+            asyncWriter.add(userId, object, action, details);
+
+            listeners.onAuditEvent(new AuditEvent(userId, object.name(), action.name(), details));
+        }
+
         private void doLog() {
+            prepare();
+
+            auditDao.insert(userId, object, action, details);
+
+            listeners.onAuditEvent(new AuditEvent(userId, object.name(), action.name(), details));
+        }
+
+        private void prepare() {
             if (userId == null) {
                 UserPrincipal user = UserPrincipal.getCurrent();
                 if (user != null) {
@@ -169,10 +219,6 @@ public class AuditLog {
             if (changes != null && !changes.isEmpty()) {
                 details.put("changes", changes);
             }
-
-            auditDao.insert(userId, object, action, details);
-
-            listeners.onAuditEvent(new AuditEvent(userId, object.name(), action.name(), details));
         }
     }
 
@@ -23,8 +23,8 @@ package com.walmartlabs.concord.server.boot.filters;
 import com.walmartlabs.concord.sdk.Constants;
 import com.walmartlabs.concord.server.cfg.SecretStoreConfiguration;
 import com.walmartlabs.concord.server.org.secret.SecretUtils;
+import com.walmartlabs.concord.server.security.AuthenticationCache;
 import com.walmartlabs.concord.server.security.apikey.ApiKey;
-import com.walmartlabs.concord.server.security.apikey.ApiKeyDao;
 import com.walmartlabs.concord.server.security.apikey.ApiKeyEntry;
 import com.walmartlabs.concord.server.security.sessionkey.SessionKey;
 import org.apache.shiro.authc.AuthenticationException;
@@ -56,12 +56,12 @@ public class ConcordAuthenticationHandler implements AuthenticationHandler {
     private static final String BASIC_AUTH_PREFIX = "Basic ";
     private static final String BEARER_AUTH_PREFIX = "Bearer ";
 
-    private final ApiKeyDao apiKeyDao;
+    private final AuthenticationCache authCache;
     private final SecretStoreConfiguration secretCfg;
 
     @Inject
-    public ConcordAuthenticationHandler(ApiKeyDao apiKeyDao, SecretStoreConfiguration secretCfg) {
-        this.apiKeyDao = apiKeyDao;
+    public ConcordAuthenticationHandler(AuthenticationCache authCache, SecretStoreConfiguration secretCfg) {
+        this.authCache = authCache;
         this.secretCfg = secretCfg;
     }
 
@@ -101,7 +101,7 @@ public class ConcordAuthenticationHandler implements AuthenticationHandler {
 
             validateApiKey(h);
 
-            ApiKeyEntry apiKey = apiKeyDao.find(h);
+            ApiKeyEntry apiKey = authCache.findApiKey(h);
             if (apiKey == null) {
                 return new UsernamePasswordToken();
             }
@@ -0,0 +1,216 @@
+package com.walmartlabs.concord.server.boot.filters;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.cfg.ServerConfiguration;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import javax.servlet.*;
+import javax.servlet.annotation.WebFilter;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Decompresses request bodies sent with {@code Content-Encoding: gzip}.
+ * Requests that inflate beyond {@link ServerConfiguration#getMaxDecompressedRequestSize()}
+ * are rejected with {@code 413 Request Entity Too Large}.
+ */
+@Named
+@Singleton
+@WebFilter("/api/*")
+public class GzipRequestFilter implements Filter {
+
+    private static final String GZIP = "gzip";
+
+    private final ServerConfiguration cfg;
+
+    @Inject
+    public GzipRequestFilter(ServerConfiguration cfg) {
+        this.cfg = cfg;
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) {
+        // do nothing
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        HttpServletRequest httpReq = (HttpServletRequest) request;
+
+        String encoding = httpReq.getHeader(HttpHeaders.CONTENT_ENCODING);
+        if (encoding == null || !GZIP.equalsIgnoreCase(encoding.trim())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        try {
+            chain.doFilter(new GzipRequestWrapper(httpReq, cfg.getMaxDecompressedRequestSize()), response);
+        } catch (RequestTooLargeException e) {
+            if (!response.isCommitted()) {
+                ((HttpServletResponse) response).sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        // do nothing
+    }
+
+    private static final class GzipRequestWrapper extends HttpServletRequestWrapper {
+
+        private final long maxSize;
+
+        private ServletInputStream in;
+
+        private GzipRequestWrapper(HttpServletRequest request, long maxSize) {
+            super(request);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public synchronized ServletInputStream getInputStream() throws IOException {
+            if (in == null) {
+                ServletInputStream original = super.getInputStream();
+                in = new GzipServletInputStream(original, new GZIPInputStream(original), maxSize);
+            }
+            return in;
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            if (HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)) {
+                return null;
+            }
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                return null;
+            }
+            return super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)) {
+                return Collections.emptyEnumeration();
+            }
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                return Collections.emptyEnumeration();
+            }
+            return super.getHeaders(name);
+        }
+    }
+
+    private static final class GzipServletInputStream extends ServletInputStream {
+
+        private final ServletInputStream original;
+        private final InputStream delegate;
+        private final long maxSize;
+
+        private long total = 0;
+        private boolean finished = false;
+
+        private GzipServletInputStream(ServletInputStream original, InputStream delegate, long maxSize) {
+            this.original = original;
+            this.delegate = delegate;
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            if (b < 0) {
+                finished = true;
+            } else {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = delegate.read(b, off, len);
+            if (n < 0) {
+                finished = true;
+            } else {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) {
+            total += n;
+            if (maxSize > 0 && total > maxSize) {
+                throw new RequestTooLargeException(maxSize);
+            }
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            original.setReadListener(readListener);
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+
+    private static final class RequestTooLargeException extends WebApplicationException {
+
+        private static final long serialVersionUID = 1L;
+
+        private RequestTooLargeException(long maxSize) {
+            super("Decompressed request body exceeds the limit of " + maxSize + " bytes", Response.Status.REQUEST_ENTITY_TOO_LARGE);
+        }
+    }
+}
@@ -43,6 +43,22 @@ public class AuditConfiguration implements Serializable {
     @Config("audit.maxLogAge")
     private long maxLogAge;
 
+    @Inject
+    @Config("audit.async.queueSize")
+    private int asyncQueueSize;
+
+    @Inject
+    @Config("audit.async.batchSize")
+    private int asyncBatchSize;
+
+    @Inject
+    @Config("audit.async.flushInterval")
+    private long asyncFlushInterval;
+
+    @Inject
+    @Config("audit.async.dedupWindow")
+    private long asyncDedupWindow;
+
     public boolean isEnabled() {
         return enabled;
     }
@@ -54,4 +70,20 @@ public class AuditConfiguration implements Serializable {
     public long getMaxLogAge() {
         return maxLogAge;
     }
+
+    public int getAsyncQueueSize() {
+        return asyncQueueSize;
+    }
+
+    public int getAsyncBatchSize() {
+        return asyncBatchSize;
+    }
+
+    public long getAsyncFlushInterval() {
+        return asyncFlushInterval;
+    }
+
+    public long getAsyncDedupWindow() {
+        return asyncDedupWindow;
+    }
 }
@@ -1,4 +1,4 @@
-package com.walmartlabs.concord.runtime.v2.runner.logging;
+package com.walmartlabs.concord.server.cfg;
 
 /*-
  * *****
@@ -9,9 +9,9 @@ package com.walmartlabs.concord.runtime.v2.runner.logging;
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
  * You may obtain a copy of the License at
- * 
+ *
  *      http://www.apache.org/licenses/LICENSE-2.0
- * 
+ *
  * Unless required by applicable law or agreed to in writing, software
  * distributed under the License is distributed on an "AS IS" BASIS,
  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
@@ -20,16 +20,34 @@ package com.walmartlabs.concord.runtime.v2.runner.logging;
  * =====
  */
 
-public class SegmentThreadGroup extends ThreadGroup {
+import com.walmartlabs.ollie.config.Config;
 
-    private final String segmentId;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.Serializable;
 
-    public SegmentThreadGroup(String name, String segmentId) {
-        super(name);
-        this.segmentId = segmentId;
+@Named
+@Singleton
+public class AuthCacheConfiguration implements Serializable {
+
+    @Inject
+    @Config("authCache.ttl")
+    private long ttl;
+
+    @Inject
+    @Config("authCache.maxSize")
+    private long maxSize;
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
     }
 
-    public String getSegmentId() {
-        return segmentId;
+    public boolean isEnabled() {
+        return ttl > 0;
     }
 }
@@ -53,6 +53,22 @@ public class GithubConfiguration {
     @Config("github.logEvents")
     private boolean logEvents;
 
+    @Inject
+    @Config("github.inbox.workers")
+    private int inboxWorkers;
+
+    @Inject
+    @Config("github.inbox.pollInterval")
+    private long inboxPollInterval;
+
+    @Inject
+    @Config("github.inbox.leaseTime")
+    private long inboxLeaseTime;
+
+    @Inject
+    @Config("github.inbox.maxAttempts")
+    private int inboxMaxAttempts;
+
     public String getSecret() {
         return secret;
     }
@@ -73,4 +89,20 @@ public class GithubConfiguration {
     public boolean isLogEvents() {
         return logEvents;
     }
+
+    public int getInboxWorkers() {
+        return inboxWorkers;
+    }
+
+    public long getInboxPollInterval() {
+        return inboxPollInterval;
+    }
+
+    public long getInboxLeaseTime() {
+        return inboxLeaseTime;
+    }
+
+    public int getInboxMaxAttempts() {
+        return inboxMaxAttempts;
+    }
 }
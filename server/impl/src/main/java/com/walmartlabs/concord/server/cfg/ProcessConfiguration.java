@@ -62,6 +62,23 @@ public class ProcessConfiguration implements Serializable {
     @Inject
     @Config("process.maxStateAge")
     private long maxStateAge;
+
+    @Inject
+    @Config("process.cleanupBatchSize")
+    private int cleanupBatchSize;
+
+    @Inject
+    @Config("process.cleanupBatchDelay")
+    private long cleanupBatchDelay;
+
+    @Inject
+    @Config("process.partitionInterval")
+    private String partitionInterval;
+
+    @Inject
+    @Config("process.partitionPrecreateCount")
+    private int partitionPrecreateCount;
+
     @Inject
     @Config("process.secureFiles")
     private List<String> secureFiles;
@@ -86,6 +103,10 @@ public class ProcessConfiguration implements Serializable {
     @Config("process.checkLogPermissions")
     private boolean checkLogPermissions;
 
+    @Inject
+    @Config("process.maxForkBatchSize")
+    private int maxForkBatchSize;
+
     @Inject
     public ProcessConfiguration(@Config("process.signingKeyPath") @Nullable String signingKeyPath) {
         this.signingKeyPath = signingKeyPath != null ? Paths.get(signingKeyPath) : null;
@@ -124,6 +145,22 @@ public class ProcessConfiguration implements Serializable {
         return maxStateAge;
     }
 
+    public int getCleanupBatchSize() {
+        return cleanupBatchSize;
+    }
+
+    public long getCleanupBatchDelay() {
+        return cleanupBatchDelay;
+    }
+
+    public String getPartitionInterval() {
+        return partitionInterval;
+    }
+
+    public int getPartitionPrecreateCount() {
+        return partitionPrecreateCount;
+    }
+
     public List<String> getSecureFiles() {
         return secureFiles;
     }
@@ -147,4 +184,8 @@ public class ProcessConfiguration implements Serializable {
     public boolean isCheckLogPermissions() {
         return checkLogPermissions;
     }
+
+    public int getMaxForkBatchSize() {
+        return maxForkBatchSize;
+    }
 }
@@ -39,6 +39,14 @@ public class QosConfiguration implements Serializable {
     @Config("qos.suspendMs")
     public int suspendMs;
 
+    @Inject
+    @Config("qos.maxStartsPerSecond")
+    public int maxStartsPerSecond;
+
+    @Inject
+    @Config("qos.fairShareWindowMs")
+    public long fairShareWindowMs;
+
     public int getMaxRequests() {
         return maxRequests;
     }
@@ -50,4 +58,12 @@ public class QosConfiguration implements Serializable {
     public int getSuspendMs() {
         return suspendMs;
     }
+
+    public int getMaxStartsPerSecond() {
+        return maxStartsPerSecond;
+    }
+
+    public long getFairShareWindowMs() {
+        return fairShareWindowMs;
+    }
 }
@@ -26,6 +26,7 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.Serializable;
+import java.time.Duration;
 
 @Named
 @Singleton
@@ -51,6 +52,14 @@ public class SecretStoreConfiguration implements Serializable {
     @Config("secretStore.keySize")
     private int keySize;
 
+    @Inject
+    @Config("secretStore.cacheTtl")
+    private Duration cacheTtl;
+
+    @Inject
+    @Config("secretStore.cacheMaxWeight")
+    private long cacheMaxWeight;
+
     public byte[] getServerPwd() {
         return serverPwd;
     }
@@ -70,4 +79,12 @@ public class SecretStoreConfiguration implements Serializable {
     public int getKeySize() {
         return keySize;
     }
+
+    public Duration getCacheTtl() {
+        return cacheTtl;
+    }
+
+    public long getCacheMaxWeight() {
+        return cacheMaxWeight;
+    }
 }
@@ -65,6 +65,10 @@ public class ServerConfiguration implements Serializable {
     @Config("server.requestHeaderSize")
     private int requestHeaderSize;
 
+    @Inject
+    @Config("server.maxDecompressedRequestSize")
+    private long maxDecompressedRequestSize;
+
     @Inject
     private CORSConfiguration corsConfiguration;
 
@@ -98,6 +102,10 @@ public class ServerConfiguration implements Serializable {
         return requestHeaderSize;
     }
 
+    public long getMaxDecompressedRequestSize() {
+        return maxDecompressedRequestSize;
+    }
+
     public CORSConfiguration getCORSConfiguration() {
         return corsConfiguration;
     }
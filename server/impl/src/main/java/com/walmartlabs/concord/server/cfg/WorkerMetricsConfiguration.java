@@ -25,6 +25,7 @@ import com.walmartlabs.ollie.config.Config;
 import javax.inject.Inject;
 import javax.inject.Named;
 import java.io.Serializable;
+import java.util.List;
 
 @Named
 public class WorkerMetricsConfiguration implements Serializable {
@@ -33,7 +34,15 @@ public class WorkerMetricsConfiguration implements Serializable {
     @Config("workerMetrics.groupByCapabilitiesProperty")
     private String groupByCapabilitiesProperty;
 
+    @Inject
+    @Config("workerMetrics.latencyFlavors")
+    private List<String> latencyFlavors;
+
     public String getGroupByCapabilitiesProperty() {
         return groupByCapabilitiesProperty;
     }
+
+    public List<String> getLatencyFlavors() {
+        return latencyFlavors;
+    }
 }
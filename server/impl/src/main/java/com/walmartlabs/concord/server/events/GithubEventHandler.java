@@ -0,0 +1,190 @@
+package com.walmartlabs.concord.server.events;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.walmartlabs.concord.sdk.Constants;
+import com.walmartlabs.concord.sdk.MapUtils;
+import com.walmartlabs.concord.server.audit.AuditAction;
+import com.walmartlabs.concord.server.audit.AuditLog;
+import com.walmartlabs.concord.server.audit.AuditObject;
+import com.walmartlabs.concord.server.cfg.GithubConfiguration;
+import com.walmartlabs.concord.server.events.github.GithubTriggerProcessor;
+import com.walmartlabs.concord.server.events.github.Payload;
+import com.walmartlabs.concord.server.org.triggers.TriggerUtils;
+import com.walmartlabs.concord.server.process.PartialProcessKey;
+import com.walmartlabs.concord.server.sdk.ConcordApplicationException;
+import com.walmartlabs.concord.server.sdk.metrics.WithTimer;
+import com.walmartlabs.concord.server.security.ldap.LdapManager;
+import com.walmartlabs.concord.server.security.ldap.LdapPrincipal;
+import com.walmartlabs.concord.server.user.UserEntry;
+import com.walmartlabs.concord.server.user.UserManager;
+import com.walmartlabs.concord.server.user.UserType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static com.walmartlabs.concord.common.MemoSupplier.memo;
+import static com.walmartlabs.concord.server.events.github.Constants.COMMIT_ID_KEY;
+import static com.walmartlabs.concord.server.events.github.Constants.EVENT_SOURCE;
+
+/**
+ * Processes GitHub events received by {@link GithubEventResource}:
+ * finds the matching triggers and starts the processes.
+ * Called by {@link GithubEventInbox} workers on behalf of the webhook's
+ * original subject.
+ */
+@Named
+@Singleton
+public class GithubEventHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(GithubEventHandler.class);
+
+    private final GithubConfiguration githubCfg;
+    private final TriggerProcessExecutor executor;
+    private final AuditLog auditLog;
+    private final List<GithubTriggerProcessor> processors;
+    private final UserManager userManager;
+    private final LdapManager ldapManager;
+    private final TriggerEventInitiatorResolver initiatorResolver;
+    private final Histogram startedProcessesPerEvent;
+
+    @Inject
+    public GithubEventHandler(GithubConfiguration githubCfg,
+                              TriggerProcessExecutor executor, AuditLog auditLog,
+                              List<GithubTriggerProcessor> processors,
+                              UserManager userManager,
+                              LdapManager ldapManager,
+                              TriggerEventInitiatorResolver initiatorResolver,
+                              MetricRegistry metricRegistry) {
+
+        this.githubCfg = githubCfg;
+        this.executor = executor;
+        this.auditLog = auditLog;
+        this.processors = processors;
+        this.userManager = userManager;
+        this.ldapManager = ldapManager;
+        this.initiatorResolver = initiatorResolver;
+        this.startedProcessesPerEvent = metricRegistry.histogram("started-processes-per-github-event");
+    }
+
+    @WithTimer
+    public void handle(String deliveryId, String eventName, Map<String, Object> data, Map<String, String> queryParams) {
+        if (githubCfg.isLogEvents()) {
+            auditLog.add(AuditObject.EXTERNAL_EVENT, AuditAction.ACCESS)
+                    .field("source", EVENT_SOURCE)
+                    .field("eventId", deliveryId)
+                    .field("githubEvent", eventName)
+                    .field("payload", data)
+                    .log();
+        }
+
+        Payload payload = Payload.from(eventName, data);
+        if (payload == null) {
+            log.warn("event ['{}', '{}'] -> can't parse payload", deliveryId, eventName);
+            return;
+        }
+
+        List<GithubTriggerProcessor.Result> results = new ArrayList<>();
+        processors.forEach(p -> p.process(eventName, payload, queryParams, results));
+
+        Supplier<UserEntry> initiatorSupplier = memo(new GithubEventInitiatorSupplier(userManager, ldapManager, payload));
+
+        int startedProcesses = 0;
+        for (GithubTriggerProcessor.Result r : results) {
+            Event e = Event.builder()
+                    .id(deliveryId)
+                    .name(EVENT_SOURCE)
+                    .attributes(r.event())
+                    .initiator(initiatorSupplier)
+                    .build();
+
+            List<PartialProcessKey> processes = executor.execute(e, r.triggers(), initiatorResolver, (t, cfg) -> {
+                // if `useEventCommitId` is true then the process is forced to use the specified commit ID
+                String commitId = MapUtils.getString(r.event(), COMMIT_ID_KEY);
+                if (commitId != null && TriggerUtils.isUseEventCommitId(t)) {
+                    cfg.put(Constants.Request.REPO_COMMIT_ID, commitId);
+                }
+                return cfg;
+            });
+            startedProcesses += processes.size();
+        }
+        startedProcessesPerEvent.update(startedProcesses);
+    }
+
+    private class GithubEventInitiatorSupplier implements Supplier<UserEntry> {
+
+        private final UserManager userManager;
+        private final LdapManager ldapManager;
+        private final Payload payload;
+        private final Supplier<UserEntry> fallback;
+
+        public GithubEventInitiatorSupplier(UserManager userManager, LdapManager ldapManager, Payload payload) {
+            this.userManager = userManager;
+            this.ldapManager = ldapManager;
+            this.payload = payload;
+            this.fallback = () -> {
+                String initiator = payload.getSender();
+                if (initiator == null || initiator.trim().isEmpty()) {
+                    throw new ConcordApplicationException("Can't determine initiator: " + payload);
+                }
+
+                return userManager.getOrCreate(initiator, null, UserType.LDAP)
+                        .orElseThrow(() -> new ConcordApplicationException("User not found: " + initiator));
+            };
+        }
+
+        @Override
+        public UserEntry get() {
+            if (!githubCfg.isUseSenderLdapDn()) {
+                return fallback.get();
+            }
+
+            String ldapDn = payload.getSenderLdapDn();
+            if (ldapDn == null || ldapDn.trim().isEmpty()) {
+                log.warn("getOrCreateUserEntry ['{}'] -> can't determine the sender's 'ldap_dn', falling back to 'login'", payload);
+                return fallback.get();
+            }
+
+            // only LDAP users are supported in GitHub triggers
+            try {
+                LdapPrincipal p = ldapManager.getPrincipalByDn(ldapDn);
+                if (p == null) {
+                    log.warn("getOrCreateUserEntry ['{}'] -> can't find user by ldap DN ({})", payload, ldapDn);
+                    return fallback.get();
+                }
+
+                return userManager.getOrCreate(p.getUsername(), p.getDomain(), UserType.LDAP)
+                        .orElseThrow(() -> new ConcordApplicationException("User not found: " + p.getUsername()));
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+}
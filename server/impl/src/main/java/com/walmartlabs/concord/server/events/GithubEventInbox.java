@@ -0,0 +1,329 @@
+package com.walmartlabs.concord.server.events;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.db.AbstractDao;
+import com.walmartlabs.concord.db.MainDB;
+import com.walmartlabs.concord.db.PgUtils;
+import com.walmartlabs.concord.server.ConcordObjectMapper;
+import com.walmartlabs.concord.server.cfg.GithubConfiguration;
+import com.walmartlabs.concord.server.process.ProcessSecurityContext;
+import com.walmartlabs.concord.server.sdk.BackgroundTask;
+import com.walmartlabs.concord.server.sdk.metrics.WithTimer;
+import com.walmartlabs.concord.server.security.PrincipalUtils;
+import org.apache.shiro.SecurityUtils;
+import org.apache.shiro.subject.PrincipalCollection;
+import org.immutables.value.Value;
+import org.jooq.Configuration;
+import org.jooq.Field;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static com.walmartlabs.concord.server.jooq.Tables.GITHUB_EVENT_INBOX;
+import static org.jooq.impl.DSL.currentTimestamp;
+import static org.jooq.impl.DSL.select;
+
+/**
+ * Durable inbox for GitHub events. The webhook saves the raw event and
+ * returns immediately, the events are processed by a pool of workers
+ * using {@link GithubEventHandler}.
+ * <p/>
+ * An event is reserved by a worker for {@code github.inbox.leaseTime}.
+ * The lease is extended while the event is being processed. If the worker
+ * fails or the server dies, the event is retried by any server instance
+ * (up to {@code github.inbox.maxAttempts} times). The attempt number
+ * identifies the current lease, a worker which lost its lease can't
+ * modify the event.
+ */
+@Named
+@Singleton
+public class GithubEventInbox implements BackgroundTask {
+
+    private static final Logger log = LoggerFactory.getLogger(GithubEventInbox.class);
+
+    /**
+     * Delay before the next attempt (sec), multiplied by the number of attempts.
+     */
+    private static final long RETRY_DELAY = 10;
+
+    private final GithubConfiguration cfg;
+    private final InboxDao dao;
+    private final GithubEventHandler handler;
+    private final ProcessSecurityContext securityContext;
+    private final Semaphore wakeup = new Semaphore(0);
+
+    private final List<Thread> workers = new ArrayList<>();
+    private ScheduledExecutorService leaseExtender;
+
+    @Inject
+    public GithubEventInbox(GithubConfiguration cfg,
+                            InboxDao dao,
+                            GithubEventHandler handler,
+                            ProcessSecurityContext securityContext) {
+
+        this.cfg = cfg;
+        this.dao = dao;
+        this.handler = handler;
+        this.securityContext = securityContext;
+    }
+
+    @Override
+    public void start() {
+        leaseExtender = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "github-event-inbox-lease"));
+
+        for (int i = 0; i < cfg.getInboxWorkers(); i++) {
+            Thread t = new Thread(this::run, "github-event-inbox-" + i);
+            t.start();
+            workers.add(t);
+        }
+    }
+
+    @Override
+    public void stop() {
+        workers.forEach(Thread::interrupt);
+        workers.clear();
+
+        if (leaseExtender != null) {
+            leaseExtender.shutdownNow();
+            leaseExtender = null;
+        }
+    }
+
+    /**
+     * Saves the event for processing. The event will be processed on behalf
+     * of the current subject. Repeated deliveries of the same event are
+     * ignored while the event is in the inbox.
+     */
+    @WithTimer
+    public void add(String deliveryId, String eventName, Map<String, Object> data, Map<String, String> queryParams) {
+        PrincipalCollection principals = SecurityUtils.getSubject().getPrincipals();
+
+        boolean added = dao.insert(deliveryId, eventName, data, queryParams, PrincipalUtils.serialize(principals));
+        if (!added) {
+            log.info("add ['{}', '{}'] -> already in the inbox, skipping", deliveryId, eventName);
+            return;
+        }
+
+        wakeup.release();
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                InboxEvent e = dao.poll(cfg.getInboxLeaseTime());
+                if (e == null) {
+                    wakeup.tryAcquire(cfg.getInboxPollInterval(), TimeUnit.MILLISECONDS);
+                    continue;
+                }
+
+                process(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("run -> error", e);
+                sleep(cfg.getInboxPollInterval());
+            }
+        }
+    }
+
+    private void process(InboxEvent e) {
+        long period = Math.max(1, cfg.getInboxLeaseTime() / 3);
+        ScheduledFuture<?> lease = leaseExtender.scheduleWithFixedDelay(() -> extendLease(e), period, period, TimeUnit.SECONDS);
+        try {
+            handle(e);
+        } finally {
+            lease.cancel(false);
+        }
+    }
+
+    private void handle(InboxEvent e) {
+        try {
+            PrincipalCollection principals = PrincipalUtils.deserialize(e.principals())
+                    .orElseThrow(() -> new IllegalStateException("Can't deserialize the event's principals"));
+
+            securityContext.runAs(principals, () -> {
+                handler.handle(e.deliveryId(), e.eventName(), e.data(), e.queryParams());
+                return null;
+            });
+        } catch (Exception ex) {
+            if (e.attempts() < cfg.getInboxMaxAttempts()) {
+                log.warn("process ['{}', '{}'] -> error (attempt {}), will retry: {}", e.deliveryId(), e.eventName(), e.attempts(), ex.getMessage(), ex);
+                dao.retry(e.eventSeq(), e.attempts(), e.attempts() * RETRY_DELAY);
+                return;
+            }
+
+            log.error("process ['{}', '{}'] -> error (attempt {}), giving up: {}", e.deliveryId(), e.eventName(), e.attempts(), ex.getMessage(), ex);
+        }
+
+        dao.delete(e.eventSeq(), e.attempts());
+    }
+
+    private void extendLease(InboxEvent e) {
+        try {
+            if (!dao.extendLease(e.eventSeq(), e.attempts(), cfg.getInboxLeaseTime())) {
+                log.warn("extendLease ['{}', '{}'] -> the lease is lost (attempt {})", e.deliveryId(), e.eventName(), e.attempts());
+            }
+        } catch (Exception ex) {
+            log.warn("extendLease ['{}', '{}'] -> error: {}", e.deliveryId(), e.eventName(), ex.getMessage());
+        }
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Value.Immutable
+    interface InboxEvent {
+
+        long eventSeq();
+
+        @Nullable
+        String deliveryId();
+
+        String eventName();
+
+        Map<String, Object> data();
+
+        @Nullable
+        Map<String, String> queryParams();
+
+        byte[] principals();
+
+        int attempts();
+
+        static ImmutableInboxEvent.Builder builder() {
+            return ImmutableInboxEvent.builder();
+        }
+    }
+
+    @Named
+    private static final class InboxDao extends AbstractDao {
+
+        private final ConcordObjectMapper objectMapper;
+
+        @Inject
+        public InboxDao(@MainDB Configuration cfg, ConcordObjectMapper objectMapper) {
+            super(cfg);
+            this.objectMapper = objectMapper;
+        }
+
+        /**
+         * @return {@code false} if the event with the same delivery ID is
+         * already in the inbox
+         */
+        public boolean insert(String deliveryId, String eventName, Map<String, Object> data, Map<String, String> queryParams, byte[] principals) {
+            return txResult(tx -> tx.insertInto(GITHUB_EVENT_INBOX)
+                    .columns(GITHUB_EVENT_INBOX.DELIVERY_ID,
+                            GITHUB_EVENT_INBOX.EVENT_NAME,
+                            GITHUB_EVENT_INBOX.EVENT_DATA,
+                            GITHUB_EVENT_INBOX.QUERY_PARAMS,
+                            GITHUB_EVENT_INBOX.PRINCIPALS)
+                    .values(deliveryId,
+                            eventName,
+                            objectMapper.toJSONB(data),
+                            queryParams != null ? objectMapper.toJSONB(queryParams) : null,
+                            principals)
+                    .onConflictDoNothing()
+                    .execute() > 0);
+        }
+
+        /**
+         * Reserves the oldest available event for the specified number
+         * of seconds.
+         */
+        @SuppressWarnings("unchecked")
+        public InboxEvent poll(long leaseTime) {
+            Field<Timestamp> leaseUntil = currentTimestamp().plus(PgUtils.interval(leaseTime + " seconds"));
+
+            return txResult(tx -> tx.update(GITHUB_EVENT_INBOX)
+                    .set(GITHUB_EVENT_INBOX.ATTEMPTS, GITHUB_EVENT_INBOX.ATTEMPTS.plus(1))
+                    .set(GITHUB_EVENT_INBOX.NEXT_ATTEMPT_AT, leaseUntil)
+                    .where(GITHUB_EVENT_INBOX.EVENT_SEQ.eq(select(GITHUB_EVENT_INBOX.EVENT_SEQ)
+                            .from(GITHUB_EVENT_INBOX)
+                            .where(GITHUB_EVENT_INBOX.NEXT_ATTEMPT_AT.lessOrEqual(currentTimestamp()))
+                            .orderBy(GITHUB_EVENT_INBOX.EVENT_SEQ)
+                            .limit(1)
+                            .forUpdate()
+                            .skipLocked()))
+                    .returning(GITHUB_EVENT_INBOX.EVENT_SEQ,
+                            GITHUB_EVENT_INBOX.DELIVERY_ID,
+                            GITHUB_EVENT_INBOX.EVENT_NAME,
+                            GITHUB_EVENT_INBOX.EVENT_DATA,
+                            GITHUB_EVENT_INBOX.QUERY_PARAMS,
+                            GITHUB_EVENT_INBOX.PRINCIPALS,
+                            GITHUB_EVENT_INBOX.ATTEMPTS)
+                    .fetchOptional()
+                    .map(r -> InboxEvent.builder()
+                            .eventSeq(r.getEventSeq())
+                            .deliveryId(r.getDeliveryId())
+                            .eventName(r.getEventName())
+                            .data(objectMapper.fromJSONB(r.getEventData()))
+                            .queryParams(r.getQueryParams() != null ? objectMapper.fromJSONB(r.getQueryParams(), Map.class) : null)
+                            .principals(r.getPrincipals())
+                            .attempts(r.getAttempts())
+                            .build())
+                    .orElse(null));
+        }
+
+        /**
+         * Extends the lease of the event reserved by {@link #poll(long)}.
+         *
+         * @return {@code false} if the event is no longer reserved by
+         * the specified attempt
+         */
+        public boolean extendLease(long eventSeq, int attempt, long leaseTime) {
+            return txResult(tx -> tx.update(GITHUB_EVENT_INBOX)
+                    .set(GITHUB_EVENT_INBOX.NEXT_ATTEMPT_AT, currentTimestamp().plus(PgUtils.interval(leaseTime + " seconds")))
+                    .where(GITHUB_EVENT_INBOX.EVENT_SEQ.eq(eventSeq)
+                            .and(GITHUB_EVENT_INBOX.ATTEMPTS.eq(attempt)))
+                    .execute() > 0);
+        }
+
+        public void retry(long eventSeq, int attempt, long delay) {
+            tx(tx -> tx.update(GITHUB_EVENT_INBOX)
+                    .set(GITHUB_EVENT_INBOX.NEXT_ATTEMPT_AT, currentTimestamp().plus(PgUtils.interval(delay + " seconds")))
+                    .where(GITHUB_EVENT_INBOX.EVENT_SEQ.eq(eventSeq)
+                            .and(GITHUB_EVENT_INBOX.ATTEMPTS.eq(attempt)))
+                    .execute());
+        }
+
+        public void delete(long eventSeq, int attempt) {
+            tx(tx -> tx.deleteFrom(GITHUB_EVENT_INBOX)
+                    .where(GITHUB_EVENT_INBOX.EVENT_SEQ.eq(eventSeq)
+                            .and(GITHUB_EVENT_INBOX.ATTEMPTS.eq(attempt)))
+                    .execute());
+        }
+    }
+}
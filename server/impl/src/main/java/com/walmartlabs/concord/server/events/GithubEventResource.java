@@ -20,25 +20,7 @@ package com.walmartlabs.concord.server.events;
  * =====
  */
 
-import com.codahale.metrics.Histogram;
-import com.codahale.metrics.MetricRegistry;
-import com.walmartlabs.concord.sdk.Constants;
-import com.walmartlabs.concord.sdk.MapUtils;
-import com.walmartlabs.concord.server.audit.AuditAction;
-import com.walmartlabs.concord.server.audit.AuditLog;
-import com.walmartlabs.concord.server.audit.AuditObject;
-import com.walmartlabs.concord.server.cfg.GithubConfiguration;
-import com.walmartlabs.concord.server.events.github.GithubTriggerProcessor;
-import com.walmartlabs.concord.server.events.github.Payload;
-import com.walmartlabs.concord.server.org.triggers.TriggerUtils;
-import com.walmartlabs.concord.server.process.PartialProcessKey;
-import com.walmartlabs.concord.server.sdk.ConcordApplicationException;
 import com.walmartlabs.concord.server.sdk.metrics.WithTimer;
-import com.walmartlabs.concord.server.security.ldap.LdapManager;
-import com.walmartlabs.concord.server.security.ldap.LdapPrincipal;
-import com.walmartlabs.concord.server.user.UserEntry;
-import com.walmartlabs.concord.server.user.UserManager;
-import com.walmartlabs.concord.server.user.UserType;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -52,21 +34,19 @@ import javax.inject.Singleton;
 import javax.ws.rs.*;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.UriInfo;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Supplier;
-
-import static com.walmartlabs.concord.common.MemoSupplier.memo;
-import static com.walmartlabs.concord.server.events.github.Constants.COMMIT_ID_KEY;
-import static com.walmartlabs.concord.server.events.github.Constants.EVENT_SOURCE;
 
 /**
  * Handles external GitHub events.
  * Uses a custom authentication mechanism,
  * see {@link com.walmartlabs.concord.server.security.GithubAuthenticatingFilter}.
  * <p>
+ * The events are saved into {@link GithubEventInbox} and processed
+ * asynchronously.
+ * <p>
  * See also https://developer.github.com/webhooks/
  */
 @Named
@@ -77,32 +57,13 @@ public class GithubEventResource implements Resource {
 
     private static final Logger log = LoggerFactory.getLogger(GithubEventResource.class);
 
-    private final GithubConfiguration githubCfg;
     private final TriggerProcessExecutor executor;
-    private final AuditLog auditLog;
-    private final List<GithubTriggerProcessor> processors;
-    private final UserManager userManager;
-    private final LdapManager ldapManager;
-    private final TriggerEventInitiatorResolver initiatorResolver;
-    private final Histogram startedProcessesPerEvent;
+    private final GithubEventInbox inbox;
 
     @Inject
-    public GithubEventResource(GithubConfiguration githubCfg,
-                               TriggerProcessExecutor executor, AuditLog auditLog,
-                               List<GithubTriggerProcessor> processors,
-                               UserManager userManager,
-                               LdapManager ldapManager,
-                               TriggerEventInitiatorResolver initiatorResolver,
-                               MetricRegistry metricRegistry) {
-
-        this.githubCfg = githubCfg;
+    public GithubEventResource(TriggerProcessExecutor executor, GithubEventInbox inbox) {
         this.executor = executor;
-        this.auditLog = auditLog;
-        this.processors = processors;
-        this.userManager = userManager;
-        this.ldapManager = ldapManager;
-        this.initiatorResolver = initiatorResolver;
-        this.startedProcessesPerEvent = metricRegistry.histogram("started-processes-per-github-event");
+        this.inbox = inbox;
     }
 
     @POST
@@ -127,97 +88,26 @@ public class GithubEventResource implements Resource {
             return "ok";
         }
 
-        if (githubCfg.isLogEvents()) {
-            auditLog.add(AuditObject.EXTERNAL_EVENT, AuditAction.ACCESS)
-                    .field("source", EVENT_SOURCE)
-                    .field("eventId", deliveryId)
-                    .field("githubEvent", eventName)
-                    .field("payload", data)
-                    .log();
-        }
-
-        Payload payload = Payload.from(eventName, data);
-        if (payload == null) {
-            log.warn("event ['{}', '{}'] -> can't parse payload", deliveryId, eventName);
-            return "ok";
-        }
+        // check the roles while we still have the request
+        executor.assertRoles(eventName);
 
-        List<GithubTriggerProcessor.Result> results = new ArrayList<>();
-        processors.forEach(p -> p.process(eventName, payload, uriInfo, results));
-
-        Supplier<UserEntry> initiatorSupplier = memo(new GithubEventInitiatorSupplier(userManager, ldapManager, payload));
-
-        int startedProcesses = 0;
-        for (GithubTriggerProcessor.Result r : results) {
-            Event e = Event.builder()
-                    .id(deliveryId)
-                    .name(EVENT_SOURCE)
-                    .attributes(r.event())
-                    .initiator(initiatorSupplier)
-                    .build();
-
-            List<PartialProcessKey> processes = executor.execute(e, r.triggers(), initiatorResolver, (t, cfg) -> {
-                // if `useEventCommitId` is true then the process is forced to use the specified commit ID
-                String commitId = MapUtils.getString(r.event(), COMMIT_ID_KEY);
-                if (commitId != null && TriggerUtils.isUseEventCommitId(t)) {
-                    cfg.put(Constants.Request.REPO_COMMIT_ID, commitId);
-                }
-                return cfg;
-            });
-            startedProcesses += processes.size();
-        }
-        startedProcessesPerEvent.update(startedProcesses);
+        inbox.add(deliveryId, eventName, data, queryParams(uriInfo));
 
         return "ok";
     }
 
-    private class GithubEventInitiatorSupplier implements Supplier<UserEntry> {
-
-        private final UserManager userManager;
-        private final LdapManager ldapManager;
-        private final Payload payload;
-        private final Supplier<UserEntry> fallback;
-
-        public GithubEventInitiatorSupplier(UserManager userManager, LdapManager ldapManager, Payload payload) {
-            this.userManager = userManager;
-            this.ldapManager = ldapManager;
-            this.payload = payload;
-            this.fallback = () -> {
-                String initiator = payload.getSender();
-                if (initiator == null || initiator.trim().isEmpty()) {
-                    throw new ConcordApplicationException("Can't determine initiator: " + payload);
-                }
-
-                return userManager.getOrCreate(initiator, null, UserType.LDAP)
-                        .orElseThrow(() -> new ConcordApplicationException("User not found: " + initiator));
-            };
+    private static Map<String, String> queryParams(UriInfo uriInfo) {
+        if (uriInfo == null) {
+            return null;
         }
 
-        @Override
-        public UserEntry get() {
-            if (!githubCfg.isUseSenderLdapDn()) {
-                return fallback.get();
-            }
-
-            String ldapDn = payload.getSenderLdapDn();
-            if (ldapDn == null || ldapDn.trim().isEmpty()) {
-                log.warn("getOrCreateUserEntry ['{}'] -> can't determine the sender's 'ldap_dn', falling back to 'login'", payload);
-                return fallback.get();
-            }
-
-            // only LDAP users are supported in GitHub triggers
-            try {
-                LdapPrincipal p = ldapManager.getPrincipalByDn(ldapDn);
-                if (p == null) {
-                    log.warn("getOrCreateUserEntry ['{}'] -> can't find user by ldap DN ({})", payload, ldapDn);
-                    return fallback.get();
-                }
-
-                return userManager.getOrCreate(p.getUsername(), p.getDomain(), UserType.LDAP)
-                        .orElseThrow(() -> new ConcordApplicationException("User not found: " + p.getUsername()));
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
+        MultivaluedMap<String, String> qp = uriInfo.getQueryParameters();
+        if (qp == null || qp.isEmpty()) {
+            return null;
         }
+
+        Map<String, String> m = new HashMap<>();
+        qp.keySet().forEach(k -> m.put(k, qp.getFirst(k)));
+        return m;
     }
 }
@@ -114,7 +114,7 @@ public class TriggerProcessExecutor {
                 .collect(Collectors.toList());
     }
 
-    private void assertRoles(String eventName) {
+    public void assertRoles(String eventName) {
         if (Roles.isAdmin()) {
             return;
         }
@@ -0,0 +1,277 @@
+package com.walmartlabs.concord.server.events.github;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.common.MapMatcher;
+import com.walmartlabs.concord.db.AbstractDao;
+import com.walmartlabs.concord.db.MainDB;
+import com.walmartlabs.concord.server.org.triggers.TriggerEntry;
+import com.walmartlabs.concord.server.org.triggers.TriggersDao;
+import com.walmartlabs.concord.server.sdk.metrics.WithTimer;
+import org.jooq.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.*;
+import java.util.regex.Pattern;
+
+import static com.walmartlabs.concord.server.events.github.Constants.*;
+
+/**
+ * In-memory index of the GitHub v2 triggers. Triggers with literal
+ * (non-regex) {@code githubOrg} and {@code githubRepo} conditions are
+ * indexed by the org/repo pair, other triggers are checked using their
+ * pre-compiled conditions.
+ * <p/>
+ * The index is reloaded when the {@code TRIGGERS_VERSION_SEQ} changes, i.e.
+ * after any change in the {@code TRIGGERS} table made by any server instance.
+ * If the index was loaded while some changes were not committed yet, it is
+ * reloaded once more after those changes are committed.
+ */
+@Named
+@Singleton
+public class GithubTriggerIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(GithubTriggerIndex.class);
+
+    private static final int VERSION_ID = 2;
+    private static final Pattern REGEX_CHARS = Pattern.compile("[\\\\^$.|?*+()\\[\\]{}]");
+
+    private final TriggersDao triggersDao;
+    private final VersionDao versionDao;
+    private final Object mutex = new Object();
+
+    private volatile Snapshot snapshot = new Snapshot(new Version(-1, true), Collections.emptyList());
+
+    @Inject
+    public GithubTriggerIndex(TriggersDao triggersDao, VersionDao versionDao) {
+        this.triggersDao = triggersDao;
+        this.versionDao = versionDao;
+    }
+
+    /**
+     * Returns the triggers that can match an event with the specified
+     * org, repo and type. The caller is expected to check the trigger's
+     * conditions using {@link IndexedTrigger#matches(Map)}.
+     *
+     * @param projectId if specified, only the project's triggers are returned
+     */
+    @WithTimer
+    public List<IndexedTrigger> find(UUID projectId, String org, String repo, String eventName) {
+        Snapshot s = current();
+
+        Collection<IndexedTrigger> candidates;
+        if (org != null && repo != null) {
+            List<IndexedTrigger> exact = s.byRepo.getOrDefault(key(org, repo), Collections.emptyList());
+            candidates = new ArrayList<>(exact.size() + s.other.size());
+            candidates.addAll(exact);
+            candidates.addAll(s.other);
+        } else {
+            candidates = s.all;
+        }
+
+        List<IndexedTrigger> result = new ArrayList<>();
+        for (IndexedTrigger t : candidates) {
+            if (projectId != null && !projectId.equals(t.entry().getProjectId())) {
+                continue;
+            }
+
+            if (t.accepts(org, repo, eventName)) {
+                result.add(t);
+            }
+        }
+        return result;
+    }
+
+    private Snapshot current() {
+        Version version = versionDao.get();
+
+        Snapshot s = snapshot;
+        if (s.isUpToDate(version)) {
+            return s;
+        }
+
+        synchronized (mutex) {
+            s = snapshot;
+            if (s.isUpToDate(version)) {
+                return s;
+            }
+
+            // read the version before the triggers, so the concurrent changes are picked up next time
+            Version v = versionDao.get();
+            List<TriggerEntry> triggers = triggersDao.list(EVENT_SOURCE, VERSION_ID);
+
+            s = new Snapshot(v, triggers);
+            snapshot = s;
+
+            log.info("current -> reloaded {} trigger(s), version {}", triggers.size(), v);
+            return s;
+        }
+    }
+
+    private static String key(String org, String repo) {
+        return org + "/" + repo;
+    }
+
+    private static boolean isLiteral(Object v) {
+        return v instanceof String && !REGEX_CHARS.matcher((String) v).find();
+    }
+
+    public static final class IndexedTrigger {
+
+        private final TriggerEntry entry;
+        private final Pattern org;
+        private final Pattern repo;
+        private final Pattern type;
+        private final MapMatcher.Compiled conditions;
+
+        private IndexedTrigger(TriggerEntry entry) {
+            this.entry = entry;
+
+            Map<String, Object> c = entry.getConditions() != null ? entry.getConditions() : Collections.emptyMap();
+            this.org = compile(c.get(GITHUB_ORG_KEY));
+            this.repo = compile(c.get(GITHUB_REPO_KEY));
+            this.type = compile(c.get(TYPE_KEY));
+            this.conditions = MapMatcher.compile(c);
+        }
+
+        public TriggerEntry entry() {
+            return entry;
+        }
+
+        /**
+         * Matches the event with the trigger's conditions.
+         * Same as {@link com.walmartlabs.concord.server.events.DefaultEventFilter#filter(Map, TriggerEntry)}.
+         */
+        public boolean matches(Map<String, Object> event) {
+            try {
+                return conditions.matches(event);
+            } catch (Exception e) {
+                log.warn("matches [{}, {}] -> error while matching events: {}", event, entry, e.getMessage());
+                return false;
+            }
+        }
+
+        private boolean accepts(String org, String repo, String type) {
+            return accepts(this.org, org) && accepts(this.repo, repo) && accepts(this.type, type);
+        }
+
+        private static boolean accepts(Pattern p, String v) {
+            return p == null || v == null || p.matcher(v).matches();
+        }
+
+        private static Pattern compile(Object v) {
+            if (!(v instanceof String)) {
+                return null;
+            }
+            return Pattern.compile((String) v);
+        }
+    }
+
+    private static final class Version {
+
+        private final long value;
+
+        /**
+         * {@code false} if there were uncommitted changes at the time
+         * the version was read.
+         */
+        private final boolean committed;
+
+        private Version(long value, boolean committed) {
+            this.value = value;
+            this.committed = committed;
+        }
+
+        @Override
+        public String toString() {
+            return value + (committed ? "" : " (uncommitted changes)");
+        }
+    }
+
+    private static final class Snapshot {
+
+        private final Version version;
+        private final Map<String, List<IndexedTrigger>> byRepo = new HashMap<>();
+        private final List<IndexedTrigger> other = new ArrayList<>();
+        private final List<IndexedTrigger> all = new ArrayList<>();
+
+        private Snapshot(Version version, List<TriggerEntry> triggers) {
+            this.version = version;
+
+            for (TriggerEntry t : triggers) {
+                IndexedTrigger i;
+                try {
+                    i = new IndexedTrigger(t);
+                } catch (Exception e) {
+                    log.warn("index -> invalid trigger conditions, skipping {}: {}", t, e.getMessage());
+                    continue;
+                }
+
+                all.add(i);
+
+                Map<String, Object> c = t.getConditions() != null ? t.getConditions() : Collections.emptyMap();
+                Object org = c.get(GITHUB_ORG_KEY);
+                Object repo = c.get(GITHUB_REPO_KEY);
+                if (isLiteral(org) && isLiteral(repo)) {
+                    byRepo.computeIfAbsent(key((String) org, (String) repo), k -> new ArrayList<>()).add(i);
+                } else {
+                    other.add(i);
+                }
+            }
+        }
+
+        /**
+         * A snapshot loaded while some changes were not committed yet is
+         * reloaded once those changes are committed, the snapshot might
+         * have missed them.
+         */
+        private boolean isUpToDate(Version current) {
+            if (current.value > version.value) {
+                return false;
+            }
+            return version.committed || !current.committed;
+        }
+    }
+
+    @Named
+    private static final class VersionDao extends AbstractDao {
+
+        @Inject
+        public VersionDao(@MainDB Configuration cfg) {
+            super(cfg);
+        }
+
+        /**
+         * Returns the current version and whether all changes up to that
+         * version are committed, i.e. no writer holds the shared lock.
+         */
+        public Version get() {
+            return txResult(tx -> tx.resultQuery("select case when is_called then last_value else 0 end, " +
+                    "pg_try_advisory_xact_lock(1571310, 0) " +
+                    "from TRIGGERS_VERSION_SEQ")
+                    .fetchOne(r -> new Version(r.get(0, Long.class), r.get(1, Boolean.class))));
+        }
+    }
+}
@@ -39,8 +39,6 @@ import com.walmartlabs.concord.server.security.github.GithubKey;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
-import javax.ws.rs.core.MultivaluedMap;
-import javax.ws.rs.core.UriInfo;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -99,7 +97,7 @@ public class GithubTriggerV1Processor implements GithubTriggerProcessor {
 
     @Override
     @WithTimer
-    public void process(String eventName, Payload payload, UriInfo uriInfo, List<Result> result) {
+    public void process(String eventName, Payload payload, Map<String, String> queryParams, List<Result> result) {
         if (payload.getFullRepoName() == null) {
             return;
         }
@@ -120,7 +118,7 @@ public class GithubTriggerV1Processor implements GithubTriggerProcessor {
 
         for (RepositoryItem r : repos) {
             Map<String, Object> conditions = buildConditions(payload, r.repositoryName, eventBranch, r.project, eventName);
-            conditions = enrich(conditions, uriInfo);
+            conditions = enrich(conditions, queryParams);
 
             Map<String, Object> triggerConditions = conditions;
             Map<String, Object> triggerEvent = buildTriggerEvent(payload, r.id, r.project, conditions);
@@ -173,18 +171,13 @@ public class GithubTriggerV1Processor implements GithubTriggerProcessor {
         return repoBranch.equals(eventBranch);
     }
 
-    private static Map<String, Object> enrich(Map<String, Object> event, UriInfo uriInfo) {
-        if (uriInfo == null) {
-            return event;
-        }
-
-        MultivaluedMap<String, String> qp = uriInfo.getQueryParameters();
-        if (qp == null || qp.isEmpty()) {
+    private static Map<String, Object> enrich(Map<String, Object> event, Map<String, String> queryParams) {
+        if (queryParams == null || queryParams.isEmpty()) {
             return event;
         }
 
         Map<String, Object> m = new HashMap<>(event);
-        qp.keySet().forEach(k -> m.put(k, qp.getFirst(k)));
+        m.putAll(queryParams);
 
         m.remove(GithubAuthenticatingFilter.HOOK_PROJECT_ID);
         m.remove(GithubAuthenticatingFilter.HOOK_REPO_TOKEN);
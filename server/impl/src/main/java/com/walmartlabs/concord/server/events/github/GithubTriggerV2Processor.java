@@ -22,18 +22,16 @@ package com.walmartlabs.concord.server.events.github;
 
 import com.walmartlabs.concord.repository.GitCliRepositoryProvider;
 import com.walmartlabs.concord.sdk.MapUtils;
-import com.walmartlabs.concord.server.events.DefaultEventFilter;
+import com.walmartlabs.concord.server.events.github.GithubTriggerIndex.IndexedTrigger;
 import com.walmartlabs.concord.server.org.project.RepositoryDao;
 import com.walmartlabs.concord.server.org.project.RepositoryEntry;
 import com.walmartlabs.concord.server.org.triggers.TriggerEntry;
-import com.walmartlabs.concord.server.org.triggers.TriggersDao;
 import com.walmartlabs.concord.server.sdk.metrics.WithTimer;
 import com.walmartlabs.concord.server.security.github.GithubKey;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
-import javax.ws.rs.core.UriInfo;
 import java.util.*;
 
 import static com.walmartlabs.concord.server.events.github.Constants.*;
@@ -44,23 +42,25 @@ public class GithubTriggerV2Processor implements GithubTriggerProcessor {
 
     private static final int VERSION_ID = 2;
 
-    private final TriggersDao dao;
+    private final GithubTriggerIndex index;
     private final List<EventEnricher> eventEnrichers;
 
     @Inject
-    public GithubTriggerV2Processor(TriggersDao dao, List<EventEnricher> eventEnrichers) {
-        this.dao = dao;
+    public GithubTriggerV2Processor(GithubTriggerIndex index, List<EventEnricher> eventEnrichers) {
+        this.index = index;
         this.eventEnrichers = eventEnrichers;
     }
 
     @Override
     @WithTimer
-    public void process(String eventName, Payload payload, UriInfo uriInfo, List<Result> result) {
+    public void process(String eventName, Payload payload, Map<String, String> queryParams, List<Result> result) {
         GithubKey githubKey = GithubKey.getCurrent();
         UUID projectId = githubKey.getProjectId();
 
-        List<TriggerEntry> triggers = listTriggers(projectId, payload.getOrg(), payload.getRepo());
-        for (TriggerEntry t : triggers) {
+        List<IndexedTrigger> triggers = index.find(projectId, payload.getOrg(), payload.getRepo(), eventName);
+        for (IndexedTrigger i : triggers) {
+            TriggerEntry t = i.entry();
+
             // skip empty push events if the trigger's configuration says so
             if (GithubUtils.ignoreEmptyPush(t) && GithubUtils.isEmptyPush(eventName, payload)) {
                 continue;
@@ -69,7 +69,7 @@ public class GithubTriggerV2Processor implements GithubTriggerProcessor {
             Map<String, Object> event = buildEvent(eventName, payload);
             enrichEventConditions(payload, t, event);
 
-            if (DefaultEventFilter.filter(event, t)) {
+            if (i.matches(event)) {
                 result.add(Result.from(event, t));
             }
         }
@@ -81,21 +81,6 @@ public class GithubTriggerV2Processor implements GithubTriggerProcessor {
         }
     }
 
-    @WithTimer
-    List<TriggerEntry> listTriggers(UUID projectId, String org, String repo) {
-        Map<String, String> conditions = new HashMap<>();
-
-        if (org != null) {
-            conditions.put(GITHUB_ORG_KEY, org);
-        }
-
-        if (repo != null) {
-            conditions.put(GITHUB_REPO_KEY, repo);
-        }
-
-        return dao.list(projectId, EVENT_SOURCE, VERSION_ID, conditions);
-    }
-
     private Map<String, Object> buildEvent(String eventName, Payload payload) {
         Map<String, Object> result = new HashMap<>();
 
@@ -25,12 +25,14 @@ import com.walmartlabs.concord.server.GenericOperationResult;
 import com.walmartlabs.concord.server.org.OrganizationEntry;
 import com.walmartlabs.concord.server.org.OrganizationManager;
 import com.walmartlabs.concord.server.org.jsonstore.*;
+import com.walmartlabs.concord.server.sdk.ConcordApplicationException;
 import com.walmartlabs.concord.server.sdk.metrics.WithTimer;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import io.swagger.annotations.Authorization;
 import org.sonatype.siesta.Resource;
+import org.sonatype.siesta.ValidationErrorsException;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -51,13 +53,15 @@ import java.util.stream.Collectors;
 public class InventoryQueryResource implements Resource {
 
     private final JsonStoreQueryResource storageQueryResource;
+    private final JsonStoreQueryManager storageQueryManager;
     private final OrganizationManager organizationManager;
     private final JsonStoreDao storageDao;
     private final JsonStoreQueryDao storageQueryDao;
 
     @Inject
-    public InventoryQueryResource(JsonStoreQueryResource storageQueryResource, OrganizationManager organizationManager, JsonStoreDao storageDao, JsonStoreQueryDao storageQueryDao) {
+    public InventoryQueryResource(JsonStoreQueryResource storageQueryResource, JsonStoreQueryManager storageQueryManager, OrganizationManager organizationManager, JsonStoreDao storageDao, JsonStoreQueryDao storageQueryDao) {
         this.storageQueryResource = storageQueryResource;
+        this.storageQueryManager = storageQueryManager;
         this.organizationManager = organizationManager;
         this.storageDao = storageDao;
         this.storageQueryDao = storageQueryDao;
@@ -173,7 +177,13 @@ public class InventoryQueryResource implements Resource {
                              @ApiParam @PathParam("queryName") @ConcordKey String queryName,
                              @ApiParam @Valid Map<String, Object> params) {
 
-        return storageQueryResource.exec(orgName, inventoryName, queryName, params);
+        try {
+            return storageQueryManager.exec(orgName, inventoryName, queryName, params);
+        } catch (ValidationErrorsException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ConcordApplicationException("Error while executing a query: " + e.getMessage(), e);
+        }
     }
 
     private static InventoryQueryEntry convert(JsonStoreQueryEntry query) {
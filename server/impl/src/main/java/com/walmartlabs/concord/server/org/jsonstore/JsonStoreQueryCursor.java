@@ -0,0 +1,84 @@
+package com.walmartlabs.concord.server.org.jsonstore;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2018 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in the results of a JSON store query, i.e. the number of
+ * already returned rows. The string form is opaque to the clients.
+ * <p/>
+ * The queries are arbitrary user SQL, so the position is an offset
+ * rather than a key. The query must have a stable {@code ORDER BY}
+ * to get consistent pages.
+ */
+public final class JsonStoreQueryCursor {
+
+    public static JsonStoreQueryCursor of(long offset) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Invalid offset: " + offset);
+        }
+        return new JsonStoreQueryCursor(offset);
+    }
+
+    /**
+     * Parses the string form of a cursor.
+     *
+     * @throws IllegalArgumentException if the value is not a valid cursor
+     */
+    public static JsonStoreQueryCursor parse(String s) {
+        long offset;
+        try {
+            String v = new String(Base64.getUrlDecoder().decode(s), StandardCharsets.UTF_8);
+            offset = Long.parseLong(v);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + s);
+        }
+
+        if (offset < 0) {
+            throw new IllegalArgumentException("Invalid cursor: " + s);
+        }
+
+        return new JsonStoreQueryCursor(offset);
+    }
+
+    private final long offset;
+
+    private JsonStoreQueryCursor(long offset) {
+        this.offset = offset;
+    }
+
+    public long offset() {
+        return offset;
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Long.toString(offset).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public String toString() {
+        return "JsonStoreQueryCursor{" +
+                "offset=" + offset +
+                '}';
+    }
+}
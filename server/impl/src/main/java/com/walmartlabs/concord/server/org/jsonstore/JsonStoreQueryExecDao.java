@@ -21,6 +21,10 @@ package com.walmartlabs.concord.server.org.jsonstore;
  */
 
 import com.fasterxml.jackson.core.JsonParseException;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.walmartlabs.concord.db.AbstractDao;
 import com.walmartlabs.concord.db.JsonStorageDB;
 import com.walmartlabs.concord.server.ConcordObjectMapper;
@@ -45,19 +49,35 @@ import org.sonatype.siesta.ValidationErrorsException;
 
 import javax.inject.Inject;
 import javax.inject.Named;
-import java.util.List;
-import java.util.Map;
-import java.util.UUID;
+import javax.inject.Singleton;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
 
 import static com.walmartlabs.concord.server.jooq.Tables.INVENTORY_DATA;
 import static com.walmartlabs.concord.server.jooq.Tables.JSON_STORE_DATA;
 import static org.jooq.impl.DSL.val;
 
+/**
+ * Executes JSON store queries.
+ * <p/>
+ * The user queries are parsed and rewritten only once, the resulting SQL is
+ * cached using the original text and the limit as the key. Updated queries
+ * get a new cache entry and the stale ones are evicted eventually.
+ * The generated SQL is stable which allows the JDBC driver to reuse
+ * server-side prepared statements.
+ * <p/>
+ * Results of the stored queries can be fetched in pages, see
+ * {@link #execPage(PreparedQuery, Map, JsonStoreQueryCursor, int)}.
+ * The pages are taken from the query's own ordered results, so only
+ * the queries with an {@code ORDER BY} clause can be paged.
+ */
 @Named
+@Singleton
 public class JsonStoreQueryExecDao extends AbstractDao {
 
     private final ConcordObjectMapper objectMapper;
     private final JsonStoreQueryDao storeQueryDao;
+    private final Cache<QueryKey, String> compiledQueries;
 
     @Inject
     public JsonStoreQueryExecDao(@JsonStorageDB Configuration cfg,
@@ -67,33 +87,115 @@ public class JsonStoreQueryExecDao extends AbstractDao {
         super(cfg);
         this.objectMapper = objectMapper;
         this.storeQueryDao = storeQueryDao;
+        this.compiledQueries = CacheBuilder.newBuilder()
+                .maximumSize(1024)
+                .concurrencyLevel(16)
+                .build();
     }
 
     public List<Object> exec(UUID storeId, String queryName, Map<String, Object> params) {
+        return exec(prepare(storeId, queryName), params);
+    }
+
+    public List<Object> execSql(UUID storeId, String query, Map<String, Object> params, Integer maxLimit) {
+        return exec(prepareSql(storeId, query, maxLimit), params);
+    }
+
+    /**
+     * Finds and validates a stored query.
+     */
+    public PreparedQuery prepare(UUID storeId, String queryName) {
+        return prepare(storeId, queryName, false);
+    }
+
+    /**
+     * Finds and validates a stored query for
+     * {@link #execPage(PreparedQuery, Map, JsonStoreQueryCursor, int)}.
+     * The query must have an {@code ORDER BY} clause and no {@code LIMIT}
+     * or {@code OFFSET}.
+     */
+    public PreparedQuery preparePaged(UUID storeId, String queryName) {
+        return prepare(storeId, queryName, true);
+    }
+
+    private PreparedQuery prepare(UUID storeId, String queryName, boolean paged) {
         JsonStoreQueryEntry q = storeQueryDao.get(storeId, queryName);
         if (q == null) {
             throw new ValidationErrorsException("Query not found: " + queryName);
         }
 
-        return execSql(q.storeId(), q.text(), params, null);
+        return prepareSql(q.storeId(), q.text(), null, paged);
     }
 
-    public List<Object> execSql(UUID storeId, String query, Map<String, Object> params, Integer maxLimit) {
-        String sql = createQuery(query, maxLimit);
+    public PreparedQuery prepareSql(UUID storeId, String query, Integer limit) {
+        return prepareSql(storeId, query, limit, false);
+    }
 
+    private PreparedQuery prepareSql(UUID storeId, String query, Integer limit, boolean paged) {
+        String sql;
+        try {
+            sql = compiledQueries.get(new QueryKey(query, limit, paged), () -> createQuery(query, limit, paged));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+
+        return new PreparedQuery(storeId, sql, paged);
+    }
+
+    private List<Object> exec(PreparedQuery query, Map<String, Object> params) {
         try (DSLContext tx = DSL.using(cfg)) {
-            // TODO we should probably inspect the query to determine whether we need to bind the params or not
+            return tx.resultQuery(query.sql, args(query, params))
+                    .fetch(this::toExecResult);
+        }
+    }
 
-            QueryPart[] args;
-            if (params == null) {
-                args = new QueryPart[]{val(storeId)};
-            } else {
-                args = new QueryPart[]{val(objectMapper.toString(params)), val(storeId)};
-            }
+    /**
+     * Executes the query and returns up to {@code limit} rows starting
+     * from the specified cursor. The page is fetched completely before
+     * it is returned, so no DB resources are held while the results are
+     * sent to the client.
+     * <p/>
+     * The pages are consistent only if the query's {@code ORDER BY} is
+     * unique (e.g. includes a unique key) and the data isn't modified
+     * between the calls.
+     *
+     * @param query  a query created with {@link #preparePaged(UUID, String)}
+     * @param cursor the position returned with the previous page, optional
+     */
+    public Page execPage(PreparedQuery query, Map<String, Object> params, JsonStoreQueryCursor cursor, int limit) {
+        if (!query.paged) {
+            throw new IllegalArgumentException("Not a paged query");
+        }
+
+        long offset = cursor != null ? cursor.offset() : 0;
+
+        QueryPart[] args = args(query, params);
+        args = Arrays.copyOf(args, args.length + 2);
+        // fetch one extra row to find out if there's a next page
+        args[args.length - 2] = val(limit + 1);
+        args[args.length - 1] = val(offset);
 
-            return tx.resultQuery(sql, args)
+        List<Object> rows;
+        try (DSLContext tx = DSL.using(cfg)) {
+            rows = tx.resultQuery(query.sql, args)
                     .fetch(this::toExecResult);
         }
+
+        if (rows.size() <= limit) {
+            return new Page(rows, null);
+        }
+
+        return new Page(rows.subList(0, limit), JsonStoreQueryCursor.of(offset + limit));
+    }
+
+    private QueryPart[] args(PreparedQuery query, Map<String, Object> params) {
+        // TODO we should probably inspect the query to determine whether we need to bind the params or not
+        if (params == null) {
+            return new QueryPart[]{val(query.storeId)};
+        } else {
+            return new QueryPart[]{val(objectMapper.toString(params)), val(query.storeId)};
+        }
     }
 
     private Object toExecResult(Record record) {
@@ -118,9 +220,10 @@ public class JsonStoreQueryExecDao extends AbstractDao {
         }
     }
 
-    private static String createQuery(String src, Integer maxLimit) {
+    private static String createQuery(String src, Integer maxLimit, boolean paged) {
         try {
             Statement st = CCJSqlParserUtil.parse(src);
+            boolean[] pageable = {false};
             st.accept(new StatementVisitorAdapter() {
 
                 @Override
@@ -189,12 +292,27 @@ public class JsonStoreQueryExecDao extends AbstractDao {
                             }
 
                             plainSelect.setWhere(where);
+
+                            // the page limits are appended to the query itself,
+                            // it must define the order of the rows
+                            pageable[0] = plainSelect.getOrderByElements() != null && !plainSelect.getOrderByElements().isEmpty()
+                                    && plainSelect.getLimit() == null
+                                    && plainSelect.getOffset() == null;
                         }
                     });
                 }
             });
 
-            return st.toString();
+            if (!paged) {
+                return st.toString();
+            }
+
+            if (!pageable[0]) {
+                throw new ValidationErrorsException("Paged results require a query with an ORDER BY clause and without LIMIT or OFFSET. " +
+                        "Use a unique ORDER BY (e.g. include a unique key) to get consistent pages.");
+            }
+
+            return st.toString() + " limit ? offset ?";
         } catch (JSQLParserException e) {
             Throwable t = e;
 
@@ -205,4 +323,70 @@ public class JsonStoreQueryExecDao extends AbstractDao {
             throw new IllegalArgumentException("Query parse error: " + t.getMessage(), t);
         }
     }
+
+    public static final class PreparedQuery {
+
+        private final UUID storeId;
+        private final String sql;
+        private final boolean paged;
+
+        private PreparedQuery(UUID storeId, String sql, boolean paged) {
+            this.storeId = storeId;
+            this.sql = sql;
+            this.paged = paged;
+        }
+    }
+
+    public static final class Page {
+
+        private final List<Object> rows;
+        private final JsonStoreQueryCursor next;
+
+        private Page(List<Object> rows, JsonStoreQueryCursor next) {
+            this.rows = rows;
+            this.next = next;
+        }
+
+        public List<Object> rows() {
+            return rows;
+        }
+
+        /**
+         * @return the position of the next page or {@code null} if there
+         * are no more rows
+         */
+        public JsonStoreQueryCursor next() {
+            return next;
+        }
+    }
+
+    private static final class QueryKey {
+
+        private final String text;
+        private final Integer limit;
+        private final boolean paged;
+
+        private QueryKey(String text, Integer limit, boolean paged) {
+            this.text = text;
+            this.limit = limit;
+            this.paged = paged;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            QueryKey queryKey = (QueryKey) o;
+            return paged == queryKey.paged && text.equals(queryKey.text) && Objects.equals(limit, queryKey.limit);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(text, limit, paged);
+        }
+    }
 }
@@ -135,6 +135,20 @@ public class JsonStoreQueryManager {
         return execDao.exec(store.id(), queryName, params);
     }
 
+    /**
+     * Checks the access and validates the query. The returned query can
+     * be executed using {@link #execPage(JsonStoreQueryExecDao.PreparedQuery, Map, JsonStoreQueryCursor, int)}.
+     */
+    public JsonStoreQueryExecDao.PreparedQuery prepare(String orgName, String storeName, String queryName) {
+        OrganizationEntry org = orgManager.assertAccess(orgName, true);
+        JsonStoreEntry store = jsonStoreAccessManager.assertAccess(org.getId(), null, storeName, ResourceAccessLevel.READER, true);
+        return execDao.preparePaged(store.id(), queryName);
+    }
+
+    public JsonStoreQueryExecDao.Page execPage(JsonStoreQueryExecDao.PreparedQuery query, Map<String, Object> params, JsonStoreQueryCursor cursor, int limit) {
+        return execDao.execPage(query, params, cursor, limit);
+    }
+
     public List<Object> exec(String orgName, String storeName, String text, int maxLimit) {
         OrganizationEntry org = orgManager.assertAccess(orgName, true);
         JsonStoreEntry store = jsonStoreAccessManager.assertAccess(org.getId(), null, storeName, ResourceAccessLevel.READER, true);
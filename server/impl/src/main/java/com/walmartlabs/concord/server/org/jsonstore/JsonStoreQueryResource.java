@@ -21,6 +21,7 @@ package com.walmartlabs.concord.server.org.jsonstore;
  */
 
 import com.walmartlabs.concord.common.validation.ConcordKey;
+import com.walmartlabs.concord.sdk.Constants;
 import com.walmartlabs.concord.server.GenericOperationResult;
 import com.walmartlabs.concord.server.OperationResult;
 import com.walmartlabs.concord.server.sdk.ConcordApplicationException;
@@ -38,6 +39,7 @@ import javax.inject.Singleton;
 import javax.validation.Valid;
 import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 import java.util.List;
 import java.util.Map;
 
@@ -47,6 +49,12 @@ import java.util.Map;
 @Path("/api/v1/org")
 public class JsonStoreQueryResource implements Resource {
 
+    /**
+     * Max number of rows returned by {@link #exec(String, String, String, Integer, String, Map)}
+     * at once when the results are paged.
+     */
+    private static final int MAX_PAGE_SIZE = 10_000;
+
     private final JsonStoreQueryManager storeQueryManager;
 
     @Inject
@@ -135,32 +143,81 @@ public class JsonStoreQueryResource implements Resource {
     }
 
     /**
-     * Executes an existing JSON store query
+     * Executes an existing JSON store query. Without {@code limit} and
+     * {@code cursor} all rows are returned at once.
+     * <p/>
+     * If {@code limit} or {@code cursor} are specified, the results are
+     * returned in pages. The query must have an {@code ORDER BY} clause,
+     * preferably a unique one, otherwise the pages may overlap. If there
+     * are more rows the response contains the
+     * {@link Constants.Headers#NEXT_CURSOR} header. Its value can be used as
+     * the {@code cursor} to get the next page.
      *
      * @param orgName   organization's name
      * @param storeName store's name
      * @param queryName query's name
+     * @param limit     max number of rows to return, optional
+     * @param cursor    the position returned with the previous page, optional
      * @param params    query params
      * @return query result
      */
     @POST
-    @ApiOperation("Execute an existing JSON store query")
+    @ApiOperation(value = "Execute an existing JSON store query", responseContainer = "list", response = Object.class)
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
     @Path("/{orgName}/jsonstore/{storeName}/query/{queryName}/exec")
     @WithTimer
-    public List<Object> exec(@ApiParam @PathParam("orgName") @ConcordKey String orgName,
-                             @ApiParam @PathParam("storeName") @ConcordKey String storeName,
-                             @ApiParam @PathParam("queryName") @ConcordKey String queryName,
-                             @ApiParam @Valid Map<String, Object> params) {
+    public Response exec(@ApiParam @PathParam("orgName") @ConcordKey String orgName,
+                         @ApiParam @PathParam("storeName") @ConcordKey String storeName,
+                         @ApiParam @PathParam("queryName") @ConcordKey String queryName,
+                         @ApiParam @QueryParam("limit") Integer limit,
+                         @ApiParam @QueryParam("cursor") String cursor,
+                         @ApiParam @Valid Map<String, Object> params) {
+
+        if (limit != null && limit <= 0) {
+            throw new ValidationErrorsException("'limit' must be a positive number");
+        }
+
+        boolean paged = limit != null || (cursor != null && !cursor.trim().isEmpty());
+        if (!paged) {
+            try {
+                return Response.ok(storeQueryManager.exec(orgName, storeName, queryName, params), MediaType.APPLICATION_JSON)
+                        .build();
+            } catch (ValidationErrorsException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new ConcordApplicationException("Error while executing a query: " + e.getMessage(), e);
+            }
+        }
 
+        JsonStoreQueryCursor c = null;
+        if (cursor != null && !cursor.trim().isEmpty()) {
+            try {
+                c = JsonStoreQueryCursor.parse(cursor.trim());
+            } catch (IllegalArgumentException e) {
+                throw new ValidationErrorsException(e.getMessage());
+            }
+        }
+
+        int pageSize = limit != null ? Math.min(limit, MAX_PAGE_SIZE) : MAX_PAGE_SIZE;
+
+        // the whole page is fetched before anything is sent to the client,
+        // errors are reported with a proper status
+        JsonStoreQueryExecDao.Page page;
         try {
-            return storeQueryManager.exec(orgName, storeName, queryName, params);
+            JsonStoreQueryExecDao.PreparedQuery query = storeQueryManager.prepare(orgName, storeName, queryName);
+            page = storeQueryManager.execPage(query, params, c, pageSize);
         } catch (ValidationErrorsException e) {
             throw e;
         } catch (Exception e) {
             throw new ConcordApplicationException("Error while executing a query: " + e.getMessage(), e);
         }
+
+        Response.ResponseBuilder b = Response.ok(page.rows(), MediaType.APPLICATION_JSON);
+        if (page.next() != null) {
+            b.header(Constants.Headers.NEXT_CURSOR, page.next().encode());
+        }
+        return b.build();
     }
 
     /**
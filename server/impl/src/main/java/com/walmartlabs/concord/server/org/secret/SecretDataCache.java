@@ -0,0 +1,146 @@
+package com.walmartlabs.concord.server.org.secret;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.walmartlabs.concord.server.cfg.SecretStoreConfiguration;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache of decrypted secret data. Saves the store lookup and
+ * the decryption when the same secret is requested repeatedly, e.g. by
+ * a process that uses the same credentials for multiple hosts.
+ * <p/>
+ * The entries are keyed by the secret's ID and a hash of the password,
+ * so a wrong password never matches a cached entry. Access checks are
+ * performed by the callers for every request.
+ * <p/>
+ * The cache is local to the server instance: changes made on other
+ * instances become visible when the cached entries expire.
+ * <p/>
+ * Data loaded concurrently with an invalidation is not kept in the cache,
+ * otherwise the loader might put the old data back for the whole TTL.
+ */
+@Named
+@Singleton
+public class SecretDataCache {
+
+    private final Cache<Key, byte[]> cache;
+
+    /**
+     * Incremented on every invalidation.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    @Inject
+    public SecretDataCache(SecretStoreConfiguration cfg) {
+        this(cfg.getCacheTtl(), cfg.getCacheMaxWeight());
+    }
+
+    SecretDataCache(Duration ttl, long maxWeight) {
+        if (ttl.isZero() || ttl.isNegative()) {
+            this.cache = null;
+        } else {
+            this.cache = CacheBuilder.newBuilder()
+                    .expireAfterWrite(ttl.toMillis(), TimeUnit.MILLISECONDS)
+                    .maximumWeight(maxWeight)
+                    .weigher((Key k, byte[] v) -> v.length)
+                    .build();
+        }
+    }
+
+    public byte[] get(UUID secretId, byte[] password, Supplier<byte[]> loader) {
+        if (cache == null) {
+            return loader.get();
+        }
+
+        Key k = new Key(secretId, Hashing.sha256().hashBytes(password));
+
+        byte[] result = cache.getIfPresent(k);
+        if (result == null) {
+            long gen = generation.get();
+            result = loader.get();
+            cache.put(k, result);
+
+            // the secret was invalidated while we were loading it: the data
+            // might be stale. Either we see the new generation here or
+            // the invalidation removes the entry after our put
+            if (generation.get() != gen) {
+                cache.asMap().remove(k, result);
+            }
+        }
+
+        // the callers are free to modify the returned data
+        return result.clone();
+    }
+
+    /**
+     * Removes all cached entries of the specified secret.
+     */
+    public void invalidate(UUID secretId) {
+        if (cache == null) {
+            return;
+        }
+
+        generation.incrementAndGet();
+        cache.asMap().keySet().removeIf(k -> k.secretId.equals(secretId));
+    }
+
+    private static final class Key {
+
+        private final UUID secretId;
+        private final HashCode passwordHash;
+
+        private Key(UUID secretId, HashCode passwordHash) {
+            this.secretId = secretId;
+            this.passwordHash = passwordHash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return secretId.equals(key.secretId) && passwordHash.equals(key.passwordHash);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(secretId, passwordHash);
+        }
+    }
+}
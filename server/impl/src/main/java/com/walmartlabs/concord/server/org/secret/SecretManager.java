@@ -82,6 +82,7 @@ public class SecretManager {
     private final UserDao userDao;
     private final ProjectAccessManager projectAccessManager;
     private final RepositoryDao repositoryDao;
+    private final SecretDataCache dataCache;
 
     @Inject
     public SecretManager(PolicyManager policyManager,
@@ -93,7 +94,8 @@ public class SecretManager {
                          SecretStoreProvider secretStoreProvider,
                          UserDao userDao,
                          ProjectAccessManager projectAccessManager,
-                         RepositoryDao repositoryDao) {
+                         RepositoryDao repositoryDao,
+                         SecretDataCache dataCache) {
 
         this.policyManager = policyManager;
         this.processQueueManager = processQueueManager;
@@ -105,6 +107,7 @@ public class SecretManager {
         this.auditLog = auditLog;
         this.projectAccessManager = projectAccessManager;
         this.repositoryDao = repositoryDao;
+        this.dataCache = dataCache;
     }
 
     @WithTimer
@@ -360,6 +363,8 @@ public class SecretManager {
             secretDao.update(tx, e.getId(), req.name(), newEncryptedData, req.visibility(), finalProjectId, orgIdUpdate);
         });
 
+        dataCache.invalidate(e.getId());
+
         Map<String, Object> changes = DiffUtils.compare(e, secretDao.get(e.getId()));
         changes.put("updated", updated);
 
@@ -382,6 +387,8 @@ public class SecretManager {
         // now delete secret information from secret table
         secretDao.delete(e.getId());
 
+        dataCache.invalidate(e.getId());
+
         auditLog.add(AuditObject.SECRET, AuditAction.DELETE)
                 .field("orgId", e.getOrgId())
                 .field("secretId", e.getId())
@@ -404,15 +411,17 @@ public class SecretManager {
     }
 
     private byte[] decryptData(UUID secretId, String storeType, String password) {
-        byte[] data = getSecretStore(storeType).get(secretId);
-        if (data == null) {
-            throw new IllegalStateException("Can't find the secret's data in the store " + storeType + " : " + secretId);
-        }
-
         byte[] pwd = getPwd(password);
-        byte[] salt = secretCfg.getSecretStoreSalt();
 
-        return SecretUtils.decrypt(data, pwd, salt);
+        return dataCache.get(secretId, pwd, () -> {
+            byte[] data = getSecretStore(storeType).get(secretId);
+            if (data == null) {
+                throw new IllegalStateException("Can't find the secret's data in the store " + storeType + " : " + secretId);
+            }
+
+            byte[] salt = secretCfg.getSecretStoreSalt();
+            return SecretUtils.decrypt(data, pwd, salt);
+        });
     }
 
     /**
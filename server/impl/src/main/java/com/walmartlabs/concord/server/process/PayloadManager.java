@@ -41,10 +41,7 @@ import java.io.InputStream;
 import java.io.Serializable;
 import java.nio.file.Path;
 import java.sql.Timestamp;
-import java.util.Collections;
-import java.util.Map;
-import java.util.Set;
-import java.util.UUID;
+import java.util.*;
 import java.util.function.Function;
 
 import static com.walmartlabs.concord.server.process.state.ProcessStateManager.copyTo;
@@ -236,6 +233,62 @@ public class PayloadManager {
                 .build();
     }
 
+    /**
+     * Creates payloads for multiple forks of the same parent process.
+     * The parent's state is exported only once. The exported directory
+     * becomes the workspace of the last fork, the other forks receive
+     * a copy of it. All created directories are removed on error.
+     */
+    public List<Payload> createForks(List<PartialProcessKey> processKeys, ProcessKey parentProcessKey, ProcessKind kind,
+                                     UUID initiatorId, String initiator, UUID projectId, List<Map<String, Object>> reqs, String[] out,
+                                     Set<String> handlers, Imports imports) throws IOException {
+
+        if (processKeys.size() != reqs.size()) {
+            throw new IllegalArgumentException("The number of process keys must match the number of requests");
+        }
+
+        List<Path> workspaces = new ArrayList<>(processKeys.size());
+        try {
+            Path parentState = IOUtils.createTempDir("payload");
+            workspaces.add(parentState);
+
+            // skip forms and the parent process' arguments
+            if (!stateManager.export(parentProcessKey, exclude(copyTo(parentState), FORMS_PATH_PATTERN))) {
+                throw new ProcessException(processKeys.get(0), "Can't fork '" + parentProcessKey + "', the state snapshot not found");
+            }
+
+            for (int i = 1; i < processKeys.size(); i++) {
+                Path tmpDir = IOUtils.createTempDir("payload");
+                workspaces.add(tmpDir);
+                IOUtils.copy(parentState, tmpDir);
+            }
+
+            // the exported directory itself goes to the last fork
+            Collections.reverse(workspaces);
+
+            List<Payload> result = new ArrayList<>(processKeys.size());
+            for (int i = 0; i < processKeys.size(); i++) {
+                result.add(PayloadBuilder.start(processKeys.get(i))
+                        .parentInstanceId(parentProcessKey.getInstanceId())
+                        .kind(kind)
+                        .initiator(initiatorId, initiator)
+                        .project(projectId)
+                        .configuration(reqs.get(i))
+                        .outExpressions(out)
+                        .workspace(workspaces.get(i))
+                        .handlers(handlers)
+                        .imports(imports)
+                        .build());
+            }
+            return result;
+        } catch (IOException | RuntimeException e) {
+            for (Path p : workspaces) {
+                IOUtils.deleteRecursively(p);
+            }
+            throw e;
+        }
+    }
+
     public EntryPoint parseEntryPoint(PartialProcessKey processKey, UUID orgId, String entryPoint) {
         if (entryPoint == null) {
             return null;
@@ -23,12 +23,17 @@ package com.walmartlabs.concord.server.process;
 import com.walmartlabs.concord.db.AbstractDao;
 import com.walmartlabs.concord.db.MainDB;
 import com.walmartlabs.concord.server.cfg.ProcessConfiguration;
+import com.walmartlabs.concord.server.jooq.tables.ProcessQueue;
 import com.walmartlabs.concord.server.sdk.ProcessStatus;
 import com.walmartlabs.concord.server.sdk.ScheduledTask;
 import org.jooq.Configuration;
-import org.jooq.Record1;
+import org.jooq.Field;
+import org.jooq.Record2;
+import org.jooq.Record3;
+import org.jooq.Row2;
+import org.jooq.Select;
 import org.jooq.SelectConditionStep;
-import org.jooq.SelectJoinStep;
+import org.jooq.Table;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,15 +41,31 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import java.sql.Timestamp;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 import static com.walmartlabs.concord.server.jooq.Tables.PROCESS_LOG_DATA;
 import static com.walmartlabs.concord.server.jooq.Tables.PROCESS_LOG_SEGMENTS;
+import static com.walmartlabs.concord.server.jooq.tables.ProcessCheckpointBlobs.PROCESS_CHECKPOINT_BLOBS;
+import static com.walmartlabs.concord.server.jooq.tables.ProcessCheckpointItems.PROCESS_CHECKPOINT_ITEMS;
 import static com.walmartlabs.concord.server.jooq.tables.ProcessCheckpoints.PROCESS_CHECKPOINTS;
 import static com.walmartlabs.concord.server.jooq.tables.ProcessEvents.PROCESS_EVENTS;
 import static com.walmartlabs.concord.server.jooq.tables.ProcessQueue.PROCESS_QUEUE;
 import static com.walmartlabs.concord.server.jooq.tables.ProcessState.PROCESS_STATE;
+import static org.jooq.impl.DSL.field;
+import static org.jooq.impl.DSL.notExists;
+import static org.jooq.impl.DSL.row;
+import static org.jooq.impl.DSL.selectOne;
+import static org.jooq.impl.DSL.val;
 
+/**
+ * Removes the data of old processes.
+ * <p/>
+ * The data is removed in small batches, each batch in a separate transaction.
+ * Process data tables which are natively partitioned by {@code INSTANCE_CREATED_AT}
+ * are not cleaned row by row, instead the whole old partitions are dropped.
+ * New partitions for such tables are created in advance.
+ */
 @Named("process-cleaner")
 @Singleton
 public class ProcessCleaner implements ScheduledTask {
@@ -74,108 +95,234 @@ public class ProcessCleaner implements ScheduledTask {
     @Override
     public void performTask() {
         Timestamp cutoff = new Timestamp(System.currentTimeMillis() - cfg.getMaxStateAge());
-        cleanerDao.deleteOldState(cutoff, cfg);
-        cleanerDao.deleteOrphans(cfg);
+
+        List<DataTable> tables = dataTables(cfg);
+        Set<String> partitioned = cleanerDao.getPartitionedTables();
+
+        List<DataTable> regularTables = new ArrayList<>();
+        List<DataTable> partitionedTables = new ArrayList<>();
+        for (DataTable t : tables) {
+            if (partitioned.contains(t.table.getName().toLowerCase())) {
+                partitionedTables.add(t);
+            } else {
+                regularTables.add(t);
+            }
+        }
+
+        cleanerDao.deleteOldState(cutoff, cfg, regularTables);
+        cleanerDao.deleteOrphans(cutoff, cfg, regularTables);
+        cleanerDao.maintainPartitions(cutoff, cfg, partitionedTables);
+    }
+
+    static List<DataTable> dataTables(ProcessConfiguration cfg) {
+        List<DataTable> result = new ArrayList<>();
+        result.add(new DataTable(PROCESS_STATE, PROCESS_STATE.INSTANCE_ID, PROCESS_STATE.INSTANCE_CREATED_AT, cfg.isStateCleanup(), true));
+        result.add(new DataTable(PROCESS_EVENTS, PROCESS_EVENTS.INSTANCE_ID, PROCESS_EVENTS.INSTANCE_CREATED_AT, cfg.isEventsCleanup(), true));
+        result.add(new DataTable(PROCESS_LOG_DATA, PROCESS_LOG_DATA.INSTANCE_ID, PROCESS_LOG_DATA.INSTANCE_CREATED_AT, cfg.isLogsCleanup(), false));
+        result.add(new DataTable(PROCESS_LOG_SEGMENTS, PROCESS_LOG_SEGMENTS.INSTANCE_ID, PROCESS_LOG_SEGMENTS.INSTANCE_CREATED_AT, cfg.isLogsCleanup(), false));
+        result.add(new DataTable(PROCESS_CHECKPOINTS, PROCESS_CHECKPOINTS.INSTANCE_ID, PROCESS_CHECKPOINTS.INSTANCE_CREATED_AT, cfg.isCheckpointCleanup(), true));
+        result.add(new DataTable(PROCESS_CHECKPOINT_ITEMS, PROCESS_CHECKPOINT_ITEMS.INSTANCE_ID, PROCESS_CHECKPOINT_ITEMS.INSTANCE_CREATED_AT, cfg.isCheckpointCleanup(), true));
+        result.add(new DataTable(PROCESS_CHECKPOINT_BLOBS, PROCESS_CHECKPOINT_BLOBS.INSTANCE_ID, PROCESS_CHECKPOINT_BLOBS.INSTANCE_CREATED_AT, cfg.isCheckpointCleanup(), true));
+        return result;
+    }
+
+    private static void sleep(long ms) {
+        if (ms <= 0) {
+            return;
+        }
+
+        try {
+            TimeUnit.MILLISECONDS.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A table with per-process data.
+     */
+    static final class DataTable {
+
+        private final Table<?> table;
+        private final Field<UUID> instanceId;
+        private final Field<Timestamp> instanceCreatedAt;
+        private final boolean cleanup;
+        private final boolean orphansCleanup;
+
+        private DataTable(Table<?> table, Field<UUID> instanceId, Field<Timestamp> instanceCreatedAt, boolean cleanup, boolean orphansCleanup) {
+            this.table = table;
+            this.instanceId = instanceId;
+            this.instanceCreatedAt = instanceCreatedAt;
+            this.cleanup = cleanup;
+            this.orphansCleanup = orphansCleanup;
+        }
     }
 
     @Named
-    private static class CleanerDao extends AbstractDao {
+    static class CleanerDao extends AbstractDao {
 
         @Inject
         protected CleanerDao(@MainDB Configuration cfg) {
             super(cfg);
         }
 
-        void deleteOldState(Timestamp cutoff, ProcessConfiguration jobCfg) {
+        Set<String> getPartitionedTables() {
+            return txResult(tx -> new HashSet<>(tx.resultQuery("select c.relname from pg_partitioned_table pt join pg_class c on c.oid = pt.partrelid")
+                    .fetch(0, String.class)));
+        }
+
+        void deleteOldState(Timestamp cutoff, ProcessConfiguration jobCfg, List<DataTable> tables) {
             long t1 = System.currentTimeMillis();
 
-            tx(tx -> {
-                SelectConditionStep<Record1<UUID>> ids = tx.select(PROCESS_QUEUE.INSTANCE_ID)
-                        .from(PROCESS_QUEUE)
-                        .where(PROCESS_QUEUE.LAST_UPDATED_AT.lessThan(cutoff)
-                                .and(PROCESS_QUEUE.CURRENT_STATUS.notIn(EXCLUDE_STATUSES)));
-
-                int queueEntries = 0;
-                if (jobCfg.isQueueCleanup()) {
-                    queueEntries = tx.deleteFrom(PROCESS_QUEUE)
-                            .where(PROCESS_QUEUE.INSTANCE_ID.in(ids))
-                            .execute();
-                }
+            Map<String, Integer> deleted = new LinkedHashMap<>();
+            int queueEntries = 0;
+            int batches = 0;
 
-                int stateRecords = 0;
-                if (jobCfg.isStateCleanup()) {
-                    stateRecords = tx.deleteFrom(PROCESS_STATE)
-                            .where(PROCESS_STATE.INSTANCE_ID.in(ids))
-                            .execute();
-                }
+            Long lastId = null;
+            while (!Thread.currentThread().isInterrupted()) {
+                Long fromId = lastId;
+                List<Record3<Long, UUID, Timestamp>> batch = txResult(tx -> {
+                    SelectConditionStep<Record3<Long, UUID, Timestamp>> q = tx.select(PROCESS_QUEUE.ID_SEQ, PROCESS_QUEUE.INSTANCE_ID, PROCESS_QUEUE.CREATED_AT)
+                            .from(PROCESS_QUEUE)
+                            .where(PROCESS_QUEUE.LAST_UPDATED_AT.lessThan(cutoff)
+                                    .and(PROCESS_QUEUE.CURRENT_STATUS.notIn(EXCLUDE_STATUSES)));
 
-                int events = 0;
-                if (jobCfg.isEventsCleanup()) {
-                    events = tx.deleteFrom(PROCESS_EVENTS)
-                            .where(PROCESS_EVENTS.INSTANCE_ID.in(ids))
-                            .execute();
+                    if (fromId != null) {
+                        q.and(PROCESS_QUEUE.ID_SEQ.greaterThan(fromId));
+                    }
+
+                    return q.orderBy(PROCESS_QUEUE.ID_SEQ)
+                            .limit(jobCfg.getCleanupBatchSize())
+                            .fetch();
+                });
+
+                if (batch.isEmpty()) {
+                    break;
                 }
 
-                int logDataEntries = 0;
-                int logSegmentEntries = 0;
-                if (jobCfg.isLogsCleanup()) {
-                    logDataEntries = tx.deleteFrom(PROCESS_LOG_DATA)
-                            .where(PROCESS_LOG_DATA.INSTANCE_ID.in(ids))
-                            .execute();
+                lastId = batch.get(batch.size() - 1).value1();
 
-                    logSegmentEntries = tx.deleteFrom(PROCESS_LOG_SEGMENTS)
-                            .where(PROCESS_LOG_SEGMENTS.INSTANCE_ID.in(ids))
-                            .execute();
+                List<UUID> ids = new ArrayList<>(batch.size());
+                List<Row2<UUID, Timestamp>> keys = new ArrayList<>(batch.size());
+                for (Record3<Long, UUID, Timestamp> r : batch) {
+                    ids.add(r.value2());
+                    keys.add(row(r.value2(), r.value3()));
                 }
 
-                int checkpoints = 0;
-                if (jobCfg.isCheckpointCleanup()) {
-                    checkpoints = tx.deleteFrom(PROCESS_CHECKPOINTS)
-                            .where(PROCESS_CHECKPOINTS.INSTANCE_ID.in(ids))
-                            .execute();
+                queueEntries += txResult(tx -> {
+                    int n = 0;
+                    if (jobCfg.isQueueCleanup()) {
+                        n = tx.deleteFrom(PROCESS_QUEUE)
+                                .where(PROCESS_QUEUE.INSTANCE_ID.in(ids))
+                                .execute();
+                    }
+
+                    for (DataTable t : tables) {
+                        if (!t.cleanup) {
+                            continue;
+                        }
+
+                        int rows = tx.deleteFrom(t.table)
+                                .where(row(t.instanceId, t.instanceCreatedAt).in(keys))
+                                .execute();
+
+                        deleted.merge(t.table.getName(), rows, Integer::sum);
+                    }
+
+                    return n;
+                });
+
+                batches++;
+
+                if (batch.size() < jobCfg.getCleanupBatchSize()) {
+                    break;
                 }
 
-                log.info("deleteOldState -> removed older than {}: {} queue entries, {} log data entries, {} log segments, {} state item(s), {} event(s), {} checkpoint(s)",
-                        cutoff, queueEntries, logDataEntries, logSegmentEntries, stateRecords, events, checkpoints);
-            });
+                sleep(jobCfg.getCleanupBatchDelay());
+            }
 
             long t2 = System.currentTimeMillis();
-            log.info("deleteOldState -> took {}ms", (t2 - t1));
+            log.info("deleteOldState -> removed older than {}: {} queue entries, {} in {} batch(es), took {}ms",
+                    cutoff, queueEntries, deleted, batches, (t2 - t1));
         }
 
-        void deleteOrphans(ProcessConfiguration jobCfg) {
+        void deleteOrphans(Timestamp cutoff, ProcessConfiguration jobCfg, List<DataTable> tables) {
             long t1 = System.currentTimeMillis();
 
-            tx(tx -> {
-                SelectJoinStep<Record1<UUID>> alive = tx.select(PROCESS_QUEUE.INSTANCE_ID).from(PROCESS_QUEUE);
+            Map<String, Integer> deleted = new LinkedHashMap<>();
 
-                int stateRecords = 0;
-                if (jobCfg.isStateCleanup()) {
-                    stateRecords = tx.deleteFrom(PROCESS_STATE)
-                            .where(PROCESS_STATE.INSTANCE_ID.notIn(alive))
-                            .execute();
+            for (DataTable t : tables) {
+                if (!t.cleanup || !t.orphansCleanup) {
+                    continue;
                 }
 
-                int events = 0;
-                if (jobCfg.isEventsCleanup()) {
-                    events = tx.deleteFrom(PROCESS_EVENTS)
-                            .where(PROCESS_EVENTS.INSTANCE_ID.notIn(alive))
-                            .execute();
+                while (!Thread.currentThread().isInterrupted()) {
+                    // only the data older than the cutoff can be orphaned, it helps
+                    // to avoid scanning the whole table
+                    int rows = txResult(tx -> {
+                        ProcessQueue q = PROCESS_QUEUE.as("q");
+                        Select<Record2<UUID, Timestamp>> orphans = tx.selectDistinct(t.instanceId, t.instanceCreatedAt)
+                                .from(t.table)
+                                .where(t.instanceCreatedAt.lessThan(cutoff)
+                                        .and(notExists(selectOne()
+                                                .from(q)
+                                                .where(q.INSTANCE_ID.eq(t.instanceId)))))
+                                .limit(jobCfg.getCleanupBatchSize());
+
+                        return tx.deleteFrom(t.table)
+                                .where(row(t.instanceId, t.instanceCreatedAt).in(orphans))
+                                .execute();
+                    });
+
+                    if (rows == 0) {
+                        break;
+                    }
+
+                    deleted.merge(t.table.getName(), rows, Integer::sum);
+
+                    sleep(jobCfg.getCleanupBatchDelay());
                 }
+            }
+
+            long t2 = System.currentTimeMillis();
+            log.info("deleteOrphans -> removed orphan data: {}, took {}ms", deleted, (t2 - t1));
+        }
+
+        void maintainPartitions(Timestamp cutoff, ProcessConfiguration jobCfg, List<DataTable> tables) {
+            if (tables.isEmpty()) {
+                return;
+            }
+
+            long t1 = System.currentTimeMillis();
+
+            Map<String, Integer> created = new LinkedHashMap<>();
+            Map<String, Integer> dropped = new LinkedHashMap<>();
+
+            for (DataTable t : tables) {
+                String name = t.table.getName();
+
+                tx(tx -> {
+                    Integer n = tx.select(field("PROCESS_CREATE_PARTITIONS({0}, {1}::interval, {2})", Integer.class,
+                            val(name), val(jobCfg.getPartitionInterval()), val(jobCfg.getPartitionPrecreateCount())))
+                            .fetchOne(0, Integer.class);
+                    created.put(name, n);
+                });
 
-                int checkpoints = 0;
-                if (jobCfg.isCheckpointCleanup()) {
-                    checkpoints = tx.deleteFrom(PROCESS_CHECKPOINTS)
-                            .where(PROCESS_CHECKPOINTS.INSTANCE_ID.notIn(alive))
-                            .execute();
+                // old partitions are dropped only after all processes in
+                // the partition's range are removed from the queue
+                if (!t.cleanup || !jobCfg.isQueueCleanup()) {
+                    continue;
                 }
 
-                log.info("deleteOrphans -> removed orphan data: {} state item(s), {} event(s), {} checkpoint(s)",
-                        stateRecords, events, checkpoints);
-            });
+                tx(tx -> {
+                    Integer n = tx.select(field("PROCESS_DROP_PARTITIONS({0}, {1})", Integer.class, val(name), val(cutoff)))
+                            .fetchOne(0, Integer.class);
+                    dropped.put(name, n);
+                });
+            }
 
             long t2 = System.currentTimeMillis();
-            log.info("deleteOrphans -> took {}ms", (t2 - t1));
+            log.info("maintainPartitions -> created: {}, dropped: {}, took {}ms", created, dropped, (t2 - t1));
         }
     }
 }
@@ -58,10 +58,16 @@ public class ProcessExceptionMapper extends ExceptionMapperSupport<ProcessExcept
         UUID instanceId = processKey.getInstanceId();
 
         ErrorMessage msg = new ErrorMessage(instanceId, e.getMessage(), details, stacktrace);
-        return Response.status(e.getStatus())
+        Response.ResponseBuilder b = Response.status(e.getStatus())
                 .entity(msg)
-                .type(MediaType.APPLICATION_JSON_TYPE)
-                .build();
+                .type(MediaType.APPLICATION_JSON_TYPE);
+
+        if (e instanceof ProcessThrottledException) {
+            long retryAfterMs = ((ProcessThrottledException) e).getRetryAfterMs();
+            b.header(HttpHeaders.RETRY_AFTER, Math.max(1, (retryAfterMs + 999) / 1000));
+        }
+
+        return b.build();
     }
 
     private boolean traceEnabled() {
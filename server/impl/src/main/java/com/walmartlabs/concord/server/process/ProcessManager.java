@@ -20,6 +20,7 @@ package com.walmartlabs.concord.server.process;
  * =====
  */
 
+import com.walmartlabs.concord.common.IOUtils;
 import com.walmartlabs.concord.sdk.Constants;
 import com.walmartlabs.concord.server.agent.AgentManager;
 import com.walmartlabs.concord.server.org.ResourceAccessLevel;
@@ -27,6 +28,7 @@ import com.walmartlabs.concord.server.org.project.ProjectAccessManager;
 import com.walmartlabs.concord.server.org.project.RepositoryDao;
 import com.walmartlabs.concord.server.org.project.RepositoryEntry;
 import com.walmartlabs.concord.server.process.logs.ProcessLogManager;
+import com.walmartlabs.concord.server.process.pipelines.BatchForkPipeline;
 import com.walmartlabs.concord.server.process.pipelines.ForkPipeline;
 import com.walmartlabs.concord.server.process.pipelines.NewProcessPipeline;
 import com.walmartlabs.concord.server.process.pipelines.ResumePipeline;
@@ -52,6 +54,7 @@ import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 import java.io.IOException;
 import java.io.Serializable;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -76,6 +79,7 @@ public class ProcessManager {
     private final Chain processPipeline;
     private final Chain resumePipeline;
     private final Chain forkPipeline;
+    private final Chain batchForkPipeline;
 
     private static final List<ProcessStatus> SERVER_PROCESS_STATUSES = Arrays.asList(
             ProcessStatus.NEW,
@@ -113,7 +117,8 @@ public class ProcessManager {
                           ProcessQueueManager processQueueManager,
                           NewProcessPipeline processPipeline,
                           ResumePipeline resumePipeline,
-                          ForkPipeline forkPipeline) {
+                          ForkPipeline forkPipeline,
+                          BatchForkPipeline batchForkPipeline) {
 
         this.queueDao = queueDao;
         this.stateManager = stateManager;
@@ -129,6 +134,7 @@ public class ProcessManager {
         this.processPipeline = processPipeline;
         this.resumePipeline = resumePipeline;
         this.forkPipeline = forkPipeline;
+        this.batchForkPipeline = batchForkPipeline;
     }
 
     public ProcessResult start(Payload payload) {
@@ -139,6 +145,60 @@ public class ProcessManager {
         return start(forkPipeline, payload);
     }
 
+    /**
+     * Starts multiple forks of the same parent. The initial queue entries
+     * for all forks are created in a single transaction.
+     * <p/>
+     * If one of the forks fails to start, the forks that weren't started yet
+     * are marked as FAILED and the error is rethrown.
+     */
+    public List<ProcessResult> startForks(List<Payload> payloads) {
+        payloads.forEach(this::assertRepositoryDisabled);
+
+        queueManager.insertBatch(payloads, ProcessStatus.PREPARING);
+
+        List<ProcessResult> results = new ArrayList<>(payloads.size());
+        for (int i = 0; i < payloads.size(); i++) {
+            try {
+                results.add(start(batchForkPipeline, payloads.get(i)));
+            } catch (RuntimeException e) {
+                // the failed fork itself is handled by the pipeline's exception processor
+                failForks(payloads.subList(i + 1, payloads.size()), e);
+                throw e;
+            }
+        }
+        return results;
+    }
+
+    private void failForks(List<Payload> payloads, Exception cause) {
+        if (payloads.isEmpty()) {
+            return;
+        }
+
+        List<ProcessKey> processKeys = payloads.stream()
+                .map(Payload::getProcessKey)
+                .collect(Collectors.toList());
+
+        log.warn("startForks -> marking {} fork(s) as FAILED: {}", processKeys.size(), cause.getMessage());
+
+        for (Payload p : payloads) {
+            logManager.error(p.getProcessKey(), "Process failed: another fork in the same batch failed to start: {}", cause.getMessage());
+
+            Path workspace = p.getHeader(Payload.WORKSPACE_DIR);
+            if (workspace == null) {
+                continue;
+            }
+
+            try {
+                IOUtils.deleteRecursively(workspace);
+            } catch (IOException e) {
+                log.warn("failForks ['{}'] -> error while removing the workspace {}: {}", p.getProcessKey(), workspace, e.getMessage());
+            }
+        }
+
+        queueManager.updateExpectedStatus(processKeys, Collections.singletonList(ProcessStatus.PREPARING), ProcessStatus.FAILED);
+    }
+
     public void resume(Payload payload) {
         resumePipeline.process(payload);
     }
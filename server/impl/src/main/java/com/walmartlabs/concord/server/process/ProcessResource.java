@@ -480,6 +480,65 @@ public class ProcessResource implements Resource {
         return toResponse(processManager.startFork(payload));
     }
 
+    /**
+     * Starts multiple child processes by forking the start of the specified parent process.
+     * The parent's state is exported once per request, each fork still gets
+     * its own copy of the state in its workspace.
+     *
+     * @param parentInstanceId
+     * @param reqs a list of fork requests, one per child process
+     * @param out
+     * @return
+     */
+    @POST
+    @ApiOperation(value = "Fork a process multiple times", responseContainer = "list", response = StartProcessResponse.class)
+    @javax.ws.rs.Path("/{id}/fork/batch")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @WithTimer
+    public List<StartProcessResponse> forkBatch(@ApiParam @PathParam("id") UUID parentInstanceId,
+                                                @ApiParam List<Map<String, Object>> reqs,
+                                                @ApiParam @QueryParam("out") String[] out) {
+
+        if (reqs == null || reqs.isEmpty()) {
+            throw new ValidationErrorsException("At least one fork request is required");
+        }
+
+        int maxBatchSize = processCfg.getMaxForkBatchSize();
+        if (reqs.size() > maxBatchSize) {
+            throw new ValidationErrorsException("Too many forks in a single request: " + reqs.size() + ", max allowed: " + maxBatchSize);
+        }
+
+        ProcessEntry parent = processQueueManager.get(PartialProcessKey.from(parentInstanceId));
+        if (parent == null) {
+            throw new ValidationErrorsException("Unknown parent instance ID: " + parentInstanceId);
+        }
+
+        List<PartialProcessKey> processKeys = reqs.stream()
+                .map(r -> PartialProcessKey.from(UUID.randomUUID()))
+                .collect(Collectors.toList());
+
+        ProcessKey parentProcessKey = ProcessKey.from(parent);
+
+        UUID projectId = parent.projectId();
+        UserPrincipal userPrincipal = UserPrincipal.assertCurrent();
+        Set<String> handlers = parent.handlers();
+        Imports imports = parent.imports();
+
+        List<Payload> payloads;
+        try {
+            payloads = payloadManager.createForks(processKeys, parentProcessKey, ProcessKind.DEFAULT,
+                    userPrincipal.getId(), userPrincipal.getUsername(), projectId, reqs, out, handlers, imports);
+        } catch (IOException e) {
+            log.error("forkBatch ['{}', {}] -> error creating payloads: {}", parentProcessKey, reqs.size(), e);
+            throw new ConcordApplicationException("Error creating payloads", e);
+        }
+
+        return processManager.startForks(payloads).stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+    }
+
     /**
      * Waits for completion of a process.
      *
@@ -65,6 +65,9 @@ public class ProcessResourceV2 implements Resource {
 
     private static final Logger log = LoggerFactory.getLogger(ProcessResourceV2.class);
 
+    private static final int MAX_DEMAND_WINDOW_SEC = 3600;
+    private static final List<Integer> DEMAND_WAIT_TIME_BUCKETS = Arrays.asList(10, 30, 60, 300, 900);
+
     private final ProcessQueueDao queueDao;
     private final ProcessQueueManager processQueueManager;
     private final ProjectDao projectDao;
@@ -155,6 +158,56 @@ public class ProcessResourceV2 implements Resource {
         return queueDao.list(filter);
     }
 
+    /**
+     * Returns a page of processes applying the specified filters.
+     * The processes are sorted by their creation date, newest first.
+     * Use {@link ProcessListPage#next()} as the {@code cursor} to get
+     * the next page. Unlike {@code offset} the cost of fetching a page
+     * doesn't depend on how deep the page is.
+     */
+    @GET
+    @ApiOperation(value = "List processes using cursor-based pagination")
+    @Path("/page")
+    @Produces(MediaType.APPLICATION_JSON)
+    @WithTimer
+    public ProcessListPage listPage(@ApiParam @QueryParam("orgId") UUID orgId,
+                                    @ApiParam @QueryParam("orgName") String orgName,
+                                    @ApiParam @QueryParam("projectId") UUID projectId,
+                                    @ApiParam @QueryParam("projectName") String projectName,
+                                    @ApiParam @QueryParam("repoId") UUID repoId,
+                                    @ApiParam @QueryParam("repoName") String repoName,
+                                    @ApiParam @QueryParam("afterCreatedAt") IsoDateParam afterCreatedAt,
+                                    @ApiParam @QueryParam("beforeCreatedAt") IsoDateParam beforeCreatedAt,
+                                    @ApiParam @QueryParam("tags") Set<String> tags,
+                                    @ApiParam @QueryParam("status") ProcessStatus processStatus,
+                                    @ApiParam @QueryParam("initiator") String initiator,
+                                    @ApiParam @QueryParam("parentInstanceId") UUID parentId,
+                                    @ApiParam @QueryParam("include") Set<ProcessDataInclude> processData,
+                                    @ApiParam @QueryParam("limit") @DefaultValue("30") int limit,
+                                    @ApiParam @QueryParam("cursor") String cursor,
+                                    @Context UriInfo uriInfo) {
+
+        if (limit <= 0) {
+            throw new ValidationErrorsException("'limit' must be a positive number");
+        }
+
+        ProcessCursor c = null;
+        if (cursor != null && !cursor.trim().isEmpty()) {
+            try {
+                c = ProcessCursor.parse(cursor.trim());
+            } catch (IllegalArgumentException e) {
+                throw new ValidationErrorsException(e.getMessage());
+            }
+        }
+
+        ProcessFilter filter = createProcessFilter(orgId, orgName, projectId, projectName, repoId, repoName,
+                afterCreatedAt, beforeCreatedAt, tags, processStatus, initiator, parentId, processData, limit, null, uriInfo);
+
+        return queueDao.listPage(ProcessFilter.builder().from(filter)
+                .cursor(c)
+                .build());
+    }
+
     @GET
     @ApiOperation(value = "List process requirements")
     @Path("/requirements")
@@ -179,8 +232,32 @@ public class ProcessResourceV2 implements Resource {
         return queueDao.listRequirements(processStatus, limit, offset);
     }
 
+    /**
+     * Returns the aggregated demand for agents: the number of enqueued,
+     * running and recently created processes and the wait time histogram
+     * grouped by process requirements.
+     */
+    @GET
+    @ApiOperation(value = "Aggregated process queue demand")
+    @Path("/requirements/demand")
+    @Produces(MediaType.APPLICATION_JSON)
+    @WithTimer
+    public ProcessQueueDemand getDemand(@ApiParam @QueryParam("window") @DefaultValue("60") int windowSec) {
+        if (windowSec <= 0 || windowSec > MAX_DEMAND_WINDOW_SEC) {
+            throw new ValidationErrorsException("'window' must be a positive number less than or equal to " + MAX_DEMAND_WINDOW_SEC);
+        }
+
+        return ProcessQueueDemand.builder()
+                .windowSec(windowSec)
+                .waitTimeBuckets(DEMAND_WAIT_TIME_BUCKETS)
+                .entries(queueDao.getDemand(windowSec, DEMAND_WAIT_TIME_BUCKETS))
+                .build();
+    }
+
     /**
      * Counts processes applying the specified filters.
+     * With {@code approximate=true} returns the DB's estimate instead of
+     * the exact number.
      */
     @GET
     @ApiOperation(value = "Count processes")
@@ -199,12 +276,18 @@ public class ProcessResourceV2 implements Resource {
                      @ApiParam @QueryParam("status") ProcessStatus processStatus,
                      @ApiParam @QueryParam("initiator") String initiator,
                      @ApiParam @QueryParam("parentInstanceId") UUID parentId,
+                     @ApiParam @QueryParam("approximate") @DefaultValue("false") boolean approximate,
                      @Context UriInfo uriInfo) {
 
         ProcessFilter filter = createProcessFilter(orgId, orgName, projectId, projectName, repoId, repoName,
                 afterCreatedAt, beforeCreatedAt, tags, processStatus, initiator, parentId, Collections.emptySet(),
                 null, null, uriInfo);
 
+        // estimates don't scan the table, no need to limit them to a single project
+        if (approximate) {
+            return queueDao.estimateCount(filter);
+        }
+
         if (filter.projectId() == null) {
             throw new ValidationErrorsException("A project ID or name is required");
         }
@@ -123,7 +123,14 @@ public class ProcessSecurityContext {
 
     public <T> T runAsCurrentUser(ProcessKey processKey, Callable<T> c) throws Exception {
         PrincipalCollection principals = getPrincipals(processKey);
+        return runAs(principals, c);
+    }
 
+    /**
+     * Runs the callable as the subject with the specified principals.
+     * E.g. to continue a request's work in a background thread.
+     */
+    public <T> T runAs(PrincipalCollection principals, Callable<T> c) throws Exception {
         ThreadContext.bind(securityManager);
 
         Subject subject = new Subject.Builder()
@@ -0,0 +1,381 @@
+package com.walmartlabs.concord.server.process;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.walmartlabs.concord.policyengine.StartRateRule;
+import com.walmartlabs.concord.server.cfg.QosConfiguration;
+import com.walmartlabs.concord.server.sdk.BackgroundTask;
+import io.prometheus.client.Collector;
+import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.CounterMetricFamily;
+import io.prometheus.client.GaugeMetricFamily;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for new processes. Each org and project gets a token
+ * bucket refilled at the rate specified in the {@code queue.startRate}
+ * policy. If {@code qos.maxStartsPerSecond} is configured, the server's
+ * start capacity is split between the currently active orgs proportionally
+ * to their policy weights (weighted fair share), so a single org can't
+ * starve the others.
+ * <p/>
+ * The state is local to the current server instance. Buckets of idle orgs
+ * and projects are evicted, a new bucket starts full.
+ */
+@Named
+@Singleton
+public class ProcessStartLimiter implements BackgroundTask {
+
+    private static final double MS_PER_MINUTE = 60_000.0;
+    private static final int DEFAULT_WEIGHT = 1;
+
+    private static final long MAX_TENANTS = 100_000;
+    private static final long MIN_IDLE_TIME = TimeUnit.HOURS.toMillis(1);
+
+    private final double maxStartsPerMs;
+    private final long fairShareWindow;
+
+    private final LoadingCache<UUID, Tenant> orgs;
+    private final LoadingCache<UUID, Tenant> projects;
+
+    /**
+     * Guards the fair share bookkeeping: {@link #activeWeight},
+     * {@link #nextSweep} and the tenants' activity flags.
+     */
+    private final Object weightLock = new Object();
+
+    /**
+     * Total weight of the orgs active within the fair share window.
+     */
+    private long activeWeight;
+    private long nextSweep;
+
+    private final Collector collector;
+
+    @Inject
+    public ProcessStartLimiter(QosConfiguration cfg) {
+        this.maxStartsPerMs = cfg.getMaxStartsPerSecond() / 1000.0;
+        this.fairShareWindow = cfg.getFairShareWindowMs();
+        this.orgs = newTenantCache(Math.max(MIN_IDLE_TIME, fairShareWindow));
+        this.projects = newTenantCache(MIN_IDLE_TIME);
+        this.collector = new StartMetrics();
+    }
+
+    @Override
+    public void start() {
+        CollectorRegistry.defaultRegistry.register(collector);
+    }
+
+    @Override
+    public void stop() {
+        CollectorRegistry.defaultRegistry.unregister(collector);
+    }
+
+    /**
+     * Takes a start token for the specified org and project.
+     *
+     * @param rule the policy limits, can be {@code null}
+     * @return the result, see {@link Permit#retryAfter()}. Can be passed to
+     * {@link #release(Permit)} to return the taken tokens back
+     */
+    public Permit tryAcquire(UUID orgId, UUID projectId, StartRateRule rule) {
+        return tryAcquire(orgId, projectId, rule, System.currentTimeMillis());
+    }
+
+    Permit tryAcquire(UUID orgId, UUID projectId, StartRateRule rule, long now) {
+        Tenant org = null;
+        boolean orgToken = false;
+        if (orgId != null) {
+            org = orgs.getUnchecked(orgId);
+            long totalWeight = touchOrg(org, now, weight(rule));
+
+            double rate = orgRate(org, totalWeight, rule);
+            long wait = org.tryAcquire(now, rate, capacity(rate, rule));
+            if (wait > 0) {
+                return Permit.denied(wait);
+            }
+            orgToken = !Double.isInfinite(rate);
+        }
+
+        Tenant project = null;
+        if (projectId != null && rule != null && rule.getMaxPerProject() != null) {
+            project = projects.getUnchecked(projectId);
+
+            double rate = rule.getMaxPerProject() / MS_PER_MINUTE;
+            long wait = project.tryAcquire(now, rate, capacity(rate, rule));
+            if (wait > 0) {
+                if (org != null) {
+                    // the start wasn't allowed, return the org's token back
+                    org.refund(true, orgToken);
+                }
+                return Permit.denied(wait);
+            }
+        }
+
+        return new Permit(0, org, orgToken, project);
+    }
+
+    /**
+     * Returns the tokens taken by a successful {@link #tryAcquire(UUID, UUID, StartRateRule)}
+     * call, e.g. if the process wasn't created after all.
+     */
+    public void release(Permit permit) {
+        if (permit == null || !permit.isAllowed()) {
+            return;
+        }
+
+        if (permit.org != null) {
+            permit.org.refund(false, permit.orgToken);
+        }
+
+        if (permit.project != null) {
+            permit.project.refund(false, true);
+        }
+    }
+
+    /**
+     * Marks the org as active and updates its weight.
+     *
+     * @return the total weight of the currently active orgs
+     */
+    private long touchOrg(Tenant org, long now, int weight) {
+        synchronized (weightLock) {
+            if (now >= nextSweep) {
+                sweep(now);
+                nextSweep = now + Math.max(1, fairShareWindow / 10);
+            }
+
+            if (org.active) {
+                activeWeight += weight - org.weight;
+            } else {
+                activeWeight += weight;
+                org.active = true;
+            }
+
+            org.weight = weight;
+            org.lastSeen = now;
+
+            return activeWeight;
+        }
+    }
+
+    /**
+     * Deactivates the orgs which weren't seen within the fair share window
+     * and recalculates the total weight of the active orgs. Called periodically,
+     * not on every start.
+     */
+    private void sweep(long now) {
+        long since = now - fairShareWindow;
+
+        long total = 0;
+        for (Tenant t : orgs.asMap().values()) {
+            if (t.active && t.lastSeen < since) {
+                t.active = false;
+            }
+
+            if (t.active) {
+                total += t.weight;
+            }
+        }
+
+        activeWeight = total;
+    }
+
+    /**
+     * @return the org's refill rate (tokens per ms): the policy limit or
+     * the org's fair share of the server's capacity, whichever is lower.
+     * {@link Double#POSITIVE_INFINITY} if there are no limits.
+     */
+    private double orgRate(Tenant org, long totalWeight, StartRateRule rule) {
+        double rate = Double.POSITIVE_INFINITY;
+
+        if (rule != null && rule.getMaxPerOrg() != null) {
+            rate = rule.getMaxPerOrg() / MS_PER_MINUTE;
+        }
+
+        if (maxStartsPerMs > 0) {
+            int weight = org.weight;
+            double share = maxStartsPerMs * weight / Math.max(totalWeight, weight);
+            rate = Math.min(rate, share);
+        }
+
+        return rate;
+    }
+
+    private static LoadingCache<UUID, Tenant> newTenantCache(long idleTime) {
+        return CacheBuilder.newBuilder()
+                .maximumSize(MAX_TENANTS)
+                .expireAfterAccess(idleTime, TimeUnit.MILLISECONDS)
+                .concurrencyLevel(32)
+                .build(new CacheLoader<UUID, Tenant>() {
+                    @Override
+                    public Tenant load(UUID key) {
+                        return new Tenant();
+                    }
+                });
+    }
+
+    private static double capacity(double rate, StartRateRule rule) {
+        if (rule != null && rule.getBurst() != null) {
+            return Math.max(1, rule.getBurst());
+        }
+
+        // by default allow up to a second worth of starts at once
+        return Math.max(1, rate * 1000);
+    }
+
+    private static int weight(StartRateRule rule) {
+        if (rule == null || rule.getWeight() == null || rule.getWeight() <= 0) {
+            return DEFAULT_WEIGHT;
+        }
+        return rule.getWeight();
+    }
+
+    /**
+     * The result of {@link #tryAcquire(UUID, UUID, StartRateRule)}. Keeps
+     * track of the taken tokens, so only those are returned on release.
+     */
+    public static final class Permit {
+
+        private static Permit denied(long retryAfter) {
+            return new Permit(retryAfter, null, false, null);
+        }
+
+        private final long retryAfter;
+        private final Tenant org;
+        private final boolean orgToken;
+        private final Tenant project;
+
+        private Permit(long retryAfter, Tenant org, boolean orgToken, Tenant project) {
+            this.retryAfter = retryAfter;
+            this.org = org;
+            this.orgToken = orgToken;
+            this.project = project;
+        }
+
+        /**
+         * @return the number of milliseconds until the next start is allowed
+         * or {@code 0} if the start is allowed
+         */
+        public long retryAfter() {
+            return retryAfter;
+        }
+
+        public boolean isAllowed() {
+            return retryAfter == 0;
+        }
+    }
+
+    /**
+     * A token bucket with a variable refill rate. The tokens are refilled
+     * lazily on each call.
+     */
+    private static final class Tenant {
+
+        private double tokens = -1;
+        private double capacity;
+        private long lastRefill;
+
+        private long admitted;
+        private long rejected;
+
+        // fair share bookkeeping, guarded by ProcessStartLimiter#weightLock
+        private volatile boolean active;
+        private volatile int weight = DEFAULT_WEIGHT;
+        private volatile long lastSeen;
+
+        synchronized long tryAcquire(long now, double rate, double capacity) {
+            if (Double.isInfinite(rate)) {
+                admitted++;
+                return 0;
+            }
+
+            if (tokens < 0) {
+                // a new bucket starts full
+                tokens = capacity;
+            } else {
+                tokens = Math.min(capacity, tokens + (now - lastRefill) * rate);
+            }
+            this.capacity = capacity;
+            lastRefill = now;
+
+            if (tokens >= 1) {
+                tokens -= 1;
+                admitted++;
+                return 0;
+            }
+
+            rejected++;
+            return Math.max(1, (long) Math.ceil((1 - tokens) / rate));
+        }
+
+        /**
+         * @param reject if {@code true} the start is counted as rejected
+         * @param token  if {@code true} a token was taken and must be returned
+         */
+        synchronized void refund(boolean reject, boolean token) {
+            if (token && tokens >= 0) {
+                tokens = Math.min(capacity, tokens + 1);
+            }
+            admitted--;
+            if (reject) {
+                rejected++;
+            }
+        }
+
+        synchronized long admitted() {
+            return admitted;
+        }
+
+        synchronized long rejected() {
+            return rejected;
+        }
+    }
+
+    private final class StartMetrics extends Collector {
+
+        @Override
+        public List<MetricFamilySamples> collect() {
+            List<String> labels = Collections.singletonList("orgId");
+
+            CounterMetricFamily admitted = new CounterMetricFamily("process_starts_admitted", "number of admitted process starts per org", labels);
+            CounterMetricFamily rejected = new CounterMetricFamily("process_starts_rejected", "number of rejected (throttled) process starts per org", labels);
+            GaugeMetricFamily weights = new GaugeMetricFamily("process_starts_weight", "current fair share weight per org", labels);
+
+            orgs.asMap().forEach((k, v) -> {
+                List<String> l = Collections.singletonList(k.toString());
+                admitted.addMetric(l, v.admitted());
+                rejected.addMetric(l, v.rejected());
+                weights.addMetric(l, v.weight);
+            });
+
+            return Arrays.asList(admitted, rejected, weights);
+        }
+    }
+}
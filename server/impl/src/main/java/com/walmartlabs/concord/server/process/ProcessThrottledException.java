@@ -0,0 +1,41 @@
+package com.walmartlabs.concord.server.process;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.ExtraStatus;
+
+/**
+ * Thrown when a new process is rejected by the admission control.
+ * Results in a 429 response with the {@code Retry-After} header.
+ */
+public class ProcessThrottledException extends ProcessException {
+
+    private final long retryAfterMs;
+
+    public ProcessThrottledException(PartialProcessKey processKey, String message, long retryAfterMs) {
+        super(processKey, message, ExtraStatus.TOO_MANY_REQUESTS);
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+}
@@ -20,6 +20,7 @@ package com.walmartlabs.concord.server.process.event;
  * =====
  */
 
+import com.walmartlabs.concord.sdk.EventType;
 import com.walmartlabs.concord.server.IsoDateParam;
 import com.walmartlabs.concord.server.org.ResourceAccessLevel;
 import com.walmartlabs.concord.server.org.project.ProjectAccessManager;
@@ -162,6 +163,31 @@ public class ProcessEventResource implements Resource {
         return l;
     }
 
+    /**
+     * Returns the process' startup timeline: status changes, durations
+     * between them and the agent's preparation phases.
+     */
+    @GET
+    @ApiOperation(value = "Get the process' startup timeline", response = ProcessTimeline.class)
+    @Path("/{processInstanceId}/timeline")
+    @Produces(MediaType.APPLICATION_JSON)
+    @WithTimer
+    public ProcessTimeline timeline(@ApiParam @PathParam("processInstanceId") UUID processInstanceId) {
+        ProcessKey processKey = assertProcessKey(processInstanceId);
+
+        List<ProcessEventEntry> statusEvents = eventDao.list(ProcessEventFilter.builder()
+                .processKey(processKey)
+                .eventType(EventType.PROCESS_STATUS.name())
+                .build());
+
+        List<ProcessEventEntry> prepareEvents = eventDao.list(ProcessEventFilter.builder()
+                .processKey(processKey)
+                .eventType(EventType.PROCESS_PREPARE.name())
+                .build());
+
+        return ProcessTimeline.from(processInstanceId, statusEvents, prepareEvents);
+    }
+
     private ProcessKey assertProcessKey(UUID instanceId) {
         ProcessKey processKey = processKeyCache.get(instanceId);
         if (processKey == null) {
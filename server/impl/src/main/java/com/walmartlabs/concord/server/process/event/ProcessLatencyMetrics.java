@@ -0,0 +1,257 @@
+package com.walmartlabs.concord.server.process.event;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.CaseFormat;
+import com.walmartlabs.concord.common.ConfigurationUtils;
+import com.walmartlabs.concord.db.AbstractDao;
+import com.walmartlabs.concord.db.MainDB;
+import com.walmartlabs.concord.sdk.EventType;
+import com.walmartlabs.concord.server.AgentWorkerUtils;
+import com.walmartlabs.concord.server.ConcordObjectMapper;
+import com.walmartlabs.concord.server.agent.AgentManager;
+import com.walmartlabs.concord.server.cfg.WorkerMetricsConfiguration;
+import com.walmartlabs.concord.server.process.event.ProcessTimeline.StatusChange;
+import com.walmartlabs.concord.server.sdk.ProcessKey;
+import com.walmartlabs.concord.server.sdk.ProcessStatus;
+import com.walmartlabs.concord.server.sdk.events.ProcessEvent;
+import com.walmartlabs.concord.server.sdk.events.ProcessEventListener;
+import org.jooq.Configuration;
+import org.jooq.DSLContext;
+import org.jooq.JSONB;
+import org.jooq.Record2;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.walmartlabs.concord.server.jooq.tables.Organizations.ORGANIZATIONS;
+import static com.walmartlabs.concord.server.jooq.tables.ProcessQueue.PROCESS_QUEUE;
+import static com.walmartlabs.concord.server.jooq.tables.Projects.PROJECTS;
+
+/**
+ * Records the process startup latency histograms:
+ * <ul>
+ *     <li>{@code process-latency-*} - durations between the status changes,
+ *     recorded when a process reaches the {@code RUNNING} status;</li>
+ *     <li>{@code process-prepare-*} - durations of the preparation phases
+ *     reported by the agents.</li>
+ * </ul>
+ * Each value is also recorded into histograms with {@code -org-<orgName>} and
+ * {@code -flavor-<agentFlavor>} suffixes. The agent flavor is taken from
+ * the process' agent requirements using the same property as the worker
+ * metrics. The requirements are specified by users, so only the flavors
+ * listed in {@code workerMetrics.latencyFlavors} or provided by the connected
+ * agents get their own histograms, the rest are recorded as {@code -flavor-other}.
+ *
+ * @see ProcessTimeline
+ */
+@Named
+@Singleton
+public class ProcessLatencyMetrics implements ProcessEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessLatencyMetrics.class);
+
+    private static final String LATENCY_PREFIX = "process-latency-";
+    private static final String PREPARE_PREFIX = "process-prepare-";
+
+    private static final String OTHER_FLAVOR = "other";
+
+    /**
+     * Min interval between the refreshes of the known agent flavors (ms).
+     */
+    private static final long FLAVORS_REFRESH_INTERVAL = 10_000;
+
+    private final ProcessEventDao eventDao;
+    private final MetricsDao metricsDao;
+    private final ConcordObjectMapper objectMapper;
+    private final MetricRegistry metricRegistry;
+    private final Provider<AgentManager> agentManagerProvider;
+    private final String[] flavorPath;
+
+    /**
+     * Flavors allowed in the metric names: configured and seen in
+     * the connected agents' capabilities. Agents are configured by
+     * the operators, so the set stays small.
+     */
+    private final Set<String> knownFlavors = ConcurrentHashMap.newKeySet();
+    private volatile long lastFlavorsRefresh;
+
+    @Inject
+    public ProcessLatencyMetrics(ProcessEventDao eventDao,
+                                 MetricsDao metricsDao,
+                                 ConcordObjectMapper objectMapper,
+                                 MetricRegistry metricRegistry,
+                                 WorkerMetricsConfiguration workerMetricsCfg,
+                                 Provider<AgentManager> agentManagerProvider) {
+
+        this.eventDao = eventDao;
+        this.metricsDao = metricsDao;
+        this.objectMapper = objectMapper;
+        this.metricRegistry = metricRegistry;
+        this.agentManagerProvider = agentManagerProvider;
+        this.flavorPath = workerMetricsCfg.getGroupByCapabilitiesProperty().split("\\.");
+
+        List<String> flavors = workerMetricsCfg.getLatencyFlavors();
+        if (flavors != null) {
+            knownFlavors.addAll(flavors);
+        }
+    }
+
+    @Override
+    public void onEvents(List<ProcessEvent> events) {
+        for (ProcessEvent e : events) {
+            try {
+                if (isRunningStatus(e)) {
+                    onRunning(e.getProcessKey());
+                } else if (EventType.PROCESS_PREPARE.name().equals(e.getEventType())) {
+                    update(PREPARE_PREFIX, ProcessTimeline.agentPhases(e.getData()), e.getProcessKey());
+                }
+            } catch (Exception ex) {
+                log.warn("onEvents ['{}'] -> error: {}", e.getProcessKey(), ex.getMessage());
+            }
+        }
+    }
+
+    private void onRunning(ProcessKey processKey) {
+        ProcessEventFilter f = ProcessEventFilter.builder()
+                .processKey(processKey)
+                .eventType(EventType.PROCESS_STATUS.name())
+                .build();
+
+        List<StatusChange> history = new ArrayList<>(ProcessTimeline.statusHistory(eventDao.list(f)));
+
+        // the listeners are called before the status change is committed
+        if (history.isEmpty() || !ProcessStatus.RUNNING.name().equals(history.get(history.size() - 1).status())) {
+            history.add(StatusChange.of(ProcessStatus.RUNNING.name(), new Date()));
+        }
+
+        update(LATENCY_PREFIX, ProcessTimeline.durations(history), processKey);
+    }
+
+    private void update(String prefix, Map<String, Long> values, ProcessKey processKey) {
+        if (values.isEmpty()) {
+            return;
+        }
+
+        List<String> suffixes = suffixes(processKey);
+
+        values.forEach((k, v) -> {
+            String name = prefix + CaseFormat.LOWER_CAMEL.to(CaseFormat.LOWER_HYPHEN, k);
+            metricRegistry.histogram(name).update(v);
+            suffixes.forEach(s -> metricRegistry.histogram(name + s).update(v));
+        });
+    }
+
+    private List<String> suffixes(ProcessKey processKey) {
+        Record2<String, JSONB> r = metricsDao.get(processKey);
+        if (r == null) {
+            return Collections.emptyList();
+        }
+
+        List<String> result = new ArrayList<>(2);
+
+        String orgName = r.value1();
+        if (orgName != null) {
+            result.add("-org-" + sanitize(orgName));
+        }
+
+        Map<String, Object> requirements = objectMapper.fromJSONB(r.value2());
+        Object agent = requirements != null ? requirements.get("agent") : null;
+        if (agent instanceof Map) {
+            @SuppressWarnings("unchecked")
+            Object flavor = ConfigurationUtils.get((Map<String, Object>) agent, flavorPath);
+            if (flavor != null) {
+                result.add("-flavor-" + sanitize(knownFlavor(flavor.toString())));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @return the specified flavor if it is allowed in the metric names,
+     * {@link #OTHER_FLAVOR} otherwise
+     */
+    private String knownFlavor(String flavor) {
+        if (knownFlavors.contains(flavor)) {
+            return flavor;
+        }
+
+        long now = System.currentTimeMillis();
+        if (now - lastFlavorsRefresh >= FLAVORS_REFRESH_INTERVAL) {
+            lastFlavorsRefresh = now;
+
+            AgentWorkerUtils.groupBy(agentManagerProvider.get().getAvailableAgents(), flavorPath).keySet()
+                    .forEach(k -> knownFlavors.add(k.toString()));
+
+            if (knownFlavors.contains(flavor)) {
+                return flavor;
+            }
+        }
+
+        return OTHER_FLAVOR;
+    }
+
+    private static boolean isRunningStatus(ProcessEvent e) {
+        if (!EventType.PROCESS_STATUS.name().equals(e.getEventType()) || e.getData() == null) {
+            return false;
+        }
+
+        return ProcessStatus.RUNNING.name().equals(e.getData().get("status"));
+    }
+
+    private static String sanitize(String s) {
+        return s.replaceAll("[^a-zA-Z0-9]", "_");
+    }
+
+    @Named
+    private static final class MetricsDao extends AbstractDao {
+
+        @Inject
+        public MetricsDao(@MainDB Configuration cfg) {
+            super(cfg);
+        }
+
+        /**
+         * Returns the process' organization name and requirements.
+         */
+        public Record2<String, JSONB> get(ProcessKey processKey) {
+            return txResult(tx -> get(tx, processKey));
+        }
+
+        private Record2<String, JSONB> get(DSLContext tx, ProcessKey processKey) {
+            return tx.select(ORGANIZATIONS.ORG_NAME, PROCESS_QUEUE.REQUIREMENTS)
+                    .from(PROCESS_QUEUE)
+                    .leftJoin(PROJECTS).on(PROJECTS.PROJECT_ID.eq(PROCESS_QUEUE.PROJECT_ID))
+                    .leftJoin(ORGANIZATIONS).on(ORGANIZATIONS.ORG_ID.eq(PROJECTS.ORG_ID))
+                    .where(PROCESS_QUEUE.INSTANCE_ID.eq(processKey.getInstanceId())
+                            .and(PROCESS_QUEUE.CREATED_AT.eq(processKey.getCreatedAt())))
+                    .fetchOne();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.walmartlabs.concord.server.process.event;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.walmartlabs.concord.server.sdk.ProcessStatus;
+import org.immutables.value.Value;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Startup timeline of a process: status changes and the durations of
+ * the preparation phases reported by the agent.
+ */
+@Value.Immutable
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonSerialize(as = ImmutableProcessTimeline.class)
+@JsonDeserialize(as = ImmutableProcessTimeline.class)
+public interface ProcessTimeline extends Serializable {
+
+    UUID instanceId();
+
+    List<StatusChange> statusHistory();
+
+    /**
+     * Durations (ms) of the agent's preparation phases, e.g.
+     * {@code repositoryExport}, {@code dependencies} or {@code fork}.
+     */
+    Map<String, Long> agentPhases();
+
+    /**
+     * Durations (ms) between the status changes of the most recent
+     * process start, see {@link #durations(List)}.
+     */
+    Map<String, Long> durations();
+
+    static ProcessTimeline from(UUID instanceId, List<ProcessEventEntry> statusEvents, List<ProcessEventEntry> prepareEvents) {
+        List<StatusChange> history = statusHistory(statusEvents);
+
+        Map<String, Long> agentPhases = Collections.emptyMap();
+        if (!prepareEvents.isEmpty()) {
+            // use the most recent start
+            agentPhases = agentPhases(prepareEvents.get(prepareEvents.size() - 1).data());
+        }
+
+        return ImmutableProcessTimeline.builder()
+                .instanceId(instanceId)
+                .statusHistory(history)
+                .agentPhases(agentPhases)
+                .durations(durations(history))
+                .build();
+    }
+
+    static List<StatusChange> statusHistory(List<ProcessEventEntry> statusEvents) {
+        List<StatusChange> result = new ArrayList<>(statusEvents.size());
+        for (ProcessEventEntry e : statusEvents) {
+            Object status = e.data() != null ? e.data().get("status") : null;
+            if (status == null) {
+                continue;
+            }
+
+            result.add(StatusChange.of(status.toString(), e.eventDate()));
+        }
+        return result;
+    }
+
+    static Map<String, Long> agentPhases(Map<String, Object> eventData) {
+        Object phases = eventData != null ? eventData.get("phases") : null;
+        if (!(phases instanceof Map)) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, Long> result = new HashMap<>();
+        ((Map<?, ?>) phases).forEach((k, v) -> {
+            if (v instanceof Number) {
+                result.put(k.toString(), ((Number) v).longValue());
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Calculates the durations between the status changes preceding the most
+     * recent {@code RUNNING} status (or the end of the history, if the process
+     * is not running yet):
+     * <ul>
+     *     <li>{@code newToEnqueued} - only for the initial start;</li>
+     *     <li>{@code enqueuedToStarting} - waiting in the queue, until dispatched to an agent;</li>
+     *     <li>{@code startingToRunning} - preparation on the agent;</li>
+     *     <li>{@code enqueuedToRunning}.</li>
+     * </ul>
+     */
+    static Map<String, Long> durations(List<StatusChange> history) {
+        int end = history.size();
+        for (int i = history.size() - 1; i >= 0; i--) {
+            if (ProcessStatus.RUNNING.name().equals(history.get(i).status())) {
+                end = i;
+                break;
+            }
+        }
+
+        Date newAt = null;
+        Date enqueuedAt = null;
+        Date startingAt = null;
+        int enqueuedCount = 0;
+
+        for (int i = 0; i < end; i++) {
+            StatusChange c = history.get(i);
+            if (ProcessStatus.NEW.name().equals(c.status())) {
+                newAt = c.changeDate();
+            } else if (ProcessStatus.ENQUEUED.name().equals(c.status())) {
+                enqueuedAt = c.changeDate();
+                startingAt = null;
+                enqueuedCount++;
+            } else if (ProcessStatus.STARTING.name().equals(c.status())) {
+                startingAt = c.changeDate();
+            }
+        }
+
+        Date runningAt = end < history.size() ? history.get(end).changeDate() : null;
+
+        Map<String, Long> result = new HashMap<>();
+        if (newAt != null && enqueuedAt != null && enqueuedCount == 1) {
+            result.put("newToEnqueued", diff(newAt, enqueuedAt));
+        }
+        if (enqueuedAt != null && startingAt != null) {
+            result.put("enqueuedToStarting", diff(enqueuedAt, startingAt));
+        }
+        if (startingAt != null && runningAt != null) {
+            result.put("startingToRunning", diff(startingAt, runningAt));
+        }
+        if (enqueuedAt != null && runningAt != null) {
+            result.put("enqueuedToRunning", diff(enqueuedAt, runningAt));
+        }
+        return result;
+    }
+
+    static long diff(Date from, Date to) {
+        return Math.max(0, to.getTime() - from.getTime());
+    }
+
+    @Value.Immutable
+    @JsonSerialize(as = ImmutableStatusChange.class)
+    @JsonDeserialize(as = ImmutableStatusChange.class)
+    interface StatusChange extends Serializable {
+
+        @Value.Parameter
+        String status();
+
+        /**
+         * should match the format in {@link com.walmartlabs.concord.server.IsoDateParam}
+         */
+        @Value.Parameter
+        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSSX")
+        Date changeDate();
+
+        static StatusChange of(String status, Date changeDate) {
+            return ImmutableStatusChange.of(status, changeDate);
+        }
+    }
+}
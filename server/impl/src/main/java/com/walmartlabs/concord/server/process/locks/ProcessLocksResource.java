@@ -27,6 +27,7 @@ import com.walmartlabs.concord.server.process.ProcessKey;
 import com.walmartlabs.concord.server.process.queue.AbstractWaitCondition;
 import com.walmartlabs.concord.server.process.queue.ProcessLockCondition;
 import com.walmartlabs.concord.server.process.queue.ProcessQueueManager;
+import com.walmartlabs.concord.server.process.queue.ProcessWaitNotifier;
 import com.walmartlabs.concord.server.sdk.ConcordApplicationException;
 import com.walmartlabs.concord.server.sdk.metrics.WithTimer;
 import io.swagger.annotations.Api;
@@ -51,12 +52,18 @@ public class ProcessLocksResource implements Resource {
     private final ProcessQueueManager processQueueManager;
     private final ProcessQueueManager queueManager;
     private final ProcessLocksDao dao;
+    private final ProcessWaitNotifier waitNotifier;
 
     @Inject
-    public ProcessLocksResource(ProcessQueueManager processQueueManager, ProcessQueueManager queueManager, ProcessLocksDao dao) {
+    public ProcessLocksResource(ProcessQueueManager processQueueManager,
+                                ProcessQueueManager queueManager,
+                                ProcessLocksDao dao,
+                                ProcessWaitNotifier waitNotifier) {
+
         this.processQueueManager = processQueueManager;
         this.queueManager = queueManager;
         this.dao = dao;
+        this.waitNotifier = waitNotifier;
     }
 
     /**
@@ -97,6 +104,7 @@ public class ProcessLocksResource implements Resource {
 
         ProcessEntry e = assertProcess(instanceId);
         dao.delete(e.instanceId(), e.orgId(), e.projectId(), scope, lockName);
+        waitNotifier.onLockRelease(e.orgId(), e.projectId(), scope, lockName);
     }
 
     private ProcessEntry assertProcess(UUID instanceId) {
@@ -25,10 +25,13 @@ import com.walmartlabs.concord.db.MainDB;
 import com.walmartlabs.concord.server.Utils;
 import com.walmartlabs.concord.server.jooq.tables.ProcessLocks;
 import com.walmartlabs.concord.server.jooq.tables.ProcessQueue;
+import com.walmartlabs.concord.server.jooq.tables.records.ProcessLocksRecord;
+import com.walmartlabs.concord.server.process.queue.ProcessWaitNotifier;
 import com.walmartlabs.concord.server.sdk.ProcessStatus;
 import com.walmartlabs.concord.server.sdk.ScheduledTask;
 import org.jooq.Configuration;
 import org.jooq.Record1;
+import org.jooq.Result;
 import org.jooq.SelectConditionStep;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,10 +55,12 @@ public class ProcessLocksWatchdog implements ScheduledTask {
     private static final Logger log = LoggerFactory.getLogger(ProcessLocksWatchdog.class);
 
     private final WatchdogDao dao;
+    private final ProcessWaitNotifier waitNotifier;
 
     @Inject
-    public ProcessLocksWatchdog(WatchdogDao dao) {
+    public ProcessLocksWatchdog(WatchdogDao dao, ProcessWaitNotifier waitNotifier) {
         this.dao = dao;
+        this.waitNotifier = waitNotifier;
     }
 
     @Override
@@ -66,8 +71,9 @@ public class ProcessLocksWatchdog implements ScheduledTask {
 
     @Override
     public void performTask() {
-        int count = dao.deleteStalledLocks();
-        log.debug("performTask -> {} locks deleted", count);
+        Result<ProcessLocksRecord> deleted = dao.deleteStalledLocks();
+        deleted.forEach(r -> waitNotifier.onLockRelease(r.getOrgId(), r.getProjectId(), r.getLockScope(), r.getLockName()));
+        log.debug("performTask -> {} locks deleted", deleted.size());
     }
 
     @Named
@@ -85,7 +91,7 @@ public class ProcessLocksWatchdog implements ScheduledTask {
             super(cfg);
         }
 
-        public int deleteStalledLocks() {
+        public Result<ProcessLocksRecord> deleteStalledLocks() {
             return txResult(tx -> {
                 ProcessQueue q = PROCESS_QUEUE.as("q");
                 ProcessLocks l = PROCESS_LOCKS.as("l");
@@ -97,7 +103,8 @@ public class ProcessLocksWatchdog implements ScheduledTask {
 
                 return tx.deleteFrom(l)
                         .where(l.INSTANCE_ID.in(finishedProcesses))
-                        .execute();
+                        .returning()
+                        .fetch();
             });
         }
     }
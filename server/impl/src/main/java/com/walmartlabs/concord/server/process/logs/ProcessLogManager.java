@@ -89,6 +89,10 @@ public class ProcessLogManager {
         logsDao.createSegment(tx, SYSTEM_SEGMENT_ID, processKey, null, SYSTEM_SEGMENT_NAME, null);
     }
 
+    public void createSystemSegments(DSLContext tx, List<ProcessKey> processKeys) {
+        logsDao.createSegments(tx, SYSTEM_SEGMENT_ID, processKeys, SYSTEM_SEGMENT_NAME, null);
+    }
+
     public long createSegment(ProcessKey processKey, UUID correlationId, String name, Date createdAt) {
         if (SYSTEM_SEGMENT_NAME.equals(name)) {
             return SYSTEM_SEGMENT_ID;
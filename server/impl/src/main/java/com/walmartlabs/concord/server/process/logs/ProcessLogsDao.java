@@ -96,6 +96,21 @@ public class ProcessLogsDao extends AbstractDao {
                 .execute();
     }
 
+    public void createSegments(DSLContext tx, long segmentId, List<ProcessKey> processKeys, String name, String status) {
+        if (processKeys.isEmpty()) {
+            return;
+        }
+
+        InsertValuesStep7<ProcessLogSegmentsRecord, Long, UUID, Timestamp, UUID, String, Timestamp, String> q = tx.insertInto(PROCESS_LOG_SEGMENTS)
+                .columns(PROCESS_LOG_SEGMENTS.SEGMENT_ID, PROCESS_LOG_SEGMENTS.INSTANCE_ID, PROCESS_LOG_SEGMENTS.INSTANCE_CREATED_AT, PROCESS_LOG_SEGMENTS.CORRELATION_ID, PROCESS_LOG_SEGMENTS.SEGMENT_NAME, PROCESS_LOG_SEGMENTS.SEGMENT_TS, PROCESS_LOG_SEGMENTS.SEGMENT_STATUS);
+
+        for (ProcessKey k : processKeys) {
+            q = q.values(value(segmentId), value(k.getInstanceId()), value(k.getCreatedAt()), val(null, PROCESS_LOG_SEGMENTS.CORRELATION_ID), value(name), currentTimestamp(), value(status));
+        }
+
+        q.execute();
+    }
+
     public void updateSegment(ProcessKey processKey, long segmentId, LogSegment.Status status, Integer warnings, Integer errors) {
         tx(tx -> updateSegment(tx, processKey, segmentId, status, warnings, errors));
     }
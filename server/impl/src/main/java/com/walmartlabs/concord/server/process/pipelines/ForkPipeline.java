@@ -25,6 +25,8 @@ import com.walmartlabs.concord.server.process.pipelines.processors.*;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Handles processes forked from a parent.
@@ -37,24 +39,7 @@ public class ForkPipeline extends Pipeline {
 
     @Inject
     public ForkPipeline(Injector injector) {
-        super(injector,
-                LoggingMDCProcessor.class,
-                PolicyExportProcessor.class,
-                InitialQueueEntryProcessor.class,
-                ForkPolicyProcessor.class,
-                ForkCleanupProcessor.class,
-                SessionTokenProcessor.class,
-                ConfigurationProcessor.class,
-                TagsExtractingProcessor.class,
-                InitiatorUserInfoProcessor.class,
-                OutVariablesSettingProcessor.class,
-                ConfigurationStoringProcessor.class,
-                DependencyVersionsExportProcessor.class,
-                StateImportingProcessor.class,
-                ForkHandlersProcessor.class,
-                ForkRepositoryInfoProcessor.class,
-                RepositoryInfoUpdateProcessor.class,
-                EnqueueingProcessor.class);
+        super(injector, processors(true));
 
         this.exceptionProcessor = injector.getInstance(FailProcessor.class);
         this.finalizerProcessor = injector.getInstance(CleanupProcessor.class);
@@ -69,4 +54,33 @@ public class ForkPipeline extends Pipeline {
     protected FinalizerProcessor getFinalizerProcessor() {
         return finalizerProcessor;
     }
+
+    /**
+     * @param createQueueEntry if {@code false} the initial queue entry must be
+     *                         created before the payload enters the pipeline
+     */
+    @SuppressWarnings("unchecked")
+    static Class<? extends PayloadProcessor>[] processors(boolean createQueueEntry) {
+        List<Class<? extends PayloadProcessor>> l = new ArrayList<>();
+        l.add(LoggingMDCProcessor.class);
+        l.add(PolicyExportProcessor.class);
+        if (createQueueEntry) {
+            l.add(InitialQueueEntryProcessor.class);
+        }
+        l.add(ForkPolicyProcessor.class);
+        l.add(ForkCleanupProcessor.class);
+        l.add(SessionTokenProcessor.class);
+        l.add(ConfigurationProcessor.class);
+        l.add(TagsExtractingProcessor.class);
+        l.add(InitiatorUserInfoProcessor.class);
+        l.add(OutVariablesSettingProcessor.class);
+        l.add(ConfigurationStoringProcessor.class);
+        l.add(DependencyVersionsExportProcessor.class);
+        l.add(StateImportingProcessor.class);
+        l.add(ForkHandlersProcessor.class);
+        l.add(ForkRepositoryInfoProcessor.class);
+        l.add(RepositoryInfoUpdateProcessor.class);
+        l.add(EnqueueingProcessor.class);
+        return l.toArray(new Class[0]);
+    }
 }
@@ -40,6 +40,7 @@ public class NewProcessPipeline extends Pipeline {
         super(injector,
                 LoggingMDCProcessor.class,
                 AuthorizationProcessor.class,
+                StartRatePolicyProcessor.class,
                 AssertWorkspaceArchiveProcessor.class,
                 RequestParametersProcessor.class,
                 PayloadStoreProcessor.class,
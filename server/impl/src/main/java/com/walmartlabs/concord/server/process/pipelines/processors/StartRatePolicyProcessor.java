@@ -0,0 +1,96 @@
+package com.walmartlabs.concord.server.process.pipelines.processors;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.policyengine.CheckResult;
+import com.walmartlabs.concord.policyengine.PolicyEngine;
+import com.walmartlabs.concord.policyengine.StartRatePolicy;
+import com.walmartlabs.concord.policyengine.StartRateRule;
+import com.walmartlabs.concord.server.policy.PolicyManager;
+import com.walmartlabs.concord.server.process.Payload;
+import com.walmartlabs.concord.server.process.ProcessKey;
+import com.walmartlabs.concord.server.process.ProcessStartLimiter;
+import com.walmartlabs.concord.server.process.ProcessThrottledException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import java.text.MessageFormat;
+import java.util.UUID;
+
+/**
+ * Rejects new processes if the org or the project exceeded its start rate.
+ * Must be called before the process' queue entry is created. The start
+ * token is returned back if the rest of the pipeline fails.
+ */
+@Named
+public class StartRatePolicyProcessor implements PayloadProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(StartRatePolicyProcessor.class);
+
+    private static final String DEFAULT_POLICY_MESSAGE = "Too many process starts, retry in {0} ms";
+
+    private static final StartRatePolicy NO_POLICY = new StartRatePolicy(null);
+
+    private final PolicyManager policyManager;
+    private final ProcessStartLimiter limiter;
+
+    @Inject
+    public StartRatePolicyProcessor(PolicyManager policyManager, ProcessStartLimiter limiter) {
+        this.policyManager = policyManager;
+        this.limiter = limiter;
+    }
+
+    @Override
+    public Payload process(Chain chain, Payload payload) {
+        ProcessKey processKey = payload.getProcessKey();
+
+        UUID orgId = payload.getHeader(Payload.ORGANIZATION_ID);
+        UUID projectId = payload.getHeader(Payload.PROJECT_ID);
+        UUID userId = payload.getHeader(Payload.INITIATOR_ID);
+
+        PolicyEngine policy = policyManager.get(orgId, projectId, userId);
+        StartRatePolicy startRatePolicy = policy != null ? policy.getStartRatePolicy() : NO_POLICY;
+
+        ProcessStartLimiter.Permit[] permit = new ProcessStartLimiter.Permit[1];
+        CheckResult<StartRateRule, Long> result = startRatePolicy.check(r -> {
+            permit[0] = limiter.tryAcquire(orgId, projectId, r);
+            return permit[0].retryAfter();
+        });
+        if (!result.getDeny().isEmpty()) {
+            CheckResult.Item<StartRateRule, Long> i = result.getDeny().get(0);
+            long retryAfter = i.getEntity();
+
+            String msg = i.getRule() != null && i.getRule().getMsg() != null ? i.getRule().getMsg() : DEFAULT_POLICY_MESSAGE;
+
+            log.warn("process ['{}'] -> throttled (orgId: {}, projectId: {}), retry after {}ms", processKey, orgId, projectId, retryAfter);
+            throw new ProcessThrottledException(processKey, MessageFormat.format(msg, retryAfter), retryAfter);
+        }
+
+        try {
+            return chain.process(payload);
+        } catch (RuntimeException e) {
+            limiter.release(permit[0]);
+            throw e;
+        }
+    }
+}
@@ -32,6 +32,7 @@ import java.util.stream.Collectors;
 
 import static com.walmartlabs.concord.db.PgUtils.jsonbEq;
 import static com.walmartlabs.concord.db.PgUtils.jsonbText;
+import static org.jooq.impl.DSL.field;
 
 // TODO: replace with FilterUtils and JsonFilter.
 public final class MetadataUtils {
@@ -52,6 +53,7 @@ public final class MetadataUtils {
             switch (f.type()) {
                 case CONTAINS: {
                     q.addConditions(jsonbText(column, f.key()).contains(f.value()));
+                    addTextPrefilter(q, column, f.value());
                     break;
                 }
                 case NOT_CONTAINS: {
@@ -68,6 +70,7 @@ public final class MetadataUtils {
                 }
                 case STARTS_WITH: {
                     q.addConditions(jsonbText(column, f.key()).startsWith(f.value()));
+                    addTextPrefilter(q, column, f.value());
                     break;
                 }
                 case NOT_STARTS_WITH: {
@@ -76,6 +79,7 @@ public final class MetadataUtils {
                 }
                 case ENDS_WITH: {
                     q.addConditions(jsonbText(column, f.key()).endsWith(f.value()));
+                    addTextPrefilter(q, column, f.value());
                     break;
                 }
                 case NOT_ENDS_WITH: {
@@ -86,6 +90,28 @@ public final class MetadataUtils {
         }
     }
 
+    /**
+     * Adds a redundant condition on the whole JSON text which can use
+     * the trigram index on {@code META::text} (IDX_PROC_META_TEXT).
+     * Applicable only to values that look the same in JSON, i.e. without
+     * any characters that must be escaped. Trigrams require at least three
+     * characters.
+     */
+    private static void addTextPrefilter(SelectQuery<Record> q, Field<JSONB> column, String value) {
+        if (value == null || value.length() < 3) {
+            return;
+        }
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\' || c < 0x20) {
+                return;
+            }
+        }
+
+        q.addConditions(field("{0}::text", String.class, column).contains(value));
+    }
+
     private static MetadataFilter parseMetadataFilter(String key, String value) {
         ImmutableMetadataFilter.Builder b = MetadataFilter.builder()
                 .value(value);
@@ -0,0 +1,118 @@
+package com.walmartlabs.concord.server.process.queue;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Position in the list of processes ordered by {@code (CREATED_AT, INSTANCE_ID)}.
+ * Used for keyset pagination, the string form is opaque to the clients.
+ * <p/>
+ * Unlike {@link com.walmartlabs.concord.server.process.ProcessEntry#createdAt()}
+ * the cursor retains the full precision of {@code CREATED_AT}.
+ */
+public final class ProcessCursor {
+
+    private static final char SEPARATOR = '_';
+
+    public static ProcessCursor of(Timestamp createdAt, UUID instanceId) {
+        return new ProcessCursor(createdAt, instanceId);
+    }
+
+    /**
+     * Parses the string form of a cursor.
+     *
+     * @throws IllegalArgumentException if the value is not a valid cursor
+     */
+    public static ProcessCursor parse(String s) {
+        String v;
+        try {
+            v = new String(Base64.getUrlDecoder().decode(s), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + s);
+        }
+
+        int idx = v.indexOf(SEPARATOR);
+        if (idx <= 0) {
+            throw new IllegalArgumentException("Invalid cursor: " + s);
+        }
+
+        try {
+            Timestamp createdAt = Timestamp.from(Instant.parse(v.substring(0, idx)));
+            UUID instanceId = UUID.fromString(v.substring(idx + 1));
+            return new ProcessCursor(createdAt, instanceId);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + s);
+        }
+    }
+
+    private final Timestamp createdAt;
+    private final UUID instanceId;
+
+    private ProcessCursor(Timestamp createdAt, UUID instanceId) {
+        this.createdAt = createdAt;
+        this.instanceId = instanceId;
+    }
+
+    public Timestamp createdAt() {
+        return createdAt;
+    }
+
+    public UUID instanceId() {
+        return instanceId;
+    }
+
+    public String encode() {
+        String v = createdAt.toInstant().toString() + SEPARATOR + instanceId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(v.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ProcessCursor that = (ProcessCursor) o;
+        return createdAt.equals(that.createdAt) && instanceId.equals(that.instanceId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(createdAt, instanceId);
+    }
+
+    @Override
+    public String toString() {
+        return "ProcessCursor{" +
+                "createdAt=" + createdAt +
+                ", instanceId=" + instanceId +
+                '}';
+    }
+}
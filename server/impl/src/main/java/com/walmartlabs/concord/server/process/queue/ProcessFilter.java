@@ -93,6 +93,13 @@ public interface ProcessFilter {
     @Nullable
     Integer offset();
 
+    /**
+     * Return only the processes created before the cursor's position
+     * (keyset pagination). Can't be used with {@link #offset()}.
+     */
+    @Nullable
+    ProcessCursor cursor();
+
     static ImmutableProcessFilter.Builder builder() {
         return ImmutableProcessFilter.builder();
     }
@@ -55,6 +55,8 @@ import static com.walmartlabs.concord.server.jooq.tables.Organizations.ORGANIZAT
 import static com.walmartlabs.concord.server.jooq.tables.ProcessCheckpoints.PROCESS_CHECKPOINTS;
 import static com.walmartlabs.concord.server.jooq.tables.ProcessEvents.PROCESS_EVENTS;
 import static com.walmartlabs.concord.server.jooq.tables.ProcessQueue.PROCESS_QUEUE;
+import static com.walmartlabs.concord.server.jooq.tables.ProcessQueueStats.PROCESS_QUEUE_STATS;
+import static com.walmartlabs.concord.server.jooq.tables.ProcessQueueStatsDeltas.PROCESS_QUEUE_STATS_DELTAS;
 import static com.walmartlabs.concord.server.jooq.tables.Projects.PROJECTS;
 import static org.jooq.impl.DSL.*;
 
@@ -63,6 +65,8 @@ public class ProcessQueueDao extends AbstractDao {
 
     public static final String ENQUEUED_NOW_METRIC = "ENQUEUED_NOW";
 
+    private static final int DEFAULT_PAGE_SIZE = 30;
+
     private static final Set<ProcessDataInclude> DEFAULT_INCLUDES = Collections.singleton(ProcessDataInclude.CHILDREN_IDS);
 
     private static final TypeReference<List<ProcessCheckpointEntry>> LIST_OF_CHECKPOINTS = new TypeReference<List<ProcessCheckpointEntry>>() {
@@ -120,6 +124,46 @@ public class ProcessQueueDao extends AbstractDao {
                 .execute();
     }
 
+    /**
+     * Inserts the specified processes using a single multi-row INSERT.
+     */
+    public void insert(DSLContext tx, List<NewProcess> processes, ProcessStatus status) {
+        if (processes.isEmpty()) {
+            return;
+        }
+
+        InsertValuesStep11<ProcessQueueRecord, UUID, String, UUID, UUID, UUID, Timestamp, UUID, String, Timestamp, JSONB, JSONB> q =
+                tx.insertInto(PROCESS_QUEUE,
+                        PROCESS_QUEUE.INSTANCE_ID,
+                        PROCESS_QUEUE.PROCESS_KIND,
+                        PROCESS_QUEUE.PARENT_INSTANCE_ID,
+                        PROCESS_QUEUE.PROJECT_ID,
+                        PROCESS_QUEUE.REPO_ID,
+                        PROCESS_QUEUE.CREATED_AT,
+                        PROCESS_QUEUE.INITIATOR_ID,
+                        PROCESS_QUEUE.CURRENT_STATUS,
+                        PROCESS_QUEUE.LAST_UPDATED_AT,
+                        PROCESS_QUEUE.META,
+                        PROCESS_QUEUE.TRIGGERED_BY);
+
+        for (NewProcess p : processes) {
+            q = q.values(
+                    val(p.getProcessKey().getInstanceId(), PROCESS_QUEUE.INSTANCE_ID),
+                    val(p.getKind().toString(), PROCESS_QUEUE.PROCESS_KIND),
+                    val(p.getParentInstanceId(), PROCESS_QUEUE.PARENT_INSTANCE_ID),
+                    val(p.getProjectId(), PROCESS_QUEUE.PROJECT_ID),
+                    val(p.getRepoId(), PROCESS_QUEUE.REPO_ID),
+                    val(p.getProcessKey().getCreatedAt(), PROCESS_QUEUE.CREATED_AT),
+                    val(p.getInitiatorId(), PROCESS_QUEUE.INITIATOR_ID),
+                    val(status.toString(), PROCESS_QUEUE.CURRENT_STATUS),
+                    currentTimestamp(),
+                    val(objectMapper.toJSONB(p.getMeta()), PROCESS_QUEUE.META),
+                    val(objectMapper.toJSONB(p.getTriggeredBy()), PROCESS_QUEUE.TRIGGERED_BY));
+        }
+
+        q.execute();
+    }
+
     public void updateAgentId(DSLContext tx, ProcessKey processKey, String agentId, ProcessStatus status) {
         UUID instanceId = processKey.getInstanceId();
 
@@ -284,28 +328,37 @@ public class ProcessQueueDao extends AbstractDao {
     }
 
     public boolean updateStatus(List<ProcessKey> processKeys, List<ProcessStatus> expected, ProcessStatus status) {
-        return txResult(tx -> {
-            List<UUID> instanceIds = processKeys.stream()
-                    .map(PartialProcessKey::getInstanceId)
-                    .collect(Collectors.toList());
+        return txResult(tx -> updateStatus(tx, processKeys, expected, status).size() == processKeys.size());
+    }
 
-            UpdateConditionStep<ProcessQueueRecord> q = tx.update(PROCESS_QUEUE)
-                    .set(PROCESS_QUEUE.CURRENT_STATUS, status.toString())
-                    .set(PROCESS_QUEUE.LAST_UPDATED_AT, currentTimestamp())
-                    .set(PROCESS_QUEUE.LAST_RUN_AT, createRunningAtValue(status))
-                    .where(PROCESS_QUEUE.INSTANCE_ID.in(instanceIds));
+    /**
+     * Updates the status of the specified processes, but only if their current
+     * status is in the {@code expected} list.
+     *
+     * @return IDs of the updated processes
+     */
+    public List<UUID> updateStatus(DSLContext tx, List<ProcessKey> processKeys, List<ProcessStatus> expected, ProcessStatus status) {
+        List<UUID> instanceIds = processKeys.stream()
+                .map(PartialProcessKey::getInstanceId)
+                .collect(Collectors.toList());
 
-            if (expected != null) {
-                List<String> l = expected.stream()
-                        .map(Enum::toString)
-                        .collect(Collectors.toList());
+        UpdateConditionStep<ProcessQueueRecord> q = tx.update(PROCESS_QUEUE)
+                .set(PROCESS_QUEUE.CURRENT_STATUS, status.toString())
+                .set(PROCESS_QUEUE.LAST_UPDATED_AT, currentTimestamp())
+                .set(PROCESS_QUEUE.LAST_RUN_AT, createRunningAtValue(status))
+                .where(PROCESS_QUEUE.INSTANCE_ID.in(instanceIds));
 
-                q.and(PROCESS_QUEUE.CURRENT_STATUS.in(l));
-            }
+        if (expected != null) {
+            List<String> l = expected.stream()
+                    .map(Enum::toString)
+                    .collect(Collectors.toList());
 
-            int i = q.execute();
-            return i == processKeys.size();
-        });
+            q.and(PROCESS_QUEUE.CURRENT_STATUS.in(l));
+        }
+
+        return q.returning(PROCESS_QUEUE.INSTANCE_ID)
+                .fetch()
+                .getValues(PROCESS_QUEUE.INSTANCE_ID);
     }
 
     public void disable(ProcessKey processKey, boolean disabled) {
@@ -450,6 +503,43 @@ public class ProcessQueueDao extends AbstractDao {
         }
     }
 
+    /**
+     * Returns a page of processes ordered by {@code (CREATED_AT, INSTANCE_ID)}
+     * in descending order. Instead of scanning and skipping rows (as with
+     * {@link ProcessFilter#offset()}) the next page starts right after
+     * the returned cursor's position.
+     */
+    public ProcessListPage listPage(ProcessFilter filter) {
+        int limit = filter.limit() != null ? filter.limit() : DEFAULT_PAGE_SIZE;
+
+        try (DSLContext tx = DSL.using(cfg)) {
+            // fetch one extra row to find out if there's a next page
+            SelectQuery<Record> query = buildSelect(tx, ProcessFilter.builder().from(filter)
+                    .limit(limit + 1)
+                    .build());
+
+            query.addOrderBy(PROCESS_QUEUE.CREATED_AT.desc(), PROCESS_QUEUE.INSTANCE_ID.desc());
+
+            Result<Record> rows = query.fetch();
+
+            List<ProcessEntry> items = new ArrayList<>(Math.min(rows.size(), limit));
+            for (int i = 0; i < rows.size() && i < limit; i++) {
+                items.add(toEntry(rows.get(i)));
+            }
+
+            String next = null;
+            if (rows.size() > limit) {
+                Record last = rows.get(limit - 1);
+                next = ProcessCursor.of(last.get(PROCESS_QUEUE.CREATED_AT), last.get(PROCESS_QUEUE.INSTANCE_ID)).encode();
+            }
+
+            return ProcessListPage.builder()
+                    .items(items)
+                    .next(next)
+                    .build();
+        }
+    }
+
     public List<ProcessRequirementsEntry> listRequirements(ProcessStatus processStatus, int limit, int offset) {
         try (DSLContext tx = DSL.using(cfg)) {
             return tx.select(PROCESS_QUEUE.INSTANCE_ID, PROCESS_QUEUE.CREATED_AT, PROCESS_QUEUE.REQUIREMENTS)
@@ -465,6 +555,67 @@ public class ProcessQueueDao extends AbstractDao {
         }
     }
 
+    /**
+     * Returns the number of enqueued, running and recently created processes
+     * grouped by their requirements.
+     *
+     * @param windowSec the period used to count recently created processes (sec)
+     * @param waitTimeBuckets upper bounds of the wait time histogram buckets (sec)
+     */
+    public List<ProcessQueueDemandEntry> getDemand(int windowSec, List<Integer> waitTimeBuckets) {
+        try (DSLContext tx = DSL.using(cfg)) {
+            Field<Timestamp> now = currentTimestamp();
+
+            Condition isEnqueued = PROCESS_QUEUE.CURRENT_STATUS.eq(ProcessStatus.ENQUEUED.name())
+                    .and(PROCESS_QUEUE.START_AT.isNull().or(PROCESS_QUEUE.START_AT.lessOrEqual(now)));
+
+            Condition isRunning = PROCESS_QUEUE.CURRENT_STATUS.in(ProcessStatus.STARTING.name(),
+                    ProcessStatus.RUNNING.name(),
+                    ProcessStatus.RESUMING.name());
+
+            Condition isArrived = PROCESS_QUEUE.CREATED_AT.greaterOrEqual(now.minus(PgUtils.interval(windowSec + " seconds")));
+
+            Field<Long> oldestWaitMs = field("coalesce((extract(epoch from ({0} - {1})) * 1000)::bigint, 0)", Long.class,
+                    now, min(PROCESS_QUEUE.LAST_UPDATED_AT).filterWhere(isEnqueued));
+
+            List<Field<?>> fields = new ArrayList<>();
+            fields.add(PROCESS_QUEUE.REQUIREMENTS);
+            fields.add(count().filterWhere(isEnqueued));
+            fields.add(count().filterWhere(isRunning));
+            fields.add(count().filterWhere(isArrived));
+            fields.add(oldestWaitMs);
+            for (Integer b : waitTimeBuckets) {
+                fields.add(count().filterWhere(isEnqueued
+                        .and(PROCESS_QUEUE.LAST_UPDATED_AT.greaterOrEqual(now.minus(PgUtils.interval(b + " seconds"))))));
+            }
+
+            // the status and CREATED_AT conditions allow PG to use the existing indexes
+            return tx.select(fields)
+                    .from(PROCESS_QUEUE)
+                    .where(PROCESS_QUEUE.CURRENT_STATUS.in(ProcessStatus.ENQUEUED.name(),
+                            ProcessStatus.STARTING.name(),
+                            ProcessStatus.RUNNING.name(),
+                            ProcessStatus.RESUMING.name())
+                            .or(isArrived))
+                    .groupBy(PROCESS_QUEUE.REQUIREMENTS)
+                    .fetch(r -> {
+                        List<Integer> histogram = new ArrayList<>(waitTimeBuckets.size());
+                        for (int i = 0; i < waitTimeBuckets.size(); i++) {
+                            histogram.add(r.get(5 + i, Integer.class));
+                        }
+
+                        return ProcessQueueDemandEntry.builder()
+                                .requirements(objectMapper.fromJSONB(r.get(PROCESS_QUEUE.REQUIREMENTS)))
+                                .enqueued(r.get(1, Integer.class))
+                                .running(r.get(2, Integer.class))
+                                .arrived(r.get(3, Integer.class))
+                                .oldestWaitMs(r.get(4, Long.class))
+                                .waitTimeHistogram(histogram)
+                                .build();
+                    });
+        }
+    }
+
     public int count(ProcessFilter filter) {
         try (DSLContext tx = DSL.using(cfg)) {
             SelectQuery<Record> query = buildSelect(tx, filter);
@@ -473,17 +624,83 @@ public class ProcessQueueDao extends AbstractDao {
         }
     }
 
+    /**
+     * Returns the number of processes matching the filter as estimated by
+     * the DB's query planner. The matching rows are not scanned, so the
+     * value can be off, but the cost doesn't depend on the number of rows.
+     */
+    @SuppressWarnings("unchecked")
+    public int estimateCount(ProcessFilter filter) {
+        try (DSLContext tx = DSL.using(cfg)) {
+            SelectQuery<Record> query = buildSelect(tx, filter);
+            String plan = tx.resultQuery("explain (format json) {0}", query)
+                    .fetchOne(0, String.class);
+
+            List<Map<String, Object>> l = objectMapper.fromString(plan, List.class);
+            if (l == null || l.isEmpty()) {
+                return 0;
+            }
+
+            Map<String, Object> root = (Map<String, Object>) l.get(0).get("Plan");
+            Number rows = root != null ? (Number) root.get("Plan Rows") : null;
+            return rows != null ? rows.intValue() : 0;
+        }
+    }
+
+    /**
+     * Returns the number of processes in each status. The values are read
+     * from the trigger-maintained {@code PROCESS_QUEUE_STATS} table (plus
+     * any pending deltas), so the queue table itself is not scanned.
+     * <p/>
+     * The counters and the deltas are read in a single statement, i.e. using
+     * the same snapshot, otherwise a concurrent {@link #foldStatisticsDeltas()}
+     * could be counted twice or not at all.
+     */
     public Map<String, Integer> getStatistics() {
         try (DSLContext tx = DSL.using(cfg)) {
-            return tx.select(PROCESS_QUEUE.CURRENT_STATUS, DSL.count(asterisk())).from(PROCESS_QUEUE)
-                    .groupBy(PROCESS_QUEUE.CURRENT_STATUS)
-                    .union(select(value(ENQUEUED_NOW_METRIC), DSL.count(asterisk())).from(PROCESS_QUEUE)
-                            .where(PROCESS_QUEUE.CURRENT_STATUS.eq(ProcessStatus.ENQUEUED.name()))
-                            .and(or(PROCESS_QUEUE.START_AT.isNull(), PROCESS_QUEUE.START_AT.lessOrEqual(currentTimestamp()))))
-                    .fetchMap(Record2::value1, Record2::value2);
+            Map<String, Integer> result = new HashMap<>();
+
+            Table<Record2<String, Long>> s = select(PROCESS_QUEUE_STATS.CURRENT_STATUS, PROCESS_QUEUE_STATS.PROCESS_COUNT)
+                    .from(PROCESS_QUEUE_STATS)
+                    .unionAll(select(PROCESS_QUEUE_STATS_DELTAS.CURRENT_STATUS, PROCESS_QUEUE_STATS_DELTAS.DELTA)
+                            .from(PROCESS_QUEUE_STATS_DELTAS))
+                    .asTable("s");
+
+            Field<String> status = s.field(PROCESS_QUEUE_STATS.CURRENT_STATUS);
+            Field<Long> count = s.field(PROCESS_QUEUE_STATS.PROCESS_COUNT);
+
+            tx.select(status, sum(count))
+                    .from(s)
+                    .groupBy(status)
+                    .forEach(r -> result.put(r.value1(), r.value2().intValue()));
+
+            // depends on the current time, can't be maintained incrementally.
+            // Uses the partial index on ENQUEUED processes
+            int enqueuedNow = tx.selectCount()
+                    .from(PROCESS_QUEUE)
+                    .where(PROCESS_QUEUE.CURRENT_STATUS.eq(ProcessStatus.ENQUEUED.name()))
+                    .and(or(PROCESS_QUEUE.START_AT.isNull(), PROCESS_QUEUE.START_AT.lessOrEqual(currentTimestamp())))
+                    .fetchOne(0, int.class);
+            result.put(ENQUEUED_NOW_METRIC, enqueuedNow);
+
+            return result;
         }
     }
 
+    /**
+     * Folds the accumulated status count changes into {@code PROCESS_QUEUE_STATS}.
+     *
+     * @return number of folded changes
+     */
+    public int foldStatisticsDeltas() {
+        return txResult(tx -> tx.resultQuery("with D as (delete from PROCESS_QUEUE_STATS_DELTAS returning CURRENT_STATUS, DELTA), " +
+                "S as (insert into PROCESS_QUEUE_STATS (CURRENT_STATUS, PROCESS_COUNT) " +
+                "select CURRENT_STATUS, sum(DELTA) from D group by CURRENT_STATUS " +
+                "on conflict (CURRENT_STATUS) do update set PROCESS_COUNT = PROCESS_QUEUE_STATS.PROCESS_COUNT + excluded.PROCESS_COUNT) " +
+                "select count(*) from D")
+                .fetchOne(0, int.class));
+    }
+
     // TODO move to EventDao?
     public List<ProcessStatusHistoryEntry> getHistory(ProcessKey processKey) {
         try (DSLContext tx = DSL.using(cfg)) {
@@ -711,6 +928,12 @@ public class ProcessQueueDao extends AbstractDao {
             query.addLimit(limit);
         }
 
+        ProcessCursor cursor = filter.cursor();
+        if (cursor != null) {
+            query.addConditions(row(PROCESS_QUEUE.CREATED_AT, PROCESS_QUEUE.INSTANCE_ID)
+                    .lessThan(cursor.createdAt(), cursor.instanceId()));
+        }
+
         Integer offset = filter.offset();
         if (offset != null && offset > 0) {
             query.addOffset(offset);
@@ -854,6 +1077,63 @@ public class ProcessQueueDao extends AbstractDao {
         }
     }
 
+    public static class NewProcess {
+
+        private final ProcessKey processKey;
+        private final ProcessKind kind;
+        private final UUID parentInstanceId;
+        private final UUID projectId;
+        private final UUID repoId;
+        private final UUID initiatorId;
+        private final Map<String, Object> meta;
+        private final TriggeredByEntry triggeredBy;
+
+        public NewProcess(ProcessKey processKey, ProcessKind kind, UUID parentInstanceId, UUID projectId,
+                          UUID repoId, UUID initiatorId, Map<String, Object> meta, TriggeredByEntry triggeredBy) {
+
+            this.processKey = processKey;
+            this.kind = kind;
+            this.parentInstanceId = parentInstanceId;
+            this.projectId = projectId;
+            this.repoId = repoId;
+            this.initiatorId = initiatorId;
+            this.meta = meta;
+            this.triggeredBy = triggeredBy;
+        }
+
+        public ProcessKey getProcessKey() {
+            return processKey;
+        }
+
+        public ProcessKind getKind() {
+            return kind;
+        }
+
+        public UUID getParentInstanceId() {
+            return parentInstanceId;
+        }
+
+        public UUID getProjectId() {
+            return projectId;
+        }
+
+        public UUID getRepoId() {
+            return repoId;
+        }
+
+        public UUID getInitiatorId() {
+            return initiatorId;
+        }
+
+        public Map<String, Object> getMeta() {
+            return meta;
+        }
+
+        public TriggeredByEntry getTriggeredBy() {
+            return triggeredBy;
+        }
+    }
+
     public static class ProjectIdAndInitiator {
 
         private final UUID projectId;
@@ -0,0 +1,56 @@
+package com.walmartlabs.concord.server.process.queue;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.immutables.value.Value;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Aggregated demand for agents, grouped by process requirements.
+ */
+@Value.Immutable
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonSerialize(as = ImmutableProcessQueueDemand.class)
+@JsonDeserialize(as = ImmutableProcessQueueDemand.class)
+public interface ProcessQueueDemand extends Serializable {
+
+    /**
+     * The period used to calculate {@link ProcessQueueDemandEntry#arrived()} (sec).
+     */
+    int windowSec();
+
+    /**
+     * Upper bounds of the wait time histogram buckets (sec).
+     * See {@link ProcessQueueDemandEntry#waitTimeHistogram()}.
+     */
+    List<Integer> waitTimeBuckets();
+
+    List<ProcessQueueDemandEntry> entries();
+
+    static ImmutableProcessQueueDemand.Builder builder() {
+        return ImmutableProcessQueueDemand.builder();
+    }
+}
@@ -0,0 +1,72 @@
+package com.walmartlabs.concord.server.process.queue;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.immutables.value.Value;
+
+import javax.annotation.Nullable;
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+@Value.Immutable
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonSerialize(as = ImmutableProcessQueueDemandEntry.class)
+@JsonDeserialize(as = ImmutableProcessQueueDemandEntry.class)
+public interface ProcessQueueDemandEntry extends Serializable {
+
+    @Nullable
+    Map<String, Object> requirements();
+
+    /**
+     * Number of processes waiting for an agent.
+     */
+    int enqueued();
+
+    /**
+     * Number of processes currently occupying an agent
+     * (STARTING, RUNNING or RESUMING).
+     */
+    int running();
+
+    /**
+     * Number of processes created within the requested window.
+     */
+    int arrived();
+
+    /**
+     * Wait time of the oldest enqueued process (ms).
+     */
+    long oldestWaitMs();
+
+    /**
+     * Cumulative number of enqueued processes with the wait time less than
+     * or equal to the corresponding {@link ProcessQueueDemand#waitTimeBuckets()} value.
+     */
+    List<Integer> waitTimeHistogram();
+
+    static ImmutableProcessQueueDemandEntry.Builder builder() {
+        return ImmutableProcessQueueDemandEntry.builder();
+    }
+}
@@ -20,6 +20,7 @@ package com.walmartlabs.concord.server.process.queue;
  * =====
  */
 
+import com.walmartlabs.concord.db.AbstractDao;
 import com.walmartlabs.concord.imports.Imports;
 import com.walmartlabs.concord.process.loader.model.ProcessDefinition;
 import com.walmartlabs.concord.sdk.Constants;
@@ -48,19 +49,22 @@ public class ProcessQueueManager {
     private final ProcessKeyCache keyCache;
     private final ProcessEventManager eventManager;
     private final ProcessLogManager processLogManager;
+    private final ProcessWaitNotifier waitNotifier;
 
     @Inject
     public ProcessQueueManager(ProcessQueueDao queueDao,
                                ConcordObjectMapper objectMapper,
                                ProcessKeyCache keyCache,
                                ProcessEventManager eventManager,
-                               ProcessLogManager processLogManager) {
+                               ProcessLogManager processLogManager,
+                               ProcessWaitNotifier waitNotifier) {
 
         this.queueDao = queueDao;
         this.eventManager = eventManager;
         this.objectMapper = objectMapper;
         this.keyCache = keyCache;
         this.processLogManager = processLogManager;
+        this.waitNotifier = waitNotifier;
     }
 
     /**
@@ -84,6 +88,33 @@ public class ProcessQueueManager {
         });
     }
 
+    /**
+     * Creates the initial queue records for the specified process payloads
+     * in a single transaction using multi-row inserts.
+     */
+    public void insertBatch(List<Payload> payloads, ProcessStatus status) {
+        List<ProcessKey> processKeys = new ArrayList<>(payloads.size());
+        List<ProcessQueueDao.NewProcess> processes = new ArrayList<>(payloads.size());
+        for (Payload payload : payloads) {
+            ProcessKey processKey = payload.getProcessKey();
+            processKeys.add(processKey);
+            processes.add(new ProcessQueueDao.NewProcess(processKey,
+                    payload.getHeader(Payload.PROCESS_KIND, ProcessKind.DEFAULT),
+                    payload.getHeader(Payload.PARENT_INSTANCE_ID),
+                    payload.getHeader(Payload.PROJECT_ID),
+                    payload.getHeader(Payload.REPOSITORY_ID),
+                    payload.getHeader(Payload.INITIATOR_ID),
+                    getMeta(getCfg(payload)),
+                    payload.getHeader(Payload.TRIGGERED_BY)));
+        }
+
+        queueDao.tx(tx -> {
+            queueDao.insert(tx, processes, status);
+            eventManager.insertStatusHistory(tx, processKeys, status);
+            processLogManager.createSystemSegments(tx, processKeys);
+        });
+    }
+
     /**
      * Updates the existing record, moving the process into the ENQUEUED status.
      */
@@ -133,15 +164,16 @@ public class ProcessQueueManager {
      * @see #updateStatus(DSLContext, ProcessKey, ProcessStatus, Map)
      */
     public void updateStatus(ProcessKey processKey, ProcessStatus status, Map<String, Object> statusPayload) {
-        queueDao.tx(tx -> updateStatus(tx, processKey, status, statusPayload));
+        queueDao.tx(tx -> doUpdateStatus(tx, processKey, status, statusPayload));
+        waitNotifier.onStatusChange(processKey.getInstanceId(), status);
     }
 
     /**
      * Updates the process' status. Adds a process status history event with an optional {@code statusPayload}.
      */
     public void updateStatus(DSLContext tx, ProcessKey processKey, ProcessStatus status, Map<String, Object> statusPayload) {
-        queueDao.updateStatus(tx, processKey, status);
-        eventManager.insertStatusHistory(tx, processKey, status, statusPayload);
+        doUpdateStatus(tx, processKey, status, statusPayload);
+        AbstractDao.afterCommit(tx, () -> waitNotifier.onStatusChange(processKey.getInstanceId(), status));
     }
 
     /**
@@ -150,11 +182,17 @@ public class ProcessQueueManager {
      * @return {@code true} if the process was updated
      */
     public boolean updateExpectedStatus(ProcessKey processKey, ProcessStatus expected, ProcessStatus status) {
-        return queueDao.txResult(tx -> {
-            boolean success = queueDao.updateStatus(tx, processKey, expected, status);
+        boolean success = queueDao.txResult(tx -> {
+            boolean updated = queueDao.updateStatus(tx, processKey, expected, status);
             eventManager.insertStatusHistory(tx, processKey, status, Collections.emptyMap());
-            return success;
+            return updated;
         });
+
+        if (success) {
+            waitNotifier.onStatusChange(processKey.getInstanceId(), status);
+        }
+
+        return success;
     }
 
     /**
@@ -164,44 +202,47 @@ public class ProcessQueueManager {
      * @return {@code true} if every processes was updated
      */
     public boolean updateExpectedStatus(List<ProcessKey> processKeys, List<ProcessStatus> expected, ProcessStatus status) {
-        return queueDao.txResult(tx -> {
-            boolean success = queueDao.updateStatus(processKeys, expected, status);
+        List<UUID> updated = queueDao.txResult(tx -> {
+            List<UUID> result = queueDao.updateStatus(tx, processKeys, expected, status);
             eventManager.insertStatusHistory(tx, processKeys, status);
-            return success;
+            return result;
         });
+
+        updated.forEach(id -> waitNotifier.onStatusChange(id, status));
+
+        return updated.size() == processKeys.size();
     }
 
     /**
      * @see #updateAgentId(DSLContext, ProcessKey, String, ProcessStatus)
      */
     public void updateAgentId(ProcessKey processKey, String agentId, ProcessStatus status) {
-        queueDao.tx(tx -> updateAgentId(tx, processKey, agentId, status));
+        queueDao.tx(tx -> doUpdateAgentId(tx, processKey, agentId, status));
+        waitNotifier.onStatusChange(processKey.getInstanceId(), status);
     }
 
     /**
      * Updates the process' agent ID and status.
      */
     public void updateAgentId(DSLContext tx, ProcessKey processKey, String agentId, ProcessStatus status) {
-        queueDao.updateAgentId(tx, processKey, agentId, status);
-        eventManager.insertStatusHistory(tx, processKey, status, Collections.emptyMap());
+        doUpdateAgentId(tx, processKey, agentId, status);
+        AbstractDao.afterCommit(tx, () -> waitNotifier.onStatusChange(processKey.getInstanceId(), status));
     }
 
     /**
      * @see #updateWait(DSLContext, ProcessKey, AbstractWaitCondition)
      */
     public void updateWait(ProcessKey key, AbstractWaitCondition wait) {
-        queueDao.tx(tx -> updateWait(tx, key, wait));
+        queueDao.tx(tx -> doUpdateWait(tx, key, wait));
+        waitNotifier.onWaitChange(key.getInstanceId(), wait);
     }
 
     /**
      * Updates the process' wait conditions. Adds a wait condition history event.
      */
     public void updateWait(DSLContext tx, ProcessKey processKey, AbstractWaitCondition wait) {
-        queueDao.updateWait(tx, processKey, wait);
-
-        Map<String, Object> eventData = objectMapper.convertToMap(wait != null ? wait : new NoneCondition());
-        ProcessEvent e = new ProcessEvent(processKey, EventType.PROCESS_WAIT.name(), null, eventData);
-        eventManager.event(tx, Collections.singletonList(e));
+        doUpdateWait(tx, processKey, wait);
+        AbstractDao.afterCommit(tx, () -> waitNotifier.onWaitChange(processKey.getInstanceId(), wait));
     }
 
     /**
@@ -219,6 +260,10 @@ public class ProcessQueueManager {
         return queueDao.get(key);
     }
 
+    public ProcessStatus getStatus(PartialProcessKey processKey) {
+        return queueDao.getStatus(processKey);
+    }
+
     public ProcessInitiatorEntry getInitiator(PartialProcessKey partialProcessKey) {
         ProcessKey key = keyCache.get(partialProcessKey.getInstanceId());
         if (key == null) {
@@ -236,6 +281,24 @@ public class ProcessQueueManager {
         return queueDao.get(key, includes);
     }
 
+    private void doUpdateStatus(DSLContext tx, ProcessKey processKey, ProcessStatus status, Map<String, Object> statusPayload) {
+        queueDao.updateStatus(tx, processKey, status);
+        eventManager.insertStatusHistory(tx, processKey, status, statusPayload);
+    }
+
+    private void doUpdateAgentId(DSLContext tx, ProcessKey processKey, String agentId, ProcessStatus status) {
+        queueDao.updateAgentId(tx, processKey, agentId, status);
+        eventManager.insertStatusHistory(tx, processKey, status, Collections.emptyMap());
+    }
+
+    private void doUpdateWait(DSLContext tx, ProcessKey processKey, AbstractWaitCondition wait) {
+        queueDao.updateWait(tx, processKey, wait);
+
+        Map<String, Object> eventData = objectMapper.convertToMap(wait != null ? wait : new NoneCondition());
+        ProcessEvent e = new ProcessEvent(processKey, EventType.PROCESS_WAIT.name(), null, eventData);
+        eventManager.event(tx, Collections.singletonList(e));
+    }
+
     private static Map<String, Object> getCfg(Payload payload) {
         return payload.getHeader(Payload.CONFIGURATION, Collections.emptyMap());
     }
@@ -0,0 +1,59 @@
+package com.walmartlabs.concord.server.process.queue;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.sdk.ScheduledTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+/**
+ * Folds the process status count changes recorded by the {@code PROCESS_QUEUE}
+ * triggers into the {@code PROCESS_QUEUE_STATS} table. Keeps the number of
+ * pending changes small, so {@link ProcessQueueDao#getStatistics()} stays cheap.
+ */
+@Named("process-queue-stats-compactor")
+@Singleton
+public class ProcessQueueStatsCompactor implements ScheduledTask {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessQueueStatsCompactor.class);
+
+    private final ProcessQueueDao queueDao;
+
+    @Inject
+    public ProcessQueueStatsCompactor(ProcessQueueDao queueDao) {
+        this.queueDao = queueDao;
+    }
+
+    @Override
+    public long getIntervalInSec() {
+        return 10;
+    }
+
+    @Override
+    public void performTask() {
+        int count = queueDao.foldStatisticsDeltas();
+        log.debug("performTask -> {} changes folded", count);
+    }
+}
@@ -0,0 +1,309 @@
+package com.walmartlabs.concord.server.process.queue;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.db.AbstractDao;
+import com.walmartlabs.concord.db.MainDB;
+import com.walmartlabs.concord.server.ConcordObjectMapper;
+import com.walmartlabs.concord.server.Locks;
+import com.walmartlabs.concord.server.cfg.ProcessWaitWatchdogConfiguration;
+import com.walmartlabs.concord.server.jooq.enums.ProcessLockScope;
+import com.walmartlabs.concord.server.jooq.tables.ProcessQueue;
+import com.walmartlabs.concord.server.process.ProcessKey;
+import com.walmartlabs.concord.server.process.queue.ProcessWaitNotifier.Event;
+import com.walmartlabs.concord.server.process.queue.ProcessWaitNotifier.LockKey;
+import com.walmartlabs.concord.server.sdk.BackgroundTask;
+import com.walmartlabs.concord.server.sdk.ProcessStatus;
+import org.immutables.value.Value;
+import org.jooq.Configuration;
+import org.jooq.DSLContext;
+import org.jooq.JSONB;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.sql.Timestamp;
+import java.util.*;
+
+import static com.walmartlabs.concord.server.jooq.tables.ProcessQueue.PROCESS_QUEUE;
+import static org.jooq.impl.DSL.condition;
+import static org.jooq.impl.DSL.field;
+
+/**
+ * Resolves process wait conditions as soon as the awaited event happens:
+ * a process is finished, a lock is released or a sleep timer is expired.
+ * The waiting processes are found using the GIN index on
+ * {@code PROCESS_QUEUE.WAIT_CONDITIONS}, i.e. it works as a reverse
+ * "awaited by" index.
+ * <p/>
+ * The processing of a single waiting process is serialized using DB
+ * advisory locks, so it is safe to run the event-driven path and
+ * {@link ProcessWaitWatchdog} at the same time on multiple server instances.
+ */
+@Named
+@Singleton
+public class ProcessWaitManager implements BackgroundTask {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessWaitManager.class);
+
+    private final ProcessWaitWatchdogConfiguration cfg;
+    private final ProcessWaitNotifier notifier;
+    private final WaitDao dao;
+    private final ProcessQueueManager queueManager;
+    private final Map<WaitType, ProcessWaitHandler<AbstractWaitCondition>> processWaitHandlers;
+
+    private Thread worker;
+
+    @Inject
+    @SuppressWarnings("unchecked")
+    public ProcessWaitManager(ProcessWaitWatchdogConfiguration cfg,
+                              ProcessWaitNotifier notifier,
+                              WaitDao dao,
+                              ProcessQueueManager queueManager,
+                              Set<ProcessWaitHandler> handlers) {
+
+        this.cfg = cfg;
+        this.notifier = notifier;
+        this.dao = dao;
+        this.queueManager = queueManager;
+        this.processWaitHandlers = new HashMap<>();
+
+        handlers.forEach(h -> this.processWaitHandlers.put(h.getType(), h));
+    }
+
+    @Override
+    public void start() {
+        this.worker = new Thread(this::run, "process-wait-events");
+        this.worker.start();
+    }
+
+    @Override
+    public void stop() {
+        if (worker != null) {
+            worker.interrupt();
+            worker = null;
+        }
+    }
+
+    /**
+     * Checks the process' current wait conditions and calls the appropriate
+     * handler.
+     *
+     * @return {@code true} if the process has no wait conditions after the check
+     */
+    public boolean process(UUID instanceId) {
+        return dao.withWaitLock(instanceId, p -> {
+            if (p == null) {
+                return true;
+            }
+
+            return processHandler(p) == null;
+        });
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Event e;
+            try {
+                e = notifier.take();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            try {
+                handle(e);
+            } catch (Exception ex) {
+                log.warn("run -> error while processing {}: {}", e, ex.getMessage(), ex);
+            }
+        }
+    }
+
+    private void handle(Event e) {
+        switch (e.type()) {
+            case PROCESS_FINISHED: {
+                // every process waiting for the finished one
+                List<UUID> ids = dao.findWaiting(completionPattern(e.instanceId()), cfg.getPollLimit());
+                ids.forEach(this::process);
+                break;
+            }
+            case LOCK_RELEASED: {
+                // the waiting processes are checked in the order of their arrival
+                // until one of them acquires the lock
+                List<UUID> ids = dao.findWaiting(lockPattern(e.lock()), cfg.getPollLimit());
+                for (UUID id : ids) {
+                    if (process(id)) {
+                        break;
+                    }
+                }
+                break;
+            }
+            case WAIT_CHANGED: {
+                process(e.instanceId());
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown event type: " + e.type());
+        }
+    }
+
+    private AbstractWaitCondition processHandler(WaitingProcess p) {
+        WaitType type = p.waits().type();
+
+        ProcessWaitHandler<AbstractWaitCondition> handler = processWaitHandlers.get(type);
+        if (handler == null) {
+            log.warn("processHandler ['{}'] -> handler '{}' not found", p.instanceId(), type);
+            return p.waits();
+        }
+
+        if (!handler.getProcessStatuses().contains(p.status())) {
+            // clear wait conditions for finished processes
+            if (ProcessWaitNotifier.FINAL_STATUSES.contains(p.status())) {
+                queueManager.updateWait(new ProcessKey(p.instanceId(), p.instanceCreatedAt()), null);
+                return null;
+            }
+            return p.waits();
+        }
+
+        try {
+            AbstractWaitCondition originalWaits = p.waits();
+            AbstractWaitCondition processedWaits = handler.process(p.instanceId(), p.status(), originalWaits);
+            if (!originalWaits.equals(processedWaits)) {
+                queueManager.updateWait(new ProcessKey(p.instanceId(), p.instanceCreatedAt()), processedWaits);
+            }
+            return processedWaits;
+        } catch (Exception e) {
+            log.info("processHandler ['{}', '{}'] -> error", type, p, e);
+            return p.waits();
+        }
+    }
+
+    private static Map<String, Object> completionPattern(UUID instanceId) {
+        Map<String, Object> m = new HashMap<>();
+        m.put("type", WaitType.PROCESS_COMPLETION.name());
+        m.put("processes", Collections.singletonList(instanceId.toString()));
+        return m;
+    }
+
+    private static Map<String, Object> lockPattern(LockKey lock) {
+        Map<String, Object> m = new HashMap<>();
+        m.put("type", WaitType.PROCESS_LOCK.name());
+        m.put("scope", lock.scope().name());
+        m.put("name", lock.name());
+
+        if (lock.scope() == ProcessLockScope.ORG) {
+            m.put("orgId", lock.orgId().toString());
+        } else {
+            m.put("projectId", lock.projectId().toString());
+        }
+
+        return m;
+    }
+
+    @Value.Immutable
+    interface WaitingProcess {
+
+        UUID instanceId();
+
+        ProcessStatus status();
+
+        Timestamp instanceCreatedAt();
+
+        long id();
+
+        AbstractWaitCondition waits();
+
+        static ImmutableWaitingProcess.Builder builder() {
+            return ImmutableWaitingProcess.builder();
+        }
+    }
+
+    interface WaitCallback {
+
+        boolean call(WaitingProcess p);
+    }
+
+    @Named
+    private static final class WaitDao extends AbstractDao {
+
+        private final ConcordObjectMapper objectMapper;
+        private final Locks locks;
+
+        @Inject
+        public WaitDao(@MainDB Configuration cfg, ConcordObjectMapper objectMapper, Locks locks) {
+            super(cfg);
+
+            this.objectMapper = objectMapper;
+            this.locks = locks;
+        }
+
+        /**
+         * Returns IDs of the processes with wait conditions matching (containing)
+         * the specified pattern. Uses the GIN index.
+         */
+        public List<UUID> findWaiting(Map<String, Object> pattern, int limit) {
+            JSONB p = objectMapper.toJSONB(pattern);
+            return txResult(tx -> {
+                ProcessQueue q = PROCESS_QUEUE.as("q");
+                return tx.select(q.INSTANCE_ID)
+                        .from(q)
+                        .where(condition("{0} @> {1}", q.WAIT_CONDITIONS, field("?::jsonb", JSONB.class, p)))
+                        .orderBy(q.ID_SEQ)
+                        .limit(limit)
+                        .fetch(q.INSTANCE_ID);
+            });
+        }
+
+        /**
+         * Calls the callback with the process' current wait conditions while
+         * holding the process' wait lock. The callback receives {@code null}
+         * if the process has no wait conditions.
+         */
+        public boolean withWaitLock(UUID instanceId, WaitCallback callback) {
+            return txResult(tx -> {
+                locks.lock(tx, "process-wait-" + instanceId);
+                return callback.call(get(tx, instanceId));
+            });
+        }
+
+        private WaitingProcess get(DSLContext tx, UUID instanceId) {
+            ProcessQueue q = PROCESS_QUEUE.as("q");
+            return tx.select(
+                    q.INSTANCE_ID,
+                    q.CURRENT_STATUS,
+                    q.CREATED_AT,
+                    q.ID_SEQ,
+                    q.WAIT_CONDITIONS)
+                    .from(q)
+                    .where(q.INSTANCE_ID.eq(instanceId)
+                            .and(q.WAIT_CONDITIONS.isNotNull()))
+                    .fetchOne(r -> WaitingProcess.builder()
+                            .instanceId(r.value1())
+                            .status(ProcessStatus.valueOf(r.value2()))
+                            .instanceCreatedAt(r.value3())
+                            .id(r.value4())
+                            .waits(objectMapper.fromJSONB(r.value5(), AbstractWaitCondition.class))
+                            .build());
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.walmartlabs.concord.server.process.queue;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.cfg.ProcessWaitWatchdogConfiguration;
+import com.walmartlabs.concord.server.jooq.enums.ProcessLockScope;
+import com.walmartlabs.concord.server.sdk.ProcessStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.*;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects the events that may resolve process wait conditions: finished
+ * processes, released locks, updated wait conditions and sleep timers.
+ * The events are consumed by {@link ProcessWaitManager}.
+ * <p/>
+ * The events are local to the current server instance. Any events that
+ * were dropped or produced on other instances are picked up by
+ * {@link ProcessWaitWatchdog}. Sleep timers that expire later than
+ * the next periodic check are left to the periodic check as well, so
+ * they don't occupy the event queue.
+ * <p/>
+ * Changes made in a transaction must be reported after the transaction
+ * is committed, see {@link com.walmartlabs.concord.db.AbstractDao#afterCommit(org.jooq.DSLContext, Runnable)}.
+ */
+@Named
+@Singleton
+public class ProcessWaitNotifier {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessWaitNotifier.class);
+
+    static final Set<ProcessStatus> FINAL_STATUSES = new HashSet<>(Arrays.asList(
+            ProcessStatus.FINISHED,
+            ProcessStatus.FAILED,
+            ProcessStatus.CANCELLED,
+            ProcessStatus.TIMED_OUT));
+
+    private final int maxQueueSize;
+    private final long maxTimerDelay;
+    private final DelayQueue<Event> queue = new DelayQueue<>();
+    private final AtomicLong dropped = new AtomicLong();
+
+    @Inject
+    public ProcessWaitNotifier(ProcessWaitWatchdogConfiguration cfg) {
+        this.maxQueueSize = cfg.getEventQueueSize();
+        this.maxTimerDelay = TimeUnit.SECONDS.toMillis(cfg.getPeriod());
+    }
+
+    /**
+     * Notifies the processes waiting for the specified process if
+     * the new status is final.
+     */
+    public void onStatusChange(UUID instanceId, ProcessStatus status) {
+        if (!FINAL_STATUSES.contains(status)) {
+            return;
+        }
+
+        offer(new Event(EventType.PROCESS_FINISHED, instanceId, null, 0));
+    }
+
+    /**
+     * Schedules a check of the process' new wait condition. Sleep conditions
+     * are checked when the sleep expires.
+     */
+    public void onWaitChange(UUID instanceId, AbstractWaitCondition wait) {
+        if (wait == null) {
+            return;
+        }
+
+        long delay = 0;
+        if (wait instanceof ProcessSleepCondition) {
+            long until = ((ProcessSleepCondition) wait).until().getTime();
+            delay = Math.max(0, until - System.currentTimeMillis());
+            if (delay > maxTimerDelay) {
+                // the periodic check will handle it
+                return;
+            }
+        }
+
+        offer(new Event(EventType.WAIT_CHANGED, instanceId, null, delay));
+    }
+
+    /**
+     * Notifies the processes waiting for the specified lock.
+     */
+    public void onLockRelease(UUID orgId, UUID projectId, ProcessLockScope scope, String name) {
+        offer(new Event(EventType.LOCK_RELEASED, null, new LockKey(orgId, projectId, scope, name), 0));
+    }
+
+    Event take() throws InterruptedException {
+        long d = dropped.getAndSet(0);
+        if (d > 0) {
+            log.warn("take -> the queue is full, {} events were dropped", d);
+        }
+
+        return queue.take();
+    }
+
+    int size() {
+        return queue.size();
+    }
+
+    private void offer(Event e) {
+        if (queue.size() >= maxQueueSize) {
+            dropped.incrementAndGet();
+            return;
+        }
+
+        queue.offer(e);
+    }
+
+    enum EventType {
+        PROCESS_FINISHED,
+        WAIT_CHANGED,
+        LOCK_RELEASED
+    }
+
+    static final class Event implements Delayed {
+
+        private final EventType type;
+        private final UUID instanceId;
+        private final LockKey lock;
+        private final long dueAt;
+
+        private Event(EventType type, UUID instanceId, LockKey lock, long delay) {
+            this.type = type;
+            this.instanceId = instanceId;
+            this.lock = lock;
+            this.dueAt = System.currentTimeMillis() + delay;
+        }
+
+        public EventType type() {
+            return type;
+        }
+
+        public UUID instanceId() {
+            return instanceId;
+        }
+
+        public LockKey lock() {
+            return lock;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAt - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed o) {
+            return Long.compare(dueAt, ((Event) o).dueAt);
+        }
+
+        @Override
+        public String toString() {
+            return "Event{" +
+                    "type=" + type +
+                    ", instanceId=" + instanceId +
+                    ", lock=" + lock +
+                    '}';
+        }
+    }
+
+    static final class LockKey {
+
+        private final UUID orgId;
+        private final UUID projectId;
+        private final ProcessLockScope scope;
+        private final String name;
+
+        private LockKey(UUID orgId, UUID projectId, ProcessLockScope scope, String name) {
+            this.orgId = orgId;
+            this.projectId = projectId;
+            this.scope = scope;
+            this.name = name;
+        }
+
+        public UUID orgId() {
+            return orgId;
+        }
+
+        public UUID projectId() {
+            return projectId;
+        }
+
+        public ProcessLockScope scope() {
+            return scope;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public String toString() {
+            return "LockKey{" +
+                    "orgId=" + orgId +
+                    ", projectId=" + projectId +
+                    ", scope=" + scope +
+                    ", name='" + name + '\'' +
+                    '}';
+        }
+    }
+}
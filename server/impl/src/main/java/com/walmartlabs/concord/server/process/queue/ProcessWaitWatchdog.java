@@ -22,62 +22,45 @@ package com.walmartlabs.concord.server.process.queue;
 
 import com.walmartlabs.concord.db.AbstractDao;
 import com.walmartlabs.concord.db.MainDB;
-import com.walmartlabs.concord.server.ConcordObjectMapper;
 import com.walmartlabs.concord.server.cfg.ProcessWaitWatchdogConfiguration;
 import com.walmartlabs.concord.server.jooq.tables.ProcessQueue;
-import com.walmartlabs.concord.server.process.ProcessKey;
-import com.walmartlabs.concord.server.sdk.ProcessStatus;
 import com.walmartlabs.concord.server.sdk.ScheduledTask;
-import org.immutables.value.Value;
 import org.jooq.Configuration;
-import org.jooq.JSONB;
-import org.jooq.Record5;
+import org.jooq.Record2;
 import org.jooq.SelectConditionStep;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
-import java.sql.Timestamp;
-import java.util.*;
+import java.util.List;
+import java.util.UUID;
 
 import static com.walmartlabs.concord.server.jooq.tables.ProcessQueue.PROCESS_QUEUE;
 
 /**
  * Takes care of processes with wait conditions.
  * E.g. waiting for other processes to finish, locking, etc.
+ * <p/>
+ * Most of the wait conditions are resolved by {@link ProcessWaitManager}
+ * as soon as the awaited event happens. The watchdog periodically checks
+ * all waiting processes to catch up with any missed events.
  */
 @Named("process-wait-watchdog")
 @Singleton
 public class ProcessWaitWatchdog implements ScheduledTask {
 
-    private static final Logger log = LoggerFactory.getLogger(ProcessWaitWatchdog.class);
-
-    private static final Set<ProcessStatus> FINAL_STATUSES = new HashSet<>(Arrays.asList(
-            ProcessStatus.FINISHED,
-            ProcessStatus.FAILED,
-            ProcessStatus.CANCELLED,
-            ProcessStatus.TIMED_OUT));
-
     private final ProcessWaitWatchdogConfiguration cfg;
     private final WatchdogDao dao;
-    private final ProcessQueueManager queueManager;
-    private final Map<WaitType, ProcessWaitHandler<AbstractWaitCondition>> processWaitHandlers;
+    private final ProcessWaitManager waitManager;
 
     @Inject
-    @SuppressWarnings("unchecked")
     public ProcessWaitWatchdog(ProcessWaitWatchdogConfiguration cfg,
                                WatchdogDao dao,
-                               ProcessQueueManager queueManager,
-                               Set<ProcessWaitHandler> handlers) {
+                               ProcessWaitManager waitManager) {
 
         this.cfg = cfg;
         this.dao = dao;
-        this.queueManager = queueManager;
-        this.processWaitHandlers = new HashMap<>();
-
-        handlers.forEach(h -> this.processWaitHandlers.put(h.getType(), h));
+        this.waitManager = waitManager;
     }
 
     @Override
@@ -89,84 +72,43 @@ public class ProcessWaitWatchdog implements ScheduledTask {
     public void performTask() {
         Long lastId = null;
         while (true) {
-            List<WaitingProcess> processes = dao.nextWaitItems(lastId, cfg.getPollLimit());
+            List<IdAndInstance> processes = dao.nextWaitItems(lastId, cfg.getPollLimit());
             if (processes.isEmpty()) {
                 return;
             }
 
-            for (WaitingProcess p : processes) {
-                WaitType type = p.waits().type();
-                processHandler(type, p);
-                lastId = p.id();
-            }
-        }
-    }
-
-    private void processHandler(WaitType type, WaitingProcess p) {
-        ProcessWaitHandler<AbstractWaitCondition> handler = processWaitHandlers.get(type);
-        if (handler == null) {
-            log.warn("processHandler ['{}'] -> handler '{}' not found", p.instanceId(), type);
-            return;
-        }
-
-        if (!handler.getProcessStatuses().contains(p.status())) {
-            // clear wait conditions for finished processes
-            if (FINAL_STATUSES.contains(p.status())) {
-                queueManager.updateWait(new ProcessKey(p.instanceId(), p.instanceCreatedAt()), null);
-            }
-            return;
-        }
-
-        try {
-            AbstractWaitCondition originalWaits = p.waits();
-            AbstractWaitCondition processedWaits = handler.process(p.instanceId(), p.status(), originalWaits);
-            if (!originalWaits.equals(processedWaits)) {
-                queueManager.updateWait(new ProcessKey(p.instanceId(), p.instanceCreatedAt()), processedWaits);
+            for (IdAndInstance p : processes) {
+                waitManager.process(p.instanceId);
+                lastId = p.id;
             }
-        } catch (Exception e) {
-            log.info("processHandler ['{}', '{}'] -> error", type, p, e);
         }
     }
 
-    @Value.Immutable
-    interface WaitingProcess {
-
-        UUID instanceId();
-
-        ProcessStatus status();
+    private static final class IdAndInstance {
 
-        Timestamp instanceCreatedAt();
+        private final long id;
+        private final UUID instanceId;
 
-        long id();
-
-        AbstractWaitCondition waits();
-
-        static ImmutableWaitingProcess.Builder builder() {
-            return ImmutableWaitingProcess.builder();
+        private IdAndInstance(long id, UUID instanceId) {
+            this.id = id;
+            this.instanceId = instanceId;
         }
     }
 
     @Named
     private static final class WatchdogDao extends AbstractDao {
 
-        private final ConcordObjectMapper objectMapper;
-
         @Inject
-        public WatchdogDao(@MainDB Configuration cfg, ConcordObjectMapper objectMapper) {
+        public WatchdogDao(@MainDB Configuration cfg) {
             super(cfg);
-
-            this.objectMapper = objectMapper;
         }
 
-        public List<WaitingProcess> nextWaitItems(Long lastId, int pollLimit) {
+        public List<IdAndInstance> nextWaitItems(Long lastId, int pollLimit) {
             return txResult(tx -> {
                 ProcessQueue q = PROCESS_QUEUE.as("q");
-                SelectConditionStep<Record5<UUID, String, Timestamp, Long, JSONB>> s = tx.select(
-                        q.INSTANCE_ID,
-                        q.CURRENT_STATUS,
-                        q.CREATED_AT,
+                SelectConditionStep<Record2<Long, UUID>> s = tx.select(
                         q.ID_SEQ,
-                        q.WAIT_CONDITIONS)
+                        q.INSTANCE_ID)
                         .from(q)
                         .where(q.WAIT_CONDITIONS.isNotNull());
 
@@ -176,13 +118,7 @@ public class ProcessWaitWatchdog implements ScheduledTask {
 
                 return s.orderBy(q.ID_SEQ)
                         .limit(pollLimit)
-                        .fetch(r -> WaitingProcess.builder()
-                                .instanceId(r.value1())
-                                .status(ProcessStatus.valueOf(r.value2()))
-                                .instanceCreatedAt(r.value3())
-                                .id(r.value4())
-                                .waits(objectMapper.fromJSONB(r.value5(), AbstractWaitCondition.class))
-                                .build());
+                        .fetch(r -> new IdAndInstance(r.value1(), r.value2()));
             });
         }
     }
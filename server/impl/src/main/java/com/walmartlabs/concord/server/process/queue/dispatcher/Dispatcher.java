@@ -120,16 +120,14 @@ public class Dispatcher extends PeriodicTask {
     @Override
     @WithTimer
     protected boolean performTask() {
-        // TODO the WebSocketChannelManager business can be replaced with an async jax-rs endpoint and an "inbox" queue
-
-        // grab the requests w/o responses
-        Map<WebSocketChannel, ProcessRequest> requests = this.channelManager.getRequests(MessageType.PROCESS_REQUEST);
-        if (requests.isEmpty()) {
+        // grab the requests w/o responses, grouped by the agent's capabilities
+        List<WebSocketChannelManager.RequestGroup<ProcessRequest>> groups = this.channelManager.getRequestGroups(MessageType.PROCESS_REQUEST);
+        if (groups.isEmpty()) {
             return false;
         }
 
-        List<Request> l = requests.entrySet().stream()
-                .map(e -> new Request(e.getKey(), e.getValue()))
+        List<RequestGroup> l = groups.stream()
+                .map(RequestGroup::new)
                 .collect(Collectors.toList());
 
         // prepare all responses in a single transaction
@@ -158,9 +156,9 @@ public class Dispatcher extends PeriodicTask {
         return true;
     }
 
-    private List<Match> match(DSLContext tx, List<Request> requests) {
+    private List<Match> match(DSLContext tx, List<RequestGroup> groups) {
         // we need it modifiable
-        List<Request> inbox = new ArrayList<>(requests);
+        List<RequestGroup> inbox = new ArrayList<>(groups);
 
         int offset = 0;
         List<Match> matches = new ArrayList<>();
@@ -173,9 +171,9 @@ public class Dispatcher extends PeriodicTask {
 
             // filter out the candidates that shouldn't be dispatched at the moment (e.g. due to concurrency limits)
             for (ProcessQueueEntry e : candidates) {
-                // find request/agent who can handle process
-                Request req = findRequest(e, inbox);
-                if (req == null) {
+                // find agents who can handle process
+                RequestGroup group = findGroup(e, inbox);
+                if (group == null) {
                     continue;
                 }
 
@@ -184,8 +182,11 @@ public class Dispatcher extends PeriodicTask {
                 List<ProcessQueueEntry> startingProcesses = matches.stream().map(m -> m.response).collect(Collectors.toList());
 
                 if (pass(tx, e, startingProcesses)) {
-                    matches.add(new Match(req, e));
-                    inbox.remove(req);
+                    matches.add(new Match(group.requests.poll(), e));
+
+                    if (group.requests.isEmpty()) {
+                        inbox.remove(group);
+                    }
 
                     if (inbox.isEmpty()) {
                         break;
@@ -210,12 +211,12 @@ public class Dispatcher extends PeriodicTask {
         return matches;
     }
 
-    private static Request findRequest(ProcessQueueEntry candidate, List<Request> requests) {
-        for (Request req : requests) {
-            Map<String, Object> capabilities = req.request.getCapabilities();
-            Map<String, Object> m = getAgentRequirements(candidate);
-            if (MapMatcher.matches(capabilities, m)) {
-                return req;
+    private static RequestGroup findGroup(ProcessQueueEntry candidate, List<RequestGroup> groups) {
+        // all agents in a group have the same capabilities, no need to check each request
+        Map<String, Object> m = getAgentRequirements(candidate);
+        for (RequestGroup g : groups) {
+            if (MapMatcher.matches(g.capabilities, m)) {
+                return g;
             }
         }
 
@@ -377,6 +378,19 @@ public class Dispatcher extends PeriodicTask {
         }
     }
 
+    private static final class RequestGroup {
+
+        private final Map<String, Object> capabilities;
+        private final Deque<Request> requests;
+
+        private RequestGroup(WebSocketChannelManager.RequestGroup<ProcessRequest> g) {
+            this.capabilities = g.getCapabilities();
+            this.requests = g.getRequests().entrySet().stream()
+                    .map(e -> new Request(e.getKey(), e.getValue()))
+                    .collect(Collectors.toCollection(ArrayDeque::new));
+        }
+    }
+
     private static final class Match {
 
         private final Request request;
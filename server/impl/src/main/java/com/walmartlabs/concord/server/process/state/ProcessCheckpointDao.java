@@ -24,10 +24,13 @@ import com.walmartlabs.concord.db.AbstractDao;
 import com.walmartlabs.concord.db.MainDB;
 import com.walmartlabs.concord.server.process.ImmutableProcessCheckpointEntry;
 import com.walmartlabs.concord.server.process.ProcessEntry.ProcessCheckpointEntry;
+import com.walmartlabs.concord.server.jooq.tables.ProcessCheckpointBlobs;
+import com.walmartlabs.concord.server.jooq.tables.ProcessCheckpointItems;
 import com.walmartlabs.concord.server.process.ProcessKey;
-import org.jooq.Configuration;
-import org.jooq.Record;
+import org.immutables.value.Value;
+import org.jooq.*;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Named;
 import java.io.InputStream;
@@ -37,11 +40,13 @@ import java.nio.file.StandardCopyOption;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Timestamp;
-import java.util.Date;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
 
+import static com.walmartlabs.concord.server.jooq.tables.ProcessCheckpointBlobs.PROCESS_CHECKPOINT_BLOBS;
+import static com.walmartlabs.concord.server.jooq.tables.ProcessCheckpointItems.PROCESS_CHECKPOINT_ITEMS;
 import static com.walmartlabs.concord.server.jooq.tables.ProcessCheckpoints.PROCESS_CHECKPOINTS;
+import static com.walmartlabs.concord.server.jooq.tables.ProcessState.PROCESS_STATE;
+import static org.jooq.impl.DSL.select;
 
 @Named
 public class ProcessCheckpointDao extends AbstractDao {
@@ -51,6 +56,11 @@ public class ProcessCheckpointDao extends AbstractDao {
         super(cfg);
     }
 
+    @Override
+    public void tx(Tx t) {
+        super.tx(t);
+    }
+
     public List<ProcessCheckpointEntry> list(ProcessKey processKey) {
         return txResult(tx -> tx.select()
                 .from(PROCESS_CHECKPOINTS)
@@ -70,35 +80,6 @@ public class ProcessCheckpointDao extends AbstractDao {
                 .fetchOne(PROCESS_CHECKPOINTS.CHECKPOINT_ID));
     }
 
-    public void importCheckpoint(ProcessKey processKey, UUID checkpointId, String checkpointName, Path data) {
-        tx(tx -> {
-            String sql = tx.insertInto(PROCESS_CHECKPOINTS)
-                    .columns(PROCESS_CHECKPOINTS.INSTANCE_ID,
-                            PROCESS_CHECKPOINTS.INSTANCE_CREATED_AT,
-                            PROCESS_CHECKPOINTS.CHECKPOINT_ID,
-                            PROCESS_CHECKPOINTS.CHECKPOINT_NAME,
-                            PROCESS_CHECKPOINTS.CHECKPOINT_DATE,
-                            PROCESS_CHECKPOINTS.CHECKPOINT_DATA)
-                    .values((UUID) null, null, null, null, null, null)
-                    .getSQL();
-
-            tx.connection(conn -> {
-                try (PreparedStatement ps = conn.prepareStatement(sql)) {
-                    ps.setObject(1, processKey.getInstanceId());
-                    ps.setTimestamp(2, processKey.getCreatedAt());
-                    ps.setObject(3, checkpointId);
-                    ps.setString(4, checkpointName);
-                    ps.setTimestamp(5, new Timestamp(new Date().getTime()));
-                    try (InputStream in = Files.newInputStream(data)) {
-                        ps.setBinaryStream(6, in);
-                    }
-
-                    ps.execute();
-                }
-            });
-        });
-    }
-
     public String export(ProcessKey processKey, UUID checkpointId, Path dest) {
         return txResult(tx -> {
             String sql = tx.select(PROCESS_CHECKPOINTS.CHECKPOINT_DATA, PROCESS_CHECKPOINTS.CHECKPOINT_NAME)
@@ -129,6 +110,171 @@ public class ProcessCheckpointDao extends AbstractDao {
         });
     }
 
+    /**
+     * Returns the checkpoint's metadata or {@code null} if the checkpoint
+     * doesn't exist.
+     */
+    public CheckpointHeader getHeader(ProcessKey processKey, UUID checkpointId) {
+        return txResult(tx -> tx.select(PROCESS_CHECKPOINTS.CHECKPOINT_NAME,
+                PROCESS_CHECKPOINTS.EVENT_NAME,
+                PROCESS_CHECKPOINTS.CHECKPOINT_DATA.isNotNull())
+                .from(PROCESS_CHECKPOINTS)
+                .where(PROCESS_CHECKPOINTS.CHECKPOINT_ID.eq(checkpointId)
+                        .and(PROCESS_CHECKPOINTS.INSTANCE_ID.eq(processKey.getInstanceId())
+                                .and(PROCESS_CHECKPOINTS.INSTANCE_CREATED_AT.eq(processKey.getCreatedAt()))))
+                .fetchOne(r -> CheckpointHeader.builder()
+                        .name(r.value1())
+                        .eventName(r.value2())
+                        .archive(r.value3())
+                        .build()));
+    }
+
+    /**
+     * Inserts a checkpoint without the data. The data is stored as
+     * a list of items, see {@link #insertItems(DSLContext, ProcessKey, UUID, Collection)}.
+     */
+    public void insert(DSLContext tx, ProcessKey processKey, UUID checkpointId, String checkpointName, String eventName) {
+        tx.insertInto(PROCESS_CHECKPOINTS)
+                .columns(PROCESS_CHECKPOINTS.INSTANCE_ID,
+                        PROCESS_CHECKPOINTS.INSTANCE_CREATED_AT,
+                        PROCESS_CHECKPOINTS.CHECKPOINT_ID,
+                        PROCESS_CHECKPOINTS.CHECKPOINT_NAME,
+                        PROCESS_CHECKPOINTS.CHECKPOINT_DATE,
+                        PROCESS_CHECKPOINTS.EVENT_NAME)
+                .values(processKey.getInstanceId(), processKey.getCreatedAt(), checkpointId, checkpointName,
+                        new Timestamp(System.currentTimeMillis()), eventName)
+                .execute();
+    }
+
+    /**
+     * Returns the hashes of the process' checkpoint files that are already stored.
+     */
+    public Set<String> findBlobs(DSLContext tx, ProcessKey processKey, Collection<String> hashes) {
+        if (hashes.isEmpty()) {
+            return new HashSet<>();
+        }
+
+        return new HashSet<>(tx.select(PROCESS_CHECKPOINT_BLOBS.CONTENT_HASH)
+                .from(PROCESS_CHECKPOINT_BLOBS)
+                .where(PROCESS_CHECKPOINT_BLOBS.INSTANCE_ID.eq(processKey.getInstanceId())
+                        .and(PROCESS_CHECKPOINT_BLOBS.INSTANCE_CREATED_AT.eq(processKey.getCreatedAt()))
+                        .and(PROCESS_CHECKPOINT_BLOBS.CONTENT_HASH.in(hashes)))
+                .fetch(PROCESS_CHECKPOINT_BLOBS.CONTENT_HASH));
+    }
+
+    public void insertBlob(DSLContext tx, ProcessKey processKey, String hash, InputStream data) {
+        String sql = tx.insertInto(PROCESS_CHECKPOINT_BLOBS)
+                .columns(PROCESS_CHECKPOINT_BLOBS.INSTANCE_ID,
+                        PROCESS_CHECKPOINT_BLOBS.INSTANCE_CREATED_AT,
+                        PROCESS_CHECKPOINT_BLOBS.CONTENT_HASH,
+                        PROCESS_CHECKPOINT_BLOBS.ITEM_DATA)
+                .values((UUID) null, null, null, null)
+                .onConflictDoNothing()
+                .getSQL();
+
+        tx.connection(conn -> {
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setObject(1, processKey.getInstanceId());
+                ps.setTimestamp(2, processKey.getCreatedAt());
+                ps.setString(3, hash);
+                ps.setBinaryStream(4, data);
+                ps.execute();
+            }
+        });
+    }
+
+    public void insertItems(DSLContext tx, ProcessKey processKey, UUID checkpointId, Collection<CheckpointItem> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+
+        BatchBindStep b = tx.batch(tx.insertInto(PROCESS_CHECKPOINT_ITEMS)
+                .columns(PROCESS_CHECKPOINT_ITEMS.CHECKPOINT_ID,
+                        PROCESS_CHECKPOINT_ITEMS.INSTANCE_ID,
+                        PROCESS_CHECKPOINT_ITEMS.INSTANCE_CREATED_AT,
+                        PROCESS_CHECKPOINT_ITEMS.ITEM_PATH,
+                        PROCESS_CHECKPOINT_ITEMS.UNIX_MODE,
+                        PROCESS_CHECKPOINT_ITEMS.IS_ENCRYPTED,
+                        PROCESS_CHECKPOINT_ITEMS.CONTENT_HASH)
+                .values((UUID) null, null, null, null, null, null, null));
+
+        for (CheckpointItem i : items) {
+            b.bind(checkpointId, processKey.getInstanceId(), processKey.getCreatedAt(), i.path(),
+                    i.unixMode(), i.encrypted(), i.hash());
+        }
+
+        b.execute();
+    }
+
+    /**
+     * Replaces the process state files with the checkpoint's files.
+     * The data is copied by the DB, nothing is transferred to the server.
+     */
+    public void restoreState(DSLContext tx, ProcessKey processKey, UUID checkpointId) {
+        ProcessCheckpointItems i = PROCESS_CHECKPOINT_ITEMS.as("i");
+        ProcessCheckpointBlobs b = PROCESS_CHECKPOINT_BLOBS.as("b");
+
+        Condition items = i.CHECKPOINT_ID.eq(checkpointId)
+                .and(i.INSTANCE_ID.eq(processKey.getInstanceId()))
+                .and(i.INSTANCE_CREATED_AT.eq(processKey.getCreatedAt()));
+
+        tx.deleteFrom(PROCESS_STATE)
+                .where(PROCESS_STATE.INSTANCE_ID.eq(processKey.getInstanceId())
+                        .and(PROCESS_STATE.INSTANCE_CREATED_AT.eq(processKey.getCreatedAt()))
+                        .and(PROCESS_STATE.ITEM_PATH.in(select(i.ITEM_PATH).from(i).where(items))))
+                .execute();
+
+        tx.insertInto(PROCESS_STATE)
+                .columns(PROCESS_STATE.INSTANCE_ID,
+                        PROCESS_STATE.INSTANCE_CREATED_AT,
+                        PROCESS_STATE.ITEM_PATH,
+                        PROCESS_STATE.UNIX_MODE,
+                        PROCESS_STATE.ITEM_DATA,
+                        PROCESS_STATE.IS_ENCRYPTED)
+                .select(select(i.INSTANCE_ID, i.INSTANCE_CREATED_AT, i.ITEM_PATH, i.UNIX_MODE, b.ITEM_DATA, i.IS_ENCRYPTED)
+                        .from(i)
+                        .join(b).on(b.INSTANCE_ID.eq(i.INSTANCE_ID)
+                                .and(b.INSTANCE_CREATED_AT.eq(i.INSTANCE_CREATED_AT))
+                                .and(b.CONTENT_HASH.eq(i.CONTENT_HASH)))
+                        .where(items))
+                .execute();
+    }
+
+    @Value.Immutable
+    public interface CheckpointHeader {
+
+        String name();
+
+        @Nullable
+        String eventName();
+
+        /**
+         * {@code true} if the checkpoint's data is stored as a single archive
+         * (the checkpoints created by older versions).
+         */
+        boolean archive();
+
+        static ImmutableCheckpointHeader.Builder builder() {
+            return ImmutableCheckpointHeader.builder();
+        }
+    }
+
+    @Value.Immutable
+    public interface CheckpointItem {
+
+        String path();
+
+        int unixMode();
+
+        boolean encrypted();
+
+        String hash();
+
+        static ImmutableCheckpointItem.Builder builder() {
+            return ImmutableCheckpointItem.builder();
+        }
+    }
+
     private static ProcessCheckpointEntry toEntry(Record r) {
         return ImmutableProcessCheckpointEntry.builder()
                 .id(r.get(PROCESS_CHECKPOINTS.CHECKPOINT_ID))
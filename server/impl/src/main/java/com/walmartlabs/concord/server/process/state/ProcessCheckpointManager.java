@@ -20,7 +20,10 @@ package com.walmartlabs.concord.server.process.state;
  * =====
  */
 
+import com.google.common.hash.Hashing;
+import com.google.common.io.MoreFiles;
 import com.walmartlabs.concord.common.IOUtils;
+import com.walmartlabs.concord.common.Posix;
 import com.walmartlabs.concord.common.TemporaryPath;
 import com.walmartlabs.concord.sdk.Constants;
 import com.walmartlabs.concord.server.org.ResourceAccessLevel;
@@ -30,6 +33,8 @@ import com.walmartlabs.concord.server.process.ProcessEntry;
 import com.walmartlabs.concord.server.process.ProcessEntry.ProcessCheckpointEntry;
 import com.walmartlabs.concord.server.process.ProcessKey;
 import com.walmartlabs.concord.server.process.queue.ProcessQueueDao;
+import com.walmartlabs.concord.server.process.state.ProcessCheckpointDao.CheckpointHeader;
+import com.walmartlabs.concord.server.process.state.ProcessCheckpointDao.CheckpointItem;
 import com.walmartlabs.concord.server.security.Roles;
 import com.walmartlabs.concord.server.security.UserPrincipal;
 import org.apache.shiro.authz.UnauthorizedException;
@@ -39,18 +44,18 @@ import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Named;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.Collections;
-import java.util.List;
-import java.util.Map;
-import java.util.UUID;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
 
 import static com.walmartlabs.concord.sdk.Constants.Files.CHECKPOINT_META_FILE_NAME;
 
 @Named
 public class ProcessCheckpointManager {
 
+    private static final String ENCRYPTED_SUFFIX = "-enc";
+
     private final ProcessCheckpointDao checkpointDao;
     private final ProcessQueueDao queueDao;
     private final ProcessStateManager stateManager;
@@ -74,6 +79,10 @@ public class ProcessCheckpointManager {
 
     /**
      * Import checkpoints data from the specified directory or a file.
+     * <p/>
+     * The checkpoint is stored as a list of files with their content hashes.
+     * The files are shared between all checkpoints of the process, only new
+     * or changed files are stored.
      *
      * @param processKey     process key
      * @param checkpointId   process checkpoint ID
@@ -81,13 +90,68 @@ public class ProcessCheckpointManager {
      * @param data           checkpoint data file
      */
     public void importCheckpoint(ProcessKey processKey, UUID checkpointId, String checkpointName, Path data) {
-        checkpointDao.importCheckpoint(processKey, checkpointId, checkpointName, data);
+        try (TemporaryPath extractedDir = IOUtils.tempDir("unzipped-checkpoint")) {
+            IOUtils.unzip(data, extractedDir.path());
+
+            String eventName = readCheckpointEventName(extractedDir.path());
+
+            Map<String, Path> files = new HashMap<>();
+            List<CheckpointItem> items = collectItems(extractedDir.path(), files);
+
+            checkpointDao.tx(tx -> {
+                Set<String> stored = checkpointDao.findBlobs(tx, processKey, files.keySet());
+                for (Map.Entry<String, Path> f : files.entrySet()) {
+                    String hash = f.getKey();
+                    if (stored.contains(hash)) {
+                        continue;
+                    }
+
+                    try (InputStream in = Files.newInputStream(f.getValue())) {
+                        checkpointDao.insertBlob(tx, processKey, hash, isEncrypted(hash) ? stateManager.encrypt(in) : in);
+                    }
+                }
+
+                checkpointDao.insert(tx, processKey, checkpointId, checkpointName, eventName);
+                checkpointDao.insertItems(tx, processKey, checkpointId, items);
+            });
+        } catch (IOException e) {
+            throw new RuntimeException("Import checkpoint '" + checkpointId + "' error", e);
+        }
     }
 
     /**
      * Restore process to a saved checkpoint.
      */
     public CheckpointInfo restoreCheckpoint(ProcessKey processKey, UUID checkpointId) {
+        CheckpointHeader header = checkpointDao.getHeader(processKey, checkpointId);
+        if (header == null) {
+            return null;
+        }
+
+        if (header.archive()) {
+            return restoreCheckpointArchive(processKey, checkpointId);
+        }
+
+        stateManager.tx(tx -> {
+            stateManager.deleteDirectory(tx, processKey, Constants.Files.CONCORD_SYSTEM_DIR_NAME);
+            stateManager.deleteDirectory(tx, processKey, Constants.Files.JOB_ATTACHMENTS_DIR_NAME);
+            checkpointDao.restoreState(tx, processKey, checkpointId);
+            stateManager.assertStatePolicy(tx, processKey);
+        });
+
+        String outPath = ProcessStateManager.path(Constants.Files.JOB_ATTACHMENTS_DIR_NAME, Constants.Files.OUT_VALUES_FILE_NAME);
+        Map<String, Object> out = stateManager.get(processKey, outPath, OutVariablesUtils::read)
+                .orElse(Collections.emptyMap());
+
+        updateOutVariables(processKey, out);
+
+        return CheckpointInfo.of(header.name(), header.eventName());
+    }
+
+    /**
+     * Restores a checkpoint stored as a single archive (created by older versions).
+     */
+    private CheckpointInfo restoreCheckpointArchive(ProcessKey processKey, UUID checkpointId) {
         try (TemporaryPath checkpointArchive = IOUtils.tempFile("checkpoint", ".zip")) {
 
             String checkpointName = export(processKey, checkpointId, checkpointArchive.path());
@@ -108,11 +172,7 @@ public class ProcessCheckpointManager {
                 });
 
                 Map<String, Object> out = OutVariablesUtils.read(extractedDir.path().resolve(Constants.Files.JOB_ATTACHMENTS_DIR_NAME));
-                if (out.isEmpty()) {
-                    queueDao.removeMeta(processKey, "out");
-                } else {
-                    queueDao.updateMeta(processKey, Collections.singletonMap("out", out));
-                }
+                updateOutVariables(processKey, out);
 
                 return CheckpointInfo.of(checkpointName, eventName);
             }
@@ -177,6 +237,59 @@ public class ProcessCheckpointManager {
         return checkpointName;
     }
 
+    private void updateOutVariables(ProcessKey processKey, Map<String, Object> out) {
+        if (out.isEmpty()) {
+            queueDao.removeMeta(processKey, "out");
+        } else {
+            queueDao.updateMeta(processKey, Collections.singletonMap("out", out));
+        }
+    }
+
+    /**
+     * Collects the checkpoint's files and calculates their hashes.
+     * The hashes of the files that are stored encrypted get a suffix,
+     * so the same content can be stored in both forms.
+     *
+     * @param files receives the hashes and the files
+     */
+    private List<CheckpointItem> collectItems(Path dir, Map<String, Path> files) throws IOException {
+        List<CheckpointItem> result = new ArrayList<>();
+
+        Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (!Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS)) {
+                    return FileVisitResult.CONTINUE;
+                }
+
+                String path = dir.relativize(file).toString();
+                boolean encrypted = stateManager.isSecure(path);
+
+                String hash = MoreFiles.asByteSource(file).hash(Hashing.sha256()).toString();
+                if (encrypted) {
+                    hash = hash + ENCRYPTED_SUFFIX;
+                }
+
+                files.putIfAbsent(hash, file);
+
+                result.add(CheckpointItem.builder()
+                        .path(path)
+                        .unixMode(Posix.unixMode(Files.getPosixFilePermissions(file)))
+                        .encrypted(encrypted)
+                        .hash(hash)
+                        .build());
+
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        return result;
+    }
+
+    private static boolean isEncrypted(String hash) {
+        return hash.endsWith(ENCRYPTED_SUFFIX);
+    }
+
     private String export(ProcessKey processKey, UUID checkpointId, Path dest) {
         return checkpointDao.export(processKey, checkpointId, dest);
     }
@@ -560,7 +560,17 @@ public class ProcessStateManager extends AbstractDao {
         return SecretUtils.decrypt(in, secretCfg.getServerPwd(), secretCfg.getSecretStoreSalt());
     }
 
-    private InputStream encrypt(InputStream in) {
+    /**
+     * Returns {@code true} if the specified state file must be stored encrypted.
+     */
+    public boolean isSecure(String path) {
+        return secureFiles.contains(path);
+    }
+
+    /**
+     * Encrypts the data of a secure state file. See {@link #isSecure(String)}.
+     */
+    public InputStream encrypt(InputStream in) {
         return SecretUtils.encrypt(in, secretCfg.getServerPwd(), secretCfg.getSecretStoreSalt());
     }
 
@@ -606,6 +616,13 @@ public class ProcessStateManager extends AbstractDao {
         return t;
     }
 
+    /**
+     * Checks the process' current state against the state policy, if any.
+     */
+    public void assertStatePolicy(DSLContext tx, ProcessKey processKey) {
+        assertPolicy(tx, processKey, getPolicyEngine(tx, processKey));
+    }
+
     private PolicyEngine assertPolicy(DSLContext tx, ProcessKey processKey, Path src, BiFunction<Path, BasicFileAttributes, Boolean> filter) {
         PolicyEngine pe = getPolicyEngine(tx, processKey);
         if (pe == null) {
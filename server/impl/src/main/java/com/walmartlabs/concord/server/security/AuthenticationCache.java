@@ -0,0 +1,180 @@
+package com.walmartlabs.concord.server.security;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.walmartlabs.concord.server.cfg.AuthCacheConfiguration;
+import com.walmartlabs.concord.server.process.PartialProcessKey;
+import com.walmartlabs.concord.server.process.queue.ProcessInitiatorEntry;
+import com.walmartlabs.concord.server.process.queue.ProcessQueueManager;
+import com.walmartlabs.concord.server.sdk.ProcessStatus;
+import com.walmartlabs.concord.server.security.apikey.ApiKeyDao;
+import com.walmartlabs.concord.server.security.apikey.ApiKeyEntry;
+import com.walmartlabs.concord.server.security.sessionkey.SessionKeyRealm;
+import com.walmartlabs.concord.server.user.UserDao;
+import com.walmartlabs.concord.server.user.UserEntry;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache of the data required to authenticate API and session keys.
+ * Only positive lookups are cached. Entries are invalidated explicitly when
+ * the keys or the users are modified on this instance, the changes made on
+ * other instances become visible after {@code authCache.ttl}.
+ */
+@Named
+@Singleton
+public class AuthenticationCache {
+
+    private final ApiKeyDao apiKeyDao;
+    private final UserDao userDao;
+    private final ProcessQueueManager queueManager;
+
+    private final Cache<String, ApiKeyEntry> apiKeys;
+    private final Cache<UUID, UserEntry> users;
+    private final Cache<PartialProcessKey, ProcessInitiatorEntry> initiators;
+
+    @Inject
+    public AuthenticationCache(AuthCacheConfiguration cfg,
+                               ApiKeyDao apiKeyDao,
+                               UserDao userDao,
+                               ProcessQueueManager queueManager) {
+
+        this.apiKeyDao = apiKeyDao;
+        this.userDao = userDao;
+        this.queueManager = queueManager;
+
+        this.apiKeys = cfg.isEnabled() ? build(cfg) : null;
+        this.users = cfg.isEnabled() ? build(cfg) : null;
+        this.initiators = cfg.isEnabled() ? build(cfg) : null;
+    }
+
+    /**
+     * @return a valid (non-expired) API key or {@code null}
+     */
+    public ApiKeyEntry findApiKey(String key) {
+        ApiKeyEntry e = get(apiKeys, key, () -> apiKeyDao.find(key));
+        if (e == null) {
+            return null;
+        }
+
+        Date expiredAt = e.getExpiredAt();
+        if (expiredAt != null && expiredAt.getTime() <= System.currentTimeMillis()) {
+            if (apiKeys != null) {
+                apiKeys.invalidate(key);
+            }
+            return null;
+        }
+
+        return e;
+    }
+
+    public Optional<UserEntry> getUser(UUID userId) {
+        return Optional.ofNullable(get(users, userId, () -> userDao.get(userId)));
+    }
+
+    /**
+     * Returns the initiator of the specified process. Only the entries
+     * of the running processes are cached. The process status is never
+     * taken from the cache, so the session keys of finished processes
+     * are rejected immediately.
+     */
+    public ProcessInitiatorEntry getInitiator(PartialProcessKey processKey) {
+        if (initiators == null) {
+            return queueManager.getInitiator(processKey);
+        }
+
+        ProcessInitiatorEntry e = initiators.getIfPresent(processKey);
+        if (e == null) {
+            e = queueManager.getInitiator(processKey);
+            if (e != null && !SessionKeyRealm.FINISHED_STATUSES.contains(e.status())) {
+                initiators.put(processKey, e);
+            }
+            return e;
+        }
+
+        ProcessStatus status = queueManager.getStatus(processKey);
+        if (status == null) {
+            initiators.invalidate(processKey);
+            return null;
+        }
+
+        if (SessionKeyRealm.FINISHED_STATUSES.contains(status)) {
+            initiators.invalidate(processKey);
+        }
+
+        return ProcessInitiatorEntry.builder()
+                .from(e)
+                .status(status)
+                .build();
+    }
+
+    public void invalidateApiKey(UUID keyId) {
+        if (apiKeys == null) {
+            return;
+        }
+
+        apiKeys.asMap().values().removeIf(e -> keyId.equals(e.getId()));
+    }
+
+    public void invalidateUser(UUID userId) {
+        if (users == null) {
+            return;
+        }
+
+        users.invalidate(userId);
+        apiKeys.asMap().values().removeIf(e -> userId.equals(e.getUserId()));
+    }
+
+    private static <K, V> V get(Cache<K, V> cache, K key, Supplier<V> loader) {
+        if (cache == null) {
+            return loader.get();
+        }
+
+        V v = cache.getIfPresent(key);
+        if (v != null) {
+            return v;
+        }
+
+        v = loader.get();
+        if (v != null) {
+            cache.put(key, v);
+        }
+
+        return v;
+    }
+
+    private static <K, V> Cache<K, V> build(AuthCacheConfiguration cfg) {
+        return CacheBuilder.newBuilder()
+                .expireAfterWrite(cfg.getTtl(), TimeUnit.MILLISECONDS)
+                .maximumSize(cfg.getMaxSize())
+                .concurrencyLevel(32)
+                .build();
+    }
+}
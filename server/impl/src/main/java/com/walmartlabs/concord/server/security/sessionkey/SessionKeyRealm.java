@@ -24,9 +24,9 @@ import com.google.common.collect.ImmutableSet;
 import com.walmartlabs.concord.server.process.PartialProcessKey;
 import com.walmartlabs.concord.server.process.ProcessSecurityContext;
 import com.walmartlabs.concord.server.process.queue.ProcessInitiatorEntry;
-import com.walmartlabs.concord.server.process.queue.ProcessQueueManager;
 import com.walmartlabs.concord.server.sdk.ProcessStatus;
 import com.walmartlabs.concord.server.sdk.metrics.WithTimer;
+import com.walmartlabs.concord.server.security.AuthenticationCache;
 import org.apache.shiro.authc.AuthenticationException;
 import org.apache.shiro.authc.AuthenticationInfo;
 import org.apache.shiro.authc.AuthenticationToken;
@@ -50,21 +50,21 @@ public class SessionKeyRealm extends AuthorizingRealm {
 
     public static final String REALM_NAME = "sessionkey";
 
-    private final ProcessSecurityContext processSecurityContext;
-    private final ProcessQueueManager processQueueManager;
-
-    private static final Set<ProcessStatus> FINISHED_STATUSES = ImmutableSet.of(
+    public static final Set<ProcessStatus> FINISHED_STATUSES = ImmutableSet.of(
             ProcessStatus.FINISHED,
             ProcessStatus.FAILED,
             ProcessStatus.CANCELLED,
             ProcessStatus.TIMED_OUT);
 
+    private final ProcessSecurityContext processSecurityContext;
+    private final AuthenticationCache authCache;
+
     @Inject
     public SessionKeyRealm(ProcessSecurityContext processSecurityContext,
-                           ProcessQueueManager processQueueManager) {
+                           AuthenticationCache authCache) {
 
         this.processSecurityContext = processSecurityContext;
-        this.processQueueManager = processQueueManager;
+        this.authCache = authCache;
     }
 
     @Override
@@ -79,7 +79,7 @@ public class SessionKeyRealm extends AuthorizingRealm {
         PartialProcessKey processKey = PartialProcessKey.from(t.getInstanceId());
 
         try {
-            ProcessInitiatorEntry p = processQueueManager.getInitiator(processKey);
+            ProcessInitiatorEntry p = authCache.getInitiator(processKey);
             if (p == null) {
                 log.warn("doGetAuthenticationInfo -> process not found: {}", t.getInstanceId());
                 return null;
@@ -28,6 +28,7 @@ import com.walmartlabs.concord.server.org.team.TeamDao;
 import com.walmartlabs.concord.server.org.team.TeamManager;
 import com.walmartlabs.concord.server.org.team.TeamRole;
 import com.walmartlabs.concord.server.sdk.ConcordApplicationException;
+import com.walmartlabs.concord.server.security.AuthenticationCache;
 import com.walmartlabs.concord.server.security.UserPrincipal;
 import com.walmartlabs.concord.server.security.ldap.LdapGroupSearchResult;
 
@@ -43,13 +44,20 @@ public class UserManager {
     private final UserDao userDao;
     private final TeamDao teamDao;
     private final AuditLog auditLog;
+    private final AuthenticationCache authCache;
     private final Map<UserType, UserInfoProvider> userInfoProviders;
 
     @Inject
-    public UserManager(UserDao userDao, TeamDao teamDao, AuditLog auditLog, List<UserInfoProvider> providers) {
+    public UserManager(UserDao userDao,
+                       TeamDao teamDao,
+                       AuditLog auditLog,
+                       AuthenticationCache authCache,
+                       List<UserInfoProvider> providers) {
+
         this.userDao = userDao;
         this.teamDao = teamDao;
         this.auditLog = auditLog;
+        this.authCache = authCache;
 
         this.userInfoProviders = new HashMap<>();
         providers.forEach(p -> this.userInfoProviders.put(p.getUserType(), p));
@@ -105,6 +113,7 @@ public class UserManager {
         }
 
         UserEntry newEntry = userDao.update(userId, displayName, email, userType, isDisabled, roles);
+        authCache.invalidateUser(userId);
         if (newEntry == null) {
             return Optional.empty();
         }
@@ -131,6 +140,7 @@ public class UserManager {
 
         UserInfoProvider provider = assertProvider(type);
         UUID id = provider.create(username, domain, displayName, email, roles);
+        authCache.invalidateUser(id);
 
         // add the new user to the default org/team
         UUID teamId = TeamManager.DEFAULT_ORG_TEAM_ID;
@@ -180,6 +190,7 @@ public class UserManager {
         }
 
         userDao.enable(userId);
+        authCache.invalidateUser(userId);
 
         auditLog.add(AuditObject.USER, AuditAction.UPDATE)
                 .field("userId", userId)
@@ -196,6 +207,7 @@ public class UserManager {
         }
 
         userDao.disable(userId);
+        authCache.invalidateUser(userId);
 
         auditLog.add(AuditObject.USER, AuditAction.UPDATE)
                 .field("userId", userId)
@@ -28,6 +28,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.ByteBuffer;
+import java.util.Collection;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -62,12 +63,18 @@ public class WebSocketChannel {
         return userAgent;
     }
 
-    public void onRequest(Message request) {
+    /**
+     * @return {@code false} if the request is a duplicate. The channel is
+     * closed in this case.
+     */
+    public boolean onRequest(Message request) {
         Message old = requests.put(request.getCorrelationId(), request);
         if (old != null) {
             log.error("request ['{}', '{}'] -> duplicate request. closing channel", channelId, request);
             close();
+            return false;
         }
+        return true;
     }
 
     /**
@@ -104,6 +111,14 @@ public class WebSocketChannel {
         }
     }
 
+    public Message getRequest(long correlationId) {
+        return requests.get(correlationId);
+    }
+
+    public Collection<Message> getRequests() {
+        return requests.values();
+    }
+
     public Message getRequest(MessageType requestType) {
         return requests.values().stream()
                 .filter(m -> m.getMessageType() == requestType)
@@ -22,16 +22,23 @@ package com.walmartlabs.concord.server.websocket;
 
 import com.walmartlabs.concord.server.queueclient.message.Message;
 import com.walmartlabs.concord.server.queueclient.message.MessageType;
+import com.walmartlabs.concord.server.queueclient.message.ProcessRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Keeps track of the connected agents and their pending requests.
+ * <p/>
+ * The pending requests are indexed by type and by the agent's capabilities.
+ * The index is updated on every request, response or closed channel, so
+ * the dispatchers get the pending requests without walking every connected
+ * channel.
+ */
 @Named
 @Singleton
 public class WebSocketChannelManager {
@@ -39,6 +46,7 @@ public class WebSocketChannelManager {
     private static final Logger log = LoggerFactory.getLogger(WebSocketChannelManager.class);
 
     private final Map<UUID, WebSocketChannel> channels = new ConcurrentHashMap<>();
+    private final Map<MessageType, Map<CapabilitiesKey, Set<PendingRequest>>> inbox = new ConcurrentHashMap<>();
 
     private volatile boolean isShutdown;
 
@@ -60,6 +68,7 @@ public class WebSocketChannelManager {
             return;
         }
 
+        channel.getRequests().forEach(r -> unregister(channel, r));
         channel.close();
 
         log.info("close ['{}'] -> done", channelId);
@@ -72,7 +81,9 @@ public class WebSocketChannelManager {
             return;
         }
 
-        channel.onRequest(message);
+        if (channel.onRequest(message)) {
+            register(channel, message);
+        }
     }
 
     /**
@@ -85,6 +96,11 @@ public class WebSocketChannelManager {
             return false;
         }
 
+        Message request = channel.getRequest(response.getCorrelationId());
+        if (request != null) {
+            unregister(channel, request);
+        }
+
         return channel.sendResponse(response);
     }
 
@@ -98,18 +114,58 @@ public class WebSocketChannelManager {
         return channel.pong();
     }
 
+    /**
+     * Returns the pending requests of the specified type, one request per channel.
+     */
     @SuppressWarnings("unchecked")
     public <E> Map<WebSocketChannel, E> getRequests(MessageType requestType) {
+        Map<CapabilitiesKey, Set<PendingRequest>> groups = inbox.get(requestType);
+        if (groups == null) {
+            return Collections.emptyMap();
+        }
+
         Map<WebSocketChannel, E> result = new HashMap<>();
-        channels.forEach((channelId, channel) -> {
-            Message m = channel.getRequest(requestType);
-            if (m != null) {
-                result.put(channel, (E)m);
+        groups.values().forEach(g -> g.forEach(r -> result.putIfAbsent(r.channel, (E) r.message)));
+        return result;
+    }
+
+    /**
+     * Returns the pending requests of the specified type grouped by
+     * the agent's capabilities, one request per channel.
+     */
+    @SuppressWarnings("unchecked")
+    public <E> List<RequestGroup<E>> getRequestGroups(MessageType requestType) {
+        Map<CapabilitiesKey, Set<PendingRequest>> groups = inbox.get(requestType);
+        if (groups == null) {
+            return Collections.emptyList();
+        }
+
+        Set<WebSocketChannel> seen = new HashSet<>();
+        List<RequestGroup<E>> result = new ArrayList<>(groups.size());
+        groups.forEach((k, g) -> {
+            Map<WebSocketChannel, E> requests = new LinkedHashMap<>();
+            g.forEach(r -> {
+                if (seen.add(r.channel)) {
+                    requests.put(r.channel, (E) r.message);
+                }
+            });
+
+            if (!requests.isEmpty()) {
+                result.add(new RequestGroup<>(k.capabilities, requests));
             }
         });
         return result;
     }
 
+    public int getRequestCount(MessageType requestType) {
+        Map<CapabilitiesKey, Set<PendingRequest>> groups = inbox.get(requestType);
+        if (groups == null) {
+            return 0;
+        }
+
+        return groups.values().stream().mapToInt(Set::size).sum();
+    }
+
     public void add(UUID channelId, WebSocketChannel channel) {
         channels.put(channelId, channel);
     }
@@ -117,4 +173,113 @@ public class WebSocketChannelManager {
     public int connectedClientsCount() {
         return channels.size();
     }
+
+    private void register(WebSocketChannel channel, Message message) {
+        // the group is created and removed atomically, see #unregister
+        inbox.computeIfAbsent(message.getMessageType(), k -> new ConcurrentHashMap<>())
+                .compute(CapabilitiesKey.of(message), (k, v) -> {
+                    if (v == null) {
+                        v = ConcurrentHashMap.newKeySet();
+                    }
+                    v.add(new PendingRequest(channel, message));
+                    return v;
+                });
+    }
+
+    private void unregister(WebSocketChannel channel, Message message) {
+        Map<CapabilitiesKey, Set<PendingRequest>> groups = inbox.get(message.getMessageType());
+        if (groups == null) {
+            return;
+        }
+
+        groups.computeIfPresent(CapabilitiesKey.of(message), (k, v) -> {
+            v.remove(new PendingRequest(channel, message));
+            return v.isEmpty() ? null : v;
+        });
+    }
+
+    public static final class RequestGroup<E> {
+
+        private final Map<String, Object> capabilities;
+        private final Map<WebSocketChannel, E> requests;
+
+        private RequestGroup(Map<String, Object> capabilities, Map<WebSocketChannel, E> requests) {
+            this.capabilities = capabilities;
+            this.requests = requests;
+        }
+
+        /**
+         * The capabilities shared by all agents in the group. Can be {@code null}.
+         */
+        public Map<String, Object> getCapabilities() {
+            return capabilities;
+        }
+
+        public Map<WebSocketChannel, E> getRequests() {
+            return requests;
+        }
+    }
+
+    private static final class CapabilitiesKey {
+
+        private static final CapabilitiesKey NONE = new CapabilitiesKey(null);
+
+        static CapabilitiesKey of(Message m) {
+            if (m instanceof ProcessRequest) {
+                return new CapabilitiesKey(((ProcessRequest) m).getCapabilities());
+            }
+            return NONE;
+        }
+
+        private final Map<String, Object> capabilities;
+
+        private CapabilitiesKey(Map<String, Object> capabilities) {
+            this.capabilities = capabilities;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            return Objects.equals(capabilities, ((CapabilitiesKey) o).capabilities);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(capabilities);
+        }
+    }
+
+    private static final class PendingRequest {
+
+        private final WebSocketChannel channel;
+        private final Message message;
+
+        private PendingRequest(WebSocketChannel channel, Message message) {
+            this.channel = channel;
+            this.message = message;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            PendingRequest that = (PendingRequest) o;
+            return channel.getChannelId().equals(that.channel.getChannelId())
+                    && message.getCorrelationId() == that.message.getCorrelationId();
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(channel.getChannelId(), message.getCorrelationId());
+        }
+    }
 }
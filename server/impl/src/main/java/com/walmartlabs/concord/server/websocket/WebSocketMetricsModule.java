@@ -64,7 +64,7 @@ public class WebSocketMetricsModule extends AbstractModule {
 
             @Override
             public Gauge<Integer> gauge() {
-                return () -> channelManagerProvider.get().getRequests(MessageType.PROCESS_REQUEST).size();
+                return () -> channelManagerProvider.get().getRequestCount(MessageType.PROCESS_REQUEST);
             }
         };
     }
@@ -0,0 +1,70 @@
+package com.walmartlabs.concord.server.audit;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.cfg.AuditConfiguration;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AsyncAuditLogWriterTest {
+
+    @Test
+    public void testDedup() throws Exception {
+        AsyncAuditLogWriter writer = new AsyncAuditLogWriter(cfg(100), mock(AuditDao.class));
+
+        UUID keyA = UUID.randomUUID();
+        UUID keyB = UUID.randomUUID();
+
+        assertEquals(0, writer.acquire(keyA));
+        assertEquals(-1, writer.acquire(keyA));
+        assertEquals(-1, writer.acquire(keyA));
+        assertEquals(0, writer.acquire(keyB));
+
+        Thread.sleep(150);
+
+        // the next window reports the number of skipped entries
+        assertEquals(2, writer.acquire(keyA));
+        assertEquals(0, writer.acquire(keyB));
+    }
+
+    @Test
+    public void testNoDedup() {
+        AsyncAuditLogWriter writer = new AsyncAuditLogWriter(cfg(0), mock(AuditDao.class));
+
+        UUID key = UUID.randomUUID();
+        assertEquals(0, writer.acquire(key));
+        assertEquals(0, writer.acquire(key));
+    }
+
+    private static AuditConfiguration cfg(long dedupWindow) {
+        AuditConfiguration cfg = mock(AuditConfiguration.class);
+        when(cfg.getAsyncQueueSize()).thenReturn(10);
+        when(cfg.getAsyncBatchSize()).thenReturn(10);
+        when(cfg.getAsyncFlushInterval()).thenReturn(1000L);
+        when(cfg.getAsyncDedupWindow()).thenReturn(dedupWindow);
+        return cfg;
+    }
+}
@@ -0,0 +1,45 @@
+package com.walmartlabs.concord.server.org.jsonstore;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2019 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class JsonStoreQueryCursorTest {
+
+    @Test
+    public void testRoundTrip() {
+        JsonStoreQueryCursor c = JsonStoreQueryCursor.parse(JsonStoreQueryCursor.of(12345).encode());
+        assertEquals(12345, c.offset());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalid() {
+        JsonStoreQueryCursor.parse("not-a-cursor");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegative() {
+        // "-1"
+        JsonStoreQueryCursor.parse("LTE");
+    }
+}
@@ -0,0 +1,101 @@
+package com.walmartlabs.concord.server.org.jsonstore;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2019 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.AbstractDaoTest;
+import com.walmartlabs.concord.server.ConcordObjectMapper;
+import com.walmartlabs.concord.server.TestObjectMapper;
+import com.walmartlabs.concord.server.org.OrganizationManager;
+import org.jooq.JSONB;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.sonatype.siesta.ValidationErrorsException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.walmartlabs.concord.server.jooq.tables.JsonStoreData.JSON_STORE_DATA;
+import static com.walmartlabs.concord.server.jooq.tables.JsonStores.JSON_STORES;
+import static org.junit.Assert.*;
+
+@Ignore("requires a local DB instance")
+public class JsonStoreQueryExecDaoTest extends AbstractDaoTest {
+
+    @Test
+    public void testPages() {
+        UUID storeId = UUID.randomUUID();
+
+        tx(tx -> {
+            tx.insertInto(JSON_STORES)
+                    .columns(JSON_STORES.JSON_STORE_ID, JSON_STORES.JSON_STORE_NAME, JSON_STORES.ORG_ID, JSON_STORES.VISIBILITY)
+                    .values(storeId, "store_" + System.currentTimeMillis(), OrganizationManager.DEFAULT_ORG_ID, JsonStoreVisibility.PUBLIC.name())
+                    .execute();
+
+            for (int i = 0; i < 25; i++) {
+                tx.insertInto(JSON_STORE_DATA)
+                        .columns(JSON_STORE_DATA.JSON_STORE_ID, JSON_STORE_DATA.ITEM_PATH, JSON_STORE_DATA.ITEM_DATA, JSON_STORE_DATA.ITEM_DATA_SIZE)
+                        .values(storeId, String.format("item_%02d", i), JSONB.valueOf("{\"n\": " + i + "}"), 10L)
+                        .execute();
+            }
+        });
+
+        JsonStoreQueryDao queryDao = new JsonStoreQueryDao(getConfiguration());
+        queryDao.insert(storeId, "ordered", "select item_data from json_store_data order by item_path");
+        queryDao.insert(storeId, "unordered", "select item_data from json_store_data");
+
+        JsonStoreQueryExecDao dao = new JsonStoreQueryExecDao(getConfiguration(), new ConcordObjectMapper(TestObjectMapper.INSTANCE), queryDao);
+
+        // paging requires ORDER BY
+        try {
+            dao.preparePaged(storeId, "unordered");
+            fail("exception expected");
+        } catch (ValidationErrorsException e) {
+            // expected
+        }
+
+        JsonStoreQueryExecDao.PreparedQuery q = dao.preparePaged(storeId, "ordered");
+
+        List<Object> rows = new ArrayList<>();
+        JsonStoreQueryCursor cursor = null;
+        int pages = 0;
+        do {
+            JsonStoreQueryExecDao.Page page = dao.execPage(q, null, cursor, 10);
+            assertTrue(page.rows().size() <= 10);
+
+            rows.addAll(page.rows());
+            cursor = page.next();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(25, rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            assertEquals(i, ((Map<?, ?>) rows.get(i)).get("n"));
+        }
+
+        // the last page is full, but there are no more rows
+        JsonStoreQueryExecDao.Page page = dao.execPage(q, null, JsonStoreQueryCursor.of(15), 10);
+        assertEquals(10, page.rows().size());
+        assertNull(page.next());
+    }
+}
@@ -0,0 +1,120 @@
+package com.walmartlabs.concord.server.org.secret;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SecretDataCacheTest {
+
+    private static final byte[] PASSWORD = "pwd".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void testCached() {
+        SecretDataCache cache = new SecretDataCache(Duration.ofMinutes(1), 1024);
+        UUID secretId = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+
+        byte[] a = cache.get(secretId, PASSWORD, () -> load(loads, "a"));
+        byte[] b = cache.get(secretId, PASSWORD, () -> load(loads, "b"));
+
+        assertEquals("a", str(a));
+        assertEquals("a", str(b));
+        assertEquals(1, loads.get());
+
+        // the callers get their own copies
+        a[0] = 'x';
+        assertEquals("a", str(cache.get(secretId, PASSWORD, () -> load(loads, "c"))));
+    }
+
+    @Test
+    public void testPasswordIsPartOfTheKey() {
+        SecretDataCache cache = new SecretDataCache(Duration.ofMinutes(1), 1024);
+        UUID secretId = UUID.randomUUID();
+
+        cache.get(secretId, PASSWORD, () -> bytes("a"));
+        byte[] b = cache.get(secretId, "other".getBytes(StandardCharsets.UTF_8), () -> bytes("b"));
+
+        assertEquals("b", str(b));
+    }
+
+    @Test
+    public void testInvalidate() {
+        SecretDataCache cache = new SecretDataCache(Duration.ofMinutes(1), 1024);
+        UUID secretId = UUID.randomUUID();
+        UUID otherId = UUID.randomUUID();
+
+        cache.get(secretId, PASSWORD, () -> bytes("a"));
+        cache.get(otherId, PASSWORD, () -> bytes("x"));
+
+        cache.invalidate(secretId);
+
+        assertEquals("b", str(cache.get(secretId, PASSWORD, () -> bytes("b"))));
+        assertEquals("x", str(cache.get(otherId, PASSWORD, () -> bytes("y"))));
+    }
+
+    @Test
+    public void testInvalidateDuringLoad() {
+        SecretDataCache cache = new SecretDataCache(Duration.ofMinutes(1), 1024);
+        UUID secretId = UUID.randomUUID();
+
+        // the secret is updated while the old data is being loaded
+        byte[] a = cache.get(secretId, PASSWORD, () -> {
+            cache.invalidate(secretId);
+            return bytes("old");
+        });
+        assertEquals("old", str(a));
+
+        // the old data must not be cached
+        assertEquals("new", str(cache.get(secretId, PASSWORD, () -> bytes("new"))));
+    }
+
+    @Test
+    public void testDisabled() {
+        SecretDataCache cache = new SecretDataCache(Duration.ZERO, 1024);
+        UUID secretId = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(secretId, PASSWORD, () -> load(loads, "a"));
+        cache.get(secretId, PASSWORD, () -> load(loads, "a"));
+
+        assertEquals(2, loads.get());
+    }
+
+    private static byte[] load(AtomicInteger counter, String s) {
+        counter.incrementAndGet();
+        return bytes(s);
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String str(byte[] ab) {
+        return new String(ab, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,168 @@
+package com.walmartlabs.concord.server.process;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2019 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.AbstractDaoTest;
+import com.walmartlabs.concord.server.cfg.ProcessConfiguration;
+import com.walmartlabs.concord.server.process.ProcessCleaner.CleanerDao;
+import com.walmartlabs.concord.server.sdk.ProcessStatus;
+import org.jooq.JSONB;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.walmartlabs.concord.server.jooq.tables.ProcessEvents.PROCESS_EVENTS;
+import static com.walmartlabs.concord.server.jooq.tables.ProcessQueue.PROCESS_QUEUE;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Ignore("requires a local DB instance")
+public class ProcessCleanerTest extends AbstractDaoTest {
+
+    @Test
+    public void testChunkedCleanup() {
+        long day = 24 * 60 * 60 * 1000L;
+        Timestamp old = new Timestamp(System.currentTimeMillis() - 10 * day);
+        Timestamp recent = new Timestamp(System.currentTimeMillis());
+
+        // more processes than the batch size, the cleanup must go through all batches
+        List<UUID> oldFinished = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            oldFinished.add(insertProcess(old, ProcessStatus.FINISHED));
+        }
+        UUID oldRunning = insertProcess(old, ProcessStatus.RUNNING);
+        UUID recentFinished = insertProcess(recent, ProcessStatus.FINISHED);
+
+        // an event of a process which is no longer in the queue
+        UUID orphan = UUID.randomUUID();
+        insertEvent(orphan, old);
+
+        ProcessConfiguration cfg = mock(ProcessConfiguration.class);
+        when(cfg.isQueueCleanup()).thenReturn(true);
+        when(cfg.isEventsCleanup()).thenReturn(true);
+        when(cfg.getCleanupBatchSize()).thenReturn(3);
+        when(cfg.getCleanupBatchDelay()).thenReturn(0L);
+
+        Timestamp cutoff = new Timestamp(System.currentTimeMillis() - day);
+        List<ProcessCleaner.DataTable> tables = ProcessCleaner.dataTables(cfg);
+
+        CleanerDao dao = new CleanerDao(getConfiguration());
+        dao.deleteOldState(cutoff, cfg, tables);
+        dao.deleteOrphans(cutoff, cfg, tables);
+
+        for (UUID id : oldFinished) {
+            assertEquals(0, countProcesses(id));
+            assertEquals(0, countEvents(id));
+        }
+
+        assertEquals(1, countProcesses(oldRunning));
+        assertEquals(1, countEvents(oldRunning));
+
+        assertEquals(1, countProcesses(recentFinished));
+        assertEquals(1, countEvents(recentFinished));
+
+        assertEquals(0, countEvents(orphan));
+    }
+
+    @Test
+    public void testPartitionMaintenance() {
+        tx(tx -> {
+            tx.execute("create table TEST_PROCESS_DATA (INSTANCE_ID uuid, INSTANCE_CREATED_AT timestamp) partition by range (INSTANCE_CREATED_AT)");
+            tx.execute("create table TEST_PROCESS_DATA_OLD partition of TEST_PROCESS_DATA for values from ('2000-01-01') to ('2000-01-08')");
+            tx.execute("create table TEST_PROCESS_DATA_KEPT partition of TEST_PROCESS_DATA for values from ('2000-01-08') to ('2000-01-15')");
+        });
+
+        try {
+            // a process which is still in the queue keeps its partition
+            tx(tx -> tx.insertInto(PROCESS_QUEUE)
+                    .set(PROCESS_QUEUE.INSTANCE_ID, UUID.randomUUID())
+                    .set(PROCESS_QUEUE.PROCESS_KIND, ProcessKind.DEFAULT.toString())
+                    .set(PROCESS_QUEUE.CREATED_AT, Timestamp.valueOf("2000-01-10 00:00:00"))
+                    .set(PROCESS_QUEUE.CURRENT_STATUS, ProcessStatus.SUSPENDED.toString())
+                    .set(PROCESS_QUEUE.LAST_UPDATED_AT, Timestamp.valueOf("2000-01-10 00:00:00"))
+                    .execute());
+
+            // the current and two upcoming partitions
+            assertEquals(3, (int) fetchInt("select PROCESS_CREATE_PARTITIONS('TEST_PROCESS_DATA', '7 days'::interval, 2)"));
+            assertEquals(0, (int) fetchInt("select PROCESS_CREATE_PARTITIONS('TEST_PROCESS_DATA', '7 days'::interval, 2)"));
+
+            assertEquals(1, (int) fetchInt("select PROCESS_DROP_PARTITIONS('TEST_PROCESS_DATA', '2001-01-01'::timestamp)"));
+            assertEquals(0, (int) fetchInt("select count(*) from pg_class where relname = 'test_process_data_old'"));
+            assertEquals(1, (int) fetchInt("select count(*) from pg_class where relname = 'test_process_data_kept'"));
+
+            // regular tables are skipped
+            assertEquals(0, (int) fetchInt("select PROCESS_CREATE_PARTITIONS('PROCESS_EVENTS', '7 days'::interval, 2)"));
+        } finally {
+            tx(tx -> {
+                tx.execute("drop table TEST_PROCESS_DATA");
+                tx.deleteFrom(PROCESS_QUEUE).where(PROCESS_QUEUE.CREATED_AT.lt(Timestamp.valueOf("2001-01-01 00:00:00"))).execute();
+            });
+        }
+    }
+
+    private Integer fetchInt(String sql) {
+        Integer[] result = new Integer[1];
+        tx(tx -> result[0] = tx.resultQuery(sql).fetchOne(0, Integer.class));
+        return result[0];
+    }
+
+    private UUID insertProcess(Timestamp lastUpdatedAt, ProcessStatus status) {
+        UUID id = UUID.randomUUID();
+
+        tx(tx -> tx.insertInto(PROCESS_QUEUE)
+                .set(PROCESS_QUEUE.INSTANCE_ID, id)
+                .set(PROCESS_QUEUE.PROCESS_KIND, ProcessKind.DEFAULT.toString())
+                .set(PROCESS_QUEUE.CREATED_AT, lastUpdatedAt)
+                .set(PROCESS_QUEUE.CURRENT_STATUS, status.toString())
+                .set(PROCESS_QUEUE.LAST_UPDATED_AT, lastUpdatedAt)
+                .execute());
+
+        insertEvent(id, lastUpdatedAt);
+        return id;
+    }
+
+    private void insertEvent(UUID instanceId, Timestamp instanceCreatedAt) {
+        tx(tx -> tx.insertInto(PROCESS_EVENTS)
+                .set(PROCESS_EVENTS.INSTANCE_ID, instanceId)
+                .set(PROCESS_EVENTS.INSTANCE_CREATED_AT, instanceCreatedAt)
+                .set(PROCESS_EVENTS.EVENT_TYPE, "test")
+                .set(PROCESS_EVENTS.EVENT_DATE, instanceCreatedAt)
+                .set(PROCESS_EVENTS.EVENT_DATA, JSONB.valueOf("{}"))
+                .execute());
+    }
+
+    private int countProcesses(UUID instanceId) {
+        int[] result = new int[1];
+        tx(tx -> result[0] = tx.fetchCount(PROCESS_QUEUE, PROCESS_QUEUE.INSTANCE_ID.eq(instanceId)));
+        return result[0];
+    }
+
+    private int countEvents(UUID instanceId) {
+        int[] result = new int[1];
+        tx(tx -> result[0] = tx.fetchCount(PROCESS_EVENTS, PROCESS_EVENTS.INSTANCE_ID.eq(instanceId)));
+        return result[0];
+    }
+}
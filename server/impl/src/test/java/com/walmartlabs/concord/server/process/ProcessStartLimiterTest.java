@@ -0,0 +1,172 @@
+package com.walmartlabs.concord.server.process;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2019 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.policyengine.StartRateRule;
+import com.walmartlabs.concord.server.cfg.QosConfiguration;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+
+public class ProcessStartLimiterTest {
+
+    private static final long T0 = 1_000_000;
+
+    @Test
+    public void testOrgLimit() {
+        ProcessStartLimiter limiter = new ProcessStartLimiter(cfg(-1, 10000));
+        StartRateRule rule = rule(60, null, 2, null);
+
+        UUID orgId = UUID.randomUUID();
+
+        assertEquals(0, limiter.tryAcquire(orgId, null, rule, T0).retryAfter());
+        assertEquals(0, limiter.tryAcquire(orgId, null, rule, T0).retryAfter());
+        assertEquals(1000, limiter.tryAcquire(orgId, null, rule, T0).retryAfter());
+
+        // one token per second
+        assertEquals(0, limiter.tryAcquire(orgId, null, rule, T0 + 1000).retryAfter());
+        assertEquals(1000, limiter.tryAcquire(orgId, null, rule, T0 + 1000).retryAfter());
+    }
+
+    @Test
+    public void testProjectLimitReturnsOrgToken() {
+        // 10 starts per second for the org, 1 per minute for each project
+        ProcessStartLimiter limiter = new ProcessStartLimiter(cfg(10, 10000));
+        StartRateRule rule = rule(null, 1, null, null);
+
+        UUID orgId = UUID.randomUUID();
+        UUID projectId = UUID.randomUUID();
+
+        assertEquals(0, limiter.tryAcquire(orgId, projectId, rule, T0).retryAfter());
+        assertEquals(60000, limiter.tryAcquire(orgId, projectId, rule, T0).retryAfter());
+
+        // the org's token taken by the throttled start is returned,
+        // so the remaining 9 org tokens can be used by other projects
+        for (int i = 0; i < 9; i++) {
+            assertEquals(0, limiter.tryAcquire(orgId, UUID.randomUUID(), rule, T0).retryAfter());
+        }
+        assertEquals(100, limiter.tryAcquire(orgId, UUID.randomUUID(), rule, T0).retryAfter());
+    }
+
+    @Test
+    public void testRelease() {
+        ProcessStartLimiter limiter = new ProcessStartLimiter(cfg(-1, 10000));
+        StartRateRule rule = rule(60, 60, 1, null);
+
+        UUID orgId = UUID.randomUUID();
+        UUID projectId = UUID.randomUUID();
+
+        ProcessStartLimiter.Permit permit = limiter.tryAcquire(orgId, projectId, rule, T0);
+        assertEquals(0, permit.retryAfter());
+        assertEquals(1000, limiter.tryAcquire(orgId, projectId, rule, T0).retryAfter());
+
+        // e.g. the process wasn't created
+        limiter.release(permit);
+
+        assertEquals(0, limiter.tryAcquire(orgId, projectId, rule, T0).retryAfter());
+        assertEquals(1000, limiter.tryAcquire(orgId, projectId, rule, T0).retryAfter());
+    }
+
+    @Test
+    public void testReleaseReturnsOnlyTakenTokens() {
+        ProcessStartLimiter limiter = new ProcessStartLimiter(cfg(-1, 10000));
+        StartRateRule projectRule = rule(null, 60, 1, null);
+        StartRateRule orgRule = rule(60, null, 1, null);
+
+        UUID projectId = UUID.randomUUID();
+
+        // takes the project's only token
+        assertEquals(0, limiter.tryAcquire(UUID.randomUUID(), projectId, projectRule, T0).retryAfter());
+
+        // the org-only rule doesn't take a project token...
+        ProcessStartLimiter.Permit permit = limiter.tryAcquire(UUID.randomUUID(), projectId, orgRule, T0);
+        assertEquals(0, permit.retryAfter());
+
+        // ...so nothing is returned to the project
+        limiter.release(permit);
+        assertEquals(1000, limiter.tryAcquire(UUID.randomUUID(), projectId, projectRule, T0).retryAfter());
+    }
+
+    @Test
+    public void testDefaultBurst() {
+        ProcessStartLimiter limiter = new ProcessStartLimiter(cfg(-1, 10000));
+
+        // one second worth of starts, at least 1
+        StartRateRule rule = rule(60, null, null, null);
+        UUID orgId = UUID.randomUUID();
+        assertEquals(0, limiter.tryAcquire(orgId, null, rule, T0).retryAfter());
+        assertEquals(1000, limiter.tryAcquire(orgId, null, rule, T0).retryAfter());
+
+        rule = rule(600, null, null, null);
+        orgId = UUID.randomUUID();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, limiter.tryAcquire(orgId, null, rule, T0).retryAfter());
+        }
+        assertEquals(100, limiter.tryAcquire(orgId, null, rule, T0).retryAfter());
+    }
+
+    @Test
+    public void testFairShare() {
+        // 1 start per second for the whole server
+        ProcessStartLimiter limiter = new ProcessStartLimiter(cfg(1, 10000));
+
+        UUID orgA = UUID.randomUUID();
+        UUID orgB = UUID.randomUUID();
+
+        StartRateRule ruleA = rule(null, null, null, 3);
+        StartRateRule ruleB = rule(null, null, null, 1);
+
+        assertEquals(0, limiter.tryAcquire(orgB, null, ruleB, T0).retryAfter());
+        assertEquals(0, limiter.tryAcquire(orgA, null, ruleA, T0).retryAfter());
+
+        // 3/4 and 1/4 of the capacity
+        assertEquals(1334, limiter.tryAcquire(orgA, null, ruleA, T0).retryAfter());
+        assertEquals(4000, limiter.tryAcquire(orgB, null, ruleB, T0).retryAfter());
+
+        // "A" is no longer active, "B" gets the whole capacity
+        long t1 = T0 + 20000;
+        assertEquals(0, limiter.tryAcquire(orgB, null, ruleB, t1).retryAfter());
+        assertEquals(1000, limiter.tryAcquire(orgB, null, ruleB, t1).retryAfter());
+    }
+
+    @Test
+    public void testNoLimits() {
+        ProcessStartLimiter limiter = new ProcessStartLimiter(cfg(-1, 10000));
+
+        UUID orgId = UUID.randomUUID();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, limiter.tryAcquire(orgId, UUID.randomUUID(), null, T0).retryAfter());
+        }
+    }
+
+    private static QosConfiguration cfg(int maxStartsPerSecond, long fairShareWindowMs) {
+        QosConfiguration cfg = new QosConfiguration();
+        cfg.maxStartsPerSecond = maxStartsPerSecond;
+        cfg.fairShareWindowMs = fairShareWindowMs;
+        return cfg;
+    }
+
+    private static StartRateRule rule(Integer maxPerOrg, Integer maxPerProject, Integer burst, Integer weight) {
+        return new StartRateRule(null, maxPerOrg, maxPerProject, burst, weight);
+    }
+}
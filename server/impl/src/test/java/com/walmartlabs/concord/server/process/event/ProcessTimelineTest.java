@@ -0,0 +1,86 @@
+package com.walmartlabs.concord.server.process.event;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.process.event.ProcessTimeline.StatusChange;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ProcessTimelineTest {
+
+    @Test
+    public void testInitialStart() {
+        List<StatusChange> history = Arrays.asList(
+                change("NEW", 0),
+                change("PREPARING", 10),
+                change("ENQUEUED", 100),
+                change("STARTING", 400),
+                change("RUNNING", 1000),
+                change("FINISHED", 5000));
+
+        Map<String, Long> m = ProcessTimeline.durations(history);
+        assertEquals(100L, (long) m.get("newToEnqueued"));
+        assertEquals(300L, (long) m.get("enqueuedToStarting"));
+        assertEquals(600L, (long) m.get("startingToRunning"));
+        assertEquals(900L, (long) m.get("enqueuedToRunning"));
+    }
+
+    @Test
+    public void testResumed() {
+        List<StatusChange> history = Arrays.asList(
+                change("NEW", 0),
+                change("ENQUEUED", 100),
+                change("STARTING", 400),
+                change("RUNNING", 1000),
+                change("SUSPENDED", 2000),
+                change("RESUMING", 10000),
+                change("ENQUEUED", 10050),
+                change("STARTING", 10100),
+                change("RUNNING", 10300));
+
+        Map<String, Long> m = ProcessTimeline.durations(history);
+        assertNull(m.get("newToEnqueued"));
+        assertEquals(50L, (long) m.get("enqueuedToStarting"));
+        assertEquals(200L, (long) m.get("startingToRunning"));
+        assertEquals(250L, (long) m.get("enqueuedToRunning"));
+    }
+
+    @Test
+    public void testNotRunningYet() {
+        List<StatusChange> history = Arrays.asList(
+                change("NEW", 0),
+                change("ENQUEUED", 100));
+
+        Map<String, Long> m = ProcessTimeline.durations(history);
+        assertEquals(1, m.size());
+        assertEquals(100L, (long) m.get("newToEnqueued"));
+    }
+
+    private static StatusChange change(String status, long time) {
+        return StatusChange.of(status, new Date(time));
+    }
+}
@@ -0,0 +1,47 @@
+package com.walmartlabs.concord.server.process.queue;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2019 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.junit.Test;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+
+public class ProcessCursorTest {
+
+    @Test
+    public void testRoundTrip() {
+        Timestamp createdAt = Timestamp.valueOf("2020-07-22 10:11:12.123456");
+        UUID instanceId = UUID.randomUUID();
+
+        ProcessCursor c = ProcessCursor.parse(ProcessCursor.of(createdAt, instanceId).encode());
+        assertEquals(createdAt, c.createdAt());
+        assertEquals(123456000, c.createdAt().getNanos());
+        assertEquals(instanceId, c.instanceId());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalid() {
+        ProcessCursor.parse("not-a-cursor");
+    }
+}
@@ -0,0 +1,106 @@
+package com.walmartlabs.concord.server.process.queue;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2019 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.AbstractDaoTest;
+import com.walmartlabs.concord.server.ConcordObjectMapper;
+import com.walmartlabs.concord.server.TestObjectMapper;
+import com.walmartlabs.concord.server.process.ProcessKey;
+import com.walmartlabs.concord.server.process.ProcessKind;
+import com.walmartlabs.concord.server.sdk.ProcessStatus;
+import org.jooq.DSLContext;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.walmartlabs.concord.server.jooq.tables.ProcessQueue.PROCESS_QUEUE;
+import static com.walmartlabs.concord.server.jooq.tables.ProcessQueueStatsDeltas.PROCESS_QUEUE_STATS_DELTAS;
+import static org.junit.Assert.assertEquals;
+
+@Ignore("requires a local DB instance")
+public class ProcessQueueStatsTest extends AbstractDaoTest {
+
+    @Test
+    public void testTriggersAndFold() {
+        ProcessQueueDao dao = new ProcessQueueDao(getConfiguration(), new ConcordObjectMapper(TestObjectMapper.INSTANCE));
+
+        Map<String, Integer> before = dao.getStatistics();
+
+        // insert trigger
+        ProcessKey a = newProcessKey();
+        ProcessKey b = newProcessKey();
+        ProcessKey c = newProcessKey();
+        tx(tx -> {
+            insert(dao, tx, a, ProcessStatus.NEW);
+            insert(dao, tx, b, ProcessStatus.NEW);
+            insert(dao, tx, c, ProcessStatus.NEW);
+        });
+
+        assertDiff(before, dao.getStatistics(), ProcessStatus.NEW, 3);
+        assertDiff(before, dao.getStatistics(), ProcessStatus.SUSPENDED, 0);
+
+        // update trigger, no-op updates are ignored
+        tx(tx -> {
+            dao.updateStatus(tx, a, ProcessStatus.SUSPENDED);
+            dao.updateStatus(tx, b, ProcessStatus.SUSPENDED);
+            dao.updateStatus(tx, b, ProcessStatus.SUSPENDED);
+        });
+
+        Map<String, Integer> afterUpdate = dao.getStatistics();
+        assertDiff(before, afterUpdate, ProcessStatus.NEW, 1);
+        assertDiff(before, afterUpdate, ProcessStatus.SUSPENDED, 2);
+
+        // folding doesn't change the totals and removes the deltas
+        dao.foldStatisticsDeltas();
+        assertEquals(afterUpdate, dao.getStatistics());
+        tx(tx -> assertEquals(0, tx.fetchCount(PROCESS_QUEUE_STATS_DELTAS)));
+
+        // delete trigger
+        tx(tx -> tx.deleteFrom(PROCESS_QUEUE)
+                .where(PROCESS_QUEUE.INSTANCE_ID.in(a.getInstanceId(), b.getInstanceId(), c.getInstanceId()))
+                .execute());
+
+        Map<String, Integer> afterDelete = dao.getStatistics();
+        assertDiff(before, afterDelete, ProcessStatus.NEW, 0);
+        assertDiff(before, afterDelete, ProcessStatus.SUSPENDED, 0);
+
+        dao.foldStatisticsDeltas();
+        assertEquals(afterDelete, dao.getStatistics());
+    }
+
+    private static void insert(ProcessQueueDao dao, DSLContext tx, ProcessKey processKey, ProcessStatus status) {
+        dao.insert(tx, processKey, status, ProcessKind.DEFAULT, null, null, null, null, Collections.emptyMap(), null);
+    }
+
+    private static ProcessKey newProcessKey() {
+        return new ProcessKey(UUID.randomUUID(), new Timestamp(System.currentTimeMillis()));
+    }
+
+    private static void assertDiff(Map<String, Integer> before, Map<String, Integer> after, ProcessStatus status, int expected) {
+        int a = before.getOrDefault(status.name(), 0);
+        int b = after.getOrDefault(status.name(), 0);
+        assertEquals(status.name(), expected, b - a);
+    }
+}
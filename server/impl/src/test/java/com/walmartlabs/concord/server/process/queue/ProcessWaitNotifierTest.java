@@ -0,0 +1,123 @@
+package com.walmartlabs.concord.server.process.queue;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.cfg.ProcessWaitWatchdogConfiguration;
+import com.walmartlabs.concord.server.jooq.enums.ProcessLockScope;
+import com.walmartlabs.concord.server.sdk.ProcessStatus;
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ProcessWaitNotifierTest {
+
+    @Test
+    public void testStatusChange() throws Exception {
+        ProcessWaitNotifier notifier = new ProcessWaitNotifier(cfg(10));
+
+        UUID running = UUID.randomUUID();
+        UUID finished = UUID.randomUUID();
+
+        // only the final statuses are reported
+        notifier.onStatusChange(running, ProcessStatus.RUNNING);
+        notifier.onStatusChange(finished, ProcessStatus.FINISHED);
+
+        ProcessWaitNotifier.Event e = notifier.take();
+        assertEquals(ProcessWaitNotifier.EventType.PROCESS_FINISHED, e.type());
+        assertEquals(finished, e.instanceId());
+    }
+
+    @Test
+    public void testSleep() throws Exception {
+        ProcessWaitNotifier notifier = new ProcessWaitNotifier(cfg(10));
+
+        UUID sleeping = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+
+        long t1 = System.currentTimeMillis();
+
+        notifier.onWaitChange(sleeping, ProcessSleepCondition.builder()
+                .resumeEvent("wake-up")
+                .until(new Date(t1 + 300))
+                .build());
+
+        notifier.onLockRelease(UUID.randomUUID(), UUID.randomUUID(), ProcessLockScope.PROJECT, "test");
+        notifier.onStatusChange(other, ProcessStatus.FAILED);
+
+        // the events without a delay are available right away
+        assertEquals(ProcessWaitNotifier.EventType.LOCK_RELEASED, notifier.take().type());
+        assertEquals(other, notifier.take().instanceId());
+
+        // sleep conditions are reported when the sleep expires
+        ProcessWaitNotifier.Event e = notifier.take();
+        assertEquals(ProcessWaitNotifier.EventType.WAIT_CHANGED, e.type());
+        assertEquals(sleeping, e.instanceId());
+        assertTrue(System.currentTimeMillis() - t1 >= 250);
+    }
+
+    @Test
+    public void testFarSleepIsNotQueued() throws Exception {
+        ProcessWaitNotifier notifier = new ProcessWaitNotifier(cfg(10));
+
+        UUID sleeping = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+
+        // expires after the next periodic check
+        notifier.onWaitChange(sleeping, ProcessSleepCondition.builder()
+                .resumeEvent("wake-up")
+                .until(new Date(System.currentTimeMillis() + 60_000))
+                .build());
+
+        notifier.onStatusChange(other, ProcessStatus.FINISHED);
+
+        assertEquals(1, notifier.size());
+        assertEquals(other, notifier.take().instanceId());
+    }
+
+    @Test
+    public void testQueueLimit() throws Exception {
+        ProcessWaitNotifier notifier = new ProcessWaitNotifier(cfg(1));
+
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        UUID c = UUID.randomUUID();
+
+        notifier.onStatusChange(a, ProcessStatus.FINISHED);
+        notifier.onStatusChange(b, ProcessStatus.FINISHED);
+        assertEquals(a, notifier.take().instanceId());
+
+        // "b" was dropped, the queue accepts new events again
+        notifier.onStatusChange(c, ProcessStatus.FINISHED);
+        assertEquals(c, notifier.take().instanceId());
+    }
+
+    private static ProcessWaitWatchdogConfiguration cfg(int queueSize) {
+        ProcessWaitWatchdogConfiguration cfg = mock(ProcessWaitWatchdogConfiguration.class);
+        when(cfg.getEventQueueSize()).thenReturn(queueSize);
+        when(cfg.getPeriod()).thenReturn(5L);
+        return cfg;
+    }
+}
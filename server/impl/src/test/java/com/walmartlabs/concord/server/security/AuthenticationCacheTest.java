@@ -0,0 +1,103 @@
+package com.walmartlabs.concord.server.security;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.cfg.AuthCacheConfiguration;
+import com.walmartlabs.concord.server.process.PartialProcessKey;
+import com.walmartlabs.concord.server.process.queue.ProcessInitiatorEntry;
+import com.walmartlabs.concord.server.process.queue.ProcessQueueManager;
+import com.walmartlabs.concord.server.sdk.ProcessStatus;
+import com.walmartlabs.concord.server.security.apikey.ApiKeyDao;
+import com.walmartlabs.concord.server.user.UserDao;
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class AuthenticationCacheTest {
+
+    @Test
+    public void testFinishedProcess() {
+        UUID instanceId = UUID.randomUUID();
+        PartialProcessKey processKey = PartialProcessKey.from(instanceId);
+
+        ProcessQueueManager queueManager = mock(ProcessQueueManager.class);
+        when(queueManager.getInitiator(processKey)).thenReturn(ProcessInitiatorEntry.builder()
+                .instanceId(instanceId)
+                .createdAt(new Date())
+                .status(ProcessStatus.RUNNING)
+                .initiatorId(UUID.randomUUID())
+                .build());
+        when(queueManager.getStatus(processKey)).thenReturn(ProcessStatus.RUNNING);
+
+        AuthenticationCache cache = new AuthenticationCache(cfg(60000), mock(ApiKeyDao.class), mock(UserDao.class), queueManager);
+
+        assertEquals(ProcessStatus.RUNNING, cache.getInitiator(processKey).status());
+        assertEquals(ProcessStatus.RUNNING, cache.getInitiator(processKey).status());
+
+        // the initiator was loaded once, the status is read every time
+        verify(queueManager, times(1)).getInitiator(processKey);
+
+        // the process finishes, its session key must be rejected right away
+        when(queueManager.getStatus(processKey)).thenReturn(ProcessStatus.FINISHED);
+        assertEquals(ProcessStatus.FINISHED, cache.getInitiator(processKey).status());
+
+        // finished processes are not cached
+        when(queueManager.getInitiator(processKey)).thenReturn(ProcessInitiatorEntry.builder()
+                .instanceId(instanceId)
+                .createdAt(new Date())
+                .status(ProcessStatus.FINISHED)
+                .build());
+        assertEquals(ProcessStatus.FINISHED, cache.getInitiator(processKey).status());
+        verify(queueManager, times(2)).getInitiator(processKey);
+    }
+
+    @Test
+    public void testRemovedProcess() {
+        UUID instanceId = UUID.randomUUID();
+        PartialProcessKey processKey = PartialProcessKey.from(instanceId);
+
+        ProcessQueueManager queueManager = mock(ProcessQueueManager.class);
+        when(queueManager.getInitiator(processKey)).thenReturn(ProcessInitiatorEntry.builder()
+                .instanceId(instanceId)
+                .createdAt(new Date())
+                .status(ProcessStatus.RUNNING)
+                .initiatorId(UUID.randomUUID())
+                .build());
+
+        AuthenticationCache cache = new AuthenticationCache(cfg(60000), mock(ApiKeyDao.class), mock(UserDao.class), queueManager);
+        assertNotNull(cache.getInitiator(processKey));
+
+        when(queueManager.getStatus(processKey)).thenReturn(null);
+        assertNull(cache.getInitiator(processKey));
+    }
+
+    private static AuthCacheConfiguration cfg(long ttl) {
+        AuthCacheConfiguration cfg = mock(AuthCacheConfiguration.class);
+        when(cfg.getTtl()).thenReturn(ttl);
+        when(cfg.getMaxSize()).thenReturn(100L);
+        when(cfg.isEnabled()).thenReturn(ttl > 0);
+        return cfg;
+    }
+}
@@ -0,0 +1,83 @@
+package com.walmartlabs.concord.server.websocket;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2019 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.walmartlabs.concord.server.queueclient.message.MessageType;
+import com.walmartlabs.concord.server.queueclient.message.ProcessRequest;
+import org.eclipse.jetty.websocket.api.Session;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class WebSocketChannelManagerTest {
+
+    @Test
+    public void testRequestGroups() {
+        WebSocketChannelManager m = new WebSocketChannelManager();
+
+        Map<String, Object> caps = Collections.singletonMap("flavor", "test");
+        UUID a = connect(m);
+        UUID b = connect(m);
+        UUID c = connect(m);
+
+        m.onRequest(a, request(1, caps));
+        m.onRequest(b, request(2, caps));
+        m.onRequest(c, request(3, Collections.singletonMap("flavor", "other")));
+
+        List<WebSocketChannelManager.RequestGroup<ProcessRequest>> groups = m.getRequestGroups(MessageType.PROCESS_REQUEST);
+        assertEquals(2, groups.size());
+        assertEquals(3, m.getRequestCount(MessageType.PROCESS_REQUEST));
+        assertEquals(3, m.getRequests(MessageType.PROCESS_REQUEST).size());
+
+        // responses and closed channels remove the requests from the index
+        m.sendResponse(a, request(1, caps));
+        m.close(c);
+
+        groups = m.getRequestGroups(MessageType.PROCESS_REQUEST);
+        assertEquals(1, groups.size());
+        assertEquals(caps, groups.get(0).getCapabilities());
+        assertEquals(1, groups.get(0).getRequests().size());
+        assertEquals(b, groups.get(0).getRequests().keySet().iterator().next().getChannelId());
+
+        m.close(b);
+        assertTrue(m.getRequestGroups(MessageType.PROCESS_REQUEST).isEmpty());
+        assertEquals(0, m.getRequestCount(MessageType.PROCESS_REQUEST));
+    }
+
+    private static UUID connect(WebSocketChannelManager m) {
+        UUID channelId = UUID.randomUUID();
+        m.add(channelId, new WebSocketChannel(channelId, "agent-" + channelId, mock(Session.class), "test"));
+        return channelId;
+    }
+
+    private static ProcessRequest request(long correlationId, Map<String, Object> caps) {
+        ProcessRequest r = new ProcessRequest(caps);
+        r.setCorrelationId(correlationId);
+        return r;
+    }
+}
@@ -20,52 +20,250 @@ package com.walmartlabs.concord.server.plugins.ansible;
  * =====
  */
 
+import com.walmartlabs.concord.server.sdk.BackgroundTask;
 import com.walmartlabs.concord.server.sdk.ScheduledTask;
 import org.jooq.DSLContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.util.List;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+/**
+ * Processes events in batches using a persistent marker. Events can be
+ * split into several partitions, each partition is processed concurrently
+ * and has its own marker.
+ * <p>
+ * When the number of partitions changes, the markers of the old partitions
+ * are first moved to the same position (each old partition processes its
+ * remaining events up to the most advanced old marker). Only then the old
+ * markers are replaced with the new ones, in a single transaction. This way
+ * each event is processed exactly once, regardless of the number of partitions.
+ */
 // TODO: move to plugins sdk?
-public abstract class AbstractEventProcessor<E extends AbstractEventProcessor.Event> implements ScheduledTask {
+public abstract class AbstractEventProcessor<E extends AbstractEventProcessor.Event> implements ScheduledTask, BackgroundTask {
+
+    private static final Logger log = LoggerFactory.getLogger(AbstractEventProcessor.class);
+
+    private static final Pattern PARTITION_MARKER_PATTERN = Pattern.compile("^(.+)-(\\d+)-of-(\\d+)$");
 
     private final String processorName;
     private final EventMarkerDao eventMarkerDao;
     private final int fetchLimit;
+    private final int partitions;
+    private final ExecutorService executor;
 
     protected AbstractEventProcessor(String processorName, EventMarkerDao eventMarkerDao, int fetchLimit) {
+        this(processorName, eventMarkerDao, fetchLimit, 1);
+    }
+
+    protected AbstractEventProcessor(String processorName, EventMarkerDao eventMarkerDao, int fetchLimit, int partitions) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("The number of partitions must be greater than zero: " + partitions);
+        }
+
         this.processorName = processorName;
         this.eventMarkerDao = eventMarkerDao;
         this.fetchLimit = fetchLimit;
+        this.partitions = partitions;
+        this.executor = partitions > 1 ? Executors.newFixedThreadPool(partitions) : null;
     }
 
     @Override
-    public void performTask() {
-        int processedEvents = 0;
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public void performTask() throws Exception {
+        repartition();
+
+        if (partitions == 1) {
+            processPartition(0);
+            return;
+        }
+
+        List<Future<?>> futures = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            int partition = i;
+            futures.add(executor.submit(() -> processPartition(partition)));
+        }
+
+        Exception error = null;
+        for (Future<?> f : futures) {
+            try {
+                f.get();
+            } catch (ExecutionException e) {
+                if (error == null) {
+                    error = e;
+                }
+            }
+        }
+
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Called after each processed batch.
+     *
+     * @param partition the partition number
+     * @param lag the number of events which are not yet processed by the partition
+     * @param lagMs the age (ms) of the oldest event in the batch at the time
+     *              it was processed. Zero if there were no events to process.
+     */
+    protected void onBatchProcessed(int partition, long lag, long lagMs) {
+        // do nothing
+    }
+
+    /**
+     * Replaces the markers left by a different number of partitions (e.g. after
+     * a {@code workerCount} change) with the markers of the current partitions.
+     */
+    private void repartition() {
+        Map<String, Long> markers = eventMarkerDao.list(processorName);
+
+        Map<String, Long> stale = new HashMap<>(markers);
+        for (int i = 0; i < partitions; i++) {
+            stale.remove(getMarkerName(processorName, i, partitions));
+        }
+
+        if (stale.isEmpty()) {
+            return;
+        }
+
+        if (stale.size() != markers.size()) {
+            throw new IllegalStateException("Found markers of different partition schemes: " + markers.keySet() + ". " +
+                    "Expected only " + partitions + " partition(s) of '" + processorName + "'");
+        }
+
+        int oldPartitions = -1;
+        for (String name : stale.keySet()) {
+            int n = parsePartitions(processorName, name);
+            if (oldPartitions >= 0 && oldPartitions != n) {
+                throw new IllegalStateException("Found markers of different partition schemes: " + markers.keySet());
+            }
+            oldPartitions = n;
+        }
 
+        // the old partitions can be at different positions, move them all to the most advanced one
+        long target = Collections.max(stale.values());
+
+        log.info("repartition ['{}'] -> moving {} old partition(s) to {}...", processorName, oldPartitions, target);
+
+        for (int i = 0; i < oldPartitions; i++) {
+            String markerName = getMarkerName(processorName, i, oldPartitions);
+            long eventSeq = stale.getOrDefault(markerName, -1L);
+
+            int processedEvents;
+            do {
+                EventMarkerDao.EventMarker m = EventMarkerDao.EventMarker.builder()
+                        .eventSeq(eventSeq)
+                        .maxEventSeq(target)
+                        .build();
+
+                processedEvents = process(markerName, i, oldPartitions, m, false);
+                eventSeq = eventMarkerDao.get(markerName).eventSeq();
+            } while (processedEvents >= fetchLimit);
+        }
+
+        List<String> newMarkers = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            newMarkers.add(getMarkerName(processorName, i, partitions));
+        }
+
+        eventMarkerDao.tx(tx -> eventMarkerDao.replace(tx, stale.keySet(), newMarkers, target));
+
+        log.info("repartition ['{}'] -> done, {} -> {} partition(s) starting from {}", processorName, oldPartitions, partitions, target);
+    }
+
+    private void processPartition(int partition) {
+        String markerName = getMarkerName(processorName, partition, partitions);
+
+        int processedEvents;
         do {
-            EventMarkerDao.EventMarker m = eventMarkerDao.get(processorName);
-            processedEvents = process(m, fetchLimit);
+            EventMarkerDao.EventMarker m = eventMarkerDao.get(markerName);
+            processedEvents = process(markerName, partition, partitions, m, true);
         } while (processedEvents >= fetchLimit);
     }
 
-    private int process(EventMarkerDao.EventMarker m, int fetchLimit) {
+    static String getMarkerName(String processorName, int partition, int partitions) {
+        if (partitions == 1) {
+            // keep the old name for backward compatibility
+            return processorName;
+        }
+
+        return processorName + "-" + partition + "-of-" + partitions;
+    }
+
+    static int parsePartitions(String processorName, String markerName) {
+        if (processorName.equals(markerName)) {
+            return 1;
+        }
+
+        Matcher m = PARTITION_MARKER_PATTERN.matcher(markerName);
+        if (!m.matches() || !processorName.equals(m.group(1))) {
+            throw new IllegalArgumentException("Invalid marker name: " + markerName);
+        }
+
+        return Integer.parseInt(m.group(3));
+    }
+
+    private int process(String markerName, int partition, int partitions, EventMarkerDao.EventMarker m, boolean reportLag) {
         return eventMarkerDao.txResult(tx -> {
-            List<E> events = processEvents(tx, m, fetchLimit);
+            List<E> events = processEvents(tx, m, partition, partitions, fetchLimit);
             if (events.isEmpty()) {
-                eventMarkerDao.update(tx, processorName, m.maxEventSeq());
+                eventMarkerDao.update(tx, markerName, m.maxEventSeq());
+                if (reportLag) {
+                    onBatchProcessed(partition, 0, 0);
+                }
                 return 0;
             }
 
             E lastEvent = events.get(events.size() - 1);
-            eventMarkerDao.update(tx, processorName, lastEvent.eventSeq());
+            eventMarkerDao.update(tx, markerName, lastEvent.eventSeq());
+
+            if (reportLag) {
+                long lag = 0;
+                if (events.size() >= fetchLimit) {
+                    lag = countEvents(tx, lastEvent.eventSeq(), m.maxEventSeq(), partition, partitions);
+                }
+
+                long lagMs = Math.max(0, System.currentTimeMillis() - events.get(0).eventDate().getTime());
+                onBatchProcessed(partition, lag, lagMs);
+            }
 
             return events.size();
         });
     }
 
-    protected abstract List<E> processEvents(DSLContext tx, EventMarkerDao.EventMarker m, int fetchLimit);
+    /**
+     * Processes the next batch of events of the specified partition.
+     * Implementations must return only the events which belong to the partition
+     * and must not return events past {@link EventMarkerDao.EventMarker#maxEventSeq()}.
+     */
+    protected abstract List<E> processEvents(DSLContext tx, EventMarkerDao.EventMarker m, int partition, int partitions, int fetchLimit);
+
+    /**
+     * Returns the number of events of the specified partition in the
+     * {@code (afterEventSeq, maxEventSeq]} range. Implementations can cap
+     * the returned value.
+     */
+    protected abstract long countEvents(DSLContext tx, long afterEventSeq, long maxEventSeq, int partition, int partitions);
 
     public interface Event {
+
         long eventSeq();
+
+        Timestamp eventDate();
     }
 }
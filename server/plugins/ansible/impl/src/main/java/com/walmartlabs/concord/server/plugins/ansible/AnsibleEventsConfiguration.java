@@ -39,12 +39,21 @@ public class AnsibleEventsConfiguration implements Serializable {
     @Config("ansibleEvents.fetchLimit")
     private int fetchLimit;
 
+    @Inject
+    @Config("ansibleEvents.workerCount")
+    private int workerCount;
+
     public AnsibleEventsConfiguration() {
     }
 
     public AnsibleEventsConfiguration(int period, int fetchLimit) {
+        this(period, fetchLimit, 1);
+    }
+
+    public AnsibleEventsConfiguration(int period, int fetchLimit, int workerCount) {
         this.period = period;
         this.fetchLimit = fetchLimit;
+        this.workerCount = workerCount;
     }
 
     public int getPeriod() {
@@ -54,4 +63,8 @@ public class AnsibleEventsConfiguration implements Serializable {
     public int getFetchLimit() {
         return fetchLimit;
     }
+
+    public int getWorkerCount() {
+        return workerCount;
+    }
 }
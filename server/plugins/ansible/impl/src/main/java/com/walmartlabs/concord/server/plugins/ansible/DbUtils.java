@@ -32,6 +32,8 @@ public final class DbUtils {
     /**
      * Do not use it as generic "INSERT ... ON CONFLICT UPDATE" solution.
      * It works only until there's only one "inserter".
+     * Note: {@link EventFetcher} partitions events by process instance ID, so
+     * each key (which always includes the instance ID) has only one "inserter".
      */
     public static <E> void upsert(DSLContext tx, List<E> items,
                                   Update<E> update, Insert<E> insert) {
@@ -42,19 +42,27 @@ public class EventFetcher extends AbstractEventProcessor<EventProcessor.Event> {
 
     private static final String PROCESSOR_NAME = "ansible-event-processor";
 
+    /**
+     * Max value of the lag metric, limits the cost of counting the unprocessed events.
+     */
+    private static final int MAX_LAG_COUNT = 100_000;
+
     private final AnsibleEventsConfiguration cfg;
     private final EventFetcher.AnsibleEventDao dao;
     private final List<EventProcessor> processors;
+    private final EventFetcherLag lag;
 
     @Inject
     public EventFetcher(AnsibleEventsConfiguration cfg,
                         EventMarkerDao eventMarkerDao,
                         AnsibleEventDao dao,
-                        List<EventProcessor> processors) {
-        super(PROCESSOR_NAME, eventMarkerDao, cfg.getFetchLimit());
+                        List<EventProcessor> processors,
+                        EventFetcherLag lag) {
+        super(PROCESSOR_NAME, eventMarkerDao, cfg.getFetchLimit(), cfg.getWorkerCount());
         this.cfg = cfg;
         this.dao = dao;
         this.processors = processors;
+        this.lag = lag;
     }
 
     @Override
@@ -63,8 +71,13 @@ public class EventFetcher extends AbstractEventProcessor<EventProcessor.Event> {
     }
 
     @Override
-    protected List<EventProcessor.Event> processEvents(DSLContext tx, EventMarkerDao.EventMarker marker, int fetchLimit) {
-        List<EventProcessor.Event> events = dao.list(tx, marker, fetchLimit);
+    protected void onBatchProcessed(int partition, long lag, long lagMs) {
+        this.lag.update(partition, lag, lagMs);
+    }
+
+    @Override
+    protected List<EventProcessor.Event> processEvents(DSLContext tx, EventMarkerDao.EventMarker marker, int partition, int partitions, int fetchLimit) {
+        List<EventProcessor.Event> events = dao.list(tx, marker, partition, partitions, fetchLimit);
         if (events.isEmpty()) {
             return Collections.emptyList();
         }
@@ -76,6 +89,11 @@ public class EventFetcher extends AbstractEventProcessor<EventProcessor.Event> {
         return events;
     }
 
+    @Override
+    protected long countEvents(DSLContext tx, long afterEventSeq, long maxEventSeq, int partition, int partitions) {
+        return dao.count(tx, afterEventSeq, maxEventSeq, partition, partitions, MAX_LAG_COUNT);
+    }
+
     @Named
     public static class AnsibleEventDao extends AbstractDao {
 
@@ -92,27 +110,73 @@ public class EventFetcher extends AbstractEventProcessor<EventProcessor.Event> {
             return super.txResult(t);
         }
 
-        private static SelectConditionStep<Record1<JSONB>> payloadField(DSLContext tx, String ... keys) {
-            return tx.select(function("jsonb_object_agg", JSONB.class, field("key"), field("value")))
-                    .from(table("jsonb_each(pe.EVENT_DATA)"))
-                    .where(field("key").in(Arrays.asList(keys)));
+        /**
+         * Returns a JSON object with the specified keys of the event's data.
+         * Missing keys are returned as JSON nulls.
+         */
+        private static Field<JSONB> payloadField(ProcessEvents pe, String... keys) {
+            List<Field<?>> args = new ArrayList<>(keys.length * 2);
+            for (String k : keys) {
+                args.add(inline(k));
+                args.add(field("{0} -> {1}", JSONB.class, pe.EVENT_DATA, inline(k)));
+            }
+            return function("jsonb_build_object", JSONB.class, args.toArray(new Field<?>[0]));
         }
 
-        public List<EventProcessor.Event> list(DSLContext tx, EventMarkerDao.EventMarker marker, int count) {
+        /**
+         * Returns the events of the specified partition in the {@code (afterEventSeq, maxEventSeq]} range.
+         * All events of the same process end up in the same partition.
+         * The partition key matches the IDX_PROC_EVENTS_ANSIBLE_PART index.
+         */
+        private static Condition filter(ProcessEvents pe, long afterEventSeq, long maxEventSeq, int partition, int partitions) {
+            Condition filter = pe.EVENT_TYPE.in(Constants.ANSIBLE_EVENT_TYPE, Constants.ANSIBLE_PLAYBOOK_INFO, Constants.ANSIBLE_PLAYBOOK_RESULT)
+                    .and(pe.EVENT_SEQ.greaterThan(afterEventSeq))
+                    .and(pe.EVENT_SEQ.lessOrEqual(maxEventSeq));
+
+            if (partitions > 1) {
+                filter = filter.and(field("get_byte(uuid_send({0}), 15)", Integer.class, pe.INSTANCE_ID).in(partitionKeys(partition, partitions)));
+            }
+
+            return filter;
+        }
+
+        /**
+         * Returns the values of the last byte of the instance ID which belong to the specified partition.
+         * Using a list of values instead of {@code key % partitions = partition} allows the DB to use an index.
+         */
+        static List<Integer> partitionKeys(int partition, int partitions) {
+            List<Integer> result = new ArrayList<>();
+            for (int b = partition; b < 256; b += partitions) {
+                result.add(b);
+            }
+            return result;
+        }
+
+        public long count(DSLContext tx, long afterEventSeq, long maxEventSeq, int partition, int partitions, int limit) {
+            ProcessEvents pe = PROCESS_EVENTS.as("pe");
+
+            return tx.fetchCount(tx.selectOne()
+                    .from(pe)
+                    .where(filter(pe, afterEventSeq, maxEventSeq, partition, partitions))
+                    .limit(limit));
+        }
+
+        public List<EventProcessor.Event> list(DSLContext tx, EventMarkerDao.EventMarker marker, int partition, int partitions, int count) {
             ProcessEvents pe = PROCESS_EVENTS.as("pe");
 
+            Condition filter = filter(pe, marker.eventSeq(), marker.maxEventSeq(), partition, partitions);
+
             SelectConditionStep<Record6<UUID, Timestamp, Long, Timestamp, String, JSONB>> q = tx.select(
                     pe.INSTANCE_ID,
                     pe.INSTANCE_CREATED_AT,
                     pe.EVENT_SEQ,
                     pe.EVENT_DATE,
                     pe.EVENT_TYPE,
-                    when(pe.EVENT_TYPE.eq(Constants.ANSIBLE_EVENT_TYPE), payloadField(tx, "host", "hostGroup", "status", "duration", "ignore_errors", "currentRetryCount", "hostStatus", "playId", "playbookId", "parentCorrelationId", "action", "isHandler", "taskId", "task"))
-                            .when(pe.EVENT_TYPE.eq(Constants.ANSIBLE_PLAYBOOK_INFO), payloadField(tx, "plays", "playbookId", "playbook", "uniqueHosts", "totalWork", "parentCorrelationId", "currentRetryCount"))
-                            .when(pe.EVENT_TYPE.eq(Constants.ANSIBLE_PLAYBOOK_RESULT), payloadField(tx, "playbookId", "status", "parentCorrelationId")))
+                    when(pe.EVENT_TYPE.eq(Constants.ANSIBLE_EVENT_TYPE), payloadField(pe, "host", "hostGroup", "status", "duration", "ignore_errors", "currentRetryCount", "hostStatus", "playId", "playbookId", "parentCorrelationId", "action", "isHandler", "taskId", "task"))
+                            .when(pe.EVENT_TYPE.eq(Constants.ANSIBLE_PLAYBOOK_INFO), payloadField(pe, "plays", "playbookId", "playbook", "uniqueHosts", "totalWork", "parentCorrelationId", "currentRetryCount"))
+                            .when(pe.EVENT_TYPE.eq(Constants.ANSIBLE_PLAYBOOK_RESULT), payloadField(pe, "playbookId", "status", "parentCorrelationId")))
                     .from(pe)
-                    .where(pe.EVENT_TYPE.in(Constants.ANSIBLE_EVENT_TYPE, Constants.ANSIBLE_PLAYBOOK_INFO, Constants.ANSIBLE_PLAYBOOK_RESULT)
-                            .and(pe.EVENT_SEQ.greaterThan(marker.eventSeq())));
+                    .where(filter);
 
             return q.orderBy(pe.EVENT_SEQ)
                     .limit(count)
@@ -0,0 +1,57 @@
+package com.walmartlabs.concord.server.plugins.ansible;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import com.codahale.metrics.Gauge;
+import com.google.inject.AbstractModule;
+import com.google.inject.Provider;
+import com.google.inject.multibindings.Multibinder;
+import com.walmartlabs.concord.server.sdk.metrics.GaugeProvider;
+
+import javax.inject.Named;
+import java.util.function.Function;
+
+@Named
+public class EventFetcherGaugeModule extends AbstractModule {
+
+    @Override
+    protected void configure() {
+        Provider<EventFetcherLag> lagProvider = getProvider(EventFetcherLag.class);
+
+        Multibinder<GaugeProvider> gauges = Multibinder.newSetBinder(binder(), GaugeProvider.class);
+        gauges.addBinding().toInstance(create("ansible-event-processor-lag", lagProvider, EventFetcherLag::getMaxLag));
+        gauges.addBinding().toInstance(create("ansible-event-processor-lag-ms", lagProvider, EventFetcherLag::getMaxLagMs));
+    }
+
+    private static GaugeProvider<Long> create(String name, Provider<EventFetcherLag> lagProvider, Function<EventFetcherLag, Long> f) {
+        return new GaugeProvider<Long>() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public Gauge<Long> gauge() {
+                return () -> f.apply(lagProvider.get());
+            }
+        };
+    }
+}
@@ -0,0 +1,58 @@
+package com.walmartlabs.concord.server.plugins.ansible;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of how far behind each partition of {@link EventFetcher} is.
+ */
+@Named
+@Singleton
+public class EventFetcherLag {
+
+    private final Map<Integer, Long> lags = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> lagsMs = new ConcurrentHashMap<>();
+
+    public void update(int partition, long lag, long lagMs) {
+        lags.put(partition, lag);
+        lagsMs.put(partition, lagMs);
+    }
+
+    /**
+     * @return the max number of unprocessed events across all partitions.
+     * The number is capped, see {@link EventFetcher}.
+     */
+    public long getMaxLag() {
+        return lags.values().stream().mapToLong(Long::longValue).max().orElse(0);
+    }
+
+    /**
+     * @return the max processing delay (ms) across all partitions: the age
+     * of the oldest event in the last processed batch.
+     */
+    public long getMaxLagMs() {
+        return lagsMs.values().stream().mapToLong(Long::longValue).max().orElse(0);
+    }
+}
@@ -30,9 +30,13 @@ import org.jooq.Record1;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 
 import static com.walmartlabs.concord.server.jooq.Tables.EVENT_PROCESSOR_MARKER;
 import static com.walmartlabs.concord.server.jooq.Tables.PROCESS_EVENTS;
+import static org.jooq.impl.DSL.escape;
 import static org.jooq.impl.DSL.max;
 import static org.jooq.impl.DSL.value;
 
@@ -73,6 +77,37 @@ public class EventMarkerDao extends AbstractDao {
                 .build();
     }
 
+    /**
+     * Returns all markers of the specified processor: the marker with
+     * the processor's name and the partition markers ({@code <name>-<n>-of-<total>}).
+     */
+    public Map<String, Long> list(String processorName) {
+        EventProcessorMarker m = EVENT_PROCESSOR_MARKER.as("m");
+
+        Map<String, Long> result = new HashMap<>();
+        tx(tx -> tx.select(m.PROCESSOR_NAME, m.EVENT_SEQ)
+                .from(m)
+                .where(m.PROCESSOR_NAME.eq(processorName)
+                        .or(m.PROCESSOR_NAME.like(escape(processorName, '!') + "-%-of-%", '!')))
+                .forEach(r -> result.put(r.value1(), r.value2() != null ? r.value2() : -1L)));
+        return result;
+    }
+
+    /**
+     * Removes the specified markers and creates new ones at the specified position.
+     */
+    public void replace(DSLContext tx, Collection<String> oldNames, Collection<String> newNames, long eventSeq) {
+        EventProcessorMarker m = EVENT_PROCESSOR_MARKER.as("m");
+
+        tx.deleteFrom(m)
+                .where(m.PROCESSOR_NAME.in(oldNames))
+                .execute();
+
+        for (String n : newNames) {
+            update(tx, n, eventSeq);
+        }
+    }
+
     public void update(DSLContext tx, String processorName, long eventSeq) {
         EventProcessorMarker m = EVENT_PROCESSOR_MARKER.as("m");
         tx.insertInto(m)
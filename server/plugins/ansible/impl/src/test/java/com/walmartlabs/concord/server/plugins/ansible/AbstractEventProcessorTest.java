@@ -0,0 +1,276 @@
+package com.walmartlabs.concord.server.plugins.ansible;
+
+/*-
+ * *****
+ * Concord
+ * -----
+ * Copyright (C) 2017 - 2020 Walmart Inc.
+ * -----
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =====
+ */
+
+import org.jooq.DSLContext;
+import org.junit.Test;
+
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class AbstractEventProcessorTest {
+
+    private static final String PROCESSOR_NAME = "test";
+
+    @Test
+    public void testMarkerNames() {
+        assertEquals("test", AbstractEventProcessor.getMarkerName(PROCESSOR_NAME, 0, 1));
+        assertEquals("test-2-of-4", AbstractEventProcessor.getMarkerName(PROCESSOR_NAME, 2, 4));
+
+        assertEquals(1, AbstractEventProcessor.parsePartitions(PROCESSOR_NAME, "test"));
+        assertEquals(4, AbstractEventProcessor.parsePartitions(PROCESSOR_NAME, "test-2-of-4"));
+    }
+
+    @Test
+    public void testPartitionKeys() {
+        for (int partitions : new int[]{1, 3, 4, 7}) {
+            List<Integer> all = new ArrayList<>();
+            for (int i = 0; i < partitions; i++) {
+                for (int k : EventFetcher.AnsibleEventDao.partitionKeys(i, partitions)) {
+                    assertEquals(i, k % partitions);
+                    all.add(k);
+                }
+            }
+
+            Collections.sort(all);
+            assertEquals(256, all.size());
+            for (int i = 0; i < 256; i++) {
+                assertEquals(i, (int) all.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testRepartition() throws Exception {
+        Events events = new Events();
+        InMemoryMarkerDao dao = new InMemoryMarkerDao(events);
+
+        events.add(100);
+        run(new TestProcessor(dao, events, 1));
+        assertEquals(Collections.singleton(PROCESSOR_NAME), dao.markers.keySet());
+
+        events.add(100);
+        run(new TestProcessor(dao, events, 4));
+        assertEquals(markerNames(4), dao.markers.keySet());
+
+        events.add(100);
+        run(new TestProcessor(dao, events, 3));
+        assertEquals(markerNames(3), dao.markers.keySet());
+
+        events.add(100);
+        run(new TestProcessor(dao, events, 1));
+        assertEquals(Collections.singleton(PROCESSOR_NAME), dao.markers.keySet());
+
+        events.assertProcessedOnce();
+    }
+
+    @Test
+    public void testRepartitionUnevenMarkers() throws Exception {
+        Events events = new Events();
+        events.add(200);
+
+        // the old partitions stopped at different positions
+        InMemoryMarkerDao dao = new InMemoryMarkerDao(events);
+        for (TestEvent e : events.all) {
+            if ((e.eventSeq() <= 50 && e.key % 2 == 0) || (e.eventSeq() <= 150 && e.key % 2 == 1)) {
+                events.processed(e);
+            }
+        }
+        dao.markers.put(AbstractEventProcessor.getMarkerName(PROCESSOR_NAME, 0, 2), 50L);
+        dao.markers.put(AbstractEventProcessor.getMarkerName(PROCESSOR_NAME, 1, 2), 150L);
+
+        run(new TestProcessor(dao, events, 3));
+
+        assertEquals(markerNames(3), dao.markers.keySet());
+        events.assertProcessedOnce();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMixedMarkers() throws Exception {
+        Events events = new Events();
+        events.add(10);
+
+        InMemoryMarkerDao dao = new InMemoryMarkerDao(events);
+        dao.markers.put(PROCESSOR_NAME, 5L);
+        dao.markers.put(AbstractEventProcessor.getMarkerName(PROCESSOR_NAME, 0, 2), 5L);
+
+        run(new TestProcessor(dao, events, 2));
+    }
+
+    private static void run(TestProcessor p) throws Exception {
+        try {
+            p.performTask();
+        } finally {
+            p.stop();
+        }
+    }
+
+    private static Set<String> markerNames(int partitions) {
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i < partitions; i++) {
+            result.add(AbstractEventProcessor.getMarkerName(PROCESSOR_NAME, i, partitions));
+        }
+        return result;
+    }
+
+    private static class TestEvent implements AbstractEventProcessor.Event {
+
+        private final long eventSeq;
+        private final int key;
+
+        private TestEvent(long eventSeq, int key) {
+            this.eventSeq = eventSeq;
+            this.key = key;
+        }
+
+        @Override
+        public long eventSeq() {
+            return eventSeq;
+        }
+
+        @Override
+        public Timestamp eventDate() {
+            return new Timestamp(System.currentTimeMillis());
+        }
+    }
+
+    private static class Events {
+
+        private final List<TestEvent> all = new ArrayList<>();
+        private final Map<Long, Integer> processed = new ConcurrentHashMap<>();
+        private final Random rnd = new Random(123);
+
+        public synchronized void add(int count) {
+            for (int i = 0; i < count; i++) {
+                all.add(new TestEvent(all.size(), rnd.nextInt(256)));
+            }
+        }
+
+        public synchronized long maxEventSeq() {
+            return all.size() - 1;
+        }
+
+        public synchronized List<TestEvent> list(long after, long max, int partition, int partitions, int limit) {
+            return all.stream()
+                    .filter(e -> e.eventSeq > after && e.eventSeq <= max && e.key % partitions == partition)
+                    .limit(limit)
+                    .collect(Collectors.toList());
+        }
+
+        public void processed(TestEvent e) {
+            processed.merge(e.eventSeq, 1, Integer::sum);
+        }
+
+        public synchronized void assertProcessedOnce() {
+            for (TestEvent e : all) {
+                assertEquals("event #" + e.eventSeq, Integer.valueOf(1), processed.get(e.eventSeq));
+            }
+        }
+    }
+
+    private static class TestProcessor extends AbstractEventProcessor<TestEvent> {
+
+        private final Events events;
+
+        private TestProcessor(EventMarkerDao dao, Events events, int partitions) {
+            super(PROCESSOR_NAME, dao, 7, partitions);
+            this.events = events;
+        }
+
+        @Override
+        public long getIntervalInSec() {
+            return 0;
+        }
+
+        @Override
+        protected List<TestEvent> processEvents(DSLContext tx, EventMarkerDao.EventMarker m, int partition, int partitions, int fetchLimit) {
+            List<TestEvent> result = events.list(m.eventSeq(), m.maxEventSeq(), partition, partitions, fetchLimit);
+            result.forEach(events::processed);
+            return result;
+        }
+
+        @Override
+        protected long countEvents(DSLContext tx, long afterEventSeq, long maxEventSeq, int partition, int partitions) {
+            return events.list(afterEventSeq, maxEventSeq, partition, partitions, Integer.MAX_VALUE).size();
+        }
+    }
+
+    private static class InMemoryMarkerDao extends EventMarkerDao {
+
+        private final Map<String, Long> markers = new ConcurrentHashMap<>();
+        private final Events events;
+
+        private InMemoryMarkerDao(Events events) {
+            super(null);
+            this.events = events;
+        }
+
+        @Override
+        public void tx(Tx t) {
+            try {
+                t.run(null);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public <T> T txResult(TxResult<T> t) {
+            try {
+                return t.run(null);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public EventMarker get(String processorName) {
+            return EventMarker.builder()
+                    .eventSeq(markers.getOrDefault(processorName, -1L))
+                    .maxEventSeq(events.maxEventSeq())
+                    .build();
+        }
+
+        @Override
+        public Map<String, Long> list(String processorName) {
+            return new HashMap<>(markers);
+        }
+
+        @Override
+        public void replace(DSLContext tx, Collection<String> oldNames, Collection<String> newNames, long eventSeq) {
+            oldNames.forEach(markers::remove);
+            newNames.forEach(n -> markers.put(n, eventSeq));
+        }
+
+        @Override
+        public void update(DSLContext tx, String processorName, long eventSeq) {
+            markers.put(processorName, eventSeq);
+        }
+    }
+}